@@ -0,0 +1,31 @@
+package org.gbif.pipelines.common.configs;
+
+import com.beust.jcommander.Parameter;
+import lombok.ToString;
+
+/**
+ * Small datasets are collected for a short window and processed in one Spark application, see
+ * {@link org.gbif.pipelines.crawler.SparkBatchRunner}
+ */
+@ToString
+public class SparkBatchConfiguration {
+
+  /** Datasets with at most this number of records are batched, empty value disables batching */
+  @Parameter(names = "--spark-batch-records-threshold")
+  public Long recordsThreshold;
+
+  /** How long the first dataset of a batch waits for the others */
+  @Parameter(names = "--spark-batch-window-ms")
+  public long windowMs = 30_000L;
+
+  /** The batch starts before the window ends when it has this number of datasets */
+  @Parameter(names = "--spark-batch-max-size")
+  public int maxSize = 10;
+
+  @Parameter(names = "--spark-batch-main-class")
+  public String mainClass = "org.gbif.pipelines.ingest.pipelines.SparkBatchPipeline";
+
+  /** Directory for the batch files, repository path + /batches by default */
+  @Parameter(names = "--spark-batch-path")
+  public String path;
+}
@@ -4,8 +4,10 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.base.Strings;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -165,6 +167,27 @@ public class HdfsUtils {
     return String.join(org.apache.hadoop.fs.Path.SEPARATOR, values);
   }
 
+  /**
+   * Writes the lines to the file, the file is overwritten if it exists
+   *
+   * @param hdfsSiteConfig path to hdfs-site.xml config file
+   * @param coreSiteConfig path to core-site.xml config file
+   * @param filePath path to the file
+   * @param lines lines to write
+   */
+  public static void createFile(
+      String hdfsSiteConfig, String coreSiteConfig, String filePath, List<String> lines)
+      throws IOException {
+    FileSystem fs = getFileSystem(hdfsSiteConfig, coreSiteConfig, filePath);
+    try (BufferedWriter bw =
+        new BufferedWriter(new OutputStreamWriter(fs.create(new Path(filePath), true), UTF_8))) {
+      for (String line : lines) {
+        bw.write(line);
+        bw.newLine();
+      }
+    }
+  }
+
   /** Delete HDFS directory */
   public static boolean deleteDirectory(
       String hdfsSiteConfig, String coreSiteConfig, String filePath) {
@@ -0,0 +1,234 @@
+package org.gbif.pipelines.crawler;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.api.model.pipelines.StepType;
+import org.gbif.pipelines.common.configs.DistributedConfiguration;
+import org.gbif.pipelines.common.configs.SparkBatchConfiguration;
+import org.gbif.pipelines.common.configs.SparkConfiguration;
+import org.gbif.pipelines.common.configs.StepConfiguration;
+import org.gbif.pipelines.common.utils.HdfsUtils;
+
+/**
+ * Collects small datasets for {@link SparkBatchConfiguration#windowMs} and runs them in one Spark
+ * application, instead of one spark2-submit per dataset.
+ *
+ * <p>Every message is still handled by its own listener thread, the thread waits in {@link
+ * #run(Entry)} until the batch has finished, so the status, history and outgoing message of every
+ * dataset are handled by {@link PipelinesCallback} as usual. The first dataset of a batch waits
+ * for the others and submits the batch, a failed dataset fails only its own message.
+ */
+@Slf4j
+public class SparkBatchRunner {
+
+  private static final String DELIMITER = " ";
+
+  /** Must be the same as SparkBatchPipeline#RESULT_SUFFIX in ingest-gbif-beam */
+  private static final String RESULT_SUFFIX = "-result.yml";
+
+  private final StepType stepType;
+  private final StepConfiguration stepConfig;
+  private final SparkConfiguration sparkConfig;
+  private final DistributedConfiguration distributedConfig;
+  private final SparkBatchConfiguration batchConfig;
+
+  private Batch current;
+
+  public SparkBatchRunner(
+      StepType stepType,
+      StepConfiguration stepConfig,
+      SparkConfiguration sparkConfig,
+      DistributedConfiguration distributedConfig,
+      SparkBatchConfiguration batchConfig) {
+    this.stepType = stepType;
+    this.stepConfig = stepConfig;
+    this.sparkConfig = sparkConfig;
+    this.distributedConfig = distributedConfig;
+    this.batchConfig = batchConfig;
+  }
+
+  /** Checks if a dataset with the number of records goes to a batch */
+  public boolean isBatched(long recordsNumber) {
+    return batchConfig != null
+        && batchConfig.recordsThreshold != null
+        && recordsNumber <= batchConfig.recordsThreshold;
+  }
+
+  /** Adds the dataset to the current batch and waits until the batch has finished */
+  public void run(Entry entry) throws InterruptedException {
+    boolean first;
+    Batch batch;
+    synchronized (this) {
+      first = current == null;
+      if (first) {
+        current = new Batch();
+      }
+      batch = current;
+      batch.entries.add(entry);
+      if (batch.entries.size() >= batchConfig.maxSize) {
+        current = null;
+        batch.full.countDown();
+      }
+    }
+
+    // The other datasets of the batch wait for the first one, the batch must run in any case
+    if (first) {
+      try {
+        batch.full.await(batchConfig.windowMs, TimeUnit.MILLISECONDS);
+      } finally {
+        synchronized (this) {
+          if (current == batch) {
+            current = null;
+          }
+        }
+        runBatch(batch.entries);
+      }
+    }
+
+    boolean succeeded;
+    try {
+      succeeded = entry.result.get();
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Failed batch for " + entry.getKey(), ex.getCause());
+    }
+    if (!succeeded) {
+      throw new IllegalStateException("Failed " + stepType + " in batch for " + entry.getKey());
+    }
+  }
+
+  /** Writes the batch file, runs the Spark application and reads the result of every dataset */
+  private void runBatch(List<Entry> entries) {
+    String dir =
+        Optional.ofNullable(batchConfig.path).orElse(stepConfig.repositoryPath + "/batches");
+    String batchPath = String.join("/", dir, stepType.name() + "_" + UUID.randomUUID() + ".txt");
+    String resultPath = batchPath + RESULT_SUFFIX;
+
+    log.info("Start the batch of {} datasets - {}", entries.size(), batchPath);
+    try {
+      List<String> lines =
+          entries.stream()
+              .map(e -> String.join(DELIMITER, e.getOptions()))
+              .collect(Collectors.toList());
+      HdfsUtils.createFile(stepConfig.hdfsSiteConfig, stepConfig.coreSiteConfig, batchPath, lines);
+
+      int exitValue = buildSpark(entries, batchPath).start().waitFor();
+      if (exitValue != 0) {
+        log.warn("Batch process has been finished with exit value - {}", exitValue);
+      } else {
+        log.info("Batch process has been finished with exit value - {}", exitValue);
+      }
+
+      // Datasets finished before a crash of the application keep their result
+      for (Entry entry : entries) {
+        String value =
+            HdfsUtils.getValueByKey(
+                stepConfig.hdfsSiteConfig, stepConfig.coreSiteConfig, resultPath, entry.getKey());
+        entry.result.complete(Boolean.parseBoolean(value));
+      }
+    } catch (Exception ex) {
+      log.error(ex.getMessage(), ex);
+      entries.forEach(e -> e.result.completeExceptionally(ex));
+      if (ex instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      entries.forEach(e -> e.result.complete(false));
+      HdfsUtils.deleteDirectory(stepConfig.hdfsSiteConfig, stepConfig.coreSiteConfig, batchPath);
+      HdfsUtils.deleteDirectory(stepConfig.hdfsSiteConfig, stepConfig.coreSiteConfig, resultPath);
+    }
+  }
+
+  /** Builds ProcessBuilder to process spark command, resources are the largest of the batch */
+  private ProcessBuilder buildSpark(List<Entry> entries, String batchPath) {
+    StringJoiner joiner = new StringJoiner(DELIMITER).add("spark2-submit");
+
+    Optional.ofNullable(distributedConfig.metricsPropertiesPath)
+        .ifPresent(x -> joiner.add("--conf spark.metrics.conf=" + x));
+    Optional.ofNullable(distributedConfig.extraClassPath)
+        .ifPresent(x -> joiner.add("--conf \"spark.driver.extraClassPath=" + x + "\""));
+    Optional.ofNullable(distributedConfig.driverJavaOptions)
+        .ifPresent(x -> joiner.add("--driver-java-options \"" + x + "\""));
+    Optional.ofNullable(distributedConfig.yarnQueue).ifPresent(x -> joiner.add("--queue " + x));
+
+    ToIntFunction<Entry> memoryFn =
+        e -> Integer.parseInt(e.getSparkExecutorMemory().replace("G", ""));
+    int parallelism = max(entries, Entry::getSparkParallelism);
+    int executorNumbers = max(entries, Entry::getSparkExecutorNumbers);
+    int executorMemory = max(entries, memoryFn);
+
+    joiner
+        .add("--conf spark.default.parallelism=" + parallelism)
+        .add("--conf spark.executor.memoryOverhead=" + sparkConfig.memoryOverhead)
+        .add("--conf spark.dynamicAllocation.enabled=false")
+        .add("--conf spark.yarn.am.waitTime=360s")
+        .add("--class " + Objects.requireNonNull(batchConfig.mainClass))
+        .add("--master yarn")
+        .add("--deploy-mode " + Objects.requireNonNull(distributedConfig.deployMode))
+        .add("--executor-memory " + executorMemory + "G")
+        .add("--executor-cores " + sparkConfig.executorCores)
+        .add("--num-executors " + executorNumbers)
+        .add("--driver-memory " + sparkConfig.driverMemory)
+        .add(Objects.requireNonNull(distributedConfig.jarPath))
+        .add(stepType.name())
+        .add(batchPath)
+        .add(Objects.requireNonNull(stepConfig.hdfsSiteConfig))
+        .add(Objects.requireNonNull(stepConfig.coreSiteConfig));
+
+    // Adds user name to run a command if it is necessary
+    StringJoiner command = new StringJoiner(DELIMITER);
+    Optional.ofNullable(distributedConfig.otherUser).ifPresent(x -> command.add("sudo -u " + x));
+    command.merge(joiner);
+
+    String result = command.toString();
+    log.info("Command - {}", result);
+
+    ProcessBuilder builder = new ProcessBuilder("/bin/bash", "-c", result);
+
+    builder.redirectError(new File("/dev/null"));
+    builder.redirectOutput(new File("/dev/null"));
+
+    return builder;
+  }
+
+  private static int max(List<Entry> entries, ToIntFunction<Entry> fn) {
+    return entries.stream().max(Comparator.comparingInt(fn)).map(fn::applyAsInt).orElse(1);
+  }
+
+  private static class Batch {
+    private final List<Entry> entries = new ArrayList<>();
+    private final CountDownLatch full = new CountDownLatch(1);
+  }
+
+  /** A dataset of a batch, options are the same as the dataset's own spark2-submit would get */
+  @Value
+  @Builder
+  public static class Entry {
+    @NonNull String datasetId;
+    int attempt;
+    @NonNull String[] options;
+    int sparkParallelism;
+    int sparkExecutorNumbers;
+    @NonNull String sparkExecutorMemory;
+    CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    String getKey() {
+      return datasetId + "_" + attempt;
+    }
+  }
+}
@@ -31,6 +31,12 @@ public class BalancerCallback extends AbstractMessageCallback<PipelinesBalancerM
   @NonNull private final BalancerConfiguration config;
   private final MessagePublisher publisher;
 
+  /** Optional, orders the interpretation messages by dataset size, see {@link BalancerScheduler} */
+  private final BalancerScheduler<PipelinesVerbatimMessage> scheduler;
+
+  /** Keeps the scheduler queue, required with the scheduler */
+  private final BalancerQueueFile queueFile;
+
   /** Handles a MQ {@link PipelinesBalancerMessage} message */
   @Override
   public void handleMessage(PipelinesBalancerMessage message) {
@@ -41,13 +47,13 @@ public class BalancerCallback extends AbstractMessageCallback<PipelinesBalancerM
     // Select handler by message class name
     try {
       if (PipelinesVerbatimMessage.class.getSimpleName().equals(className)) {
-        VerbatimMessageHandler.handle(config, publisher, message);
+        VerbatimMessageHandler.handle(config, publisher, scheduler, message);
       } else if (PipelinesInterpretedMessage.class.getSimpleName().equals(className)) {
-        InterpretedMessageHandler.handle(config, publisher, message);
+        InterpretedMessageHandler.handle(config, publisher, scheduler, message);
       } else if (PipelinesIndexedMessage.class.getSimpleName().equals(className)) {
-        PipelinesIndexedMessageHandler.handle(publisher, message);
+        PipelinesIndexedMessageHandler.handle(publisher, scheduler, message);
       } else if (PipelinesHdfsViewBuiltMessage.class.getSimpleName().equals(className)) {
-        PipelinesHdfsViewBuiltMessageHandler.handle(publisher, message);
+        PipelinesHdfsViewBuiltMessageHandler.handle(publisher, scheduler, message);
       } else {
         log.error("Handler for {} wasn't found!", className);
       }
@@ -55,6 +61,38 @@ public class BalancerCallback extends AbstractMessageCallback<PipelinesBalancerM
       log.error("Exception during balancing the message", ex);
     }
 
+    // The message is acknowledged when the handler returns, the queue must be saved before
+    dispatch();
+
     log.info("Message handler ended - {}", message);
   }
+
+  /** Sends the interpretation messages which the scheduler allows to send now */
+  public void dispatch() {
+    if (scheduler == null) {
+      return;
+    }
+    for (PipelinesVerbatimMessage m : scheduler.poll(System.currentTimeMillis())) {
+      send(m);
+    }
+    saveQueue();
+  }
+
+  /** Saves the queued interpretation messages, they are queued again when the balancer starts */
+  private synchronized void saveQueue() {
+    try {
+      queueFile.save(scheduler.getQueued());
+    } catch (IOException ex) {
+      log.error("Exception during saving the balancer queue", ex);
+    }
+  }
+
+  private void send(PipelinesVerbatimMessage m) {
+    try {
+      publisher.send(m);
+      log.info("The message has been sent - {}", m);
+    } catch (IOException ex) {
+      log.error("Exception during sending the message {}", m, ex);
+    }
+  }
 }
@@ -28,4 +28,56 @@ public class BalancerConfiguration {
   @NotNull
   @Min(1)
   public int switchRecordsNumber;
+
+  /**
+   * Datasets with at least this number of records are large, at most maxConcurrentLargeJobs of
+   * them are interpreted at a time, see {@link BalancerScheduler}. Empty value disables the
+   * scheduler and the messages are sent right away
+   */
+  @Parameter(names = "--large-records-number")
+  public Long largeRecordsNumber;
+
+  /** Datasets which are expected to run longer are large, using the runtime of the last run */
+  @Parameter(names = "--large-runtime-minutes")
+  public long largeRuntimeMinutes = 120L;
+
+  @Parameter(names = "--max-concurrent-large-jobs")
+  @Min(1)
+  public int maxConcurrentLargeJobs = 2;
+
+  /**
+   * Datasets of all size classes sent and not finished yet, the capacity of the interpretation
+   * services. The queued datasets wait in the balancer and the weights decide which one is next
+   */
+  @Parameter(names = "--max-in-flight-jobs")
+  @Min(1)
+  public int maxInFlightJobs = 20;
+
+  /** A small or medium job without the finish message releases its slot after this time */
+  @Parameter(names = "--job-expire-minutes")
+  public long jobExpireMinutes = 180L;
+
+  /** A large job without the finish message releases its slot after this time */
+  @Parameter(names = "--large-job-expire-hours")
+  public long largeJobExpireHours = 24L;
+
+  /**
+   * Local file with the queued messages, required by the scheduler. A message is acknowledged in
+   * RabbitMQ once it is queued, the file keeps the queue when the balancer stops or fails and the
+   * messages are queued again on start
+   */
+  @Parameter(names = "--queue-file")
+  public String queueFile;
+
+  @Parameter(names = "--small-weight")
+  @Min(1)
+  public int smallWeight = 6;
+
+  @Parameter(names = "--medium-weight")
+  @Min(1)
+  public int mediumWeight = 3;
+
+  @Parameter(names = "--large-weight")
+  @Min(1)
+  public int largeWeight = 1;
 }
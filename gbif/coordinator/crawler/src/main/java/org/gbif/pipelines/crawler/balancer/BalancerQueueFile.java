@@ -0,0 +1,75 @@
+package org.gbif.pipelines.crawler.balancer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.Job;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.SizeClass;
+
+/**
+ * Keeps the messages queued by the {@link BalancerScheduler} in a local file, one JSON line per
+ * message with its size class and number of records.
+ *
+ * <p>The balancer acknowledges a message in RabbitMQ once it is queued, so the queue is saved
+ * before the message handler returns and is loaded again when the balancer starts.
+ */
+@AllArgsConstructor
+public class BalancerQueueFile {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @NonNull private final Path path;
+
+  /** Replaces the saved queue, the file is written next to the old one and moved over it */
+  public synchronized void save(List<Job<PipelinesVerbatimMessage>> jobs) throws IOException {
+    Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8)) {
+      for (Job<PipelinesVerbatimMessage> job : jobs) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("sizeClass", job.getSizeClass().name());
+        node.put("recordsNumber", job.getRecordsNumber());
+        node.put("message", MAPPER.writeValueAsString(job.getPayload()));
+        writer.write(MAPPER.writeValueAsString(node));
+        writer.newLine();
+      }
+    }
+    Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** Reads the saved queue, empty if the file doesn't exist */
+  public synchronized List<Job<PipelinesVerbatimMessage>> load() throws IOException {
+    if (!Files.exists(path)) {
+      return Collections.emptyList();
+    }
+    List<Job<PipelinesVerbatimMessage>> jobs = new ArrayList<>();
+    for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      JsonNode node = MAPPER.readTree(line);
+      PipelinesVerbatimMessage message =
+          MAPPER.readValue(node.get("message").asText(), PipelinesVerbatimMessage.class);
+      jobs.add(
+          Job.<PipelinesVerbatimMessage>builder()
+              .datasetId(message.getDatasetUuid().toString())
+              .attempt(message.getAttempt())
+              .recordsNumber(node.get("recordsNumber").asLong())
+              .sizeClass(SizeClass.valueOf(node.get("sizeClass").asText()))
+              .payload(message)
+              .build());
+    }
+    return jobs;
+  }
+}
@@ -0,0 +1,256 @@
+package org.gbif.pipelines.crawler.balancer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.api.model.pipelines.StepRunner;
+
+/**
+ * Orders the interpretation messages by dataset size class, the balancer sends the messages in the
+ * order returned by {@link #poll(long)}.
+ *
+ * <p>Every size class has its own queue, the queues are served by smooth weighted round robin. At
+ * most maxInFlightJobs datasets of all classes are sent and not finished at a time, so the jobs
+ * wait here and the weights decide which class takes a free slot. At most maxConcurrentLargeJobs
+ * of the sent datasets are large. A slot is released when the dataset has finished the
+ * interpretation, or the indexing or HDFS view step for datasets whose steps run fused with the
+ * interpretation, or has been running for longer than expireMs (largeExpireMs for large
+ * datasets), so a failed job doesn't keep its slot.
+ *
+ * <p>The size class comes from the runtime of the dataset's last run scaled by the number of
+ * records, datasets without a run since the balancer start are classified by the number of records.
+ */
+@Slf4j
+public class BalancerScheduler<T> {
+
+  public enum SizeClass {
+    SMALL,
+    MEDIUM,
+    LARGE
+  }
+
+  private final long largeRecordsNumber;
+  private final long largeRuntimeMs;
+  private final int maxConcurrentLargeJobs;
+  private final int maxInFlightJobs;
+  private final long expireMs;
+  private final long largeExpireMs;
+  private final Map<SizeClass, Integer> weights = new EnumMap<>(SizeClass.class);
+
+  private final Map<SizeClass, Deque<Job<T>>> queues = new EnumMap<>(SizeClass.class);
+  private final Map<SizeClass, Integer> credits = new EnumMap<>(SizeClass.class);
+  private final Map<String, Dispatched<T>> running = new HashMap<>();
+  private final Map<String, LastRun> lastRuns = new HashMap<>();
+  private int runningLarge;
+
+  @Builder
+  private BalancerScheduler(
+      long largeRecordsNumber,
+      long largeRuntimeMs,
+      int maxConcurrentLargeJobs,
+      int maxInFlightJobs,
+      long expireMs,
+      long largeExpireMs,
+      int smallWeight,
+      int mediumWeight,
+      int largeWeight) {
+    this.largeRecordsNumber = largeRecordsNumber;
+    this.largeRuntimeMs = largeRuntimeMs;
+    this.maxConcurrentLargeJobs = maxConcurrentLargeJobs;
+    this.maxInFlightJobs = maxInFlightJobs;
+    this.expireMs = expireMs;
+    this.largeExpireMs = largeExpireMs;
+    this.weights.put(SizeClass.SMALL, smallWeight);
+    this.weights.put(SizeClass.MEDIUM, mediumWeight);
+    this.weights.put(SizeClass.LARGE, largeWeight);
+    for (SizeClass sizeClass : SizeClass.values()) {
+      queues.put(sizeClass, new ArrayDeque<>());
+      credits.put(sizeClass, 0);
+    }
+  }
+
+  /** Creates the scheduler using the balancer configuration, null if the scheduler is disabled */
+  public static <T> BalancerScheduler<T> create(BalancerConfiguration config) {
+    if (config.largeRecordsNumber == null) {
+      return null;
+    }
+    return BalancerScheduler.<T>builder()
+        .largeRecordsNumber(config.largeRecordsNumber)
+        .largeRuntimeMs(TimeUnit.MINUTES.toMillis(config.largeRuntimeMinutes))
+        .maxConcurrentLargeJobs(config.maxConcurrentLargeJobs)
+        .maxInFlightJobs(config.maxInFlightJobs)
+        .expireMs(TimeUnit.MINUTES.toMillis(config.jobExpireMinutes))
+        .largeExpireMs(TimeUnit.HOURS.toMillis(config.largeJobExpireHours))
+        .smallWeight(config.smallWeight)
+        .mediumWeight(config.mediumWeight)
+        .largeWeight(config.largeWeight)
+        .build();
+  }
+
+  /** Datasets for the standalone runner are small, large ones run or are expected to run long */
+  public synchronized SizeClass classify(String datasetId, long recordsNumber, StepRunner runner) {
+    if (runner == StepRunner.STANDALONE) {
+      return SizeClass.SMALL;
+    }
+    if (recordsNumber >= largeRecordsNumber) {
+      return SizeClass.LARGE;
+    }
+    return estimateRuntimeMs(datasetId, recordsNumber) >= largeRuntimeMs
+        ? SizeClass.LARGE
+        : SizeClass.MEDIUM;
+  }
+
+  /** Runtime of the last run scaled by the number of records, -1 if the dataset hasn't run yet */
+  public synchronized long estimateRuntimeMs(String datasetId, long recordsNumber) {
+    LastRun lastRun = lastRuns.get(datasetId);
+    if (lastRun == null || lastRun.getRecordsNumber() <= 0) {
+      return -1L;
+    }
+    return (long) ((double) lastRun.getRuntimeMs() * recordsNumber / lastRun.getRecordsNumber());
+  }
+
+  public synchronized void offer(Job<T> job) {
+    queues.get(job.getSizeClass()).add(job);
+  }
+
+  /** Returns the jobs which can be sent now, in the order to send, up to the free slots */
+  public synchronized List<T> poll(long now) {
+    expire(now);
+
+    List<T> result = new ArrayList<>();
+    SizeClass sizeClass;
+    while ((sizeClass = next()) != null) {
+      Job<T> job = queues.get(sizeClass).poll();
+      running.put(job.getKey(), new Dispatched<>(job, now));
+      if (sizeClass == SizeClass.LARGE) {
+        runningLarge++;
+      }
+      result.add(job.getPayload());
+    }
+    return result;
+  }
+
+  /** Jobs waiting to be sent, by size class and in the queue order */
+  public synchronized List<Job<T>> getQueued() {
+    List<Job<T>> result = new ArrayList<>();
+    queues.values().forEach(result::addAll);
+    return result;
+  }
+
+  /**
+   * The dataset has finished the interpretation or the fused steps, the runtime is kept for its
+   * next run. Finishing a dataset which isn't running does nothing
+   */
+  public synchronized void finish(String datasetId, int attempt, long now) {
+    Dispatched<T> dispatched = running.remove(Job.key(datasetId, attempt));
+    if (dispatched == null) {
+      return;
+    }
+    if (dispatched.getJob().getSizeClass() == SizeClass.LARGE) {
+      runningLarge--;
+    }
+    long runtimeMs = now - dispatched.getTime();
+    lastRuns.put(datasetId, new LastRun(dispatched.getJob().getRecordsNumber(), runtimeMs));
+    log.info("Dataset {} has finished in {} ms", dispatched.getJob().getKey(), runtimeMs);
+  }
+
+  public synchronized int getQueuedNumber(SizeClass sizeClass) {
+    return queues.get(sizeClass).size();
+  }
+
+  public synchronized int getRunningLargeNumber() {
+    return runningLarge;
+  }
+
+  public synchronized int getRunningNumber() {
+    return running.size();
+  }
+
+  /** Smooth weighted round robin over the queues which have a job to send */
+  private SizeClass next() {
+    SizeClass best = null;
+    int total = 0;
+    for (SizeClass sizeClass : SizeClass.values()) {
+      if (!isEligible(sizeClass)) {
+        continue;
+      }
+      int weight = weights.get(sizeClass);
+      credits.merge(sizeClass, weight, Integer::sum);
+      total += weight;
+      if (best == null || credits.get(sizeClass) > credits.get(best)) {
+        best = sizeClass;
+      }
+    }
+    if (best != null) {
+      credits.merge(best, -total, Integer::sum);
+    }
+    return best;
+  }
+
+  private boolean isEligible(SizeClass sizeClass) {
+    if (queues.get(sizeClass).isEmpty()) {
+      credits.put(sizeClass, 0);
+      return false;
+    }
+    if (running.size() >= maxInFlightJobs) {
+      return false;
+    }
+    return sizeClass != SizeClass.LARGE || runningLarge < maxConcurrentLargeJobs;
+  }
+
+  /** Releases the jobs without the finish message, they have probably failed */
+  private void expire(long now) {
+    Iterator<Dispatched<T>> iterator = running.values().iterator();
+    while (iterator.hasNext()) {
+      Dispatched<T> dispatched = iterator.next();
+      boolean isLarge = dispatched.getJob().getSizeClass() == SizeClass.LARGE;
+      if (now - dispatched.getTime() > (isLarge ? largeExpireMs : expireMs)) {
+        log.warn("Dataset {} has no finish message, releasing it", dispatched.getJob().getKey());
+        iterator.remove();
+        if (isLarge) {
+          runningLarge--;
+        }
+      }
+    }
+  }
+
+  @Value
+  @Builder
+  public static class Job<T> {
+    @NonNull String datasetId;
+    int attempt;
+    long recordsNumber;
+    @NonNull SizeClass sizeClass;
+    T payload;
+
+    String getKey() {
+      return key(datasetId, attempt);
+    }
+
+    static String key(String datasetId, int attempt) {
+      return datasetId + "_" + attempt;
+    }
+  }
+
+  @Value
+  private static class Dispatched<T> {
+    Job<T> job;
+    long time;
+  }
+
+  @Value
+  private static class LastRun {
+    long recordsNumber;
+    long runtimeMs;
+  }
+}
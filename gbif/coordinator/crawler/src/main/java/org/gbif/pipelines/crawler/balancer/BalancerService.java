@@ -1,11 +1,18 @@
 package org.gbif.pipelines.crawler.balancer;
 
 import com.google.common.util.concurrent.AbstractIdleService;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.common.messaging.DefaultMessagePublisher;
 import org.gbif.common.messaging.MessageListener;
 import org.gbif.common.messaging.api.MessagePublisher;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
 import org.gbif.pipelines.common.configs.StepConfiguration;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.Job;
 
 /**
  * A service which listens to the {@link
@@ -17,6 +24,8 @@ public class BalancerService extends AbstractIdleService {
   private final BalancerConfiguration config;
   private MessageListener listener;
   private MessagePublisher publisher;
+  private BalancerCallback callback;
+  private ScheduledExecutorService dispatcher;
 
   public BalancerService(BalancerConfiguration config) {
     this.config = config;
@@ -31,13 +40,38 @@ public class BalancerService extends AbstractIdleService {
     listener = new MessageListener(stepConfig.messaging.getConnectionParameters(), 1);
     publisher = new DefaultMessagePublisher(stepConfig.messaging.getConnectionParameters());
 
-    listener.listen(
-        stepConfig.queueName, stepConfig.poolSize, new BalancerCallback(config, publisher));
+    BalancerScheduler<PipelinesVerbatimMessage> scheduler = BalancerScheduler.create(config);
+    BalancerQueueFile queueFile = null;
+    if (scheduler != null) {
+      if (config.queueFile == null) {
+        throw new IllegalArgumentException("--queue-file is required by the scheduler");
+      }
+      queueFile = new BalancerQueueFile(Paths.get(config.queueFile));
+      // Messages queued before the last stop were acknowledged already
+      List<Job<PipelinesVerbatimMessage>> queued = queueFile.load();
+      queued.forEach(scheduler::offer);
+      log.info("{} queued messages have been loaded from {}", queued.size(), config.queueFile);
+    }
+    callback = new BalancerCallback(config, publisher, scheduler, queueFile);
+
+    // Jobs without the finish message are released by time
+    if (scheduler != null) {
+      callback.dispatch();
+      dispatcher = Executors.newSingleThreadScheduledExecutor();
+      dispatcher.scheduleWithFixedDelay(callback::dispatch, 1, 1, TimeUnit.MINUTES);
+    }
+
+    listener.listen(stepConfig.queueName, stepConfig.poolSize, callback);
   }
 
   @Override
   protected void shutDown() {
     listener.close();
+    if (dispatcher != null) {
+      dispatcher.shutdown();
+    }
+    // Sends what the limits allow, the rest stays in the queue file for the next start
+    callback.dispatch();
     publisher.close();
     log.info("Stopping pipelines-balancer service");
   }
@@ -9,12 +9,14 @@ import org.gbif.api.model.pipelines.StepRunner;
 import org.gbif.common.messaging.api.MessagePublisher;
 import org.gbif.common.messaging.api.messages.PipelinesBalancerMessage;
 import org.gbif.common.messaging.api.messages.PipelinesInterpretedMessage;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
 import org.gbif.pipelines.common.PipelinesVariables.Metrics;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Conversion;
 import org.gbif.pipelines.common.configs.StepConfiguration;
 import org.gbif.pipelines.common.utils.HdfsUtils;
 import org.gbif.pipelines.crawler.balancer.BalancerConfiguration;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler;
 import org.gbif.pipelines.crawler.interpret.InterpreterConfiguration;
 
 /**
@@ -25,17 +27,26 @@ import org.gbif.pipelines.crawler.interpret.InterpreterConfiguration;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class InterpretedMessageHandler {
 
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   /** Main handler, basically computes the runner type and sends to the same consumer */
   public static void handle(
-      BalancerConfiguration config, MessagePublisher publisher, PipelinesBalancerMessage message)
+      BalancerConfiguration config,
+      MessagePublisher publisher,
+      BalancerScheduler<PipelinesVerbatimMessage> scheduler,
+      PipelinesBalancerMessage message)
       throws IOException {
 
     log.info("Process PipelinesInterpretedMessage - {}", message);
 
     // Populate message fields
-    ObjectMapper mapper = new ObjectMapper();
     PipelinesInterpretedMessage m =
-        mapper.readValue(message.getPayload(), PipelinesInterpretedMessage.class);
+        MAPPER.readValue(message.getPayload(), PipelinesInterpretedMessage.class);
+
+    // The interpretation has finished, the next large dataset can be sent
+    if (scheduler != null) {
+      scheduler.finish(m.getDatasetUuid().toString(), m.getAttempt(), System.currentTimeMillis());
+    }
 
     long recordsNumber = getRecordNumber(config, m);
 
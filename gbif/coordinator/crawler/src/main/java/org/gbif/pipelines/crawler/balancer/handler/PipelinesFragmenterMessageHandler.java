@@ -17,15 +17,16 @@ import org.gbif.common.messaging.api.messages.PipelinesFragmenterMessage;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class PipelinesFragmenterMessageHandler {
 
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   /** Main handler, basically computes the runner type and sends to the same consumer */
   public static void handle(MessagePublisher publisher, PipelinesBalancerMessage message)
       throws IOException {
 
     log.info("Process PipelinesIndexedMessage - {}", message);
 
-    ObjectMapper mapper = new ObjectMapper();
     PipelinesFragmenterMessage m =
-        mapper.readValue(message.getPayload(), PipelinesFragmenterMessage.class);
+        MAPPER.readValue(message.getPayload(), PipelinesFragmenterMessage.class);
 
     PipelinesFragmenterMessage outputMessage =
         new PipelinesFragmenterMessage(
@@ -8,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.gbif.common.messaging.api.MessagePublisher;
 import org.gbif.common.messaging.api.messages.PipelinesBalancerMessage;
 import org.gbif.common.messaging.api.messages.PipelinesIndexedMessage;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler;
 
 /**
  * Populates and sends the {@link PipelinesIndexedMessage} message, the main method is {@link
@@ -17,15 +19,24 @@ import org.gbif.common.messaging.api.messages.PipelinesIndexedMessage;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class PipelinesIndexedMessageHandler {
 
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   /** Main handler, basically computes the runner type and sends to the same consumer */
-  public static void handle(MessagePublisher publisher, PipelinesBalancerMessage message)
+  public static void handle(
+      MessagePublisher publisher,
+      BalancerScheduler<PipelinesVerbatimMessage> scheduler,
+      PipelinesBalancerMessage message)
       throws IOException {
 
     log.info("Process PipelinesIndexedMessage - {}", message);
 
-    ObjectMapper mapper = new ObjectMapper();
     PipelinesIndexedMessage m =
-        mapper.readValue(message.getPayload(), PipelinesIndexedMessage.class);
+        MAPPER.readValue(message.getPayload(), PipelinesIndexedMessage.class);
+
+    // Fused runs don't send the interpreted message, the slot is released by the fused steps
+    if (scheduler != null) {
+      scheduler.finish(m.getDatasetUuid().toString(), m.getAttempt(), System.currentTimeMillis());
+    }
 
     PipelinesIndexedMessage outputMessage =
         new PipelinesIndexedMessage(
@@ -17,6 +17,9 @@ import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Conversion;
 import org.gbif.pipelines.common.configs.StepConfiguration;
 import org.gbif.pipelines.common.utils.HdfsUtils;
 import org.gbif.pipelines.crawler.balancer.BalancerConfiguration;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.Job;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.SizeClass;
 import org.gbif.pipelines.crawler.dwca.DwcaToAvroConfiguration;
 
 /**
@@ -27,17 +30,25 @@ import org.gbif.pipelines.crawler.dwca.DwcaToAvroConfiguration;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class VerbatimMessageHandler {
 
-  /** Main handler, basically computes the runner type and sends to the same consumer */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Main handler, basically computes the runner type and sends to the same consumer. If the
+   * scheduler is enabled the message is queued by the dataset size class and sent by {@link
+   * BalancerScheduler#poll}
+   */
   public static void handle(
-      BalancerConfiguration config, MessagePublisher publisher, PipelinesBalancerMessage message)
+      BalancerConfiguration config,
+      MessagePublisher publisher,
+      BalancerScheduler<PipelinesVerbatimMessage> scheduler,
+      PipelinesBalancerMessage message)
       throws IOException {
 
     log.info("Process PipelinesVerbatimMessage - {}", message);
 
     // Populate message fields
-    ObjectMapper mapper = new ObjectMapper();
     PipelinesVerbatimMessage m =
-        mapper.readValue(message.getPayload(), PipelinesVerbatimMessage.class);
+        MAPPER.readValue(message.getPayload(), PipelinesVerbatimMessage.class);
 
     if (m.getAttempt() == null) {
       Integer attempt = getLatestAttempt(config, m);
@@ -46,7 +57,7 @@ public class VerbatimMessageHandler {
     }
 
     long recordsNumber = getRecordNumber(config, m);
-    String runner = computeRunner(config, m, recordsNumber).name();
+    StepRunner runner = computeRunner(config, m, recordsNumber);
 
     ValidationResult result = m.getValidationResult();
     if (result.getNumberOfRecords() == null) {
@@ -59,16 +70,31 @@ public class VerbatimMessageHandler {
             m.getAttempt(),
             m.getInterpretTypes(),
             m.getPipelineSteps(),
-            runner,
+            runner.name(),
             m.getEndpointType(),
             m.getExtraPath(),
             result,
             m.getResetPrefix(),
             m.getExecutionId());
 
-    publisher.send(outputMessage);
+    if (scheduler == null) {
+      publisher.send(outputMessage);
+      log.info("The message has been sent - {}", outputMessage);
+      return;
+    }
 
-    log.info("The message has been sent - {}", outputMessage);
+    String datasetId = m.getDatasetUuid().toString();
+    SizeClass sizeClass = scheduler.classify(datasetId, recordsNumber, runner);
+    scheduler.offer(
+        Job.<PipelinesVerbatimMessage>builder()
+            .datasetId(datasetId)
+            .attempt(m.getAttempt())
+            .recordsNumber(recordsNumber)
+            .sizeClass(sizeClass)
+            .payload(outputMessage)
+            .build());
+
+    log.info("The message has been queued as {} - {}", sizeClass, outputMessage);
   }
 
   /**
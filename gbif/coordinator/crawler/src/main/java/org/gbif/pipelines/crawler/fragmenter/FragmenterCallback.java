@@ -100,6 +100,15 @@ public class FragmenterCallback extends AbstractMessageCallback<PipelinesInterpr
       }
 
       boolean useSync = message.getNumberOfRecords() < config.asyncThreshold;
+      boolean useBulkLoad =
+          config.bulkLoadThreshold != null
+              && message.getNumberOfRecords() >= config.bulkLoadThreshold;
+      FileSystem bulkLoadFs = null;
+      if (useBulkLoad) {
+        bulkLoadFs =
+            FileSystemFactory.getInstance(config.getHdfsSiteConfig(), config.getCoreSiteConfig())
+                .getFs(config.bulkLoadDir);
+      }
 
       long result =
           FragmentPersister.builder()
@@ -117,6 +126,11 @@ public class FragmenterCallback extends AbstractMessageCallback<PipelinesInterpr
               .useSyncMode(useSync)
               .backPressure(config.backPressure)
               .batchSize(config.batchSize)
+              .useBulkLoad(useBulkLoad)
+              .bulkLoadFs(bulkLoadFs)
+              .bulkLoadDir(config.bulkLoadDir)
+              .bulkLoadBatchSize(config.bulkLoadBatchSize)
+              .bulkLoadBatchBytes(config.bulkLoadBatchBytes)
               .build()
               .persist();
 
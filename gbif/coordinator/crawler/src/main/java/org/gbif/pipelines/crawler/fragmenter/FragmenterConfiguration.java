@@ -22,6 +22,9 @@ public class FragmenterConfiguration implements BaseConfiguration {
   @Min(1)
   public Integer numberThreads;
 
+  @Parameter(names = "--use-virtual-threads")
+  public boolean useVirtualThreads = false;
+
   @Parameter(names = "--meta-file-name")
   public String metaFileName = Pipeline.FRAGMENTER + ".yml";
 
@@ -60,6 +63,19 @@ public class FragmenterConfiguration implements BaseConfiguration {
   @Parameter(names = "--back-pressure")
   public Integer backPressure;
 
+  @Parameter(names = "--bulk-load-threshold")
+  public Integer bulkLoadThreshold;
+
+  /** Fully qualified directory for HFiles, e.g. hdfs://ha-nn/tmp/fragmenter-bulk-load */
+  @Parameter(names = "--bulk-load-dir")
+  public String bulkLoadDir;
+
+  @Parameter(names = "--bulk-load-batch-size")
+  public int bulkLoadBatchSize = 50_000;
+
+  @Parameter(names = "--bulk-load-batch-bytes")
+  public long bulkLoadBatchBytes = 256L * 1024 * 1024;
+
   @Override
   public String getHdfsSiteConfig() {
     return stepConfig.hdfsSiteConfig;
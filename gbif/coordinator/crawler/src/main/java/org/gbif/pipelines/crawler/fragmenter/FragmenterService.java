@@ -3,7 +3,6 @@ package org.gbif.pipelines.crawler.fragmenter;
 import com.google.common.util.concurrent.AbstractIdleService;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.hadoop.hbase.client.Connection;
@@ -14,6 +13,7 @@ import org.gbif.common.messaging.api.messages.PipelinesInterpretedMessage;
 import org.gbif.pipelines.common.configs.StepConfiguration;
 import org.gbif.pipelines.core.config.model.PipelinesConfig;
 import org.gbif.pipelines.core.factory.ConfigFactory;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.pipelines.keygen.config.KeygenConfig;
 import org.gbif.registry.ws.client.pipelines.PipelinesHistoryWsClient;
 
@@ -40,10 +40,13 @@ public class FragmenterService extends AbstractIdleService {
     log.info("Started pipelines-fragmenter service with parameters : {}", config);
     // Prefetch is one, since this is a long-running process.
     StepConfiguration c = config.stepConfig;
+    if (config.bulkLoadThreshold != null && config.bulkLoadDir == null) {
+      throw new IllegalArgumentException("--bulk-load-dir is required by --bulk-load-threshold");
+    }
     listener = new MessageListener(c.messaging.getConnectionParameters(), 1);
     publisher = new DefaultMessagePublisher(c.messaging.getConnectionParameters());
     curator = c.zooKeeper.getCuratorFramework();
-    executor = Executors.newFixedThreadPool(config.numberThreads);
+    executor = ExecutorFactory.create(config.useVirtualThreads, config.numberThreads);
     PipelinesHistoryWsClient client =
         c.registry.newRegistryInjector().getInstance(PipelinesHistoryWsClient.class);
     KeygenConfig keygenConfig =
@@ -24,6 +24,7 @@ import org.gbif.pipelines.crawler.StepHandler;
 import org.gbif.pipelines.crawler.hdfs.ProcessRunnerBuilder.ProcessRunnerBuilderBuilder;
 import org.gbif.pipelines.crawler.interpret.InterpreterConfiguration;
 import org.gbif.pipelines.ingest.java.pipelines.InterpretedToHdfsViewPipeline;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
 import org.gbif.registry.ws.client.pipelines.PipelinesHistoryWsClient;
 
 /** Callback which is called when the {@link PipelinesInterpretedMessage} is received. */
@@ -38,6 +39,7 @@ public class HdfsViewCallback extends AbstractMessageCallback<PipelinesInterpret
   private final CuratorFramework curator;
   private final PipelinesHistoryWsClient client;
   private final ExecutorService executor;
+  private final InterpretedRecords records;
 
   public HdfsViewCallback(
       HdfsViewConfiguration config,
@@ -45,6 +47,18 @@ public class HdfsViewCallback extends AbstractMessageCallback<PipelinesInterpret
       CuratorFramework curator,
       PipelinesHistoryWsClient client,
       ExecutorService executor) {
+    this(config, publisher, curator, client, executor, null);
+  }
+
+  /** For the fused run, the records interpreted in the same JVM are taken from memory */
+  public HdfsViewCallback(
+      HdfsViewConfiguration config,
+      MessagePublisher publisher,
+      CuratorFramework curator,
+      PipelinesHistoryWsClient client,
+      ExecutorService executor,
+      InterpretedRecords records) {
+    this.records = records;
     this.config = config;
     this.publisher = publisher;
     this.curator = curator;
@@ -120,7 +134,7 @@ public class HdfsViewCallback extends AbstractMessageCallback<PipelinesInterpret
   }
 
   private void runLocal(ProcessRunnerBuilderBuilder builder) {
-    InterpretedToHdfsViewPipeline.run(builder.build().buildOptions(), executor);
+    InterpretedToHdfsViewPipeline.run(builder.build().buildOptions(), executor, records);
   }
 
   private void runDistributed(
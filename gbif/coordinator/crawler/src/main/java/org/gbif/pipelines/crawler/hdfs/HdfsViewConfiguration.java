@@ -42,6 +42,9 @@ public class HdfsViewConfiguration implements BaseConfiguration {
   @Parameter(names = "--standalone-number-threads")
   public Integer standaloneNumberThreads;
 
+  @Parameter(names = "--use-virtual-threads")
+  public boolean useVirtualThreads = false;
+
   @Parameter(names = "--pipelines-config")
   @Valid
   @NotNull
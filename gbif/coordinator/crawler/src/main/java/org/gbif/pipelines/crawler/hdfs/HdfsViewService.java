@@ -2,7 +2,6 @@ package org.gbif.pipelines.crawler.hdfs;
 
 import com.google.common.util.concurrent.AbstractIdleService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
 import org.gbif.common.messaging.DefaultMessagePublisher;
@@ -10,6 +9,7 @@ import org.gbif.common.messaging.MessageListener;
 import org.gbif.common.messaging.api.MessagePublisher;
 import org.gbif.common.messaging.api.messages.PipelinesInterpretedMessage;
 import org.gbif.pipelines.common.configs.StepConfiguration;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.registry.ws.client.pipelines.PipelinesHistoryWsClient;
 
 /**
@@ -38,9 +38,7 @@ public class HdfsViewService extends AbstractIdleService {
     publisher = new DefaultMessagePublisher(c.messaging.getConnectionParameters());
     curator = c.zooKeeper.getCuratorFramework();
     executor =
-        config.standaloneNumberThreads == null
-            ? null
-            : Executors.newFixedThreadPool(config.standaloneNumberThreads);
+        ExecutorFactory.createOrNull(config.useVirtualThreads, config.standaloneNumberThreads);
     PipelinesHistoryWsClient historyWsClient =
         c.registry.newRegistryInjector().getInstance(PipelinesHistoryWsClient.class);
 
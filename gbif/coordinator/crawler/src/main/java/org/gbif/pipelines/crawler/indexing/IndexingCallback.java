@@ -26,10 +26,12 @@ import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType;
 import org.gbif.pipelines.common.utils.HdfsUtils;
 import org.gbif.pipelines.crawler.PipelinesCallback;
+import org.gbif.pipelines.crawler.SparkBatchRunner;
 import org.gbif.pipelines.crawler.StepHandler;
 import org.gbif.pipelines.crawler.indexing.ProcessRunnerBuilder.ProcessRunnerBuilderBuilder;
 import org.gbif.pipelines.crawler.interpret.InterpreterConfiguration;
 import org.gbif.pipelines.ingest.java.pipelines.InterpretedToEsIndexExtendedPipeline;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
 import org.gbif.registry.ws.client.pipelines.PipelinesHistoryWsClient;
 
 /** Callback which is called when the {@link PipelinesInterpretedMessage} is received. */
@@ -46,6 +48,8 @@ public class IndexingCallback extends AbstractMessageCallback<PipelinesInterpret
   private final HttpClient httpClient;
   private final PipelinesHistoryWsClient client;
   private final ExecutorService executor;
+  private final InterpretedRecords records;
+  private final SparkBatchRunner batchRunner;
 
   public IndexingCallback(
       IndexingConfiguration config,
@@ -54,12 +58,32 @@ public class IndexingCallback extends AbstractMessageCallback<PipelinesInterpret
       HttpClient httpClient,
       PipelinesHistoryWsClient client,
       ExecutorService executor) {
+    this(config, publisher, curator, httpClient, client, executor, null);
+  }
+
+  /** For the fused run, the records interpreted in the same JVM are taken from memory */
+  public IndexingCallback(
+      IndexingConfiguration config,
+      MessagePublisher publisher,
+      CuratorFramework curator,
+      HttpClient httpClient,
+      PipelinesHistoryWsClient client,
+      ExecutorService executor,
+      InterpretedRecords records) {
+    this.records = records;
     this.config = config;
     this.publisher = publisher;
     this.curator = curator;
     this.httpClient = httpClient;
     this.client = client;
     this.executor = executor;
+    this.batchRunner =
+        new SparkBatchRunner(
+            TYPE,
+            config.stepConfig,
+            config.sparkConfig,
+            config.distributedConfig,
+            config.sparkBatchConfig);
   }
 
   @Override
@@ -136,7 +160,7 @@ public class IndexingCallback extends AbstractMessageCallback<PipelinesInterpret
   }
 
   private void runLocal(ProcessRunnerBuilderBuilder builder) {
-    InterpretedToEsIndexExtendedPipeline.run(builder.build().buildOptions(), executor);
+    InterpretedToEsIndexExtendedPipeline.run(builder.build().buildOptions(), executor, records);
   }
 
   private void runDistributed(
@@ -145,10 +169,26 @@ public class IndexingCallback extends AbstractMessageCallback<PipelinesInterpret
     String datasetId = message.getDatasetUuid().toString();
     String attempt = Integer.toString(message.getAttempt());
     int sparkExecutorNumbers = computeSparkExecutorNumbers(recordsNumber);
+    int sparkParallelism = computeSparkParallelism(datasetId, attempt);
+    String sparkExecutorMemory = computeSparkExecutorMemory(sparkExecutorNumbers, recordsNumber);
+
+    // Small datasets share one Spark application
+    if (batchRunner.isBatched(recordsNumber)) {
+      batchRunner.run(
+          SparkBatchRunner.Entry.builder()
+              .datasetId(datasetId)
+              .attempt(message.getAttempt())
+              .options(builder.build().buildOptions())
+              .sparkParallelism(sparkParallelism)
+              .sparkExecutorNumbers(sparkExecutorNumbers)
+              .sparkExecutorMemory(sparkExecutorMemory)
+              .build());
+      return;
+    }
 
     builder
-        .sparkParallelism(computeSparkParallelism(datasetId, attempt))
-        .sparkExecutorMemory(computeSparkExecutorMemory(sparkExecutorNumbers, recordsNumber))
+        .sparkParallelism(sparkParallelism)
+        .sparkExecutorMemory(sparkExecutorMemory)
         .sparkExecutorNumbers(sparkExecutorNumbers);
 
     // Assembles a terminal java process and runs it
@@ -25,12 +25,18 @@ public class IndexingConfiguration implements BaseConfiguration {
   @ParametersDelegate @Valid
   public DistributedConfiguration distributedConfig = new DistributedConfiguration();
 
+  @ParametersDelegate @Valid
+  public SparkBatchConfiguration sparkBatchConfig = new SparkBatchConfiguration();
+
   @Parameter(names = "--meta-file-name")
   public String metaFileName = Pipeline.INTERPRETED_TO_INDEX + ".yml";
 
   @Parameter(names = "--standalone-number-threads")
   public Integer standaloneNumberThreads;
 
+  @Parameter(names = "--use-virtual-threads")
+  public boolean useVirtualThreads = false;
+
   @Parameter(names = "--process-runner")
   @NotNull
   public String processRunner;
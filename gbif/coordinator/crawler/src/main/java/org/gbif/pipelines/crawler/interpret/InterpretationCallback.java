@@ -8,10 +8,14 @@ import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
@@ -31,10 +35,14 @@ import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Conversion;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation;
 import org.gbif.pipelines.common.utils.HdfsUtils;
 import org.gbif.pipelines.crawler.PipelinesCallback;
+import org.gbif.pipelines.crawler.SparkBatchRunner;
 import org.gbif.pipelines.crawler.StepHandler;
 import org.gbif.pipelines.crawler.dwca.DwcaToAvroConfiguration;
+import org.gbif.pipelines.crawler.hdfs.HdfsViewCallback;
+import org.gbif.pipelines.crawler.indexing.IndexingCallback;
 import org.gbif.pipelines.crawler.interpret.ProcessRunnerBuilder.ProcessRunnerBuilderBuilder;
 import org.gbif.pipelines.ingest.java.pipelines.VerbatimToInterpretedPipeline;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
 import org.gbif.registry.ws.client.pipelines.PipelinesHistoryWsClient;
 
 /** Callback which is called when the {@link PipelinesVerbatimMessage} is received. */
@@ -50,6 +58,11 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
   private final PipelinesHistoryWsClient historyWsClient;
   private final CloseableHttpClient httpClient;
   private final ExecutorService executor;
+  private final SparkBatchRunner batchRunner;
+  /** Records of the interpreted datasets, kept for the fused steps until the step is complete */
+  private final Map<String, FusedRun> fusedRuns = new ConcurrentHashMap<>();
+  /** Fused or not, decided once per handled message, the decision reads the records number */
+  private final Map<String, Boolean> fusedMessages = new ConcurrentHashMap<>();
 
   public InterpretationCallback(
       InterpreterConfiguration config,
@@ -64,20 +77,37 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
     this.historyWsClient = historyWsClient;
     this.httpClient = httpClient;
     this.executor = executor;
+    this.batchRunner =
+        new SparkBatchRunner(
+            StepType.VERBATIM_TO_INTERPRETED,
+            config.stepConfig,
+            config.sparkConfig,
+            config.distributedConfig,
+            config.sparkBatchConfig);
   }
 
+  /**
+   * Handles the interpretation step, the fused steps run once the interpretation step is tracked as
+   * complete and only if the interpretation succeeded
+   */
   @Override
   public void handleMessage(PipelinesVerbatimMessage message) {
-    PipelinesCallback.<PipelinesVerbatimMessage, PipelinesInterpretedMessage>builder()
-        .client(historyWsClient)
-        .config(config)
-        .curator(curator)
-        .stepType(StepType.VERBATIM_TO_INTERPRETED)
-        .publisher(publisher)
-        .message(message)
-        .handler(this)
-        .build()
-        .handleMessage();
+    try {
+      PipelinesCallback.<PipelinesVerbatimMessage, PipelinesInterpretedMessage>builder()
+          .client(historyWsClient)
+          .config(config)
+          .curator(curator)
+          .stepType(StepType.VERBATIM_TO_INTERPRETED)
+          .publisher(publisher)
+          .message(message)
+          .handler(this)
+          .build()
+          .handleMessage();
+    } finally {
+      fusedMessages.remove(fusedRunKey(message));
+      Optional.ofNullable(fusedRuns.remove(fusedRunKey(message)))
+          .ifPresent(run -> runFused(message, run.records, run.repeatAttempt));
+    }
   }
 
   /**
@@ -98,6 +128,7 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
    */
   @Override
   public Runnable createRunnable(PipelinesVerbatimMessage message) {
+    boolean fused = isFused(message);
     return () -> {
       String datasetId = message.getDatasetUuid().toString();
       String attempt = Integer.toString(message.getAttempt());
@@ -117,12 +148,16 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
 
       Predicate<StepRunner> runnerPr = sr -> config.processRunner.equalsIgnoreCase(sr.name());
 
+      // Keeps the interpreted records in memory for the fused steps
+      InterpretedRecords records = fused ? InterpretedRecords.create(fusedSteps(message)) : null;
+      boolean repeatAttempt = records != null && pathExists(message);
+
       log.info("Start the process. Message - {}", message);
       try {
         if (runnerPr.test(StepRunner.DISTRIBUTED)) {
           runDistributed(message, builder);
         } else if (runnerPr.test(StepRunner.STANDALONE)) {
-          runLocal(builder);
+          runLocal(builder, records);
         }
 
         log.info("Deleting old attempts directories");
@@ -138,6 +173,11 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
         throw new IllegalStateException(
             "Failed interpretation on " + message.getDatasetUuid().toString(), ex);
       }
+
+      // The fused steps run after the interpretation step is complete, see handleMessage
+      if (records != null) {
+        fusedRuns.put(fusedRunKey(message), new FusedRun(records, repeatAttempt));
+      }
     };
   }
 
@@ -150,6 +190,27 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
     }
 
     boolean repeatAttempt = pathExists(message);
+
+    // The fused steps run in this JVM, the message is sent for the fragmenter only
+    if (isFused(message)) {
+      if (!message.getPipelineSteps().contains(StepType.FRAGMENTER.name())) {
+        return null;
+      }
+      return new PipelinesInterpretedMessage(
+          message.getDatasetUuid(),
+          message.getAttempt(),
+          message.getPipelineSteps(),
+          recordsNumber,
+          null,
+          repeatAttempt,
+          message.getResetPrefix(),
+          StepType.FRAGMENTER.name(),
+          null,
+          message.getEndpointType(),
+          message.getValidationResult(),
+          message.getInterpretTypes());
+    }
+
     return new PipelinesInterpretedMessage(
         message.getDatasetUuid(),
         message.getAttempt(),
@@ -162,18 +223,128 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
         message.getInterpretTypes());
   }
 
-  private void runLocal(ProcessRunnerBuilderBuilder builder) {
-    VerbatimToInterpretedPipeline.run(builder.build().buildOptions(), executor);
+  private void runLocal(ProcessRunnerBuilderBuilder builder, InterpretedRecords records) {
+    VerbatimToInterpretedPipeline.run(builder.build().buildOptions(), executor, records);
+  }
+
+  /**
+   * Small datasets run the indexing and HDFS view steps in this JVM, see {@link
+   * InterpreterConfiguration#fusedRecordsThreshold}
+   */
+  private boolean isFused(PipelinesVerbatimMessage message) {
+    return fusedMessages.computeIfAbsent(fusedRunKey(message), k -> checkFused(message));
+  }
+
+  private boolean checkFused(PipelinesVerbatimMessage message) {
+    Predicate<String> standalonePr = StepRunner.STANDALONE.name()::equalsIgnoreCase;
+    if (config.fusedRecordsThreshold == null
+        || config.fusedIndexingConfig == null
+        || config.fusedHdfsViewConfig == null
+        || !standalonePr.test(config.processRunner)
+        || !standalonePr.test(config.fusedIndexingConfig.processRunner)
+        || !standalonePr.test(config.fusedHdfsViewConfig.processRunner)) {
+      return false;
+    }
+
+    if (fusedSteps(message) == 0) {
+      return false;
+    }
+
+    try {
+      return getRecordNumber(message) <= config.fusedRecordsThreshold;
+    } catch (Exception ex) {
+      log.warn("Can't get the number of records, the steps run separately", ex);
+      return false;
+    }
+  }
+
+  /**
+   * Runs the indexing and HDFS view steps in this JVM, the steps are tracked and send their
+   * messages as usual, but take the interpreted records from memory
+   */
+  @SneakyThrows
+  private void runFused(
+      PipelinesVerbatimMessage message, InterpretedRecords records, boolean repeatAttempt) {
+    Set<String> steps = message.getPipelineSteps();
+    try {
+      // Each step gets its own message, the records number is read once
+      long recordsNumber = getRecordNumber(message);
+      if (steps.contains(StepType.INTERPRETED_TO_INDEX.name())) {
+        log.info("Run the fused indexing step");
+        new IndexingCallback(
+                config.fusedIndexingConfig,
+                publisher,
+                curator,
+                httpClient,
+                historyWsClient,
+                executor,
+                records)
+            .handleMessage(createFusedMessage(message, recordsNumber, repeatAttempt));
+      }
+      if (steps.contains(StepType.HDFS_VIEW.name())) {
+        log.info("Run the fused HDFS view step");
+        new HdfsViewCallback(
+                config.fusedHdfsViewConfig, publisher, curator, historyWsClient, executor, records)
+            .handleMessage(createFusedMessage(message, recordsNumber, repeatAttempt));
+      }
+    } finally {
+      records.clear();
+    }
+  }
+
+  /** Number of the indexing and HDFS view steps of the message */
+  private static int fusedSteps(PipelinesVerbatimMessage message) {
+    Set<String> steps = message.getPipelineSteps();
+    return (steps.contains(StepType.INTERPRETED_TO_INDEX.name()) ? 1 : 0)
+        + (steps.contains(StepType.HDFS_VIEW.name()) ? 1 : 0);
+  }
+
+  private static String fusedRunKey(PipelinesVerbatimMessage message) {
+    return message.getDatasetUuid() + "_" + message.getAttempt();
+  }
+
+  /** Message for a fused step, the same as the balancer sends for the standalone runner */
+  private static PipelinesInterpretedMessage createFusedMessage(
+      PipelinesVerbatimMessage message, long recordsNumber, boolean repeatAttempt) {
+    return new PipelinesInterpretedMessage(
+        message.getDatasetUuid(),
+        message.getAttempt(),
+        message.getPipelineSteps(),
+        recordsNumber,
+        StepRunner.STANDALONE.name(),
+        repeatAttempt,
+        message.getResetPrefix(),
+        null,
+        message.getExecutionId(),
+        message.getEndpointType(),
+        message.getValidationResult(),
+        message.getInterpretTypes());
   }
 
   private void runDistributed(PipelinesVerbatimMessage message, ProcessRunnerBuilderBuilder builder)
       throws IOException, InterruptedException {
     long recordsNumber = getRecordNumber(message);
     int sparkExecutorNumbers = computeSparkExecutorNumbers(recordsNumber);
+    int sparkParallelism = computeSparkParallelism(sparkExecutorNumbers);
+    String sparkExecutorMemory = computeSparkExecutorMemory(sparkExecutorNumbers);
+
+    // Small datasets share one Spark application
+    if (batchRunner.isBatched(recordsNumber)) {
+      batchRunner.run(
+          SparkBatchRunner.Entry.builder()
+              .datasetId(message.getDatasetUuid().toString())
+              .attempt(message.getAttempt())
+              .options(builder.build().buildOptions())
+              .sparkParallelism(sparkParallelism)
+              .sparkExecutorNumbers(sparkExecutorNumbers)
+              .sparkExecutorMemory(sparkExecutorMemory)
+              .build());
+      return;
+    }
 
     builder
-        .sparkParallelism(computeSparkParallelism(sparkExecutorNumbers))
-        .sparkExecutorMemory(computeSparkExecutorMemory(sparkExecutorNumbers))
+        .sparkParallelism(sparkParallelism)
+        .sparkExecutorMemory(sparkExecutorMemory)
         .sparkExecutorNumbers(sparkExecutorNumbers);
 
     // Assembles a terminal java process and runs it
@@ -326,4 +497,11 @@ public class InterpretationCallback extends AbstractMessageCallback<PipelinesVer
     }
     return null;
   }
+
+  /** Records kept in memory by a successful interpretation for the fused steps */
+  @AllArgsConstructor
+  private static class FusedRun {
+    private final InterpretedRecords records;
+    private final boolean repeatAttempt;
+  }
 }
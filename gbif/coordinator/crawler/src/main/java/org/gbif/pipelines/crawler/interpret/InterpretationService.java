@@ -3,7 +3,6 @@ package org.gbif.pipelines.crawler.interpret;
 import com.google.common.util.concurrent.AbstractIdleService;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.http.client.config.RequestConfig;
@@ -14,6 +13,7 @@ import org.gbif.common.messaging.MessageListener;
 import org.gbif.common.messaging.api.MessagePublisher;
 import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
 import org.gbif.pipelines.common.configs.StepConfiguration;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.registry.ws.client.pipelines.PipelinesHistoryWsClient;
 
 /**
@@ -43,9 +43,7 @@ public class InterpretationService extends AbstractIdleService {
     publisher = new DefaultMessagePublisher(c.messaging.getConnectionParameters());
     curator = c.zooKeeper.getCuratorFramework();
     executor =
-        config.standaloneNumberThreads == null
-            ? null
-            : Executors.newFixedThreadPool(config.standaloneNumberThreads);
+        ExecutorFactory.createOrNull(config.useVirtualThreads, config.standaloneNumberThreads);
 
     PipelinesHistoryWsClient historyWsClient =
         c.registry.newRegistryInjector().getInstance(PipelinesHistoryWsClient.class);
@@ -7,6 +7,8 @@ import javax.validation.constraints.NotNull;
 import lombok.ToString;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline;
 import org.gbif.pipelines.common.configs.*;
+import org.gbif.pipelines.crawler.hdfs.HdfsViewConfiguration;
+import org.gbif.pipelines.crawler.indexing.IndexingConfiguration;
 
 /** Configuration required to start Interpretation Pipeline on provided dataset */
 @ToString
@@ -19,6 +21,9 @@ public class InterpreterConfiguration implements BaseConfiguration {
   @ParametersDelegate @Valid
   public DistributedConfiguration distributedConfig = new DistributedConfiguration();
 
+  @ParametersDelegate @Valid
+  public SparkBatchConfiguration sparkBatchConfig = new SparkBatchConfiguration();
+
   @ParametersDelegate @Valid @NotNull
   public AvroWriteConfiguration avroConfig = new AvroWriteConfiguration();
 
@@ -33,6 +38,9 @@ public class InterpreterConfiguration implements BaseConfiguration {
   @Parameter(names = "--standalone-number-threads")
   public Integer standaloneNumberThreads;
 
+  @Parameter(names = "--use-virtual-threads")
+  public boolean useVirtualThreads = false;
+
   @Parameter(names = "--process-runner")
   @NotNull
   public String processRunner;
@@ -43,6 +51,20 @@ public class InterpreterConfiguration implements BaseConfiguration {
   @Parameter(names = "--use-beam-deprecated-read")
   public boolean useBeamDeprecatedRead = true;
 
+  /**
+   * Datasets with at most this number of records run the indexing and HDFS view steps in the
+   * interpretation JVM, using the interpreted records kept in memory. Works with the standalone
+   * runner only, empty value disables the fused run
+   */
+  @Parameter(names = "--fused-records-threshold")
+  public Long fusedRecordsThreshold;
+
+  /** Indexing step configuration for the fused run, the step runs standalone */
+  @Valid public IndexingConfiguration fusedIndexingConfig;
+
+  /** HDFS view step configuration for the fused run, the step runs standalone */
+  @Valid public HdfsViewConfiguration fusedHdfsViewConfig;
+
   @Override
   public String getHdfsSiteConfig() {
     return stepConfig.hdfsSiteConfig;
@@ -0,0 +1,170 @@
+package org.gbif.pipelines.crawler.balancer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.gbif.api.model.pipelines.StepRunner;
+import org.gbif.api.model.pipelines.StepType;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.common.messaging.api.Message;
+import org.gbif.common.messaging.api.MessagePublisher;
+import org.gbif.common.messaging.api.messages.PipelinesBalancerMessage;
+import org.gbif.common.messaging.api.messages.PipelinesHdfsViewBuiltMessage;
+import org.gbif.common.messaging.api.messages.PipelinesIndexedMessage;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage.ValidationResult;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.Job;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.SizeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BalancerCallbackTest {
+
+  private static final UUID FUSED = UUID.fromString("de7ffb5e-c07b-42dc-8a88-f67a4465fe3d");
+  private static final UUID NEXT = UUID.fromString("3f8a1297-3259-4700-91fc-acc4170b27ce");
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void fusedIndexedReleasesSlotTest() {
+
+    // State
+    PublisherStub publisher = new PublisherStub();
+    BalancerScheduler<PipelinesVerbatimMessage> scheduler = createScheduler();
+    BalancerCallback callback = createCallback(publisher, scheduler);
+    PipelinesIndexedMessage indexed =
+        new PipelinesIndexedMessage(
+            FUSED,
+            2,
+            Collections.singleton(StepType.INTERPRETED_TO_INDEX.name()),
+            StepRunner.STANDALONE.name(),
+            null);
+
+    // When
+    List<PipelinesVerbatimMessage> first = scheduler.poll(0L);
+    callback.handleMessage(
+        new PipelinesBalancerMessage(
+            PipelinesIndexedMessage.class.getSimpleName(), indexed.toString()));
+
+    // Should
+    assertEquals(FUSED, first.get(0).getDatasetUuid());
+    assertTrue(scheduler.getQueued().isEmpty());
+    assertEquals(2, publisher.messages.size());
+    assertEquals(NEXT, ((PipelinesVerbatimMessage) publisher.messages.get(1)).getDatasetUuid());
+  }
+
+  @Test
+  public void fusedHdfsViewReleasesSlotTest() {
+
+    // State
+    PublisherStub publisher = new PublisherStub();
+    BalancerScheduler<PipelinesVerbatimMessage> scheduler = createScheduler();
+    BalancerCallback callback = createCallback(publisher, scheduler);
+    PipelinesHdfsViewBuiltMessage hdfsView =
+        new PipelinesHdfsViewBuiltMessage(
+            FUSED,
+            2,
+            Collections.singleton(StepType.HDFS_VIEW.name()),
+            StepRunner.STANDALONE.name(),
+            null);
+
+    // When
+    scheduler.poll(0L);
+    callback.handleMessage(
+        new PipelinesBalancerMessage(
+            PipelinesHdfsViewBuiltMessage.class.getSimpleName(), hdfsView.toString()));
+
+    // Should
+    assertTrue(scheduler.getQueued().isEmpty());
+    assertEquals(1, scheduler.getRunningNumber());
+    assertEquals(NEXT, ((PipelinesVerbatimMessage) publisher.messages.get(1)).getDatasetUuid());
+  }
+
+  /** One slot, the fused dataset takes it and the next dataset waits */
+  private static BalancerScheduler<PipelinesVerbatimMessage> createScheduler() {
+    BalancerScheduler<PipelinesVerbatimMessage> scheduler =
+        BalancerScheduler.<PipelinesVerbatimMessage>builder()
+            .largeRecordsNumber(2_000_000L)
+            .largeRuntimeMs(Long.MAX_VALUE)
+            .maxConcurrentLargeJobs(1)
+            .maxInFlightJobs(1)
+            .expireMs(Long.MAX_VALUE)
+            .largeExpireMs(Long.MAX_VALUE)
+            .smallWeight(6)
+            .mediumWeight(3)
+            .largeWeight(1)
+            .build();
+    scheduler.offer(job(FUSED));
+    scheduler.offer(job(NEXT));
+    return scheduler;
+  }
+
+  private BalancerCallback createCallback(
+      MessagePublisher publisher, BalancerScheduler<PipelinesVerbatimMessage> scheduler) {
+    BalancerQueueFile queueFile =
+        new BalancerQueueFile(folder.getRoot().toPath().resolve("queue.jsonl"));
+    return new BalancerCallback(new BalancerConfiguration(), publisher, scheduler, queueFile);
+  }
+
+  private static Job<PipelinesVerbatimMessage> job(UUID datasetId) {
+    PipelinesVerbatimMessage message =
+        new PipelinesVerbatimMessage(
+            datasetId,
+            2,
+            Collections.singleton("ALL"),
+            Collections.singleton(StepType.VERBATIM_TO_INTERPRETED.name()),
+            StepRunner.STANDALONE.name(),
+            EndpointType.DWC_ARCHIVE,
+            null,
+            new ValidationResult(true, true, true, 1_000L),
+            null,
+            null);
+    return Job.<PipelinesVerbatimMessage>builder()
+        .datasetId(datasetId.toString())
+        .attempt(2)
+        .recordsNumber(1_000L)
+        .sizeClass(SizeClass.SMALL)
+        .payload(message)
+        .build();
+  }
+
+  private static class PublisherStub implements MessagePublisher {
+
+    private final List<Message> messages = new ArrayList<>();
+
+    @Override
+    public void send(Message message) {
+      messages.add(message);
+    }
+
+    @Override
+    public void send(Message message, boolean persistent) {
+      messages.add(message);
+    }
+
+    @Override
+    public void send(Message message, String exchange) {
+      messages.add(message);
+    }
+
+    @Override
+    public void send(Object message, String exchange, String routingKey) {
+      // NOP
+    }
+
+    @Override
+    public void send(Object message, String exchange, String routingKey, boolean persistent) {
+      // NOP
+    }
+
+    @Override
+    public void close() {
+      // NOP
+    }
+  }
+}
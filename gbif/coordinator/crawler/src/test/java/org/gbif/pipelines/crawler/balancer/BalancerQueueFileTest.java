@@ -0,0 +1,77 @@
+package org.gbif.pipelines.crawler.balancer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.gbif.api.model.pipelines.StepRunner;
+import org.gbif.api.model.pipelines.StepType;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage;
+import org.gbif.common.messaging.api.messages.PipelinesVerbatimMessage.ValidationResult;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.Job;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.SizeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BalancerQueueFileTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void saveLoadTest() throws IOException {
+
+    // State
+    Path path = folder.getRoot().toPath().resolve("queue.jsonl");
+    BalancerQueueFile queueFile = new BalancerQueueFile(path);
+    List<Job<PipelinesVerbatimMessage>> jobs =
+        Arrays.asList(
+            job("de7ffb5e-c07b-42dc-8a88-f67a4465fe3d", 1_000L, SizeClass.SMALL),
+            job("3f8a1297-3259-4700-91fc-acc4170b27ce", 5_000_000L, SizeClass.LARGE));
+
+    // When
+    List<Job<PipelinesVerbatimMessage>> empty = queueFile.load();
+    queueFile.save(jobs);
+    List<Job<PipelinesVerbatimMessage>> result = queueFile.load();
+
+    // Should
+    assertTrue(empty.isEmpty());
+    assertEquals(2, result.size());
+    for (int i = 0; i < jobs.size(); i++) {
+      assertEquals(jobs.get(i).getDatasetId(), result.get(i).getDatasetId());
+      assertEquals(jobs.get(i).getAttempt(), result.get(i).getAttempt());
+      assertEquals(jobs.get(i).getRecordsNumber(), result.get(i).getRecordsNumber());
+      assertEquals(jobs.get(i).getSizeClass(), result.get(i).getSizeClass());
+      assertEquals(jobs.get(i).getPayload().getRunner(), result.get(i).getPayload().getRunner());
+    }
+  }
+
+  private static Job<PipelinesVerbatimMessage> job(
+      String datasetId, long records, SizeClass sizeClass) {
+    PipelinesVerbatimMessage message =
+        new PipelinesVerbatimMessage(
+            UUID.fromString(datasetId),
+            2,
+            Collections.singleton("ALL"),
+            Collections.singleton(StepType.VERBATIM_TO_INTERPRETED.name()),
+            StepRunner.DISTRIBUTED.name(),
+            EndpointType.DWC_ARCHIVE,
+            null,
+            new ValidationResult(true, true, true, records),
+            null,
+            null);
+    return Job.<PipelinesVerbatimMessage>builder()
+        .datasetId(datasetId)
+        .attempt(2)
+        .recordsNumber(records)
+        .sizeClass(sizeClass)
+        .payload(message)
+        .build();
+  }
+}
@@ -0,0 +1,294 @@
+package org.gbif.pipelines.crawler.balancer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.api.model.pipelines.StepRunner;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.Job;
+import org.gbif.pipelines.crawler.balancer.BalancerScheduler.SizeClass;
+import org.junit.Test;
+
+@Slf4j
+public class BalancerSchedulerTest {
+
+  private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+  @Test
+  public void largeJobsCapTest() {
+
+    // State
+    BalancerScheduler<String> scheduler = createScheduler(2);
+    for (int i = 0; i < 3; i++) {
+      scheduler.offer(job("large" + i, 5_000_000L, SizeClass.LARGE));
+    }
+
+    // When
+    List<String> first = scheduler.poll(0L);
+    scheduler.finish("large0", 1, MINUTE);
+    List<String> second = scheduler.poll(MINUTE);
+
+    // Should
+    assertEquals(2, first.size());
+    assertEquals(1, second.size());
+    assertEquals("large2", second.get(0));
+    assertEquals(2, scheduler.getRunningLargeNumber());
+  }
+
+  @Test
+  public void expireTest() {
+
+    // State
+    BalancerScheduler<String> scheduler = createScheduler(1);
+    scheduler.offer(job("large0", 5_000_000L, SizeClass.LARGE));
+    scheduler.offer(job("large1", 5_000_000L, SizeClass.LARGE));
+
+    // When
+    List<String> first = scheduler.poll(0L);
+    List<String> beforeExpire = scheduler.poll(TimeUnit.HOURS.toMillis(24));
+    List<String> afterExpire = scheduler.poll(TimeUnit.HOURS.toMillis(24) + 1);
+
+    // Should
+    assertEquals(1, first.size());
+    assertTrue(beforeExpire.isEmpty());
+    assertEquals(1, afterExpire.size());
+  }
+
+  @Test
+  public void expireSmallTest() {
+
+    // State
+    BalancerScheduler<String> scheduler = createScheduler(1, 1);
+    scheduler.offer(job("small0", 1_000L, SizeClass.SMALL));
+    scheduler.offer(job("small1", 1_000L, SizeClass.SMALL));
+
+    // When
+    List<String> first = scheduler.poll(0L);
+    List<String> beforeExpire = scheduler.poll(180 * MINUTE);
+    List<String> afterExpire = scheduler.poll(180 * MINUTE + 1);
+
+    // Should
+    assertEquals(1, first.size());
+    assertTrue(beforeExpire.isEmpty());
+    assertEquals(1, afterExpire.size());
+  }
+
+  @Test
+  public void weightsTest() {
+
+    // State
+    BalancerScheduler<String> scheduler = createScheduler(2, 9);
+    for (int i = 0; i < 10; i++) {
+      scheduler.offer(job("small" + i, 1_000L, SizeClass.SMALL));
+      scheduler.offer(job("medium" + i, 500_000L, SizeClass.MEDIUM));
+    }
+
+    // When
+    List<String> result = scheduler.poll(0L);
+
+    // Should, 6 to 3 in the first cycle of the round robin, up to the in-flight limit
+    long small = result.stream().filter(x -> x.startsWith("small")).count();
+    assertEquals(9, result.size());
+    assertEquals(6, small);
+    assertEquals(11, scheduler.getQueued().size());
+  }
+
+  @Test
+  public void inFlightLimitTest() {
+
+    // State
+    BalancerScheduler<String> scheduler = createScheduler(2, 2);
+    for (int i = 0; i < 3; i++) {
+      scheduler.offer(job("medium" + i, 500_000L, SizeClass.MEDIUM));
+    }
+
+    // When
+    List<String> first = scheduler.poll(0L);
+    List<String> full = scheduler.poll(MINUTE);
+    scheduler.finish("medium0", 1, 2 * MINUTE);
+    List<String> second = scheduler.poll(2 * MINUTE);
+
+    // Should
+    assertEquals(2, first.size());
+    assertTrue(full.isEmpty());
+    assertEquals(Collections.singletonList("medium2"), second);
+    assertEquals(2, scheduler.getRunningNumber());
+  }
+
+  @Test
+  public void runtimeEstimateTest() {
+
+    // State
+    BalancerScheduler<String> scheduler = createScheduler(2);
+    String datasetId = "slow";
+    SizeClass sizeClass = scheduler.classify(datasetId, 1_000_000L, StepRunner.DISTRIBUTED);
+    scheduler.offer(job(datasetId, 1_000_000L, sizeClass));
+
+    // When
+    scheduler.poll(0L);
+    scheduler.finish(datasetId, 1, 150 * MINUTE);
+
+    // Should
+    assertEquals(150 * MINUTE, scheduler.estimateRuntimeMs(datasetId, 1_000_000L));
+    assertEquals(SizeClass.MEDIUM, sizeClass);
+    assertEquals(
+        SizeClass.LARGE, scheduler.classify(datasetId, 1_000_000L, StepRunner.DISTRIBUTED));
+    assertEquals(SizeClass.MEDIUM, scheduler.classify("new", 1_000_000L, StepRunner.DISTRIBUTED));
+    assertEquals(SizeClass.SMALL, scheduler.classify("new", 1_000L, StepRunner.STANDALONE));
+  }
+
+  /**
+   * A full re-interpretation: 40 large datasets arrive in the first 40 minutes, while small and
+   * medium datasets keep arriving for 12 hours. The distributed and the standalone runners have 4
+   * slots each and start the sent jobs in order.
+   */
+  @Test
+  public void fullReinterpretationSimulationTest() {
+
+    // State
+    List<SimJob> trace = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      trace.add(new SimJob("large" + i, i, 5_000_000L, 180, StepRunner.DISTRIBUTED));
+    }
+    for (int i = 0; i < 720; i++) {
+      trace.add(new SimJob("small" + i, i, 10_000L, 2, StepRunner.STANDALONE));
+      if (i % 10 == 0) {
+        trace.add(new SimJob("medium" + i, i, 500_000L, 15, StepRunner.DISTRIBUTED));
+      }
+    }
+
+    // When
+    Map<SizeClass, Long> fifo =
+        simulate(createScheduler(Integer.MAX_VALUE, Integer.MAX_VALUE), trace);
+    Map<SizeClass, Long> scheduled = simulate(createScheduler(2, 20), trace);
+
+    log.info("Max latency in minutes, FIFO - {}, scheduled - {}", fifo, scheduled);
+
+    // Should
+    assertTrue(fifo.get(SizeClass.MEDIUM) > 600);
+    assertTrue(scheduled.get(SizeClass.MEDIUM) <= 60);
+    assertTrue(scheduled.get(SizeClass.SMALL) <= 10);
+    // Two large datasets at a time instead of four
+    assertTrue(scheduled.get(SizeClass.LARGE) <= 40 / 2 * 180 + 40);
+  }
+
+  /** Runs the trace minute by minute, returns the maximum latency in minutes by size class */
+  private static Map<SizeClass, Long> simulate(
+      BalancerScheduler<SimJob> scheduler, List<SimJob> trace) {
+    trace.forEach(SimJob::reset);
+
+    Map<StepRunner, Deque<SimJob>> runnerQueues = new EnumMap<>(StepRunner.class);
+    Map<StepRunner, List<SimJob>> runnerSlots = new EnumMap<>(StepRunner.class);
+    for (StepRunner runner : new StepRunner[] {StepRunner.STANDALONE, StepRunner.DISTRIBUTED}) {
+      runnerQueues.put(runner, new ArrayDeque<>());
+      runnerSlots.put(runner, new ArrayList<>());
+    }
+
+    Map<SizeClass, Long> maxLatency = new EnumMap<>(SizeClass.class);
+    int finished = 0;
+    for (long t = 0; finished < trace.size(); t++) {
+      long now = t * MINUTE;
+
+      // Finished jobs free their slots and send the finish message
+      for (List<SimJob> slots : runnerSlots.values()) {
+        for (SimJob job : new ArrayList<>(slots)) {
+          if (job.start + job.runtime == t) {
+            slots.remove(job);
+            finished++;
+            scheduler.finish(job.id, 1, now);
+            maxLatency.merge(job.sizeClass, t - job.arrival, Math::max);
+          }
+        }
+      }
+
+      // New messages
+      for (SimJob job : trace) {
+        if (job.arrival == t) {
+          job.sizeClass = scheduler.classify(job.id, job.records, job.runner);
+          scheduler.offer(
+              Job.<SimJob>builder()
+                  .datasetId(job.id)
+                  .attempt(1)
+                  .recordsNumber(job.records)
+                  .sizeClass(job.sizeClass)
+                  .payload(job)
+                  .build());
+        }
+      }
+
+      // Sent messages go to the runner queues
+      scheduler.poll(now).forEach(job -> runnerQueues.get(job.runner).add(job));
+
+      // Runners start the jobs in order
+      for (Map.Entry<StepRunner, Deque<SimJob>> entry : runnerQueues.entrySet()) {
+        List<SimJob> slots = runnerSlots.get(entry.getKey());
+        while (slots.size() < 4 && !entry.getValue().isEmpty()) {
+          SimJob job = entry.getValue().poll();
+          job.start = t;
+          slots.add(job);
+        }
+      }
+    }
+    return maxLatency;
+  }
+
+  private static <T> BalancerScheduler<T> createScheduler(int maxConcurrentLargeJobs) {
+    return createScheduler(maxConcurrentLargeJobs, 100);
+  }
+
+  private static <T> BalancerScheduler<T> createScheduler(
+      int maxConcurrentLargeJobs, int maxInFlightJobs) {
+    return BalancerScheduler.<T>builder()
+        .largeRecordsNumber(2_000_000L)
+        .largeRuntimeMs(120 * MINUTE)
+        .maxConcurrentLargeJobs(maxConcurrentLargeJobs)
+        .maxInFlightJobs(maxInFlightJobs)
+        .expireMs(180 * MINUTE)
+        .largeExpireMs(TimeUnit.HOURS.toMillis(24))
+        .smallWeight(6)
+        .mediumWeight(3)
+        .largeWeight(1)
+        .build();
+  }
+
+  private static Job<String> job(String datasetId, long records, SizeClass sizeClass) {
+    return Job.<String>builder()
+        .datasetId(datasetId)
+        .attempt(1)
+        .recordsNumber(records)
+        .sizeClass(sizeClass)
+        .payload(datasetId)
+        .build();
+  }
+
+  private static class SimJob {
+    private final String id;
+    private final long arrival;
+    private final long records;
+    private final long runtime;
+    private final StepRunner runner;
+    private SizeClass sizeClass;
+    private long start;
+
+    private SimJob(String id, long arrival, long records, long runtime, StepRunner runner) {
+      this.id = id;
+      this.arrival = arrival;
+      this.records = records;
+      this.runtime = runtime;
+      this.runner = runner;
+    }
+
+    private void reset() {
+      sizeClass = null;
+      start = -1;
+    }
+  }
+}
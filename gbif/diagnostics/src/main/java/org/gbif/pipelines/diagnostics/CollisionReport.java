@@ -0,0 +1,92 @@
+package org.gbif.pipelines.diagnostics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tab separated report of the lookup keys which collide or were selected by a deletion strategy,
+ * the same report is produced by a dry run. Safe to use from several threads.
+ */
+@Slf4j
+public class CollisionReport implements Closeable {
+
+  private static final String HEADER =
+      "triplet\toccurrenceID\ttripletGbifID\toccurrenceIdGbifID\tcollision\tdeletedKeys";
+
+  private final BufferedWriter writer;
+
+  @Getter private long records;
+  @Getter private long collisions;
+  @Getter private long deletedKeys;
+
+  private CollisionReport(BufferedWriter writer) {
+    this.writer = writer;
+  }
+
+  /** @param file report file, can be null to only count and log the collisions */
+  public static CollisionReport create(File file) throws IOException {
+    if (file == null) {
+      return new CollisionReport(null);
+    }
+    BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+    writer.write(HEADER);
+    writer.newLine();
+    return new CollisionReport(writer);
+  }
+
+  public synchronized void add(
+      String triplet,
+      String occurrenceId,
+      Long tripletKey,
+      Long occurrenceIdKey,
+      Set<String> keysToDelete) {
+    records++;
+    boolean collision =
+        tripletKey != null && occurrenceIdKey != null && !tripletKey.equals(occurrenceIdKey);
+    if (collision) {
+      collisions++;
+    }
+    deletedKeys += keysToDelete.size();
+
+    if (writer != null && (collision || !keysToDelete.isEmpty())) {
+      try {
+        writer.write(
+            String.join(
+                "\t",
+                nullToEmpty(triplet),
+                nullToEmpty(occurrenceId),
+                nullToEmpty(tripletKey),
+                nullToEmpty(occurrenceIdKey),
+                String.valueOf(collision),
+                String.join(",", keysToDelete)));
+        writer.newLine();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    log.info(
+        "Records - {}, collisions - {}, lookup keys to delete - {}",
+        records,
+        collisions,
+        deletedKeys);
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  private static String nullToEmpty(Object value) {
+    return value == null ? "" : value.toString();
+  }
+}
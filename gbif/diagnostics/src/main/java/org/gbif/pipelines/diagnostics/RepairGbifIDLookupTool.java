@@ -4,9 +4,22 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +29,7 @@ import org.gbif.dwc.DwcFiles;
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.pipelines.diagnostics.strategy.DeletionStrategy.DeletionStrategyType;
+import org.gbif.pipelines.diagnostics.strategy.LookupKeyUtils;
 import org.gbif.pipelines.keygen.HBaseLockingKeyService;
 import org.gbif.pipelines.keygen.common.HbaseConnectionFactory;
 import org.gbif.pipelines.keygen.config.KeygenConfig;
@@ -84,6 +98,21 @@ public class RepairGbifIDLookupTool {
   @Builder.Default
   public boolean onlyCollisions = false;
 
+  @Parameter(
+      names = "--batch-size",
+      description = "Number of DWCA records resolved by one multi-get and deleted by one batch")
+  @Builder.Default
+  public int batchSize = 1_000;
+
+  @Parameter(names = "--parallelism", description = "Number of DWCA batches processed in parallel")
+  @Builder.Default
+  public int parallelism = 4;
+
+  @Parameter(
+      names = "--report",
+      description = "Writes collisions and lookup keys to delete into a tab separated file")
+  public File report;
+
   @Parameter(names = "--help", description = "Display help information", order = 4)
   @Builder.Default
   public boolean help = false;
@@ -119,10 +148,13 @@ public class RepairGbifIDLookupTool {
     checkArguments(jc, main.counterTable == null, "--counter-table can't be null");
     checkArguments(jc, main.occurrenceTable == null, "--occurrence-table can't be null");
     checkArguments(jc, main.zkConnection == null, "--zookeeper connection can't be null");
+    checkArguments(jc, main.batchSize < 1, "--batch-size must be greater than 0");
+    checkArguments(jc, main.parallelism < 1, "--parallelism must be greater than 0");
 
     main.run();
   }
 
+  @SneakyThrows
   public void run() {
     log.info(
         "Running diagnostic tool for - {}, using deletion strategy - {}",
@@ -142,10 +174,12 @@ public class RepairGbifIDLookupTool {
     }
     HBaseLockingKeyService keygenService = new HBaseLockingKeyService(cfg, connection, datasetKey);
 
-    if (dwcaSource != null) {
-      runDwca(keygenService);
-    } else {
-      runSingleLookup(keygenService);
+    try (CollisionReport collisionReport = CollisionReport.create(report)) {
+      if (dwcaSource != null) {
+        runDwca(keygenService, collisionReport);
+      } else {
+        runSingleLookup(keygenService, collisionReport);
+      }
     }
   }
 
@@ -157,8 +191,14 @@ public class RepairGbifIDLookupTool {
     }
   }
 
+  /**
+   * Reads the archive core in batches of {@link #batchSize} records, every batch is processed by a
+   * separate thread: lookup keys are resolved by one multi-get, the deletion strategy is applied
+   * per record and all selected lookup keys are deleted by one batched delete. The number of read
+   * batches waiting for a thread is bounded to limit the memory used.
+   */
   @SneakyThrows
-  private void runDwca(HBaseLockingKeyService keygenService) {
+  private void runDwca(HBaseLockingKeyService keygenService, CollisionReport collisionReport) {
 
     Archive dwca;
     if (dwcaSource.isDirectory()) {
@@ -168,30 +208,87 @@ public class RepairGbifIDLookupTool {
       dwca = DwcFiles.fromCompressed(dwcaSource.toPath(), t);
     }
 
-    for (Record r : dwca.getCore()) {
-      String ic = r.value(DwcTerm.institutionCode);
-      String cc = r.value(DwcTerm.collectionCode);
-      String cn = r.value(DwcTerm.catalogNumber);
-      String occID = r.value(DwcTerm.occurrenceID);
-
-      String triplet = OccurrenceKeyBuilder.buildKey(ic, cc, cn).orElse(null);
-
-      deleteKeys(keygenService, triplet, occID);
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      Semaphore pending = new Semaphore(parallelism * 2);
+      List<CompletableFuture<?>> futures = new ArrayList<>();
+      Consumer<List<LookupKeys>> batchFn =
+          batch -> {
+            pending.acquireUninterruptibly();
+            futures.add(
+                CompletableFuture.runAsync(
+                        () -> deleteKeys(keygenService, collisionReport, batch), executor)
+                    .whenComplete((r, e) -> pending.release()));
+          };
+
+      List<LookupKeys> batch = new ArrayList<>(batchSize);
+      for (Record r : dwca.getCore()) {
+        String ic = r.value(DwcTerm.institutionCode);
+        String cc = r.value(DwcTerm.collectionCode);
+        String cn = r.value(DwcTerm.catalogNumber);
+        String occID = r.value(DwcTerm.occurrenceID);
+
+        String triplet = OccurrenceKeyBuilder.buildKey(ic, cc, cn).orElse(null);
+
+        batch.add(new LookupKeys(triplet, occID));
+        if (batch.size() == batchSize) {
+          batchFn.accept(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        batchFn.accept(batch);
+      }
+
+      // Wait all threads
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    } finally {
+      executor.shutdown();
     }
   }
 
-  private void runSingleLookup(HBaseLockingKeyService keygenService) {
-    deleteKeys(keygenService, tripletLookupKey, occurrenceIdLookupKey);
+  private void runSingleLookup(
+      HBaseLockingKeyService keygenService, CollisionReport collisionReport) {
+    deleteKeys(
+        keygenService,
+        collisionReport,
+        Collections.singletonList(new LookupKeys(tripletLookupKey, occurrenceIdLookupKey)));
   }
 
   private void deleteKeys(
-      HBaseLockingKeyService keygenService, String triplet, String occurrenceId) {
-    Set<String> keysToDelete =
-        deletionStrategyType.getKeysToDelete(keygenService, onlyCollisions, triplet, occurrenceId);
+      HBaseLockingKeyService keygenService,
+      CollisionReport collisionReport,
+      List<LookupKeys> batch) {
+
+    Set<String> lookupKeys = new HashSet<>(batch.size() * 2);
+    batch.forEach(
+        lk -> {
+          lookupKeys.add(lk.triplet);
+          lookupKeys.add(lk.occurrenceId);
+        });
+    Map<String, Long> keys = LookupKeyUtils.getKeys(keygenService, lookupKeys);
+    Function<String, Optional<Long>> keyFn = k -> Optional.ofNullable(keys.get(k));
+
+    Set<String> keysToDelete = new HashSet<>();
+    for (LookupKeys lk : batch) {
+      Set<String> recordKeys =
+          deletionStrategyType.getKeysToDelete(
+              keyFn, onlyCollisions, lk.triplet, lk.occurrenceId);
+      collisionReport.add(
+          lk.triplet, lk.occurrenceId, keys.get(lk.triplet), keys.get(lk.occurrenceId), recordKeys);
+      keysToDelete.addAll(recordKeys);
+    }
+
     keysToDelete.forEach(k -> log.info("Delete lookup key - {}", k));
-    if (!dryRun) {
+    if (!dryRun && !keysToDelete.isEmpty()) {
       keygenService.deleteKeyByUniques(keysToDelete);
     }
-    log.info("Lookup keys deleted");
+    log.info("Lookup keys deleted - {}", keysToDelete.size());
+  }
+
+  @AllArgsConstructor
+  private static class LookupKeys {
+    private final String triplet;
+    private final String occurrenceId;
   }
 }
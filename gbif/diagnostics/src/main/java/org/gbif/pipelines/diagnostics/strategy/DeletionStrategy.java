@@ -1,14 +1,29 @@
 package org.gbif.pipelines.diagnostics.strategy;
 
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import org.gbif.pipelines.keygen.HBaseLockingKeyService;
 
 public interface DeletionStrategy {
 
-  Set<String> getKeysToDelete(
+  default Set<String> getKeysToDelete(
       HBaseLockingKeyService keygenService,
       boolean onlyCollisions,
       String triplet,
+      String occurrenceId) {
+    return getKeysToDelete(
+        k -> LookupKeyUtils.getKey(keygenService, k), onlyCollisions, triplet, occurrenceId);
+  }
+
+  /**
+   * @param keyFn resolves a lookup key into a gbifID, must return an empty Optional for null or
+   *     empty lookup keys
+   */
+  Set<String> getKeysToDelete(
+      Function<String, Optional<Long>> keyFn,
+      boolean onlyCollisions,
+      String triplet,
       String occurrenceId);
 
   enum DeletionStrategyType {
@@ -31,5 +46,13 @@ public interface DeletionStrategy {
         String occurrenceId) {
       return deletionStrategy.getKeysToDelete(keygenService, onlyCollisions, triplet, occurrenceId);
     }
+
+    public Set<String> getKeysToDelete(
+        Function<String, Optional<Long>> keyFn,
+        boolean onlyCollisions,
+        String triplet,
+        String occurrenceId) {
+      return deletionStrategy.getKeysToDelete(keyFn, onlyCollisions, triplet, occurrenceId);
+    }
   }
 }
@@ -1,7 +1,11 @@
 package org.gbif.pipelines.diagnostics.strategy;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.gbif.pipelines.keygen.HBaseLockingKeyService;
@@ -19,4 +23,15 @@ public class LookupKeyUtils {
     }
     return tripletKey;
   }
+
+  /** Resolves all lookup keys using one multi-get, null and empty lookup keys are skipped */
+  public static Map<String, Long> getKeys(
+      HBaseLockingKeyService service, Collection<String> lookupKeys) {
+    Set<String> keys =
+        lookupKeys.stream().filter(k -> k != null && !k.isEmpty()).collect(Collectors.toSet());
+    if (keys.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    return service.findKeys(keys);
+  }
 }
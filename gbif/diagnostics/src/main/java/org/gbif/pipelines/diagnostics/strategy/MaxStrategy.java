@@ -3,18 +3,18 @@ package org.gbif.pipelines.diagnostics.strategy;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
-import org.gbif.pipelines.keygen.HBaseLockingKeyService;
+import java.util.function.Function;
 
 public class MaxStrategy implements DeletionStrategy {
   @Override
   public Set<String> getKeysToDelete(
-      HBaseLockingKeyService keygenService,
+      Function<String, Optional<Long>> keyFn,
       boolean onlyCollisions,
       String triplet,
       String occurrenceId) {
 
-    Optional<Long> tripletKey = LookupKeyUtils.getKey(keygenService, triplet);
-    Optional<Long> occurrenceIdtKey = LookupKeyUtils.getKey(keygenService, occurrenceId);
+    Optional<Long> tripletKey = keyFn.apply(triplet);
+    Optional<Long> occurrenceIdtKey = keyFn.apply(occurrenceId);
 
     if (!tripletKey.isPresent() || !occurrenceIdtKey.isPresent()) {
       return Collections.emptySet();
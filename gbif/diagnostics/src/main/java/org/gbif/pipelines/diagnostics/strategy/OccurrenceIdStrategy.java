@@ -3,17 +3,17 @@ package org.gbif.pipelines.diagnostics.strategy;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import org.gbif.pipelines.keygen.HBaseLockingKeyService;
+import java.util.function.Function;
 
 public class OccurrenceIdStrategy implements DeletionStrategy {
   @Override
   public Set<String> getKeysToDelete(
-      HBaseLockingKeyService keygenService,
+      Function<String, Optional<Long>> keyFn,
       boolean onlyCollisions,
       String triplet,
       String occurrenceId) {
 
-    Optional<Long> occurrenceIdtKey = LookupKeyUtils.getKey(keygenService, occurrenceId);
+    Optional<Long> occurrenceIdtKey = keyFn.apply(occurrenceId);
 
     Set<String> keys = new HashSet<>(1);
     if (!onlyCollisions) {
@@ -21,7 +21,7 @@ public class OccurrenceIdStrategy implements DeletionStrategy {
       return keys;
     }
 
-    Optional<Long> tripletKey = LookupKeyUtils.getKey(keygenService, triplet);
+    Optional<Long> tripletKey = keyFn.apply(triplet);
 
     if (tripletKey.isPresent()
         && occurrenceIdtKey.isPresent()
@@ -2,10 +2,14 @@ package org.gbif.pipelines.diagnostics;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import org.gbif.pipelines.diagnostics.common.HbaseServer;
+import org.gbif.pipelines.diagnostics.common.HbaseStore;
 import org.gbif.pipelines.diagnostics.strategy.DeletionStrategy.DeletionStrategyType;
 import org.gbif.pipelines.diagnostics.strategy.LookupKeyUtils;
 import org.gbif.pipelines.keygen.HBaseLockingKeyService;
@@ -13,13 +17,17 @@ import org.gbif.pipelines.keygen.identifier.OccurrenceKeyBuilder;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class RepairGbifIDLookupToolIT {
 
   /** {@link ClassRule} requires this field to be public. */
   @ClassRule public static final HbaseServer HBASE_SERVER = new HbaseServer();
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Before
   public void before() throws IOException {
     HBASE_SERVER.truncateTable();
@@ -284,4 +292,66 @@ public class RepairGbifIDLookupToolIT {
     Assert.assertTrue(tripletKey.isPresent());
     Assert.assertTrue(occurrenceIdtKey.isPresent());
   }
+
+  @Test
+  public void dwcaCollisionReportTest() throws IOException {
+
+    // State
+    File dwca = new File(this.getClass().getResource("/dwca/regular").getFile());
+
+    String datasetKey = "508089ca-ddb4-4112-b2cb-cb1bff8f39ad";
+
+    String occId = "926773";
+    String triplet =
+        OccurrenceKeyBuilder.buildKey(
+                "AWI", "Kongsfjorden/Spitsbergen - soft bottom fauna", "MarBEF/MacroBEN_926773")
+            .orElse(null);
+
+    HbaseStore.putRecords(
+        HBASE_SERVER.getLookupTableStore(),
+        HbaseStore.KV.create(datasetKey + "|" + occId, 1L),
+        HbaseStore.KV.create(datasetKey + "|" + triplet, 2L));
+
+    HBaseLockingKeyService keygenService =
+        new HBaseLockingKeyService(HbaseServer.CFG, HBASE_SERVER.getConnection(), datasetKey);
+
+    File dryRunReport = folder.newFile("dry-run-report.tsv");
+    File report = folder.newFile("report.tsv");
+
+    Function<File, RepairGbifIDLookupTool> toolFn =
+        file ->
+            RepairGbifIDLookupTool.builder()
+                .datasetKey(datasetKey)
+                .dwcaSource(dwca)
+                .lookupTable(HbaseServer.CFG.getLookupTable())
+                .counterTable(HbaseServer.CFG.getCounterTable())
+                .occurrenceTable(HbaseServer.CFG.getOccurrenceTable())
+                .deletionStrategyType(DeletionStrategyType.MAX)
+                .connection(HBASE_SERVER.getConnection())
+                .batchSize(1)
+                .parallelism(2)
+                .report(file)
+                .build();
+
+    // When
+    RepairGbifIDLookupTool dryRunTool = toolFn.apply(dryRunReport);
+    dryRunTool.dryRun = true;
+    dryRunTool.run();
+
+    // Should
+    Assert.assertTrue(LookupKeyUtils.getKey(keygenService, triplet).isPresent());
+    Assert.assertTrue(LookupKeyUtils.getKey(keygenService, occId).isPresent());
+
+    // When
+    toolFn.apply(report).run();
+
+    // Should
+    Assert.assertFalse(LookupKeyUtils.getKey(keygenService, triplet).isPresent());
+    Assert.assertTrue(LookupKeyUtils.getKey(keygenService, occId).isPresent());
+
+    List<String> lines = Files.readAllLines(report.toPath());
+    Assert.assertEquals(Files.readAllLines(dryRunReport.toPath()), lines);
+    Assert.assertEquals(2, lines.size());
+    Assert.assertEquals(String.join("\t", triplet, occId, "2", "1", "true", triplet), lines.get(1));
+  }
 }
@@ -6,6 +6,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.io.Serializable;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -342,6 +343,33 @@ public class HBaseLockingKeyService implements Serializable {
     return findKey(uniqueStrings, datasetId);
   }
 
+  /**
+   * Finds the keys for many unique strings using a single multi-get. Unlike {@link
+   * #findKey(Set, String)} every unique string is resolved independently, so there is no
+   * consistency check between them and missing lookup entries are not filled in.
+   *
+   * @return found keys by unique string, unique strings without a key are absent
+   */
+  public Map<String, Long> findKeys(Set<String> uniqueStrings, String scope) {
+    checkNotNull(uniqueStrings, "uniqueStrings can't be null");
+    checkNotNull(scope, "scope can't be null");
+
+    String prefix = OccurrenceKeyBuilder.buildKeyPrefix(scope);
+    Map<String, String> uniqueByLookupKey = new HashMap<>(uniqueStrings.size());
+    uniqueStrings.forEach(us -> uniqueByLookupKey.put(prefix + us, us));
+
+    Map<String, Long> keys = new HashMap<>(uniqueStrings.size());
+    lookupTableStore
+        .getLongs(uniqueByLookupKey.keySet(), Columns.LOOKUP_KEY_COLUMN)
+        .forEach((lookupKey, key) -> keys.put(uniqueByLookupKey.get(lookupKey), key));
+    return keys;
+  }
+
+  /** */
+  public Map<String, Long> findKeys(Set<String> uniqueStrings) {
+    return findKeys(uniqueStrings, datasetId);
+  }
+
   @SneakyThrows
   public Set<Long> findKeysByScope(String scope) {
     Set<Long> keys = new HashSet<>();
@@ -5,6 +5,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
@@ -61,6 +66,51 @@ public class HBaseStore<T> {
     return ResultReader.getLong(row, cf, columnName, null);
   }
 
+  /**
+   * Reads the column for all keys using a single multi-get, instead of a round trip per key.
+   *
+   * @param keys the primary keys of the requested rows
+   * @param columnName the column value to return
+   * @return found values by key, keys without a value are absent
+   * @throws ServiceUnavailableException if there are errors when communicating with HBase
+   */
+  public Map<T, Long> getLongs(Collection<T> keys, String columnName) {
+    checkNotNull(keys, "keys can't be null");
+    checkNotNull(columnName, "columnName can't be null");
+
+    Map<T, Long> values = new HashMap<>(keys.size());
+    List<T> requestedKeys = new ArrayList<>(keys.size());
+    List<Get> gets = new ArrayList<>(keys.size());
+    byte[] columnBytes = Bytes.toBytes(columnName);
+    for (T key : keys) {
+      byte[] byteKey = key == null ? null : convertKey(key);
+      if (byteKey != null) {
+        Get get = new Get(byteKey);
+        get.addColumn(cfBytes, columnBytes);
+        gets.add(get);
+        requestedKeys.add(key);
+      }
+    }
+
+    if (gets.isEmpty()) {
+      return values;
+    }
+
+    try (Table table = connection.getTable(tableName)) {
+      Result[] rows = table.get(gets);
+      for (int i = 0; i < rows.length; i++) {
+        Long value = ResultReader.getLong(rows[i], cf, columnName, null);
+        if (value != null) {
+          values.put(requestedKeys.get(i), value);
+        }
+      }
+    } catch (IOException e) {
+      throw new ServiceUnavailableException(HBASE_READ_ERROR_MSG, e);
+    }
+
+    return values;
+  }
+
   public String getString(T key, String columnName) {
     Result row = getRow(key, columnName);
     return ResultReader.getString(row, cf, columnName, null);
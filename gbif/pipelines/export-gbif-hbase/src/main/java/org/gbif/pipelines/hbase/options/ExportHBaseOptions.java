@@ -33,4 +33,12 @@ public interface ExportHBaseOptions extends HadoopFileSystemOptions {
   String getRestoreDir();
 
   void setRestoreDir(String restoreDir);
+
+  @Description(
+      "Maximum number of open avro files per task, one file per dataset. The least recently used "
+          + "file is closed when a record of another dataset arrives")
+  @Default.Integer(100)
+  int getMaxOpenWriters();
+
+  void setMaxOpenWriters(int maxOpenWriters);
 }
@@ -3,6 +3,7 @@ package org.gbif.pipelines.hbase.pipelines;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.beam.sdk.io.FileIO.Write.defaultNaming;
 
+import java.util.Optional;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.apache.avro.file.CodecFactory;
@@ -73,18 +74,16 @@ public class ExportHBasePipeline {
                   @ProcessElement
                   public void processElement(ProcessContext c) {
                     Result row = c.element();
-                    try {
-                      VerbatimOccurrence verbatimOccurrence =
-                          OccurrenceConverter.toVerbatimOccurrence(row);
-                      String datasetKeyAsString =
-                          String.valueOf(verbatimOccurrence.getDatasetKey());
+                    Optional<VerbatimOccurrence> verbatimOccurrence =
+                        OccurrenceConverter.toValidVerbatimOccurrence(row);
+                    if (verbatimOccurrence.isPresent()) {
+                      VerbatimOccurrence vo = verbatimOccurrence.get();
                       c.output(
                           KV.of(
-                              datasetKeyAsString,
-                              OccurrenceConverter.toExtendedRecord(verbatimOccurrence)));
+                              vo.getDatasetKey().toString(),
+                              OccurrenceConverter.toExtendedRecord(vo)));
                       recordsExported.inc();
-                    } catch (NullPointerException e) {
-                      // Expected for bad data
+                    } else {
                       recordsFailed.inc();
                     }
                   }
@@ -1,41 +1,41 @@
 package org.gbif.pipelines.hbase.pipelines;
 
-import static org.apache.beam.sdk.io.FileIO.Write.defaultNaming;
-
-import org.apache.avro.file.CodecFactory;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
 import org.apache.beam.runners.spark.SparkRunner;
 import org.apache.beam.sdk.Pipeline;
-import org.apache.beam.sdk.coders.StringUtf8Coder;
-import org.apache.beam.sdk.io.AvroIO;
-import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.hadoop.format.HadoopFormatIO;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
-import org.apache.beam.sdk.transforms.Contextful;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.gbif.api.model.occurrence.VerbatimOccurrence;
-import org.gbif.pipelines.common.PipelinesVariables;
 import org.gbif.pipelines.hbase.options.ExportHBaseOptions;
+import org.gbif.pipelines.hbase.transforms.DatasetAvroWrite;
 import org.gbif.pipelines.hbase.utils.ConfigurationFactory;
 import org.gbif.pipelines.hbase.utils.OccurrenceConverter;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 
 /**
  * Executes a pipeline that reads an HBase snapshot and exports verbatim data into Avro using the
- * {@link ExtendedRecord}. schema and stored as an avro file per dataset.
+ * {@link ExtendedRecord}. schema and stored as avro files per dataset.
+ *
+ * <p>The snapshot is read with one split per region directly from the HFiles. The records are
+ * written into the dataset directories by the reading tasks, without a shuffle.
  */
 public class ExportHBaseSnapshotPipeline {
 
-  private static final CodecFactory BASE_CODEC = CodecFactory.snappyCodec();
+  private static final String FILE_PREFIX = "verbatimHBaseExport";
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     PipelineOptionsFactory.register(ExportHBaseOptions.class);
     ExportHBaseOptions options = PipelineOptionsFactory.fromArgs(args).as(ExportHBaseOptions.class);
     options.setRunner(SparkRunner.class);
@@ -46,6 +46,7 @@ public class ExportHBaseSnapshotPipeline {
 
     // Params
     String exportPath = options.getExportPath();
+    String tempPath = new Path(exportPath, ".temp-export-" + UUID.randomUUID()).toString();
     Configuration hbaseConfig = ConfigurationFactory.create(options);
 
     PCollection<KV<ImmutableBytesWritable, Result>> rows =
@@ -62,37 +63,29 @@ public class ExportHBaseSnapshotPipeline {
                   @ProcessElement
                   public void processElement(ProcessContext c) {
                     Result row = c.element().getValue();
-                    try {
-                      VerbatimOccurrence verbatimOccurrence =
-                          OccurrenceConverter.toVerbatimOccurrence(row);
-                      String datasetKeyAsString =
-                          String.valueOf(verbatimOccurrence.getDatasetKey());
+                    Optional<VerbatimOccurrence> verbatimOccurrence =
+                        OccurrenceConverter.toValidVerbatimOccurrence(row);
+                    if (verbatimOccurrence.isPresent()) {
+                      VerbatimOccurrence vo = verbatimOccurrence.get();
                       c.output(
                           KV.of(
-                              datasetKeyAsString,
-                              OccurrenceConverter.toExtendedRecord(verbatimOccurrence)));
+                              vo.getDatasetKey().toString(),
+                              OccurrenceConverter.toExtendedRecord(vo)));
                       recordsExported.inc();
-                    } catch (NullPointerException e) {
-                      // Expected for bad data
+                    } else {
                       recordsFailed.inc();
                     }
                   }
                 }));
 
     records.apply(
-        "Write avro file per dataset",
-        FileIO.<String, KV<String, ExtendedRecord>>writeDynamic()
-            .by(KV::getKey)
-            .via(
-                Contextful.fn(KV::getValue),
-                Contextful.fn(x -> AvroIO.sink(ExtendedRecord.class).withCodec(BASE_CODEC)))
-            .to(exportPath)
-            .withDestinationCoder(StringUtf8Coder.of())
-            .withNaming(
-                key ->
-                    defaultNaming(
-                        key + "/verbatimHBaseExport", PipelinesVariables.Pipeline.AVRO_EXTENSION)));
+        "Write avro files per dataset",
+        DatasetAvroWrite.create(exportPath, tempPath, FILE_PREFIX, options.getMaxOpenWriters()));
 
     p.run().waitUntilFinish();
+
+    // Files of failed or repeated tasks
+    Path temp = new Path(tempPath);
+    temp.getFileSystem(hbaseConfig).delete(temp, true);
   }
 }
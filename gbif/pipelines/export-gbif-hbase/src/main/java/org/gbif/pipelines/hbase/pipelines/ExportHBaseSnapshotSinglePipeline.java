@@ -1,5 +1,6 @@
 package org.gbif.pipelines.hbase.pipelines;
 
+import java.util.Optional;
 import org.apache.avro.file.CodecFactory;
 import org.apache.beam.runners.spark.SparkRunner;
 import org.apache.beam.sdk.Pipeline;
@@ -59,13 +60,12 @@ public class ExportHBaseSnapshotSinglePipeline {
                   @ProcessElement
                   public void processElement(ProcessContext c) {
                     Result row = c.element().getValue();
-                    try {
-                      VerbatimOccurrence verbatimOccurrence =
-                          OccurrenceConverter.toVerbatimOccurrence(row);
-                      c.output(OccurrenceConverter.toExtendedRecord(verbatimOccurrence));
+                    Optional<VerbatimOccurrence> verbatimOccurrence =
+                        OccurrenceConverter.toValidVerbatimOccurrence(row);
+                    if (verbatimOccurrence.isPresent()) {
+                      c.output(OccurrenceConverter.toExtendedRecord(verbatimOccurrence.get()));
                       recordsExported.inc();
-                    } catch (NullPointerException e) {
-                      // Expected for bad data
+                    } else {
                       recordsFailed.inc();
                     }
                   }
@@ -0,0 +1,244 @@
+package org.gbif.pipelines.hbase.transforms;
+
+import static org.apache.beam.sdk.io.FileIO.Write.defaultNaming;
+import static org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions.RESOLVE_DIRECTORY;
+import static org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions.RESOLVE_FILE;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.io.AvroIO;
+import org.apache.beam.sdk.io.FileIO;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.MoveOptions.StandardMoveOptions;
+import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.Contextful;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Reshuffle;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
+import org.apache.beam.sdk.util.MimeTypes;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionTuple;
+import org.apache.beam.sdk.values.PDone;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TupleTagList;
+import org.gbif.pipelines.common.PipelinesVariables;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+
+/**
+ * Writes records keyed by dataset key into {@code <exportPath>/<datasetKey>/<prefix>-<uuid>.avro}
+ * files without shuffling the records.
+ *
+ * <p>Every task streams the records into one open avro file per dataset and keeps at most {@code
+ * maxOpenWriters} files open, the least recently used file is closed when a record of another
+ * dataset arrives. Records of a dataset whose file was already closed by the task are not written
+ * into a new small file, they are grouped by dataset key and written by {@link FileIO#writeDynamic}
+ * instead.
+ *
+ * <p>Files are written into the temporary directory and moved to the export path after they are
+ * closed, only the names of the closed files are shuffled. Files of failed or repeated tasks stay
+ * in the temporary directory, which must be removed once the pipeline has finished.
+ */
+@AllArgsConstructor(staticName = "create")
+public class DatasetAvroWrite extends PTransform<PCollection<KV<String, ExtendedRecord>>, PDone> {
+
+  private static final CodecFactory BASE_CODEC = CodecFactory.snappyCodec();
+
+  static final TupleTag<KV<String, String>> FILES = new TupleTag<KV<String, String>>() {};
+  static final TupleTag<KV<String, ExtendedRecord>> EVICTED =
+      new TupleTag<KV<String, ExtendedRecord>>() {};
+
+  private final String exportPath;
+  private final String tempPath;
+  private final String filePrefix;
+  private final int maxOpenWriters;
+
+  @Override
+  public PDone expand(PCollection<KV<String, ExtendedRecord>> input) {
+    PCollectionTuple written =
+        input.apply(
+            "Write temporary avro files",
+            ParDo.of(new WriteFn(tempPath, maxOpenWriters))
+                .withOutputTags(FILES, TupleTagList.of(EVICTED)));
+
+    written
+        .get(FILES)
+        .setCoder(KvCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of()))
+        .apply("Reshuffle file names", Reshuffle.viaRandomKey())
+        .apply("Move avro files", ParDo.of(new MoveFn(exportPath, filePrefix)));
+
+    written
+        .get(EVICTED)
+        .setCoder(input.getCoder())
+        .apply(
+            "Write evicted datasets",
+            FileIO.<String, KV<String, ExtendedRecord>>writeDynamic()
+                .by(KV::getKey)
+                .via(
+                    Contextful.fn(KV::getValue),
+                    Contextful.fn(x -> AvroIO.sink(ExtendedRecord.class).withCodec(BASE_CODEC)))
+                .to(exportPath)
+                .withTempDirectory(tempPath)
+                .withDestinationCoder(StringUtf8Coder.of())
+                .withNaming(
+                    key ->
+                        defaultNaming(
+                            key + "/" + filePrefix, PipelinesVariables.Pipeline.AVRO_EXTENSION)));
+
+    return PDone.in(input.getPipeline());
+  }
+
+  /**
+   * Writes records into temporary files and outputs the dataset key and name of closed files, the
+   * records of datasets closed earlier in the bundle are output as {@link #EVICTED}
+   */
+  @Slf4j
+  static class WriteFn extends DoFn<KV<String, ExtendedRecord>, KV<String, String>> {
+
+    private final Counter filesWritten = Metrics.counter(DatasetAvroWrite.class, "filesWritten");
+    private final Counter recordsEvicted =
+        Metrics.counter(DatasetAvroWrite.class, "recordsEvicted");
+
+    private final String tempPath;
+    private final int maxOpenWriters;
+
+    private transient Map<String, OpenFile> openFiles;
+    private transient Set<String> closedDatasets;
+
+    WriteFn(String tempPath, int maxOpenWriters) {
+      this.tempPath = tempPath;
+      this.maxOpenWriters = maxOpenWriters;
+    }
+
+    @StartBundle
+    public void startBundle() {
+      // Access order, the first entry is the least recently used file
+      openFiles = new LinkedHashMap<>(16, 0.75f, true);
+      closedDatasets = new HashSet<>();
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c) throws IOException {
+      String datasetKey = c.element().getKey();
+      OpenFile file = openFiles.get(datasetKey);
+      if (file == null) {
+        if (closedDatasets.contains(datasetKey)) {
+          c.output(EVICTED, c.element());
+          recordsEvicted.inc();
+          return;
+        }
+        if (openFiles.size() >= maxOpenWriters) {
+          Iterator<Map.Entry<String, OpenFile>> eldest = openFiles.entrySet().iterator();
+          Map.Entry<String, OpenFile> entry = eldest.next();
+          eldest.remove();
+          closedDatasets.add(entry.getKey());
+          c.output(close(entry.getKey(), entry.getValue()));
+        }
+        file = open(datasetKey);
+        openFiles.put(datasetKey, file);
+      }
+      file.writer.append(c.element().getValue());
+    }
+
+    @FinishBundle
+    public void finishBundle(FinishBundleContext c) throws IOException {
+      for (Map.Entry<String, OpenFile> entry : openFiles.entrySet()) {
+        c.output(
+            close(entry.getKey(), entry.getValue()),
+            BoundedWindow.TIMESTAMP_MIN_VALUE,
+            GlobalWindow.INSTANCE);
+      }
+      openFiles.clear();
+      closedDatasets.clear();
+    }
+
+    /** Closes files of a failed bundle, the files stay in the temporary directory */
+    @Teardown
+    public void teardown() {
+      if (openFiles == null) {
+        return;
+      }
+      for (OpenFile file : openFiles.values()) {
+        try {
+          file.writer.close();
+        } catch (IOException ex) {
+          log.warn("Can't close temporary file {}", file.resourceId, ex);
+        }
+      }
+      openFiles.clear();
+    }
+
+    private OpenFile open(String datasetKey) throws IOException {
+      ResourceId resourceId =
+          FileSystems.matchNewResource(tempPath, true)
+              .resolve(datasetKey, RESOLVE_DIRECTORY)
+              .resolve(
+                  UUID.randomUUID() + PipelinesVariables.Pipeline.AVRO_EXTENSION, RESOLVE_FILE);
+
+      DataFileWriter<ExtendedRecord> writer =
+          new DataFileWriter<>(new SpecificDatumWriter<>(ExtendedRecord.class))
+              .setCodec(BASE_CODEC);
+      writer.create(
+          ExtendedRecord.getClassSchema(),
+          Channels.newOutputStream(FileSystems.create(resourceId, MimeTypes.BINARY)));
+      return new OpenFile(resourceId, writer);
+    }
+
+    private KV<String, String> close(String datasetKey, OpenFile file) throws IOException {
+      file.writer.close();
+      filesWritten.inc();
+      return KV.of(datasetKey, file.resourceId.toString());
+    }
+  }
+
+  /** Moves a closed temporary file into the dataset directory, repeated moves are ignored */
+  static class MoveFn extends DoFn<KV<String, String>, Void> {
+
+    private final String exportPath;
+    private final String filePrefix;
+
+    MoveFn(String exportPath, String filePrefix) {
+      this.exportPath = exportPath;
+      this.filePrefix = filePrefix;
+    }
+
+    @ProcessElement
+    public void processElement(@Element KV<String, String> file) throws IOException {
+      ResourceId source = FileSystems.matchNewResource(file.getValue(), false);
+      ResourceId target =
+          FileSystems.matchNewResource(exportPath, true)
+              .resolve(file.getKey(), RESOLVE_DIRECTORY)
+              .resolve(filePrefix + "-" + source.getFilename(), RESOLVE_FILE);
+
+      FileSystems.rename(
+          Collections.singletonList(source),
+          Collections.singletonList(target),
+          StandardMoveOptions.IGNORE_MISSING_FILES);
+    }
+  }
+
+  @AllArgsConstructor
+  private static class OpenFile {
+    private final ResourceId resourceId;
+    private final DataFileWriter<ExtendedRecord> writer;
+  }
+}
@@ -1,15 +1,20 @@
 package org.gbif.pipelines.hbase.utils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.dwc.terms.GbifTerm;
 import org.gbif.dwc.terms.Term;
+import org.gbif.occurrence.persistence.hbase.Columns;
 import org.gbif.occurrence.persistence.util.OccurrenceBuilder;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 
@@ -20,6 +25,9 @@ import org.gbif.pipelines.io.avro.ExtendedRecord;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class OccurrenceConverter {
 
+  private static final byte[] DATASET_KEY_COLUMN =
+      Bytes.toBytes(Columns.column(GbifTerm.datasetKey));
+
   /**
    * Converts a Hbase result into a {@link VerbatimOccurrence} record.
    *
@@ -30,6 +38,32 @@ public class OccurrenceConverter {
     return OccurrenceBuilder.buildVerbatimOccurrence(row);
   }
 
+  /**
+   * Converts a Hbase result into a {@link VerbatimOccurrence} record. Rows without a long
+   * occurrence key or without a dataset key, and rows which can't be built into an occurrence, are
+   * treated as bad data.
+   *
+   * @param row Hbase result
+   * @return a {@link VerbatimOccurrence} or empty for bad data
+   */
+  public static Optional<VerbatimOccurrence> toValidVerbatimOccurrence(Result row) {
+    if (row == null
+        || row.isEmpty()
+        || row.getRow() == null
+        || row.getRow().length != Bytes.SIZEOF_LONG
+        || !row.containsNonEmptyColumn(Columns.CF, DATASET_KEY_COLUMN)) {
+      return Optional.empty();
+    }
+    VerbatimOccurrence verbatimOccurrence = OccurrenceBuilder.buildVerbatimOccurrence(row);
+    if (verbatimOccurrence == null
+        || verbatimOccurrence.getKey() == null
+        || verbatimOccurrence.getDatasetKey() == null
+        || verbatimOccurrence.getVerbatimFields() == null) {
+      return Optional.empty();
+    }
+    return Optional.of(verbatimOccurrence);
+  }
+
   /**
    * Converts a Hbase result into a {@link ExtendedRecord} record.
    *
@@ -41,15 +75,19 @@ public class OccurrenceConverter {
   }
 
   /**
-   * Converts a {@link VerbatimOccurrence} into a {@link ExtendedRecord} record.
+   * Converts a {@link VerbatimOccurrence} into a {@link ExtendedRecord} record, terms without a
+   * value and empty extension records are skipped.
    *
    * @return a {@link ExtendedRecord}
    */
   public static ExtendedRecord toExtendedRecord(VerbatimOccurrence verbatimOccurrence) {
+    Map<Term, String> verbatimFields =
+        Optional.ofNullable(verbatimOccurrence.getVerbatimFields())
+            .orElse(Collections.emptyMap());
     ExtendedRecord.Builder builder =
         ExtendedRecord.newBuilder()
             .setId(String.valueOf(verbatimOccurrence.getKey()))
-            .setCoreTerms(toVerbatimMap(verbatimOccurrence.getVerbatimFields()));
+            .setCoreTerms(toVerbatimMap(verbatimFields));
 
     Optional.ofNullable(verbatimOccurrence.getExtensions())
         .ifPresent(ex -> builder.setExtensions(toVerbatimExtensionsMap(ex)));
@@ -60,7 +98,12 @@ public class OccurrenceConverter {
   /** Transforms a Map<Term,String> into Map<Term.qualifiedName/String,String>. */
   private static Map<String, String> toVerbatimMap(Map<Term, String> verbatimMap) {
     Map<String, String> rawMap = new HashMap<>(verbatimMap.size());
-    verbatimMap.forEach((k, v) -> rawMap.put(k.qualifiedName(), v));
+    verbatimMap.forEach(
+        (k, v) -> {
+          if (k != null && v != null) {
+            rawMap.put(k.qualifiedName(), v);
+          }
+        });
     return rawMap;
   }
 
@@ -73,10 +116,16 @@ public class OccurrenceConverter {
       Map<String, List<Map<Term, String>>> verbatimExtensions) {
     Map<String, List<Map<String, String>>> rawExtensions = new HashMap<>(verbatimExtensions.size());
     verbatimExtensions.forEach(
-        (k, v) ->
+        (k, v) -> {
+          if (k != null && v != null) {
             rawExtensions.put(
                 k,
-                v.stream().map(OccurrenceConverter::toVerbatimMap).collect(Collectors.toList())));
+                v.stream()
+                    .filter(Objects::nonNull)
+                    .map(OccurrenceConverter::toVerbatimMap)
+                    .collect(Collectors.toList()));
+          }
+        });
     return rawExtensions;
   }
 }
@@ -0,0 +1,125 @@
+package org.gbif.pipelines.hbase.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.beam.sdk.coders.AvroCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.testing.NeedsRunner;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.values.KV;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+@Category(NeedsRunner.class)
+public class DatasetAvroWriteTest {
+
+  private static final String PREFIX = "verbatimHBaseExport";
+
+  @Rule public final transient TestPipeline p = TestPipeline.create();
+  @Rule public final transient TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void writeEvictedDatasetsTest() throws IOException {
+
+    // State
+    String exportPath = new File(folder.getRoot(), "export").getAbsolutePath();
+    String tempPath = new File(folder.getRoot(), "temp").getAbsolutePath();
+    List<KV<String, ExtendedRecord>> input =
+        Arrays.asList(
+            record("a", "1"),
+            record("b", "2"),
+            record("a", "3"),
+            record("c", "4"),
+            record("b", "5"),
+            record("a", "6"));
+
+    // When
+    p.apply(
+            Create.of(input)
+                .withCoder(KvCoder.of(StringUtf8Coder.of(), AvroCoder.of(ExtendedRecord.class))))
+        .apply(DatasetAvroWrite.create(exportPath, tempPath, PREFIX, 1));
+    p.run().waitUntilFinish();
+
+    // Should
+    Map<String, List<String>> result = readIds(new File(exportPath));
+    assertEquals(3, result.size());
+    assertEquals(Arrays.asList("1", "3", "6"), result.get("a"));
+    assertEquals(Arrays.asList("2", "5"), result.get("b"));
+    assertEquals(Collections.singletonList("4"), result.get("c"));
+  }
+
+  @Test
+  public void moveFileTest() throws IOException {
+
+    // State
+    String exportPath = new File(folder.getRoot(), "export").getAbsolutePath();
+    File source = new File(folder.newFolder("temp", "a"), "file.avro");
+    try (DataFileWriter<ExtendedRecord> writer =
+        new DataFileWriter<>(new SpecificDatumWriter<>(ExtendedRecord.class))) {
+      writer.create(ExtendedRecord.getClassSchema(), source);
+      writer.append(record("a", "1").getValue());
+    }
+    KV<String, String> file = KV.of("a", source.getAbsolutePath());
+
+    // When
+    p.apply(
+            Create.of(file, file)
+                .withCoder(KvCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of())))
+        .apply(ParDo.of(new DatasetAvroWrite.MoveFn(exportPath, PREFIX)));
+    p.run().waitUntilFinish();
+
+    // Should
+    assertFalse(source.exists());
+    assertTrue(new File(exportPath, "a/" + PREFIX + "-file.avro").exists());
+    assertEquals(Collections.singletonList("1"), readIds(new File(exportPath)).get("a"));
+  }
+
+  private static KV<String, ExtendedRecord> record(String datasetKey, String id) {
+    return KV.of(datasetKey, ExtendedRecord.newBuilder().setId(id).build());
+  }
+
+  /** Reads the ids of the records in all avro files of every dataset directory, sorted */
+  private static Map<String, List<String>> readIds(File exportDir) throws IOException {
+    Map<String, List<String>> ids = new HashMap<>();
+    File[] datasetDirs = exportDir.listFiles(File::isDirectory);
+    if (datasetDirs == null) {
+      return ids;
+    }
+    for (File datasetDir : datasetDirs) {
+      List<String> datasetIds = new ArrayList<>();
+      File[] files = datasetDir.listFiles((dir, name) -> name.endsWith(".avro"));
+      for (File file : files == null ? new File[0] : files) {
+        try (DataFileReader<ExtendedRecord> reader =
+            new DataFileReader<>(file, new SpecificDatumReader<>(ExtendedRecord.class))) {
+          reader.forEach(er -> datasetIds.add(er.getId()));
+        }
+      }
+      Collections.sort(datasetIds);
+      ids.put(datasetDir.getName(), datasetIds);
+    }
+    return ids;
+  }
+}
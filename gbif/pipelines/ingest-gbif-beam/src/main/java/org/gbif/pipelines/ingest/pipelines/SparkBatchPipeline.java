@@ -0,0 +1,157 @@
+package org.gbif.pipelines.ingest.pipelines;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.beam.runners.spark.SparkContextOptions;
+import org.apache.beam.runners.spark.coders.SparkRunnerKryoRegistrator;
+import org.apache.beam.runners.spark.metrics.MetricsAccumulator;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.options.PipelineOptions;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.serializer.KryoSerializer;
+import org.gbif.api.model.pipelines.StepType;
+import org.gbif.pipelines.common.beam.options.EsIndexingPipelineOptions;
+import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
+import org.gbif.pipelines.common.beam.utils.PathBuilder;
+import org.gbif.pipelines.core.utils.FsUtils;
+import org.slf4j.MDC;
+
+/**
+ * Runs one pipeline step for many small datasets in one Spark application, the driver and the
+ * executors start once for the whole batch. Datasets run one after another in the shared {@link
+ * JavaSparkContext}, every dataset keeps its own options, output paths and metrics file. A failed
+ * dataset is logged and marked in the result file, the rest of the batch carries on.
+ *
+ * <p>The batch file has the pipeline arguments of one dataset per line, the result file is the
+ * batch file path with {@link #RESULT_SUFFIX} and has "datasetId_attempt: true|false" lines.
+ *
+ * <p>How to run:
+ *
+ * <pre>{@code
+ * spark2-submit --class org.gbif.pipelines.ingest.pipelines.SparkBatchPipeline \
+ * ingest-gbif-beam-BUILD_VERSION-shaded.jar \
+ * VERBATIM_TO_INTERPRETED \
+ * hdfs://ha-nn/data/ingest/batches/VERBATIM_TO_INTERPRETED_1ae7b1d1.txt \
+ * /etc/hadoop/conf/hdfs-site.xml \
+ * /etc/hadoop/conf/core-site.xml
+ *
+ * }</pre>
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SparkBatchPipeline {
+
+  public static final String RESULT_SUFFIX = "-result.yml";
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      throw new IllegalArgumentException(
+          "Usage: <step> <batchPath> [<hdfsSiteConfig> <coreSiteConfig>]");
+    }
+
+    StepType step = StepType.valueOf(args[0]);
+    String batchPath = args[1];
+    String hdfsSiteConfig = args.length > 2 ? args[2] : null;
+    String coreSiteConfig = args.length > 3 ? args[3] : null;
+
+    FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, batchPath);
+    List<String[]> batch = readBatch(fs, batchPath);
+    log.info("Running {} for {} datasets in one Spark application", step, batch.size());
+
+    // The same settings as the SparkRunner uses for the context it creates
+    SparkConf conf =
+        new SparkConf()
+            .setAppName(SparkBatchPipeline.class.getSimpleName() + "_" + step.name())
+            .set("spark.serializer", KryoSerializer.class.getName())
+            .set("spark.kryo.registrator", SparkRunnerKryoRegistrator.class.getName());
+    JavaSparkContext jsc = new JavaSparkContext(conf);
+
+    StringJoiner result = new StringJoiner("\n", "", "\n");
+    try {
+      for (String[] datasetArgs : batch) {
+        String key = getValue(datasetArgs, "datasetId") + "_" + getValue(datasetArgs, "attempt");
+        try {
+          run(step, datasetArgs, jsc);
+          result.add(key + ": true");
+        } catch (Exception ex) {
+          log.error("Failed {} for {}", step, key, ex);
+          result.add(key + ": false");
+        } finally {
+          MDC.clear();
+        }
+      }
+    } finally {
+      FsUtils.createFile(fs, batchPath + RESULT_SUFFIX, result.toString());
+      jsc.stop();
+    }
+  }
+
+  /** Runs the step for one dataset, using the shared spark context */
+  private static void run(StepType step, String[] args, JavaSparkContext jsc) {
+    // Metrics accumulator is static, the metrics of the previous dataset must not be counted
+    MetricsAccumulator.clear();
+
+    switch (step) {
+      case VERBATIM_TO_INTERPRETED:
+        InterpretationPipelineOptions interpretation =
+            PipelinesOptionsFactory.createInterpretation(args);
+        VerbatimToInterpretedPipeline.run(interpretation, o -> createPipeline(o, jsc));
+        break;
+      case INTERPRETED_TO_INDEX:
+        EsIndexingPipelineOptions indexing = PipelinesOptionsFactory.createIndexing(args);
+        Runnable indexingPipeline =
+            () -> InterpretedToEsIndexPipeline.run(indexing, o -> createPipeline(o, jsc));
+        InterpretedToEsIndexExtendedPipeline.run(indexing, indexingPipeline);
+        FsUtils.removeTmpDirectory(PathBuilder.getTempDir(indexing));
+        break;
+      case HDFS_VIEW:
+        InterpretationPipelineOptions hdfsView = PipelinesOptionsFactory.createInterpretation(args);
+        InterpretedToHdfsViewPipeline.run(hdfsView, o -> createPipeline(o, jsc));
+        break;
+      default:
+        throw new IllegalArgumentException("Step is not supported in a batch - " + step);
+    }
+  }
+
+  private static Pipeline createPipeline(PipelineOptions options, JavaSparkContext jsc) {
+    SparkContextOptions sparkOptions = options.as(SparkContextOptions.class);
+    sparkOptions.setUsesProvidedSparkContext(true);
+    sparkOptions.setProvidedSparkContext(jsc);
+    return Pipeline.create(sparkOptions);
+  }
+
+  /** Reads pipeline arguments, one line per dataset */
+  private static List<String[]> readBatch(FileSystem fs, String batchPath) throws IOException {
+    try (BufferedReader br =
+        new BufferedReader(new InputStreamReader(fs.open(new Path(batchPath)), UTF_8))) {
+      return br.lines()
+          .map(String::trim)
+          .filter(x -> !x.isEmpty())
+          .map(x -> x.split(" "))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static String getValue(String[] args, String name) {
+    String prefix = "--" + name + "=";
+    return Arrays.stream(args)
+        .filter(x -> x.startsWith(prefix))
+        .map(x -> x.substring(prefix.length()))
+        .findFirst()
+        .orElse(null);
+  }
+}
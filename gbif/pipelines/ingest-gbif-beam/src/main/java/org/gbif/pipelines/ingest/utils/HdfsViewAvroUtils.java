@@ -2,6 +2,9 @@ package org.gbif.pipelines.ingest.utils;
 
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.OCCURRENCE;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +18,34 @@ import org.gbif.pipelines.core.utils.FsUtils;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class HdfsViewAvroUtils {
 
+  /** Extension tables of the HDFS view and the extensions they are converted from */
+  public static final Map<RecordType, Extension> TABLE_EXTENSIONS;
+
+  static {
+    Map<RecordType, Extension> map = new EnumMap<>(RecordType.class);
+    map.put(RecordType.MEASUREMENT_OR_FACT_TABLE, Extension.MEASUREMENT_OR_FACT);
+    map.put(RecordType.IDENTIFICATION_TABLE, Extension.IDENTIFICATION);
+    map.put(RecordType.RESOURCE_RELATIONSHIP_TABLE, Extension.RESOURCE_RELATIONSHIP);
+    map.put(RecordType.AMPLIFICATION_TABLE, Extension.AMPLIFICATION);
+    map.put(RecordType.CLONING_TABLE, Extension.CLONING);
+    map.put(RecordType.GEL_IMAGE_TABLE, Extension.GEL_IMAGE);
+    map.put(RecordType.LOAN_TABLE, Extension.LOAN);
+    map.put(RecordType.MATERIAL_SAMPLE_TABLE, Extension.MATERIAL_SAMPLE);
+    map.put(RecordType.PERMIT_TABLE, Extension.PERMIT);
+    map.put(RecordType.PREPARATION_TABLE, Extension.PREPARATION);
+    map.put(RecordType.PRESERVATION_TABLE, Extension.PRESERVATION);
+    map.put(RecordType.GERMPLASM_MEASUREMENT_SCORE_TABLE, Extension.GERMPLASM_MEASUREMENT_SCORE);
+    map.put(RecordType.GERMPLASM_MEASUREMENT_TRAIT_TABLE, Extension.GERMPLASM_MEASUREMENT_TRAIT);
+    map.put(RecordType.GERMPLASM_MEASUREMENT_TRIAL_TABLE, Extension.GERMPLASM_MEASUREMENT_TRIAL);
+    map.put(RecordType.GERMPLASM_ACCESSION_TABLE, Extension.GERMPLASM_ACCESSION);
+    map.put(RecordType.EXTENDED_MEASUREMENT_OR_FACT_TABLE, Extension.EXTENDED_MEASUREMENT_OR_FACT);
+    map.put(RecordType.CHRONOMETRIC_AGE_TABLE, Extension.CHRONOMETRIC_AGE);
+    map.put(RecordType.CHRONOMETRIC_DATE_TABLE, Extension.CHRONOMETRIC_DATE);
+    map.put(RecordType.REFERENCE_TABLE, Extension.REFERENCE);
+    map.put(RecordType.IDENTIFIER_TABLE, Extension.IDENTIFIER);
+    TABLE_EXTENSIONS = Collections.unmodifiableMap(map);
+  }
+
   /**
    * Copies all occurrence records into the directory from targetPath. Deletes pre-existing data of
    * the dataset being processed.
@@ -34,38 +65,7 @@ public class HdfsViewAvroUtils {
 
   private static void moveAll(InterpretationPipelineOptions options) {
     move(options, OCCURRENCE);
-    move(options, RecordType.MEASUREMENT_OR_FACT_TABLE, Extension.MEASUREMENT_OR_FACT);
-    move(options, RecordType.IDENTIFICATION_TABLE, Extension.IDENTIFICATION);
-    move(options, RecordType.RESOURCE_RELATIONSHIP_TABLE, Extension.RESOURCE_RELATIONSHIP);
-    move(options, RecordType.AMPLIFICATION_TABLE, Extension.AMPLIFICATION);
-    move(options, RecordType.CLONING_TABLE, Extension.CLONING);
-    move(options, RecordType.GEL_IMAGE_TABLE, Extension.GEL_IMAGE);
-    move(options, RecordType.LOAN_TABLE, Extension.LOAN);
-    move(options, RecordType.MATERIAL_SAMPLE_TABLE, Extension.MATERIAL_SAMPLE);
-    move(options, RecordType.PERMIT_TABLE, Extension.PERMIT);
-    move(options, RecordType.PREPARATION_TABLE, Extension.PREPARATION);
-    move(options, RecordType.PRESERVATION_TABLE, Extension.PRESERVATION);
-    move(
-        options,
-        RecordType.GERMPLASM_MEASUREMENT_SCORE_TABLE,
-        Extension.GERMPLASM_MEASUREMENT_SCORE);
-    move(
-        options,
-        RecordType.GERMPLASM_MEASUREMENT_TRAIT_TABLE,
-        Extension.GERMPLASM_MEASUREMENT_TRAIT);
-    move(
-        options,
-        RecordType.GERMPLASM_MEASUREMENT_TRIAL_TABLE,
-        Extension.GERMPLASM_MEASUREMENT_TRIAL);
-    move(options, RecordType.GERMPLASM_ACCESSION_TABLE, Extension.GERMPLASM_ACCESSION);
-    move(
-        options,
-        RecordType.EXTENDED_MEASUREMENT_OR_FACT_TABLE,
-        Extension.EXTENDED_MEASUREMENT_OR_FACT);
-    move(options, RecordType.CHRONOMETRIC_AGE_TABLE, Extension.CHRONOMETRIC_AGE);
-    move(options, RecordType.CHRONOMETRIC_DATE_TABLE, Extension.CHRONOMETRIC_DATE);
-    move(options, RecordType.REFERENCE_TABLE, Extension.REFERENCE);
-    move(options, RecordType.IDENTIFIER_TABLE, Extension.IDENTIFIER);
+    TABLE_EXTENSIONS.forEach((recordType, extension) -> move(options, recordType, extension));
   }
 
   private static void move(InterpretationPipelineOptions options, RecordType recordType) {
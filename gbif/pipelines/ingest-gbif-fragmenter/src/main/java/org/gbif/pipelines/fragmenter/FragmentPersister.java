@@ -19,11 +19,13 @@ import lombok.Builder;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.Table;
 import org.gbif.api.vocabulary.EndpointType;
 import org.gbif.converters.parser.xml.parsing.validators.UniquenessValidator;
+import org.gbif.pipelines.fragmenter.common.HbaseBulkLoader;
 import org.gbif.pipelines.fragmenter.common.HbaseStore;
 import org.gbif.pipelines.fragmenter.record.OccurrenceRecord;
 import org.gbif.pipelines.fragmenter.record.OccurrenceRecordConverter;
@@ -42,6 +44,10 @@ import org.gbif.pipelines.keygen.config.KeygenConfig;
  * keys (salt + ":" + GBIF id) 4. Get **dateCreated** from the table using GBIF id, if a record is
  * exist 5. Create HBase put(create new or update existing) records and upload them into HBase
  *
+ * <p>With {@code useBulkLoad} the records are written into sorted HFiles instead of HBase puts and
+ * the files are bulk loaded into the table at the end, see {@link HbaseBulkLoader}. Use it for
+ * large datasets, it avoids the RegionServer write load.
+ *
  * <pre>{@code
  * long recordsProcessed = FragmentsUploader.dwcaBuilder()
  *      .tableName("Tabe name")
@@ -84,6 +90,19 @@ public class FragmentPersister {
 
   @Builder.Default private boolean useSyncMode = true;
 
+  @Builder.Default
+  private int maxInMemoryIds = UniquenessValidator.DEFAULT_MAX_IN_MEMORY_IDS;
+
+  @Builder.Default private boolean useBulkLoad = false;
+
+  private FileSystem bulkLoadFs;
+
+  private String bulkLoadDir;
+
+  @Builder.Default private int bulkLoadBatchSize = 50_000;
+
+  @Builder.Default private long bulkLoadBatchBytes = 256L * 1024 * 1024;
+
   @Builder.Default private ExecutorService executor = Executors.newSingleThreadExecutor();
 
   private Integer backPressure;
@@ -115,11 +134,15 @@ public class FragmentPersister {
     final HBaseLockingKeyService keygenService =
         new HBaseLockingKeyService(keygenConfig, connection, datasetKey);
 
+    if (useBulkLoad) {
+      return persistBulk(connection, keygenService);
+    }
+
     rows.add(new ArrayList<>(batchSize));
 
     log.info("Uploadind fragments from {}", pathToArchive);
     try (Table table = connection.getTable(TableName.valueOf(tableName));
-        UniquenessValidator validator = UniquenessValidator.getNewInstance()) {
+        UniquenessValidator validator = UniquenessValidator.getNewInstance(maxInMemoryIds)) {
 
       // Main function receives batch and puts it into HBase table
       Consumer<List<OccurrenceRecord>> hbaseBulkFn =
@@ -175,6 +198,61 @@ public class FragmentPersister {
     return occurrenceCounter.get();
   }
 
+  /** Writes all records into HFiles and bulk loads them into the table */
+  private long persistBulk(Connection connection, HBaseLockingKeyService keygenService)
+      throws Exception {
+
+    final AtomicInteger occurrenceCounter = new AtomicInteger(0);
+    final List<OccurrenceRecord> batch = new ArrayList<>(batchSize);
+
+    log.info("Uploading fragments from {} using HBase bulk load", pathToArchive);
+    try (UniquenessValidator validator = UniquenessValidator.getNewInstance(maxInMemoryIds);
+        HbaseBulkLoader loader =
+            HbaseBulkLoader.builder()
+                .connection(connection)
+                .tableName(tableName)
+                .fs(bulkLoadFs)
+                .bulkLoadDir(bulkLoadDir)
+                .datasetKey(datasetKey)
+                .attempt(attempt)
+                .endpointType(endpointType)
+                .maxInMemoryFragments(bulkLoadBatchSize)
+                .maxInMemoryBytes(bulkLoadBatchBytes)
+                .build()) {
+
+      // Gets GBIF ids for the batch and passes records to the loader
+      Runnable convertFn =
+          () -> {
+            Map<String, String> map =
+                OccurrenceRecordConverter.convert(
+                    keygenService, validator, useTriplet, useOccurrenceId, batch);
+            loader.add(map);
+            batch.clear();
+
+            int recordsReturned = occurrenceCounter.addAndGet(map.size());
+            if (recordsReturned % 10_000 == 0) {
+              log.info("{}_{}: Converted [{}] records", datasetKey, attempt, recordsReturned);
+            }
+          };
+
+      strategy.process(
+          pathToArchive,
+          record -> {
+            batch.add(record);
+            if (batch.size() >= batchSize) {
+              convertFn.run();
+            }
+          });
+
+      // Final batch
+      convertFn.run();
+
+      loader.load();
+    }
+
+    return occurrenceCounter.get();
+  }
+
   /** Close HBase connection */
   public void close() {
     try {
@@ -0,0 +1,203 @@
+package org.gbif.pipelines.fragmenter.common;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFile;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.mapreduce.LoadIncrementalHFiles;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.gbif.api.vocabulary.EndpointType;
+
+/**
+ * Writes fragments into HFiles and bulk loads them into the table, fragments don't go through the
+ * RegionServer write path and memstores.
+ *
+ * <p>Fragments are kept in memory sorted by the salted key, they are written into a new HFile when
+ * there are {@code maxInMemoryFragments} fragments or {@code maxInMemoryBytes} bytes in memory.
+ * Created dates of the existing records are read with
+ * multi-gets before a file is written, so an updated record keeps its created date.
+ *
+ * <p>HFiles are written into {@code <bulkLoadDir>/<datasetKey>_<attempt>}, the directory must be a
+ * fully qualified path on the filesystem HBase uses, RegionServers move the files from there.
+ */
+@Slf4j
+public class HbaseBulkLoader implements AutoCloseable {
+
+  private static final FsPermission DIR_PERMISSION = new FsPermission((short) 0777);
+
+  private static final Comparator<Cell> QUALIFIER_ORDER =
+      (a, b) ->
+          Bytes.compareTo(
+              a.getQualifierArray(),
+              a.getQualifierOffset(),
+              a.getQualifierLength(),
+              b.getQualifierArray(),
+              b.getQualifierOffset(),
+              b.getQualifierLength());
+
+  private final Connection connection;
+  private final TableName tableName;
+  private final String datasetKey;
+  private final Integer attempt;
+  private final EndpointType endpointType;
+  private final int maxInMemoryFragments;
+  private final long maxInMemoryBytes;
+
+  private final Configuration conf;
+  private final FileSystem fs;
+  private final Path dir;
+  private final Path familyDir;
+
+  private final Map<String, String> fragments = new TreeMap<>();
+  private long fragmentsBytes = 0L;
+  private int filesNumber = 0;
+
+  @Builder
+  private HbaseBulkLoader(
+      @NonNull Connection connection,
+      @NonNull FileSystem fs,
+      @NonNull String tableName,
+      @NonNull String bulkLoadDir,
+      @NonNull String datasetKey,
+      @NonNull Integer attempt,
+      @NonNull EndpointType endpointType,
+      int maxInMemoryFragments,
+      long maxInMemoryBytes)
+      throws IOException {
+    if (new Path(bulkLoadDir).toUri().getScheme() == null) {
+      throw new IllegalArgumentException(
+          "Bulk load directory must be a fully qualified path, e.g. hdfs://ha-nn/tmp/bulk-load, "
+              + "but was "
+              + bulkLoadDir);
+    }
+    this.connection = connection;
+    this.tableName = TableName.valueOf(tableName);
+    this.datasetKey = datasetKey;
+    this.attempt = attempt;
+    this.endpointType = endpointType;
+    this.maxInMemoryFragments = maxInMemoryFragments;
+    this.maxInMemoryBytes = maxInMemoryBytes;
+
+    // The bulk loader resolves the directory with its configuration, it needs the HDFS settings
+    this.conf = new Configuration(fs.getConf());
+    HBaseConfiguration.merge(conf, connection.getConfiguration());
+    this.fs = fs;
+    this.dir = new Path(bulkLoadDir, datasetKey + "_" + attempt);
+    this.familyDir = new Path(dir, Bytes.toString(HbaseStore.getFragmentFamily()));
+
+    // Files of a failed run
+    fs.delete(dir, true);
+    fs.mkdirs(familyDir);
+    fs.setPermission(dir, DIR_PERMISSION);
+    fs.setPermission(familyDir, DIR_PERMISSION);
+  }
+
+  /** Adds fragments, writes a HFile when the fragments in memory reach one of the maximums */
+  @SneakyThrows
+  public void add(Map<String, String> fragmentsMap) {
+    for (Map.Entry<String, String> fragment : fragmentsMap.entrySet()) {
+      fragments.put(fragment.getKey(), fragment.getValue());
+      // Java strings take two bytes per char
+      fragmentsBytes += 2L * (fragment.getKey().length() + fragment.getValue().length());
+    }
+    if (fragments.size() >= maxInMemoryFragments || fragmentsBytes >= maxInMemoryBytes) {
+      writeHFile();
+    }
+  }
+
+  /** Writes the remaining fragments and bulk loads all written HFiles into the table */
+  public void load() throws Exception {
+    writeHFile();
+    if (filesNumber == 0) {
+      return;
+    }
+    log.info("{}_{}: Bulk loading [{}] HFiles from {}", datasetKey, attempt, filesNumber, dir);
+    try (Admin admin = connection.getAdmin();
+        Table table = connection.getTable(tableName);
+        RegionLocator locator = connection.getRegionLocator(tableName)) {
+      new LoadIncrementalHFiles(conf).doBulkLoad(dir, admin, table, locator);
+    }
+  }
+
+  /** Deletes the directory with HFiles, loaded files were already moved by HBase */
+  @Override
+  public void close() throws IOException {
+    fs.delete(dir, true);
+  }
+
+  private void writeHFile() throws IOException {
+    if (fragments.isEmpty()) {
+      return;
+    }
+
+    Map<String, Long> dateMap;
+    try (Table table = connection.getTable(tableName)) {
+      dateMap = HbaseStore.getCreatedDateMap(table, fragments.keySet());
+    }
+
+    Path file = new Path(familyDir, "fragments_" + filesNumber++);
+    long timestamp = Instant.now().toEpochMilli();
+    HFile.Writer writer =
+        HFile.getWriterFactory(conf, new CacheConfig(conf))
+            .withPath(fs, file)
+            .withFileContext(new HFileContextBuilder().build())
+            .create();
+    try {
+      // Cells must be appended in key order, the map is sorted by the row key
+      for (Map.Entry<String, String> fragment : fragments.entrySet()) {
+        List<Cell> cells =
+            new ArrayList<>(
+                HbaseStore.createFragmentPut(
+                        datasetKey,
+                        attempt,
+                        endpointType.name(),
+                        fragment.getKey(),
+                        fragment.getValue(),
+                        dateMap.get(fragment.getKey()))
+                    .getFamilyCellMap()
+                    .get(HbaseStore.getFragmentFamily()));
+        cells.sort(QUALIFIER_ORDER);
+        for (Cell cell : cells) {
+          writer.append(
+              new KeyValue(
+                  CellUtil.cloneRow(cell),
+                  CellUtil.cloneFamily(cell),
+                  CellUtil.cloneQualifier(cell),
+                  timestamp,
+                  CellUtil.cloneValue(cell)));
+        }
+      }
+      writer.appendFileInfo(StoreFile.BULKLOAD_TIME_KEY, Bytes.toBytes(timestamp));
+    } finally {
+      writer.close();
+    }
+
+    log.info("{}_{}: Written [{}] fragments into {}", datasetKey, attempt, fragments.size(), file);
+    fragments.clear();
+    fragmentsBytes = 0L;
+  }
+}
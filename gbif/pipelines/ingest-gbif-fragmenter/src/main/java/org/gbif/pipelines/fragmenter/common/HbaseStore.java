@@ -2,6 +2,8 @@ package org.gbif.pipelines.fragmenter.common;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +15,7 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.gbif.api.vocabulary.EndpointType;
@@ -21,6 +24,8 @@ import org.gbif.api.vocabulary.EndpointType;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class HbaseStore {
 
+  private static final int GET_BATCH_SIZE = 1_000;
+
   private static final byte[] FF_BYTES = Bytes.toBytes("fragment");
 
   private static final byte[] DQ_BYTES = Bytes.toBytes("datasetKey");
@@ -39,7 +44,7 @@ public class HbaseStore {
       EndpointType endpointType,
       Map<String, String> fragmentsMap) {
 
-    Map<String, Long> dateMap = getCreatedDateMap(table, fragmentsMap);
+    Map<String, Long> dateMap = getCreatedDateMap(table, fragmentsMap.keySet());
 
     List<Put> putList =
         fragmentsMap.entrySet().stream()
@@ -57,23 +62,30 @@ public class HbaseStore {
     table.put(putList);
   }
 
-  private static Map<String, Long> getCreatedDateMap(Table table, Map<String, String> fragmentsMap)
+  /** Reads created dates of the existing records, one multi-get per {@link #GET_BATCH_SIZE} keys */
+  static Map<String, Long> getCreatedDateMap(Table table, Collection<String> keys)
       throws IOException {
 
     Map<String, Long> createdDateMap = new HashMap<>();
 
-    for (String key : fragmentsMap.keySet()) {
-      Get get = createCreatedDateGet(key);
-      byte[] value = table.get(get).value();
-      if (value != null) {
-        createdDateMap.put(key, Bytes.toLong(value));
+    List<String> keyList = new ArrayList<>(keys);
+    for (int from = 0; from < keyList.size(); from += GET_BATCH_SIZE) {
+      List<String> batch = keyList.subList(from, Math.min(keyList.size(), from + GET_BATCH_SIZE));
+      List<Get> gets =
+          batch.stream().map(HbaseStore::createCreatedDateGet).collect(Collectors.toList());
+      Result[] results = table.get(gets);
+      for (int i = 0; i < results.length; i++) {
+        byte[] value = results[i].value();
+        if (value != null) {
+          createdDateMap.put(batch.get(i), Bytes.toLong(value));
+        }
       }
     }
 
     return createdDateMap;
   }
 
-  private static Put createFragmentPut(
+  static Put createFragmentPut(
       String datasetKey,
       Integer attempt,
       String protocol,
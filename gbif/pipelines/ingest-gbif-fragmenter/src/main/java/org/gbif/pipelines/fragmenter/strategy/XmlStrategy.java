@@ -1,14 +1,9 @@
 package org.gbif.pipelines.fragmenter.strategy;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import org.gbif.converters.parser.xml.OccurrenceParser;
@@ -20,29 +15,26 @@ import org.gbif.pipelines.fragmenter.record.XmlOccurrenceRecord;
 @NoArgsConstructor(staticName = "create")
 public class XmlStrategy implements Strategy {
 
-  private static final String EXT_RESPONSE = ".response";
-  private static final String EXT_XML = ".xml";
-
   @SneakyThrows
   @Override
   public void process(Path path, Consumer<OccurrenceRecord> pushRecordFn) {
-    File inputFile = ParserFileUtils.uncompressAndGetInputFile(path.toString());
-    getInputFiles(inputFile)
-        .forEach(
-            f ->
-                OccurrenceParser.parse(f).stream()
-                    .map(XmlOccurrenceRecord::create)
-                    .forEach(pushRecordFn));
-  }
-
-  /** Traverse the input directory and gets all the files. */
-  private List<File> getInputFiles(File inputhFile) throws IOException {
-    Predicate<Path> prefixPr =
-        x -> x.toString().endsWith(EXT_RESPONSE) || x.toString().endsWith(EXT_XML);
-    try (Stream<Path> walk =
-        Files.walk(inputhFile.toPath())
-            .filter(file -> file.toFile().isFile() && prefixPr.test(file))) {
-      return walk.map(Path::toFile).collect(Collectors.toList());
+    File inputFile = ParserFileUtils.getInputFile(path.toString());
+    if (ParserFileUtils.isArchive(inputFile)) {
+      // Archive entries are parsed while the archive is being read, nothing is extracted to disk
+      ParserFileUtils.readXmlEntries(
+          inputFile,
+          (name, content) ->
+              new OccurrenceParser()
+                  .parseStream(new ByteArrayInputStream(content)).stream()
+                      .map(XmlOccurrenceRecord::create)
+                      .forEach(pushRecordFn));
+    } else {
+      ParserFileUtils.getXmlFiles(inputFile)
+          .forEach(
+              f ->
+                  OccurrenceParser.parse(f).stream()
+                      .map(XmlOccurrenceRecord::create)
+                      .forEach(pushRecordFn));
     }
   }
 }
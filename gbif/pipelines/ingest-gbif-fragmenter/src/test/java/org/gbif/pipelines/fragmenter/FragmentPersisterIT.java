@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.Executors;
+import org.apache.hadoop.fs.FileSystem;
 import org.gbif.api.vocabulary.EndpointType;
 import org.gbif.pipelines.fragmenter.common.HbaseServer;
 import org.gbif.pipelines.fragmenter.common.TableAssert;
@@ -42,6 +43,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -71,6 +73,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -100,6 +103,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -226,6 +230,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -255,6 +260,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -286,6 +292,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -315,6 +322,7 @@ public class FragmentPersisterIT {
     String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
     int attempt = 231;
     EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
 
     // When
     long result =
@@ -495,4 +503,92 @@ public class FragmentPersisterIT {
     TableAssert.assertTableDateUpdated(
         HBASE_SERVER.getConnection(), expSize, datasetKey, attemptSecond, endpointType);
   }
+
+  @Test
+  public void dwcaBulkLoadUploadTest() throws IOException {
+    // State
+    int expSize = 210;
+    String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
+    int attempt = 231;
+    EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
+
+    // When
+    long result =
+        FragmentPersister.dwcaBuilder()
+            .tableName(HbaseServer.FRAGMENT_TABLE_NAME)
+            .keygenConfig(HbaseServer.CFG)
+            .pathToArchive(regularDwca)
+            .useTriplet(false)
+            .useOccurrenceId(true)
+            .datasetKey(datasetKey)
+            .attempt(attempt)
+            .endpointType(endpointType)
+            .hbaseConnection(HBASE_SERVER.getConnection())
+            .useBulkLoad(true)
+            .bulkLoadFs(bulkLoadFs)
+            .bulkLoadDir(bulkLoadDir(bulkLoadFs))
+            .bulkLoadBatchSize(50)
+            .build()
+            .persist();
+
+    // Should
+    Assert.assertEquals(expSize, result);
+    TableAssert.assertTable(
+        HBASE_SERVER.getConnection(), expSize, datasetKey, attempt, endpointType);
+  }
+
+  @Test
+  public void dwcaBulkLoadUpdateUploadTest() throws IOException {
+    // State
+    int expSize = 210;
+    String datasetKey = "50c9509d-22c7-4a22-a47d-8c48425ef4a8";
+    int attemptFirst = 231;
+    int attemptSecond = 232;
+    EndpointType endpointType = EndpointType.DWC_ARCHIVE;
+    FileSystem bulkLoadFs = FileSystem.get(HBASE_SERVER.getConnection().getConfiguration());
+
+    // When
+    long resultFirst =
+        FragmentPersister.dwcaBuilder()
+            .tableName(HbaseServer.FRAGMENT_TABLE_NAME)
+            .keygenConfig(HbaseServer.CFG)
+            .pathToArchive(regularDwca)
+            .useTriplet(false)
+            .useOccurrenceId(true)
+            .datasetKey(datasetKey)
+            .attempt(attemptFirst)
+            .endpointType(EndpointType.BIOCASE_XML_ARCHIVE)
+            .hbaseConnection(HBASE_SERVER.getConnection())
+            .build()
+            .persist();
+
+    long resultSecond =
+        FragmentPersister.dwcaBuilder()
+            .tableName(HbaseServer.FRAGMENT_TABLE_NAME)
+            .keygenConfig(HbaseServer.CFG)
+            .pathToArchive(regularDwca)
+            .useTriplet(false)
+            .useOccurrenceId(true)
+            .datasetKey(datasetKey)
+            .attempt(attemptSecond)
+            .endpointType(endpointType)
+            .hbaseConnection(HBASE_SERVER.getConnection())
+            .useBulkLoad(true)
+            .bulkLoadFs(bulkLoadFs)
+            .bulkLoadDir(bulkLoadDir(bulkLoadFs))
+            .bulkLoadBatchSize(50)
+            .build()
+            .persist();
+
+    // Should
+    Assert.assertEquals(expSize, resultFirst);
+    Assert.assertEquals(expSize, resultSecond);
+    TableAssert.assertTableDateUpdated(
+        HBASE_SERVER.getConnection(), expSize, datasetKey, attemptSecond, endpointType);
+  }
+
+  private static String bulkLoadDir(FileSystem fs) {
+    return fs.makeQualified(new org.apache.hadoop.fs.Path("/tmp/fragmenter-bulk-load")).toString();
+  }
 }
@@ -1,7 +1,6 @@
 package org.gbif.pipelines.ingest.java.pipelines;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,7 +8,9 @@ import org.gbif.api.model.pipelines.StepType;
 import org.gbif.pipelines.common.beam.options.EsIndexingPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
 import org.gbif.pipelines.common.beam.utils.PathBuilder;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.pipelines.core.utils.FsUtils;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
 import org.slf4j.MDC;
 
 /**
@@ -70,7 +71,7 @@ public class InterpretedToEsIndexExtendedPipeline {
   }
 
   public static void run(EsIndexingPipelineOptions options) {
-    ExecutorService executor = Executors.newWorkStealingPool();
+    ExecutorService executor = ExecutorFactory.create(options.getUseVirtualThreads(), null);
     try {
       run(options, executor);
     } finally {
@@ -83,13 +84,24 @@ public class InterpretedToEsIndexExtendedPipeline {
     InterpretedToEsIndexExtendedPipeline.run(options, executor);
   }
 
+  public static void run(String[] args, ExecutorService executor, InterpretedRecords records) {
+    EsIndexingPipelineOptions options = PipelinesOptionsFactory.createIndexing(args);
+    run(options, executor, records);
+  }
+
   public static void run(EsIndexingPipelineOptions options, ExecutorService executor) {
+    run(options, executor, null);
+  }
+
+  /** Takes the records of the types interpreted in the same JVM from memory */
+  public static void run(
+      EsIndexingPipelineOptions options, ExecutorService executor, InterpretedRecords records) {
     MDC.put("datasetKey", options.getDatasetId());
     MDC.put("attempt", options.getAttempt().toString());
     MDC.put("step", StepType.INTERPRETED_TO_INDEX.name());
 
     org.gbif.pipelines.ingest.pipelines.InterpretedToEsIndexExtendedPipeline.run(
-        options, () -> InterpretedToEsIndexPipeline.run(options, executor));
+        options, () -> InterpretedToEsIndexPipeline.run(options, executor, records));
 
     FsUtils.removeTmpDirectory(PathBuilder.getTempDir(options));
     log.info("Finished main indexing pipeline");
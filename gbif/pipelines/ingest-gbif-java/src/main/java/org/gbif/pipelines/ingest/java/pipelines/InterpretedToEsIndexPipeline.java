@@ -1,12 +1,12 @@
 package org.gbif.pipelines.ingest.java.pipelines;
 
+import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.close;
 import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.readAvroAsFuture;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -18,9 +18,11 @@ import org.gbif.pipelines.common.beam.metrics.IngestMetrics;
 import org.gbif.pipelines.common.beam.metrics.MetricsHandler;
 import org.gbif.pipelines.common.beam.options.EsIndexingPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.pipelines.core.io.ElasticsearchWriter;
 import org.gbif.pipelines.ingest.java.metrics.IngestMetricsBuilder;
 import org.gbif.pipelines.ingest.java.transforms.IndexRequestConverter;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
 import org.gbif.pipelines.io.avro.AudubonRecord;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -98,7 +100,7 @@ public class InterpretedToEsIndexPipeline {
   }
 
   public static void run(EsIndexingPipelineOptions options) {
-    ExecutorService executor = Executors.newWorkStealingPool();
+    ExecutorService executor = ExecutorFactory.create(options.getUseVirtualThreads(), null);
     try {
       run(options, executor);
     } finally {
@@ -111,8 +113,14 @@ public class InterpretedToEsIndexPipeline {
     run(options, executor);
   }
 
-  @SneakyThrows
   public static void run(EsIndexingPipelineOptions options, ExecutorService executor) {
+    run(options, executor, null);
+  }
+
+  /** Takes the records of the types interpreted in the same JVM from memory */
+  @SneakyThrows
+  public static void run(
+      EsIndexingPipelineOptions options, ExecutorService executor, InterpretedRecords records) {
 
     MDC.put("datasetKey", options.getDatasetId());
     MDC.put("attempt", options.getAttempt().toString());
@@ -125,34 +133,34 @@ public class InterpretedToEsIndexPipeline {
     log.info("Reading avro files...");
     // Reading all avro files in parallel
     CompletableFuture<Map<String, MetadataRecord>> metadataMapFeature =
-        readAvroAsFuture(options, executor, MetadataTransform.builder().create());
+        readAvroAsFuture(options, executor, MetadataTransform.builder().create(), records);
 
     CompletableFuture<Map<String, ExtendedRecord>> verbatimMapFeature =
-        readAvroAsFuture(options, executor, VerbatimTransform.create());
+        readAvroAsFuture(options, executor, VerbatimTransform.create(), records);
 
     CompletableFuture<Map<String, BasicRecord>> basicMapFeature =
-        readAvroAsFuture(options, executor, BasicTransform.builder().create());
+        readAvroAsFuture(options, executor, BasicTransform.builder().create(), records);
 
     CompletableFuture<Map<String, TemporalRecord>> temporalMapFeature =
-        readAvroAsFuture(options, executor, TemporalTransform.builder().create());
+        readAvroAsFuture(options, executor, TemporalTransform.builder().create(), records);
 
     CompletableFuture<Map<String, LocationRecord>> locationMapFeature =
-        readAvroAsFuture(options, executor, LocationTransform.builder().create());
+        readAvroAsFuture(options, executor, LocationTransform.builder().create(), records);
 
     CompletableFuture<Map<String, TaxonRecord>> taxonMapFeature =
-        readAvroAsFuture(options, executor, TaxonomyTransform.builder().create());
+        readAvroAsFuture(options, executor, TaxonomyTransform.builder().create(), records);
 
     CompletableFuture<Map<String, GrscicollRecord>> grscicollMapFeature =
-        readAvroAsFuture(options, executor, GrscicollTransform.builder().create());
+        readAvroAsFuture(options, executor, GrscicollTransform.builder().create(), records);
 
     CompletableFuture<Map<String, MultimediaRecord>> multimediaMapFeature =
-        readAvroAsFuture(options, executor, MultimediaTransform.builder().create());
+        readAvroAsFuture(options, executor, MultimediaTransform.builder().create(), records);
 
     CompletableFuture<Map<String, ImageRecord>> imageMapFeature =
-        readAvroAsFuture(options, executor, ImageTransform.builder().create());
+        readAvroAsFuture(options, executor, ImageTransform.builder().create(), records);
 
     CompletableFuture<Map<String, AudubonRecord>> audubonMapFeature =
-        readAvroAsFuture(options, executor, AudubonTransform.builder().create());
+        readAvroAsFuture(options, executor, AudubonTransform.builder().create(), records);
 
     Function<BasicRecord, IndexRequest> indexRequestFn =
         IndexRequestConverter.builder()
@@ -183,6 +191,18 @@ public class InterpretedToEsIndexPipeline {
         .build()
         .write();
 
+    close(
+        metadataMapFeature,
+        verbatimMapFeature,
+        basicMapFeature,
+        temporalMapFeature,
+        locationMapFeature,
+        taxonMapFeature,
+        grscicollMapFeature,
+        multimediaMapFeature,
+        imageMapFeature,
+        audubonMapFeature);
+
     MetricsHandler.saveCountersToTargetPathFile(options, metrics.getMetricsResult());
     log.info("Pipeline has been finished - {}", LocalDateTime.now());
   }
@@ -21,22 +21,25 @@ import static org.gbif.pipelines.common.PipelinesVariables.Metrics.REFERENCE_TAB
 import static org.gbif.pipelines.common.PipelinesVariables.Metrics.RESOURCE_RELATIONSHIP_TABLE_RECORDS_COUNT;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.*;
+import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.close;
 import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader.readAvroAsFuture;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.beam.sdk.transforms.SerializableBiFunction;
 import org.gbif.api.model.pipelines.StepType;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType;
@@ -64,11 +67,14 @@ import org.gbif.pipelines.core.converters.PreparationTableConverter;
 import org.gbif.pipelines.core.converters.PreservationTableConverter;
 import org.gbif.pipelines.core.converters.ReferenceTableConverter;
 import org.gbif.pipelines.core.converters.ResourceRelationshipTableConverter;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
+import org.gbif.pipelines.core.io.ExtendedRecordProjection;
 import org.gbif.pipelines.core.utils.FsUtils;
 import org.gbif.pipelines.ingest.java.metrics.IngestMetricsBuilder;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
+import org.gbif.pipelines.ingest.java.transforms.MultiTableRecordWriter;
 import org.gbif.pipelines.ingest.java.transforms.OccurrenceHdfsRecordConverter;
 import org.gbif.pipelines.ingest.java.transforms.TableConverter;
-import org.gbif.pipelines.ingest.java.transforms.TableRecordWriter;
 import org.gbif.pipelines.ingest.utils.HdfsViewAvroUtils;
 import org.gbif.pipelines.ingest.utils.SharedLockUtils;
 import org.gbif.pipelines.io.avro.AudubonRecord;
@@ -102,6 +108,7 @@ import org.gbif.pipelines.io.avro.extension.ggbn.PreparationTable;
 import org.gbif.pipelines.io.avro.extension.ggbn.PreservationTable;
 import org.gbif.pipelines.io.avro.extension.obis.ExtendedMeasurementOrFactTable;
 import org.gbif.pipelines.io.avro.grscicoll.GrscicollRecord;
+import org.gbif.pipelines.transforms.common.CheckTransforms;
 import org.gbif.pipelines.transforms.core.BasicTransform;
 import org.gbif.pipelines.transforms.core.GrscicollTransform;
 import org.gbif.pipelines.transforms.core.LocationTransform;
@@ -131,7 +138,8 @@ import org.slf4j.MDC;
  *      {@link GrscicollRecord},
  *      {@link LocationRecord}
  *    2) Joins avro files
- *    3) Converts to a {@link OccurrenceHdfsRecord} based on the input files
+ *    3) Converts to a {@link OccurrenceHdfsRecord} and extension tables based on the input files,
+ *    all tables are produced in one pass over the records and written as part files per partition
  *    4) Moves the produced files to a directory where the latest version of HDFS records are kept
  * </pre>
  *
@@ -165,7 +173,7 @@ public class InterpretedToHdfsViewPipeline {
   }
 
   public static void run(InterpretationPipelineOptions options) {
-    ExecutorService executor = Executors.newWorkStealingPool();
+    ExecutorService executor = ExecutorFactory.create(options.getUseVirtualThreads(), null);
     try {
       run(options, executor);
     } finally {
@@ -178,8 +186,21 @@ public class InterpretedToHdfsViewPipeline {
     run(options, executor);
   }
 
-  @SneakyThrows
+  public static void run(String[] args, ExecutorService executor, InterpretedRecords records) {
+    InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
+    run(options, executor, records);
+  }
+
   public static void run(InterpretationPipelineOptions options, ExecutorService executor) {
+    run(options, executor, null);
+  }
+
+  /** Takes the records of the types interpreted in the same JVM from memory */
+  @SneakyThrows
+  public static void run(
+      InterpretationPipelineOptions options,
+      ExecutorService executor,
+      InterpretedRecords records) {
 
     MDC.put("datasetKey", options.getDatasetId());
     MDC.put("attempt", options.getAttempt().toString());
@@ -209,45 +230,63 @@ public class InterpretedToHdfsViewPipeline {
 
     log.info("Creating pipeline");
 
-    // Reading all avro files in parallel
+    // Occurrence table is always written, extension tables depend on interpretation types
+    Set<String> tableTypes = new HashSet<>(types);
+    tableTypes.add(OCCURRENCE.name());
+
+    // Only rows of the extensions converted to tables are decoded from the verbatim records
+    Set<String> extensionRowTypes =
+        HdfsViewAvroUtils.TABLE_EXTENSIONS.entrySet().stream()
+            .filter(e -> CheckTransforms.checkRecordType(tableTypes, e.getKey()))
+            .map(e -> e.getValue().getRowType())
+            .collect(Collectors.toSet());
+
+    // Reading all avro files in parallel, with useIndexedAvroReader the maps are indexed on disk
+    // and the basic records are streamed by the writer, memory doesn't grow with the dataset size
     CompletableFuture<Map<String, MetadataRecord>> metadataMapFeature =
-        readAvroAsFuture(options, executor, MetadataTransform.builder().create());
+        readAvroAsFuture(options, executor, MetadataTransform.builder().create(), records);
 
     CompletableFuture<Map<String, ExtendedRecord>> verbatimMapFeature =
-        readAvroAsFuture(options, executor, VerbatimTransform.create());
+        readAvroAsFuture(
+            options,
+            executor,
+            VerbatimTransform.create(),
+            () -> ExtendedRecordProjection.create(extensionRowTypes),
+            records);
 
     CompletableFuture<Map<String, BasicRecord>> basicMapFeature =
-        readAvroAsFuture(options, executor, BasicTransform.builder().create());
+        readAvroAsFuture(options, executor, BasicTransform.builder().create(), records);
 
     CompletableFuture<Map<String, TemporalRecord>> temporalMapFeature =
-        readAvroAsFuture(options, executor, TemporalTransform.builder().create());
+        readAvroAsFuture(options, executor, TemporalTransform.builder().create(), records);
 
     CompletableFuture<Map<String, LocationRecord>> locationMapFeature =
-        readAvroAsFuture(options, executor, LocationTransform.builder().create());
+        readAvroAsFuture(options, executor, LocationTransform.builder().create(), records);
 
     CompletableFuture<Map<String, TaxonRecord>> taxonMapFeature =
-        readAvroAsFuture(options, executor, TaxonomyTransform.builder().create());
+        readAvroAsFuture(options, executor, TaxonomyTransform.builder().create(), records);
 
     CompletableFuture<Map<String, GrscicollRecord>> grscicollMapFeature =
-        readAvroAsFuture(options, executor, GrscicollTransform.builder().create());
+        readAvroAsFuture(options, executor, GrscicollTransform.builder().create(), records);
 
     CompletableFuture<Map<String, MultimediaRecord>> multimediaMapFeature =
-        readAvroAsFuture(options, executor, MultimediaTransform.builder().create());
+        readAvroAsFuture(options, executor, MultimediaTransform.builder().create(), records);
 
     CompletableFuture<Map<String, ImageRecord>> imageMapFeature =
-        readAvroAsFuture(options, executor, ImageTransform.builder().create());
+        readAvroAsFuture(options, executor, ImageTransform.builder().create(), records);
 
     CompletableFuture<Map<String, AudubonRecord>> audubonMapFeature =
-        readAvroAsFuture(options, executor, AudubonTransform.builder().create());
+        readAvroAsFuture(options, executor, AudubonTransform.builder().create(), records);
 
     Map<String, BasicRecord> basicRecordMap = basicMapFeature.get();
+    Map<String, ExtendedRecord> verbatimMap = verbatimMapFeature.get();
 
     // OccurrenceHdfsRecord
     Function<BasicRecord, Optional<OccurrenceHdfsRecord>> occurrenceHdfsRecordFn =
         OccurrenceHdfsRecordConverter.builder()
             .metrics(metrics)
             .metadata(metadataMapFeature.get().values().iterator().next())
-            .verbatimMap(verbatimMapFeature.get())
+            .verbatimMap(verbatimMap)
             .temporalMap(temporalMapFeature.get())
             .locationMap(locationMapFeature.get())
             .taxonMap(taxonMapFeature.get())
@@ -258,435 +297,186 @@ public class InterpretedToHdfsViewPipeline {
             .build()
             .getFn();
 
-    TableRecordWriter.<OccurrenceHdfsRecord>builder()
-        .recordFunction(occurrenceHdfsRecordFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(OccurrenceHdfsRecord.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .types(Collections.singleton(OCCURRENCE.name()))
-        .recordType(OCCURRENCE)
-        .build()
-        .write();
-
-    // MeasurementOrFactTable
-    Function<BasicRecord, Optional<MeasurementOrFactTable>> measurementOrFactFn =
-        TableConverter.<MeasurementOrFactTable>builder()
-            .metrics(metrics)
-            .converterFn(MeasurementOrFactTableConverter::convert)
-            .counterName(MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<MeasurementOrFactTable>builder()
-        .recordFunction(measurementOrFactFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(MeasurementOrFactTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(MEASUREMENT_OR_FACT_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // IdentificationTable
-    Function<BasicRecord, Optional<IdentificationTable>> identificationFn =
-        TableConverter.<IdentificationTable>builder()
-            .metrics(metrics)
-            .converterFn(IdentificationTableConverter::convert)
-            .counterName(IDENTIFICATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<IdentificationTable>builder()
-        .recordFunction(identificationFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(IdentificationTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(IDENTIFICATION_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // ResourceRelationTable
-    Function<BasicRecord, Optional<ResourceRelationshipTable>> resourceRelationFn =
-        TableConverter.<ResourceRelationshipTable>builder()
-            .metrics(metrics)
-            .converterFn(ResourceRelationshipTableConverter::convert)
-            .counterName(RESOURCE_RELATIONSHIP_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<ResourceRelationshipTable>builder()
-        .recordFunction(resourceRelationFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(ResourceRelationshipTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(RESOURCE_RELATIONSHIP_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // AmplificationTable
-    Function<BasicRecord, Optional<AmplificationTable>> amplificationFn =
-        TableConverter.<AmplificationTable>builder()
-            .metrics(metrics)
-            .converterFn(AmplificationTableConverter::convert)
-            .counterName(AMPLIFICATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<AmplificationTable>builder()
-        .recordFunction(amplificationFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(AmplificationTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(AMPLIFICATION_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // CloningTable
-    Function<BasicRecord, Optional<CloningTable>> cloningFn =
-        TableConverter.<CloningTable>builder()
-            .metrics(metrics)
-            .converterFn(CloningTableConverter::convert)
-            .counterName(CLONING_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<CloningTable>builder()
-        .recordFunction(cloningFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(CloningTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(CLONING_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // GelImageTable
-    Function<BasicRecord, Optional<GelImageTable>> gelImageFn =
-        TableConverter.<GelImageTable>builder()
-            .metrics(metrics)
-            .converterFn(GelImageTableConverter::convert)
-            .counterName(GEL_IMAGE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<GelImageTable>builder()
-        .recordFunction(gelImageFn)
+    // Iterates basic records once and converts each record to all enabled tables, the conversion
+    // is CPU bound and runs on the bounded CPU pool, not on the executor for I/O
+    MultiTableRecordWriter.builder()
         .basicRecords(basicRecordMap.values())
         .targetPathFn(pathFn)
-        .schema(GelImageTable.getClassSchema())
-        .executor(executor)
+        .executor(ExecutorFactory.cpuExecutor())
         .options(options)
-        .recordType(GEL_IMAGE_TABLE)
-        .types(types)
+        .types(tableTypes)
+        .table(
+            MultiTableRecordWriter.Table.<OccurrenceHdfsRecord>builder()
+                .recordType(OCCURRENCE)
+                .schema(OccurrenceHdfsRecord.getClassSchema())
+                .recordFunction(occurrenceHdfsRecordFn)
+                .build())
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                MEASUREMENT_OR_FACT_TABLE,
+                MeasurementOrFactTable.getClassSchema(),
+                MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT,
+                MeasurementOrFactTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                IDENTIFICATION_TABLE,
+                IdentificationTable.getClassSchema(),
+                IDENTIFICATION_TABLE_RECORDS_COUNT,
+                IdentificationTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                RESOURCE_RELATIONSHIP_TABLE,
+                ResourceRelationshipTable.getClassSchema(),
+                RESOURCE_RELATIONSHIP_TABLE_RECORDS_COUNT,
+                ResourceRelationshipTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                AMPLIFICATION_TABLE,
+                AmplificationTable.getClassSchema(),
+                AMPLIFICATION_TABLE_RECORDS_COUNT,
+                AmplificationTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                CLONING_TABLE,
+                CloningTable.getClassSchema(),
+                CLONING_TABLE_RECORDS_COUNT,
+                CloningTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                GEL_IMAGE_TABLE,
+                GelImageTable.getClassSchema(),
+                GEL_IMAGE_TABLE_RECORDS_COUNT,
+                GelImageTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                LOAN_TABLE,
+                LoanTable.getClassSchema(),
+                LOAN_TABLE_RECORDS_COUNT,
+                LoanTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                MATERIAL_SAMPLE_TABLE,
+                MaterialSampleTable.getClassSchema(),
+                MATERIAL_SAMPLE_TABLE_RECORDS_COUNT,
+                MaterialSampleTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                PERMIT_TABLE,
+                PermitTable.getClassSchema(),
+                PERMIT_TABLE_RECORDS_COUNT,
+                PermitTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                PREPARATION_TABLE,
+                PreparationTable.getClassSchema(),
+                PREPARATION_TABLE_RECORDS_COUNT,
+                PreparationTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                PRESERVATION_TABLE,
+                PreservationTable.getClassSchema(),
+                PRESERVATION_TABLE_RECORDS_COUNT,
+                PreservationTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                GERMPLASM_MEASUREMENT_SCORE_TABLE,
+                GermplasmMeasurementScoreTable.getClassSchema(),
+                MEASUREMENT_SCORE_TABLE_RECORDS_COUNT,
+                GermplasmMeasurementScoreTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                GERMPLASM_MEASUREMENT_TRAIT_TABLE,
+                GermplasmMeasurementTraitTable.getClassSchema(),
+                MEASUREMENT_TRAIT_TABLE_RECORDS_COUNT,
+                GermplasmMeasurementTraitTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                GERMPLASM_MEASUREMENT_TRIAL_TABLE,
+                GermplasmMeasurementTrialTable.getClassSchema(),
+                MEASUREMENT_TRIAL_TABLE_RECORDS_COUNT,
+                GermplasmMeasurementTrialTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                GERMPLASM_ACCESSION_TABLE,
+                GermplasmAccessionTable.getClassSchema(),
+                GERMPLASM_ACCESSION_TABLE_RECORDS_COUNT,
+                GermplasmAccessionTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                EXTENDED_MEASUREMENT_OR_FACT_TABLE,
+                ExtendedMeasurementOrFactTable.getClassSchema(),
+                EXTENDED_MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT,
+                ExtendedMeasurementOrFactTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                CHRONOMETRIC_AGE_TABLE,
+                ChronometricAgeTable.getClassSchema(),
+                CHRONOMETRIC_AGE_TABLE_RECORDS_COUNT,
+                ChronometricAgeTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                REFERENCE_TABLE,
+                ReferenceTable.getClassSchema(),
+                REFERENCE_TABLE_RECORDS_COUNT,
+                ReferenceTableConverter::convert))
+        .table(
+            table(
+                metrics,
+                verbatimMap,
+                IDENTIFIER_TABLE,
+                IdentifierTable.getClassSchema(),
+                IDENTIFIER_TABLE_RECORDS_COUNT,
+                IdentifierTableConverter::convert))
         .build()
         .write();
 
-    // LoanTable
-    Function<BasicRecord, Optional<LoanTable>> loanFn =
-        TableConverter.<LoanTable>builder()
-            .metrics(metrics)
-            .converterFn(LoanTableConverter::convert)
-            .counterName(LOAN_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<LoanTable>builder()
-        .recordFunction(loanFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(LoanTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(LOAN_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // MaterialSampleTable
-    Function<BasicRecord, Optional<MaterialSampleTable>> materialSampleFn =
-        TableConverter.<MaterialSampleTable>builder()
-            .metrics(metrics)
-            .converterFn(MaterialSampleTableConverter::convert)
-            .counterName(MATERIAL_SAMPLE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<MaterialSampleTable>builder()
-        .recordFunction(materialSampleFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(MaterialSampleTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(MATERIAL_SAMPLE_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // PermitTable
-    Function<BasicRecord, Optional<PermitTable>> permitFn =
-        TableConverter.<PermitTable>builder()
-            .metrics(metrics)
-            .converterFn(PermitTableConverter::convert)
-            .counterName(PERMIT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<PermitTable>builder()
-        .recordFunction(permitFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(PermitTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(PERMIT_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // PreparationTable
-    Function<BasicRecord, Optional<PreparationTable>> preparationFn =
-        TableConverter.<PreparationTable>builder()
-            .metrics(metrics)
-            .converterFn(PreparationTableConverter::convert)
-            .counterName(PREPARATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<PreparationTable>builder()
-        .recordFunction(preparationFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(PreparationTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(PREPARATION_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // PreservationTable
-    Function<BasicRecord, Optional<PreservationTable>> preservationFn =
-        TableConverter.<PreservationTable>builder()
-            .metrics(metrics)
-            .converterFn(PreservationTableConverter::convert)
-            .counterName(PRESERVATION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<PreservationTable>builder()
-        .recordFunction(preservationFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(PreservationTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(PRESERVATION_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // MeasurementScoreTable
-    Function<BasicRecord, Optional<GermplasmMeasurementScoreTable>> measurementScoreFn =
-        TableConverter.<GermplasmMeasurementScoreTable>builder()
-            .metrics(metrics)
-            .converterFn(GermplasmMeasurementScoreTableConverter::convert)
-            .counterName(MEASUREMENT_SCORE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<GermplasmMeasurementScoreTable>builder()
-        .recordFunction(measurementScoreFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(GermplasmMeasurementScoreTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(GERMPLASM_MEASUREMENT_SCORE_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // MeasurementTraitTable
-    Function<BasicRecord, Optional<GermplasmMeasurementTraitTable>> measurementTraitFn =
-        TableConverter.<GermplasmMeasurementTraitTable>builder()
-            .metrics(metrics)
-            .converterFn(GermplasmMeasurementTraitTableConverter::convert)
-            .counterName(MEASUREMENT_TRAIT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<GermplasmMeasurementTraitTable>builder()
-        .recordFunction(measurementTraitFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(GermplasmMeasurementTraitTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(GERMPLASM_MEASUREMENT_TRAIT_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // MeasurementTrialTable
-    Function<BasicRecord, Optional<GermplasmMeasurementTrialTable>> measurementTrialFn =
-        TableConverter.<GermplasmMeasurementTrialTable>builder()
-            .metrics(metrics)
-            .converterFn(GermplasmMeasurementTrialTableConverter::convert)
-            .counterName(MEASUREMENT_TRIAL_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<GermplasmMeasurementTrialTable>builder()
-        .recordFunction(measurementTrialFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(GermplasmMeasurementTrialTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(GERMPLASM_MEASUREMENT_TRIAL_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // GermplasmAccessionTable
-    Function<BasicRecord, Optional<GermplasmAccessionTable>> germplasmAccessionFn =
-        TableConverter.<GermplasmAccessionTable>builder()
-            .metrics(metrics)
-            .converterFn(GermplasmAccessionTableConverter::convert)
-            .counterName(GERMPLASM_ACCESSION_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<GermplasmAccessionTable>builder()
-        .recordFunction(germplasmAccessionFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(GermplasmAccessionTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(GERMPLASM_ACCESSION_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // ExtendedMeasurementOrFactTable
-    Function<BasicRecord, Optional<ExtendedMeasurementOrFactTable>> extendedMeasurementOrFactFn =
-        TableConverter.<ExtendedMeasurementOrFactTable>builder()
-            .metrics(metrics)
-            .converterFn(ExtendedMeasurementOrFactTableConverter::convert)
-            .counterName(EXTENDED_MEASUREMENT_OR_FACT_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<ExtendedMeasurementOrFactTable>builder()
-        .recordFunction(extendedMeasurementOrFactFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(ExtendedMeasurementOrFactTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(EXTENDED_MEASUREMENT_OR_FACT_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // ChronometricAgeTable
-    Function<BasicRecord, Optional<ChronometricAgeTable>> chronometricAgeFn =
-        TableConverter.<ChronometricAgeTable>builder()
-            .metrics(metrics)
-            .converterFn(ChronometricAgeTableConverter::convert)
-            .counterName(CHRONOMETRIC_AGE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<ChronometricAgeTable>builder()
-        .recordFunction(chronometricAgeFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(ChronometricAgeTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(CHRONOMETRIC_AGE_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // ReferencesTable
-    Function<BasicRecord, Optional<ReferenceTable>> referencesFn =
-        TableConverter.<ReferenceTable>builder()
-            .metrics(metrics)
-            .converterFn(ReferenceTableConverter::convert)
-            .counterName(REFERENCE_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<ReferenceTable>builder()
-        .recordFunction(referencesFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(ReferenceTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(REFERENCE_TABLE)
-        .types(types)
-        .build()
-        .write();
-
-    // IdentifierTable
-    Function<BasicRecord, Optional<IdentifierTable>> identifierFn =
-        TableConverter.<IdentifierTable>builder()
-            .metrics(metrics)
-            .converterFn(IdentifierTableConverter::convert)
-            .counterName(IDENTIFIER_TABLE_RECORDS_COUNT)
-            .verbatimMap(verbatimMapFeature.get())
-            .build()
-            .getFn();
-
-    TableRecordWriter.<IdentifierTable>builder()
-        .recordFunction(identifierFn)
-        .basicRecords(basicRecordMap.values())
-        .targetPathFn(pathFn)
-        .schema(IdentifierTable.getClassSchema())
-        .executor(executor)
-        .options(options)
-        .recordType(IDENTIFIER_TABLE)
-        .types(types)
-        .build()
-        .write();
+    close(
+        metadataMapFeature,
+        verbatimMapFeature,
+        basicMapFeature,
+        temporalMapFeature,
+        locationMapFeature,
+        taxonMapFeature,
+        grscicollMapFeature,
+        multimediaMapFeature,
+        imageMapFeature,
+        audubonMapFeature);
 
     // Move files
     Mutex.Action action = () -> HdfsViewAvroUtils.move(options);
@@ -699,4 +489,27 @@ public class InterpretedToHdfsViewPipeline {
     MetricsHandler.saveCountersToInputPathFile(options, metrics.getMetricsResult());
     log.info("Pipeline has been finished - {}", LocalDateTime.now());
   }
+
+  /** Creates an extension table description using a verbatim based converter */
+  private static <T extends SpecificRecordBase> MultiTableRecordWriter.Table<T> table(
+      IngestMetrics metrics,
+      Map<String, ExtendedRecord> verbatimMap,
+      InterpretationType recordType,
+      Schema schema,
+      String counterName,
+      SerializableBiFunction<BasicRecord, ExtendedRecord, Optional<T>> converterFn) {
+    Function<BasicRecord, Optional<T>> fn =
+        TableConverter.<T>builder()
+            .metrics(metrics)
+            .converterFn(converterFn)
+            .counterName(counterName)
+            .verbatimMap(verbatimMap)
+            .build()
+            .getFn();
+    return MultiTableRecordWriter.Table.<T>builder()
+        .recordType(recordType)
+        .schema(schema)
+        .recordFunction(fn)
+        .build();
+  }
 }
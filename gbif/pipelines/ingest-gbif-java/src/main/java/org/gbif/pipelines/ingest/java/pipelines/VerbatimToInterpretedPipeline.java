@@ -1,5 +1,8 @@
 package org.gbif.pipelines.ingest.java.pipelines;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.GRSCICOLL_KV_LOOKUP_TIME;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.LOCATION_KV_LOOKUP_TIME;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TAXON_KV_LOOKUP_TIME;
 import static org.gbif.pipelines.ingest.java.transforms.InterpretedAvroWriter.createAvroWriter;
 
 import java.time.LocalDateTime;
@@ -11,7 +14,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -19,6 +21,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificRecordBase;
 import org.gbif.api.model.pipelines.StepType;
 import org.gbif.common.parsers.date.DateComponentOrdering;
 import org.gbif.kvs.KeyValueStore;
@@ -32,8 +35,10 @@ import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
 import org.gbif.pipelines.core.config.model.PipelinesConfig;
 import org.gbif.pipelines.core.factory.ConfigFactory;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.pipelines.core.factory.FileVocabularyFactory;
 import org.gbif.pipelines.core.factory.FileVocabularyFactory.VocabularyBackedTerm;
+import org.gbif.pipelines.core.functions.SerializableBiConsumer;
 import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.functions.SerializableSupplier;
 import org.gbif.pipelines.core.io.AvroReader;
@@ -49,6 +54,7 @@ import org.gbif.pipelines.factory.NameUsageMatchStoreFactory;
 import org.gbif.pipelines.factory.OccurrenceStatusKvStoreFactory;
 import org.gbif.pipelines.ingest.java.metrics.IngestMetricsBuilder;
 import org.gbif.pipelines.ingest.java.transforms.InterpretedAvroReader;
+import org.gbif.pipelines.ingest.java.transforms.InterpretedRecords;
 import org.gbif.pipelines.io.avro.AudubonRecord;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
@@ -56,9 +62,11 @@ import org.gbif.pipelines.io.avro.ImageRecord;
 import org.gbif.pipelines.io.avro.LocationRecord;
 import org.gbif.pipelines.io.avro.MetadataRecord;
 import org.gbif.pipelines.io.avro.MultimediaRecord;
+import org.gbif.pipelines.io.avro.Record;
 import org.gbif.pipelines.io.avro.TaxonRecord;
 import org.gbif.pipelines.io.avro.TemporalRecord;
 import org.gbif.pipelines.io.avro.grscicoll.GrscicollRecord;
+import org.gbif.pipelines.transforms.Transform;
 import org.gbif.pipelines.transforms.common.ExtensionFilterTransform;
 import org.gbif.pipelines.transforms.core.BasicTransform;
 import org.gbif.pipelines.transforms.core.GrscicollTransform;
@@ -131,7 +139,7 @@ public class VerbatimToInterpretedPipeline {
   }
 
   public static void run(InterpretationPipelineOptions options) {
-    ExecutorService executor = Executors.newWorkStealingPool();
+    ExecutorService executor = ExecutorFactory.create(options.getUseVirtualThreads(), null);
     try {
       run(options, executor);
     } finally {
@@ -144,7 +152,23 @@ public class VerbatimToInterpretedPipeline {
     run(options, executor);
   }
 
+  public static void run(String[] args, ExecutorService executor, InterpretedRecords records) {
+    InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
+    run(options, executor, records);
+  }
+
   public static void run(InterpretationPipelineOptions options, ExecutorService executor) {
+    run(options, executor, null);
+  }
+
+  /**
+   * Runs the interpretation and keeps the interpreted records in memory, if the records holder
+   * isn't null, so the next steps in the same JVM don't read the avro files again
+   */
+  public static void run(
+      InterpretationPipelineOptions options,
+      ExecutorService executor,
+      InterpretedRecords records) {
 
     log.info("Pipeline has been started - {}", LocalDateTime.now());
 
@@ -180,15 +204,35 @@ public class VerbatimToInterpretedPipeline {
     log.info("Init metrics");
     IngestMetrics metrics = IngestMetricsBuilder.createVerbatimToInterpretedMetrics();
     SerializableConsumer<String> incMetricFn = metrics::incMetric;
+    SerializableBiConsumer<String, Long> timerFn = metrics::recordTime;
+    SerializableBiConsumer<String, Long> gaugeFn = metrics::setGauge;
 
     SerializableSupplier<MetadataServiceClient> metadataServiceClientSerializableSupplier =
         MetadataServiceClientFactory.getInstanceSupplier(config);
+    // Virtual threads don't limit the number of concurrent calls, each service has one limit shared
+    // by all datasets interpreted in the JVM
+    int maxCalls = options.getMaxConcurrentServiceCalls();
     SerializableSupplier<KeyValueStore<SpeciesMatchRequest, NameUsageMatch>>
-        nameUsageMatchServiceSupplier = NameUsageMatchStoreFactory.getInstanceSupplier(config);
+        nameUsageMatchServiceSupplier =
+            ExecutorFactory.limitConcurrency(
+                "taxonomy",
+                metrics.timedKvStore(
+                    TAXON_KV_LOOKUP_TIME, NameUsageMatchStoreFactory.getInstanceSupplier(config)),
+                maxCalls);
     SerializableSupplier<KeyValueStore<GrscicollLookupRequest, GrscicollLookupResponse>>
-        grscicollServiceSupplier = GrscicollLookupKvStoreFactory.getInstanceSupplier(config);
+        grscicollServiceSupplier =
+            ExecutorFactory.limitConcurrency(
+                "grscicoll",
+                metrics.timedKvStore(
+                    GRSCICOLL_KV_LOOKUP_TIME,
+                    GrscicollLookupKvStoreFactory.getInstanceSupplier(config)),
+                maxCalls);
     SerializableSupplier<KeyValueStore<LatLng, GeocodeResponse>> geocodeServiceSupplier =
-        GeocodeKvStoreFactory.getInstanceSupplier(config);
+        ExecutorFactory.limitConcurrency(
+            "geocode",
+            metrics.timedKvStore(
+                LOCATION_KV_LOOKUP_TIME, GeocodeKvStoreFactory.getInstanceSupplier(config)),
+            maxCalls);
     if (options.getTestMode()) {
       metadataServiceClientSerializableSupplier = null;
       nameUsageMatchServiceSupplier = null;
@@ -279,6 +323,24 @@ public class VerbatimToInterpretedPipeline {
     OccurrenceExtensionTransform occExtensionTransform =
         OccurrenceExtensionTransform.create().counterFn(incMetricFn);
 
+    // Processing and writing times
+    Stream.<Transform<?, ?>>of(
+            metadataTransform,
+            basicTransform,
+            taxonomyTransform,
+            verbatimTransform,
+            grscicollTransform,
+            locationTransform,
+            temporalTransform,
+            multimediaTransform,
+            audubonTransform,
+            imageTransform)
+        .forEach(
+            t -> {
+              t.setTimerFn(timerFn);
+              t.setGaugeFn(gaugeFn);
+            });
+
     ExtensionFilterTransform extensionFilterTransform =
         ExtensionFilterTransform.create(config.getExtensionsAllowedForVerbatimSet());
 
@@ -312,6 +374,20 @@ public class VerbatimToInterpretedPipeline {
         SyncDataFileWriter<LocationRecord> locationWriter =
             createAvroWriter(options, locationTransform, id)) {
 
+      // Records of the interpreted types are also kept in memory for the next steps
+      Consumer<ExtendedRecord> verbatimFn = sink(records, types, verbatimTransform, verbatimWriter);
+      Consumer<MetadataRecord> metadataFn = sink(records, types, metadataTransform, metadataWriter);
+      Consumer<BasicRecord> basicFn = sink(records, types, basicTransform, basicWriter);
+      Consumer<TemporalRecord> temporalFn = sink(records, types, temporalTransform, temporalWriter);
+      Consumer<MultimediaRecord> multimediaFn =
+          sink(records, types, multimediaTransform, multimediaWriter);
+      Consumer<ImageRecord> imageFn = sink(records, types, imageTransform, imageWriter);
+      Consumer<AudubonRecord> audubonFn = sink(records, types, audubonTransform, audubonWriter);
+      Consumer<TaxonRecord> taxonFn = sink(records, types, taxonomyTransform, taxonWriter);
+      Consumer<GrscicollRecord> grscicollFn =
+          sink(records, types, grscicollTransform, grscicollWriter);
+      Consumer<LocationRecord> locationFn = sink(records, types, locationTransform, locationWriter);
+
       // Create or read MetadataRecord
       MetadataRecord mdr;
       if (useMetadataRecordWriteIO(types)) {
@@ -320,7 +396,7 @@ public class VerbatimToInterpretedPipeline {
                 .processElement(options.getDatasetId())
                 .orElseThrow(() -> new IllegalArgumentException("MetadataRecord can't be null"));
 
-        metadataWriter.append(mdr);
+        metadataFn.accept(mdr);
       } else {
         metadataWriter.close();
         mdr =
@@ -369,28 +445,28 @@ public class VerbatimToInterpretedPipeline {
               BasicRecord br = gbifIdTransform.getBrMap().get(er.getId());
 
               if (verbatimTransform.checkType(types)) {
-                verbatimWriter.append(er);
+                verbatimFn.accept(er);
               }
               if (temporalTransform.checkType(types)) {
-                temporalTransform.processElement(er).ifPresent(temporalWriter::append);
+                temporalTransform.processElement(er).ifPresent(temporalFn);
               }
               if (multimediaTransform.checkType(types)) {
-                multimediaTransform.processElement(er).ifPresent(multimediaWriter::append);
+                multimediaTransform.processElement(er).ifPresent(multimediaFn);
               }
               if (imageTransform.checkType(types)) {
-                imageTransform.processElement(er).ifPresent(imageWriter::append);
+                imageTransform.processElement(er).ifPresent(imageFn);
               }
               if (audubonTransform.checkType(types)) {
-                audubonTransform.processElement(er).ifPresent(audubonWriter::append);
+                audubonTransform.processElement(er).ifPresent(audubonFn);
               }
               if (taxonomyTransform.checkType(types)) {
-                taxonomyTransform.processElement(er).ifPresent(taxonWriter::append);
+                taxonomyTransform.processElement(er).ifPresent(taxonFn);
               }
               if (grscicollTransform.checkType(types)) {
-                grscicollTransform.processElement(er, br, mdr).ifPresent(grscicollWriter::append);
+                grscicollTransform.processElement(er, br, mdr).ifPresent(grscicollFn);
               }
               if (locationTransform.checkType(types)) {
-                locationTransform.processElement(er, mdr).ifPresent(locationWriter::append);
+                locationTransform.processElement(er, mdr).ifPresent(locationFn);
               }
             } else {
               basicInvalidWriter.append(brInvalid);
@@ -406,11 +482,11 @@ public class VerbatimToInterpretedPipeline {
           streamBr =
               Stream.of(
                   CompletableFuture.runAsync(
-                      () -> brCollection.forEach(basicWriter::append), executor));
+                      () -> brCollection.forEach(basicFn), executor));
         } else {
           streamBr =
               brCollection.stream()
-                  .map(v -> CompletableFuture.runAsync(() -> basicWriter.append(v), executor));
+                  .map(v -> CompletableFuture.runAsync(() -> basicFn.accept(v), executor));
         }
       }
 
@@ -443,6 +519,18 @@ public class VerbatimToInterpretedPipeline {
     log.info("Pipeline has been finished - {}", LocalDateTime.now());
   }
 
+  /** Writes records to the avro file, and keeps them in memory if the holder isn't null */
+  private static <T extends SpecificRecordBase & Record> Consumer<T> sink(
+      InterpretedRecords records,
+      Set<String> types,
+      Transform<?, T> transform,
+      SyncDataFileWriter<T> writer) {
+    if (records == null || !transform.checkType(types)) {
+      return writer::append;
+    }
+    return records.sink(transform, writer);
+  }
+
   private static boolean useBasicRecordWriteIO(Set<String> types) {
     return types.contains(RecordType.BASIC.name()) || types.contains(RecordType.ALL.name());
   }
@@ -2,18 +2,26 @@ package org.gbif.pipelines.ingest.java.transforms;
 
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.io.DatumReader;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.utils.PathBuilder;
 import org.gbif.pipelines.core.io.AvroReader;
+import org.gbif.pipelines.core.io.IndexedAvroMap;
 import org.gbif.pipelines.io.avro.Record;
 import org.gbif.pipelines.transforms.Transform;
 
+@Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class InterpretedAvroReader {
 
@@ -23,19 +31,95 @@ public class InterpretedAvroReader {
           InterpretationPipelineOptions options,
           ExecutorService executor,
           Transform<?, T> transform) {
+    Supplier<DatumReader<T>> datumReaderSupplier = null;
+    return readAvroAsFuture(options, executor, transform, datumReaderSupplier);
+  }
+
+  /**
+   * Takes the records from memory, if the record type was interpreted in the same JVM, otherwise
+   * reads avro files and returns as Map<ID, Clazz>
+   */
+  public static <T extends SpecificRecordBase & Record>
+      CompletableFuture<Map<String, T>> readAvroAsFuture(
+          InterpretationPipelineOptions options,
+          ExecutorService executor,
+          Transform<?, T> transform,
+          InterpretedRecords records) {
+    return readAvroAsFuture(options, executor, transform, null, records);
+  }
+
+  /**
+   * Takes the records from memory, if the record type was interpreted in the same JVM, otherwise
+   * reads avro files using the reader from the supplier
+   */
+  public static <T extends SpecificRecordBase & Record>
+      CompletableFuture<Map<String, T>> readAvroAsFuture(
+          InterpretationPipelineOptions options,
+          ExecutorService executor,
+          Transform<?, T> transform,
+          Supplier<DatumReader<T>> datumReaderSupplier,
+          InterpretedRecords records) {
+    Optional<Map<String, T>> inMemory =
+        records == null ? Optional.empty() : records.get(transform);
+    if (inMemory.isPresent()) {
+      log.info("Using {} records kept in memory", transform.getBaseName());
+      return CompletableFuture.completedFuture(inMemory.get());
+    }
+    return readAvroAsFuture(options, executor, transform, datumReaderSupplier);
+  }
+
+  /**
+   * Read avro files and return as Map<ID, Clazz>, records are decoded by the reader from the
+   * supplier, like a projection of the fields used by the pipeline
+   */
+  public static <T extends SpecificRecordBase & Record>
+      CompletableFuture<Map<String, T>> readAvroAsFuture(
+          InterpretationPipelineOptions options,
+          ExecutorService executor,
+          Transform<?, T> transform,
+          Supplier<DatumReader<T>> datumReaderSupplier) {
     String path =
         PathBuilder.buildPathInterpretUsingInputPath(
             options, transform.getBaseName(), "*" + AVRO_EXTENSION);
+    if (options.isUseIndexedAvroReader()) {
+      return CompletableFuture.supplyAsync(
+          () ->
+              AvroReader.readIndexedRecords(
+                  options.getHdfsSiteConfig(),
+                  options.getCoreSiteConfig(),
+                  transform.getReturnClazz(),
+                  path,
+                  datumReaderSupplier),
+          executor);
+    }
     return CompletableFuture.supplyAsync(
         () ->
             AvroReader.readRecords(
                 options.getHdfsSiteConfig(),
                 options.getCoreSiteConfig(),
                 transform.getReturnClazz(),
-                path),
+                path,
+                datumReaderSupplier),
         executor);
   }
 
+  /** Closes maps which keep files open, like {@link IndexedAvroMap} */
+  @SafeVarargs
+  public static void close(CompletableFuture<? extends Map<String, ?>>... futures) {
+    for (CompletableFuture<? extends Map<String, ?>> future : futures) {
+      future.thenAccept(
+          map -> {
+            if (map instanceof Closeable) {
+              try {
+                ((Closeable) map).close();
+              } catch (IOException ex) {
+                log.warn("Can't close the map", ex);
+              }
+            }
+          });
+    }
+  }
+
   /** Read avro files and return as Map<ID, Clazz> */
   public static <T extends SpecificRecordBase & Record> Map<String, T> readAvroUseTargetPath(
       InterpretationPipelineOptions options, Transform<?, T> transform) {
@@ -37,6 +37,9 @@ public class InterpretedAvroWriter {
         .codec(options.getAvroCompressionType())
         .outputStream(fs.create(path))
         .syncInterval(options.getAvroSyncInterval())
+        .appendTimeFn(transform::recordWriteTime)
+        .sampleSize(options.getAvroAutoSampleSize())
+        .tuningFn(transform::recordAvroTuning)
         .build()
         .createSyncDataFileWriter();
   }
@@ -0,0 +1,85 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.io.avro.Record;
+import org.gbif.pipelines.transforms.Transform;
+
+/**
+ * Interpreted records kept in memory, when the interpretation, indexing and HDFS view steps run in
+ * one JVM. The interpretation still writes avro files, the next steps take the records from here
+ * instead of reading the files. Record types which weren't interpreted in this run are read from
+ * the files as usual.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class InterpretedRecords {
+
+  private final Map<String, Records<?>> recordsMap = new ConcurrentHashMap<>();
+
+  /** Number of steps which read the records */
+  private final int readers;
+
+  /** @param readers number of steps which read the records, each step reads a type once */
+  public static InterpretedRecords create(int readers) {
+    return new InterpretedRecords(readers);
+  }
+
+  /** Appends a record to the writer and keeps it by the record id */
+  public <T extends SpecificRecordBase & Record> Consumer<T> sink(
+      Transform<?, T> transform, SyncDataFileWriter<T> writer) {
+    Map<String, T> map = new ConcurrentHashMap<>();
+    recordsMap.put(transform.getBaseName(), new Records<>(map, new AtomicInteger(readers)));
+    return record -> {
+      writer.append(record);
+      map.put(record.getId(), record);
+    };
+  }
+
+  /**
+   * Records of the transform type, if the type was interpreted in this run, as a read-only map. The
+   * last reader takes the kept records, every other reader gets copies, so a step can't change the
+   * records used by the next step and the records are copied only if there is a next step
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends SpecificRecordBase & Record> Optional<Map<String, T>> get(
+      Transform<?, T> transform) {
+    Records<T> records = (Records<T>) recordsMap.get(transform.getBaseName());
+    if (records == null) {
+      return Optional.empty();
+    }
+
+    int readersLeft = records.readersLeft.decrementAndGet();
+    if (readersLeft < 0) {
+      throw new IllegalStateException(
+          transform.getBaseName() + " records were already taken by the last reader");
+    }
+    if (readersLeft == 0) {
+      return Optional.of(Collections.unmodifiableMap(records.map));
+    }
+
+    Map<String, T> copy = new HashMap<>(records.map.size());
+    records.map.forEach(
+        (id, record) -> copy.put(id, SpecificData.get().deepCopy(record.getSchema(), record)));
+    return Optional.of(Collections.unmodifiableMap(copy));
+  }
+
+  public void clear() {
+    recordsMap.clear();
+  }
+
+  @AllArgsConstructor
+  private static class Records<T> {
+    private final Map<String, T> map;
+    private final AtomicInteger readersLeft;
+  }
+}
@@ -0,0 +1,258 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
+import static org.gbif.pipelines.core.utils.FsUtils.createParentDirectories;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
+import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.core.io.SyncDataFileWriter;
+import org.gbif.pipelines.core.io.SyncDataFileWriterBuilder;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.transforms.common.CheckTransforms;
+
+/**
+ * Writes several HDFS view tables in a single pass over the {@link BasicRecord} collection.
+ *
+ * <p>The collection is iterated once by the calling thread and passed in batches through a bounded
+ * queue to the partition tasks, the records are never copied, so a collection backed by files, like
+ * {@link org.gbif.pipelines.core.io.IndexedAvroMap#values()}, is streamed. Each partition task
+ * converts every record with all enabled table functions and appends the results to its own part
+ * files, one per table. The first partition always writes to the path returned by {@link
+ * #targetPathFn}, other partitions add the partition number as a suffix, for example {@code
+ * datasetId_attempt_3.avro}. Files of the other partitions are created only when the partition
+ * produces at least one record for the table.
+ */
+@Slf4j
+@Builder
+public class MultiTableRecordWriter {
+
+  private static final int BATCH_SIZE = 1_000;
+  private static final List<BasicRecord> END = Collections.emptyList();
+
+  @NonNull private final InterpretationPipelineOptions options;
+  @NonNull private final Collection<BasicRecord> basicRecords;
+  @NonNull private final Function<InterpretationType, String> targetPathFn;
+  @NonNull private final ExecutorService executor;
+  @NonNull private final Set<String> types;
+  @Singular private final List<Table<?>> tables;
+
+  @SneakyThrows
+  public void write() {
+    List<Table<?>> enabled =
+        tables.stream()
+            .filter(t -> CheckTransforms.checkRecordType(types, t.recordType))
+            .collect(Collectors.toList());
+    if (enabled.isEmpty()) {
+      return;
+    }
+
+    int partitions = getNumberOfPartitions(basicRecords.size());
+    log.info("Writing {} tables using {} partitions", enabled.size(), partitions);
+
+    if (partitions == 1) {
+      writePartition(enabled, basicRecords, 0);
+      return;
+    }
+
+    // Bounds the number of records between the iteration and the partition tasks
+    BlockingQueue<List<BasicRecord>> queue = new ArrayBlockingQueue<>(partitions * 2);
+    CompletableFuture<?>[] futures = new CompletableFuture[partitions];
+    for (int i = 0; i < partitions; i++) {
+      int part = i;
+      Iterable<BasicRecord> partRecords = () -> new QueueIterator(queue);
+      futures[i] =
+          CompletableFuture.runAsync(() -> writePartition(enabled, partRecords, part), executor);
+    }
+
+    try {
+      List<BasicRecord> batch = new ArrayList<>(BATCH_SIZE);
+      for (BasicRecord br : basicRecords) {
+        batch.add(br);
+        if (batch.size() == BATCH_SIZE) {
+          put(queue, batch, futures);
+          batch = new ArrayList<>(BATCH_SIZE);
+        }
+      }
+      if (!batch.isEmpty()) {
+        put(queue, batch, futures);
+      }
+    } finally {
+      // Partition tasks finish and close their files even if the iteration failed
+      for (int i = 0; i < partitions; i++) {
+        put(queue, END, futures);
+      }
+    }
+    CompletableFuture.allOf(futures).get();
+  }
+
+  /** Waits for space in the queue, stops if a partition task failed and can't take batches */
+  @SneakyThrows
+  private static void put(
+      BlockingQueue<List<BasicRecord>> queue,
+      List<BasicRecord> batch,
+      CompletableFuture<?>[] futures) {
+    while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+      for (CompletableFuture<?> future : futures) {
+        if (future.isCompletedExceptionally()) {
+          future.get();
+        }
+      }
+    }
+  }
+
+  /** Uses sync mode for small datasets, otherwise one partition per shard or available core */
+  private int getNumberOfPartitions(int size) {
+    if (size == 0 || options.getSyncThreshold() > size) {
+      return 1;
+    }
+    int partitions =
+        Optional.ofNullable(options.getNumberOfShards())
+            .filter(x -> x > 0)
+            .orElse(Runtime.getRuntime().availableProcessors());
+    return Math.max(1, Math.min(partitions, size));
+  }
+
+  /** Converts every record of the partition with all enabled tables and writes the results */
+  @SneakyThrows
+  private void writePartition(List<Table<?>> enabled, Iterable<BasicRecord> records, int part) {
+    List<TablePart<?>> parts =
+        enabled.stream().map(t -> new TablePart<>(t, part)).collect(Collectors.toList());
+    try {
+      // The first partition always creates files, the same as single file writing did
+      if (part == 0) {
+        for (TablePart<?> tp : parts) {
+          tp.getWriter();
+        }
+      }
+      for (BasicRecord br : records) {
+        for (TablePart<?> tp : parts) {
+          tp.convertAndAppend(br);
+        }
+      }
+    } finally {
+      for (TablePart<?> tp : parts) {
+        tp.close();
+      }
+    }
+  }
+
+  /** Part file path, the first partition keeps the original file name */
+  static String partPath(String path, int part) {
+    if (part == 0) {
+      return path;
+    }
+    String suffix = "_" + part + AVRO_EXTENSION;
+    if (path.endsWith(AVRO_EXTENSION)) {
+      return path.substring(0, path.length() - AVRO_EXTENSION.length()) + suffix;
+    }
+    return path + suffix;
+  }
+
+  /** Takes batches from the queue until the end marker */
+  private static class QueueIterator implements Iterator<BasicRecord> {
+
+    private final BlockingQueue<List<BasicRecord>> queue;
+    private Iterator<BasicRecord> batch = Collections.emptyIterator();
+    private boolean end;
+
+    private QueueIterator(BlockingQueue<List<BasicRecord>> queue) {
+      this.queue = queue;
+    }
+
+    @SneakyThrows
+    @Override
+    public boolean hasNext() {
+      while (!end && !batch.hasNext()) {
+        List<BasicRecord> next = queue.take();
+        if (next == END) {
+          end = true;
+        } else {
+          batch = next.iterator();
+        }
+      }
+      return batch.hasNext();
+    }
+
+    @Override
+    public BasicRecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return batch.next();
+    }
+  }
+
+  /** HDFS view table description: record type, avro schema and conversion function */
+  @Builder
+  public static class Table<T> {
+    @NonNull private final InterpretationType recordType;
+    @NonNull private final Schema schema;
+    @NonNull private final Function<BasicRecord, Optional<T>> recordFunction;
+  }
+
+  /** Lazily created writer of one table for one partition, used by a single thread only */
+  private class TablePart<T> {
+
+    private final Table<T> table;
+    private final int part;
+    private SyncDataFileWriter<T> writer;
+
+    private TablePart(Table<T> table, int part) {
+      this.table = table;
+      this.part = part;
+    }
+
+    private void convertAndAppend(BasicRecord br) {
+      table.recordFunction.apply(br).ifPresent(t -> getWriter().append(t));
+    }
+
+    @SneakyThrows
+    private SyncDataFileWriter<T> getWriter() {
+      if (writer == null) {
+        Path path = new Path(partPath(targetPathFn.apply(table.recordType), part));
+        FileSystem fs =
+            createParentDirectories(
+                options.getHdfsSiteConfig(), options.getCoreSiteConfig(), path);
+        writer =
+            SyncDataFileWriterBuilder.builder()
+                .schema(table.schema)
+                .codec(options.getAvroCompressionType())
+                .outputStream(fs.create(path))
+                .syncInterval(options.getAvroSyncInterval())
+                .build()
+                .createSyncDataFileWriter();
+      }
+      return writer;
+    }
+
+    private void close() throws IOException {
+      if (writer != null) {
+        writer.close();
+      }
+    }
+  }
+}
@@ -3,11 +3,13 @@ package org.gbif.pipelines.ingest.java.transforms;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.io.avro.BasicRecord;
 import org.gbif.pipelines.transforms.core.BasicTransform;
+import org.gbif.pipelines.transforms.core.TemporalTransform;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -50,4 +52,51 @@ public class InterpretedAvroReaderTest {
     // Should
     Assert.assertEquals(2, map.size());
   }
+
+  @Test
+  public void inMemoryRecordsTest() throws Exception {
+
+    // State
+    String outputFile = getClass().getResource("/").getFile() + "avro-in-memory";
+
+    String[] args = {
+      "--datasetId=d596fccb-2319-42eb-b13b-986c932780ad",
+      "--attempt=147",
+      "--interpretationTypes=ALL",
+      "--runner=SparkRunner",
+      "--inputPath=" + outputFile,
+      "--targetPath=" + outputFile
+    };
+    InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
+    BasicTransform basicTransform = BasicTransform.builder().create();
+    InterpretedRecords records = InterpretedRecords.create(2);
+
+    try (SyncDataFileWriter<BasicRecord> writer =
+        InterpretedAvroWriter.createAvroWriter(options, basicTransform, "1")) {
+      Consumer<BasicRecord> sink = records.sink(basicTransform, writer);
+      sink.accept(BasicRecord.newBuilder().setId("777").setGbifId(1L).build());
+      sink.accept(BasicRecord.newBuilder().setId("888").setGbifId(2L).build());
+    }
+
+    // When
+    Map<String, BasicRecord> inMemory =
+        InterpretedAvroReader.readAvroAsFuture(
+                options, Executors.newSingleThreadExecutor(), basicTransform, records)
+            .get();
+    Map<String, BasicRecord> fromFiles =
+        InterpretedAvroReader.readAvroAsFuture(
+                options, Executors.newSingleThreadExecutor(), basicTransform)
+            .get();
+
+    // Should
+    Assert.assertEquals(fromFiles, inMemory);
+    Assert.assertFalse(records.get(TemporalTransform.builder().create()).isPresent());
+
+    // The first step gets copies, the last step takes the kept records
+    inMemory.get("777").setGbifId(3L);
+    Map<String, BasicRecord> lastReader = records.get(basicTransform).get();
+    Assert.assertEquals(Long.valueOf(1L), lastReader.get("777").getGbifId());
+    Assert.assertThrows(UnsupportedOperationException.class, () -> lastReader.remove("777"));
+    Assert.assertThrows(IllegalStateException.class, () -> records.get(basicTransform));
+  }
 }
@@ -0,0 +1,142 @@
+package org.gbif.pipelines.ingest.java.transforms;
+
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.MEASUREMENT_OR_FACT_TABLE;
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.OCCURRENCE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
+import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
+import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
+import org.gbif.pipelines.common.beam.utils.PathBuilder;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.OccurrenceHdfsRecord;
+import org.gbif.pipelines.io.avro.extension.dwc.MeasurementOrFactTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiTableRecordWriterTest {
+
+  @Test
+  public void partPathTest() {
+    Assert.assertEquals("/a/id_1.avro", MultiTableRecordWriter.partPath("/a/id_1.avro", 0));
+    Assert.assertEquals("/a/id_1_3.avro", MultiTableRecordWriter.partPath("/a/id_1.avro", 3));
+  }
+
+  @Test
+  public void writerPartitionsTest() throws IOException {
+
+    // State
+    // More records than a batch, so several partitions write
+    int size = 2_500;
+    List<BasicRecord> list = new ArrayList<>(size);
+    for (long i = 1; i <= size; i++) {
+      list.add(BasicRecord.newBuilder().setId(String.valueOf(i)).setGbifId(i).build());
+    }
+
+    Function<BasicRecord, Optional<OccurrenceHdfsRecord>> occurrenceFn =
+        br -> {
+          OccurrenceHdfsRecord hdfsRecord = new OccurrenceHdfsRecord();
+          hdfsRecord.setGbifid(br.getGbifId());
+          return Optional.of(hdfsRecord);
+        };
+
+    // Only even records have the extension
+    Function<BasicRecord, Optional<MeasurementOrFactTable>> mofFn =
+        br -> {
+          if (br.getGbifId() % 2 != 0) {
+            return Optional.empty();
+          }
+          return Optional.of(MeasurementOrFactTable.newBuilder().setGbifid(br.getGbifId()).build());
+        };
+
+    String outputFile = getClass().getResource("/hdfsview/occurrence/").getFile();
+
+    String[] args = {
+      "--datasetId=d596fccb-2319-42eb-b13b-986c932780ad",
+      "--attempt=148",
+      "--runner=SparkRunner",
+      "--inputPath=" + outputFile,
+      "--targetPath=" + outputFile,
+      "--syncThreshold=0",
+      "--numberOfShards=3",
+      "--interpretationTypes=OCCURRENCE,MEASUREMENT_OR_FACT_TABLE"
+    };
+    InterpretationPipelineOptions options = PipelinesOptionsFactory.createInterpretation(args);
+
+    Function<InterpretationType, String> pathFn =
+        st -> {
+          String id = options.getDatasetId() + '_' + options.getAttempt() + AVRO_EXTENSION;
+          return PathBuilder.buildFilePathViewUsingInputPath(options, st.name().toLowerCase(), id);
+        };
+
+    // When
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      MultiTableRecordWriter.builder()
+          .basicRecords(list)
+          .executor(executor)
+          .options(options)
+          .targetPathFn(pathFn)
+          .types(options.getInterpretationTypes())
+          .table(
+              MultiTableRecordWriter.Table.<OccurrenceHdfsRecord>builder()
+                  .recordType(OCCURRENCE)
+                  .schema(OccurrenceHdfsRecord.getClassSchema())
+                  .recordFunction(occurrenceFn)
+                  .build())
+          .table(
+              MultiTableRecordWriter.Table.<MeasurementOrFactTable>builder()
+                  .recordType(MEASUREMENT_OR_FACT_TABLE)
+                  .schema(MeasurementOrFactTable.getClassSchema())
+                  .recordFunction(mofFn)
+                  .build())
+          .build()
+          .write();
+    } finally {
+      executor.shutdown();
+    }
+
+    // Should
+    Set<Long> occurrenceIds = readParts(OccurrenceHdfsRecord.class, pathFn.apply(OCCURRENCE), 3);
+    Assert.assertEquals(size, occurrenceIds.size());
+
+    Set<Long> mofIds =
+        readParts(MeasurementOrFactTable.class, pathFn.apply(MEASUREMENT_OR_FACT_TABLE), 3);
+    Assert.assertEquals(size / 2, mofIds.size());
+    mofIds.forEach(id -> Assert.assertEquals(0L, id % 2));
+  }
+
+  /** Reads gbifids of all existing part files and deletes them */
+  private <T extends SpecificRecordBase> Set<Long> readParts(
+      Class<T> clazz, String path, int parts) throws IOException {
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < parts; i++) {
+      File file = new File(MultiTableRecordWriter.partPath(path, i));
+      if (!file.exists()) {
+        continue;
+      }
+      try (DataFileReader<T> reader =
+          new DataFileReader<>(file, new SpecificDatumReader<>(clazz))) {
+        while (reader.hasNext()) {
+          Assert.assertTrue(ids.add((Long) reader.next().get("gbifid")));
+        }
+      }
+      Files.deleteIfExists(file.toPath());
+    }
+    return ids;
+  }
+}
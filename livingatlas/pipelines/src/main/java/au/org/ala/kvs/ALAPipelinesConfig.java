@@ -19,6 +19,8 @@ public class ALAPipelinesConfig implements Serializable {
   // ALA specific
   private WsConfig collectory;
   private WsConfig alaNameMatch;
+  // Path to a local name matching index, used instead of the alaNameMatch service if set
+  private String alaNameMatchIndex;
   private WsConfig sds;
   private String sensitivityVocabFile;
   private WsConfig speciesListService;
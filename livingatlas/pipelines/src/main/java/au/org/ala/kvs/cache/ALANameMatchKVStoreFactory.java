@@ -43,11 +43,16 @@ public class ALANameMatchKVStoreFactory {
   /**
    * Returns ala name matching key value store.
    *
-   * @return A key value store backed by a {@link ALANameUsageMatchServiceClient}
+   * @return A key value store backed by a {@link ALANameUsageMatchServiceClient}, or by a {@link
+   *     LocalNameMatchStore} if the alaNameMatchIndex is configured
    * @throws IOException if unable to build the client
    */
   public static KeyValueStore<NameSearch, NameUsageMatch> create(ALAPipelinesConfig config)
       throws IOException {
+    if (config.getAlaNameMatchIndex() != null && !config.getAlaNameMatchIndex().isEmpty()) {
+      return createLocal(config);
+    }
+
     WsConfig ws = config.getAlaNameMatch();
     ClientConfiguration clientConfiguration = WsUtils.createConfiguration(ws);
     ALANameUsageMatchServiceClient wsClient =
@@ -65,6 +70,20 @@ public class ALANameMatchKVStoreFactory {
     return cache2kBackedKVStore(wsClient, closeHandler, config);
   }
 
+  /**
+   * Returns a name matching key value store which answers in process, using the same searcher as
+   * the name matching service. One instance is shared by all threads of the JVM, see {@link
+   * #getInstance(ALAPipelinesConfig)}.
+   */
+  public static KeyValueStore<NameSearch, NameUsageMatch> createLocal(ALAPipelinesConfig config)
+      throws IOException {
+    log.info("Using the local name matching index {}", config.getAlaNameMatchIndex());
+    KeyValueStore<NameSearch, NameUsageMatch> kvs =
+        new LocalNameMatchStore(config.getAlaNameMatchIndex());
+    return KeyValueCache.cache(
+        kvs, config.getAlaNameMatch().getCacheSizeMb(), NameSearch.class, NameUsageMatch.class);
+  }
+
   /** Builds a KV Store backed by the rest client. */
   private static KeyValueStore<NameSearch, NameUsageMatch> cache2kBackedKVStore(
       NameMatchService nameMatchService, Command closeHandler, ALAPipelinesConfig config) {
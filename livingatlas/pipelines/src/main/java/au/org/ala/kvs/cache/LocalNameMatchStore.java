@@ -0,0 +1,118 @@
+package au.org.ala.kvs.cache;
+
+import au.org.ala.names.model.ErrorType;
+import au.org.ala.names.model.LinnaeanRankClassification;
+import au.org.ala.names.model.MetricsResultDTO;
+import au.org.ala.names.model.NameSearchResult;
+import au.org.ala.names.model.RankType;
+import au.org.ala.names.search.ALANameSearcher;
+import au.org.ala.names.ws.api.NameSearch;
+import au.org.ala.names.ws.api.NameUsageMatch;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.kvs.KeyValueStore;
+
+/**
+ * Matches names in process with the {@link ALANameSearcher} of the ala-name-matching library, the
+ * searcher the name matching service is built on. The lucene index is opened read-only and
+ * memory-mapped.
+ *
+ * <p>Species groups are computed by the name matching service only, they are not filled.
+ */
+@Slf4j
+public class LocalNameMatchStore implements KeyValueStore<NameSearch, NameUsageMatch> {
+
+  private static final List<String> NO_ISSUE = Collections.singletonList("noIssue");
+
+  private final ALANameSearcher searcher;
+
+  public LocalNameMatchStore(String indexPath) throws IOException {
+    this.searcher = new ALANameSearcher(indexPath);
+  }
+
+  @SneakyThrows
+  @Override
+  public NameUsageMatch get(NameSearch search) {
+    LinnaeanRankClassification classification = new LinnaeanRankClassification();
+    classification.setKingdom(search.getKingdom());
+    classification.setPhylum(search.getPhylum());
+    classification.setKlass(search.getClazz());
+    classification.setOrder(search.getOrder());
+    classification.setFamily(search.getFamily());
+    classification.setGenus(search.getGenus());
+    classification.setSpecificEpithet(search.getSpecificEpithet());
+    classification.setInfraspecificEpithet(search.getInfraspecificEpithet());
+    classification.setScientificName(search.getScientificName());
+    classification.setAuthorship(search.getScientificNameAuthorship());
+    classification.setRank(search.getRank());
+
+    MetricsResultDTO metrics = searcher.searchForRecordMetrics(classification, true);
+    NameSearchResult result = metrics.getResult();
+    if (result == null) {
+      return NameUsageMatch.FAIL;
+    }
+
+    // Synonyms are matched to the accepted taxon, as the name matching service does
+    NameSearchResult accepted = result;
+    if (result.isSynonym() && result.getAcceptedLsid() != null) {
+      NameSearchResult found = searcher.searchForRecordByLsid(result.getAcceptedLsid());
+      if (found != null) {
+        accepted = found;
+      }
+    }
+
+    LinnaeanRankClassification rc = accepted.getRankClassification();
+    RankType rank = accepted.getRank();
+    return NameUsageMatch.builder()
+        .success(true)
+        .scientificName(rc.getScientificName())
+        .scientificNameAuthorship(rc.getAuthorship())
+        .taxonConceptID(accepted.getLsid())
+        .rank(rank == null ? null : rank.getRank())
+        .rankID(rank == null ? null : rank.getId())
+        .lft(toInteger(accepted.getLeft()))
+        .rgt(toInteger(accepted.getRight()))
+        .matchType(result.getMatchType() == null ? null : result.getMatchType().toString())
+        .nameType(metrics.getNameType() == null ? null : metrics.getNameType().toString())
+        .synonymType(result.isSynonym() ? "SYNONYM" : null)
+        .kingdom(rc.getKingdom())
+        .kingdomID(rc.getKid())
+        .phylum(rc.getPhylum())
+        .phylumID(rc.getPid())
+        .classs(rc.getKlass())
+        .classID(rc.getCid())
+        .order(rc.getOrder())
+        .orderID(rc.getOid())
+        .family(rc.getFamily())
+        .familyID(rc.getFid())
+        .genus(rc.getGenus())
+        .genusID(rc.getGid())
+        .species(rc.getSpecies())
+        .speciesID(rc.getSid())
+        .vernacularName(searcher.getCommonNameForLSID(accepted.getLsid()))
+        .issues(toIssues(metrics.getErrors()))
+        .build();
+  }
+
+  /** The searcher keeps the index open for the life of the JVM */
+  @Override
+  public void close() {
+    // NOP
+  }
+
+  private static Integer toInteger(String value) {
+    return value == null || value.isEmpty() ? null : Integer.valueOf(value);
+  }
+
+  private static List<String> toIssues(Set<ErrorType> errors) {
+    if (errors == null || errors.isEmpty()) {
+      return NO_ISSUE;
+    }
+    return errors.stream().map(ErrorType::toString).sorted().collect(Collectors.toList());
+  }
+}
@@ -288,6 +288,9 @@ public class IndexRecordToSolrPipeline {
 
     if (options.getOutputAvroToFilePath() == null) {
 
+      // Lookup table shared by all records, instead of a list scan per field
+      final Set<String> schemaFieldsSet = new HashSet<>(schemaFields);
+
       kvIndexRecords
           .apply(
               "IndexRecord to SOLR Document",
@@ -299,19 +302,11 @@ public class IndexRecordToSolrPipeline {
                         OutputReceiver<SolrInputDocument> out) {
                       SolrInputDocument solrInputDocument =
                           IndexRecordTransform.convertIndexRecordToSolrDoc(
-                              kvIndexRecord.getValue(), schemaFields, dynamicFieldPrefixes);
+                              kvIndexRecord.getValue(), schemaFieldsSet, dynamicFieldPrefixes);
                       out.output(solrInputDocument);
                     }
                   }))
-          .apply(
-              SolrIO.write()
-                  .to(options.getSolrCollection())
-                  .withConnectionConfiguration(conn)
-                  .withMaxBatchSize(options.getSolrBatchSize())
-                  .withRetryConfiguration(
-                      SolrIO.RetryConfiguration.create(
-                          options.getSolrRetryMaxAttempts(),
-                          Duration.standardMinutes(options.getSolrRetryDurationInMins()))));
+          .apply(createSolrWrite(options, conn));
     } else {
       kvIndexRecords
           .apply(Values.create())
@@ -319,6 +314,28 @@ public class IndexRecordToSolrPipeline {
     }
   }
 
+  private static SolrIO.Write createSolrWrite(
+      SolrPipelineOptions options, SolrIO.ConnectionConfiguration conn) {
+    SolrIO.Write write =
+        SolrIO.write()
+            .to(options.getSolrCollection())
+            .withConnectionConfiguration(conn)
+            .withMaxBatchSize(options.getSolrBatchSize())
+            .withMaxBatchBytes(options.getSolrMaxBatchBytes())
+            .withMaxInFlightBatches(options.getSolrMaxInFlightBatches())
+            .withSkipFailedDocuments(options.getSolrSkipFailedDocuments())
+            .withRetryConfiguration(
+                SolrIO.RetryConfiguration.create(
+                    options.getSolrRetryMaxAttempts(),
+                    Duration.standardMinutes(options.getSolrRetryDurationInMins())));
+    if (options.getSolrTargetBatchLatencyInSecs() > 0) {
+      write =
+          write.withTargetBatchLatency(
+              Duration.standardSeconds(options.getSolrTargetBatchLatencyInSecs()));
+    }
+    return write;
+  }
+
   private static DoFn<KV<String, KV<IndexRecord, JackKnifeOutlierRecord>>, KV<String, IndexRecord>>
       addJackknifeInfo() {
 
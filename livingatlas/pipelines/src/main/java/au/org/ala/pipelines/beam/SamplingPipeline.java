@@ -5,6 +5,7 @@ import au.org.ala.pipelines.options.SamplingPipelineOptions;
 import au.org.ala.pipelines.util.SamplingUtils;
 import au.org.ala.pipelines.util.VersionInfo;
 import au.org.ala.sampling.Layer;
+import au.org.ala.sampling.LocalLayerSampler;
 import au.org.ala.sampling.SamplingService;
 import au.org.ala.utils.ALAFsUtils;
 import au.org.ala.utils.CombinedYamlConfiguration;
@@ -39,7 +40,8 @@ import org.slf4j.MDC;
  * <p>This pipeline can only be ran after the {@link ALAVerbatimToInterpretedPipeline} has been ran
  * as it relies on the output of the LocationTransform.
  *
- * <p>In addition, this pipeline will check configured sampling service for newly available layers.
+ * <p>In addition, this pipeline will check configured sampling service, or the local layers
+ * directory, for newly available layers.
  */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -67,9 +69,15 @@ public class SamplingPipeline {
             .getFs(options.getTargetPath());
 
     log.info("Checking for new layers in the system");
-    SamplingService samplingService = SamplingUtils.initSamplingService(options.getBaseUrl());
-
-    boolean newLayersAvailable = newLayersAddedSinceLastSample(samplingService, options, fs);
+    boolean newLayersAvailable;
+    if (options.getLocalLayersPath() != null) {
+      newLayersAvailable =
+          LocalLayerSampler.lastModified(options.getLocalLayersPath())
+              > SamplingUtils.samplingLastRan(options, fs);
+    } else {
+      SamplingService samplingService = SamplingUtils.initSamplingService(options.getBaseUrl());
+      newLayersAvailable = newLayersAddedSinceLastSample(samplingService, options, fs);
+    }
 
     if (newLayersAvailable) {
       if (options.getDeleteSamplingForNewLayers()) {
@@ -9,9 +9,11 @@ import au.org.ala.sds.api.SpeciesCheck;
 import au.org.ala.sds.generalise.FieldAccessor;
 import au.org.ala.sds.generalise.Generalisation;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.IndexedRecord;
@@ -48,6 +50,12 @@ public class SensitiveDataInterpreter {
   /** Bits to skip when generically updating the temporal record */
   private static final Set<Term> SKIP_TEMPORAL_UPDATE = Collections.singleton(DwcTerm.eventDate);
 
+  /** Terms by field or property name, term lookup normalises the name every time */
+  private static final Map<String, Term> TERMS = new ConcurrentHashMap<>();
+
+  /** Field plans by AVRO schema, built once for every record type */
+  private static final Map<Schema, List<FieldPlan>> PLANS = new ConcurrentHashMap<>();
+
   /**
    * Construct information from the extended record.
    *
@@ -144,11 +152,10 @@ public class SensitiveDataInterpreter {
     if (record == null) {
       return;
     }
-    for (Schema.Field f : record.getSchema().getFields()) {
-      Term term = TERM_FACTORY.findTerm(f.name());
-      String name = term.qualifiedName();
-      if (sensitive.contains(term) && !properties.containsKey(name)) {
-        Object value = record.get(f.pos());
+    for (FieldPlan f : getPlan(record.getSchema())) {
+      String name = f.getQualifiedName();
+      if (sensitive.contains(f.getTerm()) && !properties.containsKey(name)) {
+        Object value = record.get(f.getPos());
         properties.put(name, value == null ? null : value.toString());
       }
     }
@@ -158,7 +165,7 @@ public class SensitiveDataInterpreter {
       Set<Term> sensitive, Map<String, String> properties, Map<String, String> values) {
     values.forEach(
         (key, value) -> {
-          Term term = TERM_FACTORY.findTerm(key);
+          Term term = findTerm(key);
           if (sensitive.contains(term)) {
             String sn = term == null ? null : term.qualifiedName();
             if (sn != null && properties.get(sn) == null) {
@@ -264,8 +271,6 @@ public class SensitiveDataInterpreter {
    * @param record A record
    * @param ignore Any fields to ignore (because they have already been dealt with)
    */
-  // TODO: This interprets the incoming value against the schema.
-  // There has to be a better way
   protected static void applySensitivity(
       Set<Term> sensitive, ALASensitivityRecord sr, IndexedRecord record, Set<Term> ignore) {
     Map<String, String> altered = sr.getAltered();
@@ -273,58 +278,52 @@ public class SensitiveDataInterpreter {
     if (altered == null || altered.isEmpty()) {
       return;
     }
-    for (Schema.Field f : record.getSchema().getFields()) {
-      Term term = TERM_FACTORY.findTerm(f.name());
-      if (altered.containsKey(term.qualifiedName()) && !ignore.contains(term)) {
-        String s = altered.get(term.qualifiedName());
-        Schema schema = f.schema();
-        Object v = null;
-        if (s != null) {
-          for (Schema type : schema.getTypes()) {
-            try {
-              Schema.Type st = type.getType();
-              switch (type.getType()) {
-                case NULL:
-                  break;
-                case STRING:
-                  v = s;
-                  break;
-                case INT:
-                  v = Integer.parseInt(s);
-                  break;
-                case LONG:
-                  v = Long.parseLong(s);
-                  break;
-                case FLOAT:
-                  v = Float.parseFloat(s);
-                  break;
-                case DOUBLE:
-                  v = Double.parseDouble(s);
-                  break;
-                default:
-                  throw new IllegalStateException(
-                      "Unable to parse value of type "
-                          + st
-                          + " for field "
-                          + term
-                          + " in schema "
-                          + schema);
-              }
-              if (v != null) {
-                break;
-              }
-            } catch (NumberFormatException ex) {
-              // Silently ignore in the hope that something comes along later
-            }
-          }
-          if (v == null) {
-            throw new IllegalArgumentException(
-                "Unable to parse " + s + " for field " + term + " from schema " + schema);
-          }
+    for (FieldPlan f : getPlan(record.getSchema())) {
+      if (altered.containsKey(f.getQualifiedName()) && !ignore.contains(f.getTerm())) {
+        String s = altered.get(f.getQualifiedName());
+        record.put(f.getPos(), s == null ? null : parseValue(f, s));
+      }
+    }
+  }
+
+  /**
+   * Parse a value with the first type of the field that accepts it.
+   *
+   * @param f The field plan
+   * @param s The value
+   * @return The parsed value
+   */
+  private static Object parseValue(FieldPlan f, String s) {
+    for (Schema.Type type : f.getTypes()) {
+      try {
+        switch (type) {
+          case NULL:
+            break;
+          case STRING:
+            return s;
+          case INT:
+            return Integer.parseInt(s);
+          case LONG:
+            return Long.parseLong(s);
+          case FLOAT:
+            return Float.parseFloat(s);
+          case DOUBLE:
+            return Double.parseDouble(s);
+          default:
+            throw new IllegalStateException(
+                "Unable to parse value of type "
+                    + type
+                    + " for field "
+                    + f.getTerm()
+                    + " in schema "
+                    + f.getSchema());
         }
-        record.put(f.pos(), v);
+      } catch (NumberFormatException ex) {
+        // Silently ignore in the hope that something comes along later
       }
     }
+    throw new IllegalArgumentException(
+        "Unable to parse " + s + " for field " + f.getTerm() + " from schema " + f.getSchema());
   }
 
   /**
@@ -349,7 +348,7 @@ public class SensitiveDataInterpreter {
     sr.getAltered()
         .forEach(
             (k, v) -> {
-              Term term = TERM_FACTORY.findTerm(k);
+              Term term = findTerm(k);
               if (sensitive.contains(term)) {
                 String qn = term.qualifiedName();
                 if (values.containsKey(qn)) {
@@ -381,6 +380,29 @@ public class SensitiveDataInterpreter {
     return hasName;
   }
 
+  /**
+   * Check the species against the sensitive species list, only sensitive species need the
+   * generalisation properties and the sensitivity report.
+   *
+   * @param speciesStore The sensitive species lookup
+   * @param properties The properties that have values, only the name and taxon ID are used
+   * @param sr The sensitivity record
+   * @return True if the species is sensitive
+   */
+  public static boolean isSensitiveSpecies(
+      final KeyValueStore<SpeciesCheck, Boolean> speciesStore,
+      Map<String, String> properties,
+      ALASensitivityRecord sr) {
+    String scientificName = properties.get(DwcTerm.scientificName.qualifiedName());
+    String taxonId = properties.get(DwcTerm.taxonConceptID.qualifiedName());
+
+    SpeciesCheck speciesCheck =
+        SpeciesCheck.builder().scientificName(scientificName).taxonId(taxonId).build();
+    sr.setIsSensitive(speciesStore.get(speciesCheck));
+
+    return sr.getIsSensitive() != null && sr.getIsSensitive();
+  }
+
   /**
    * Interprets a utils from the taxonomic properties supplied from the various source records.
    *
@@ -402,16 +424,39 @@ public class SensitiveDataInterpreter {
       Vocab sensitivityVocab,
       ALASensitivityRecord sr) {
 
-    String scientificName = properties.get(DwcTerm.scientificName.qualifiedName());
-    String taxonId = properties.get(DwcTerm.taxonConceptID.qualifiedName());
+    if (isSensitiveSpecies(speciesStore, properties, sr)) {
+      generalise(
+          reportStore,
+          generalisations,
+          dataResourceUid,
+          properties,
+          existingGeneralisations,
+          sensitivityVocab,
+          sr);
+    }
+  }
 
-    SpeciesCheck speciesCheck =
-        SpeciesCheck.builder().scientificName(scientificName).taxonId(taxonId).build();
-    sr.setIsSensitive(speciesStore.get(speciesCheck));
+  /**
+   * Gets the sensitivity report and applies the generalisations for a sensitive species.
+   *
+   * @param reportStore The sensitive data report
+   * @param generalisations The generalisations to apply
+   * @param properties The properties that have values
+   * @param existingGeneralisations Any pre-existing generalisations
+   * @param sensitivityVocab The vocabulary to use when deriving sensitivity terms
+   * @param sr The sensitivity record
+   */
+  public static void generalise(
+      final KeyValueStore<SensitivityQuery, SensitivityReport> reportStore,
+      final List<Generalisation> generalisations,
+      String dataResourceUid,
+      Map<String, String> properties,
+      Map<String, String> existingGeneralisations,
+      Vocab sensitivityVocab,
+      ALASensitivityRecord sr) {
 
-    if (sr.getIsSensitive() == null || !sr.getIsSensitive()) {
-      return;
-    }
+    String scientificName = properties.get(DwcTerm.scientificName.qualifiedName());
+    String taxonId = properties.get(DwcTerm.taxonConceptID.qualifiedName());
     String stateProvince = properties.get(DwcTerm.stateProvince.qualifiedName());
     String country = properties.get(DwcTerm.country.qualifiedName());
     SensitivityQuery query =
@@ -548,6 +593,37 @@ public class SensitiveDataInterpreter {
     return null;
   }
 
+  /**
+   * Add the scientific name and taxon ID used to look up the species.
+   *
+   * <p>The interpreted names take precedence. A name that can't be found in the interpreted records
+   * or the verbatim core terms is taken from the verbatim extensions.
+   *
+   * @param sensitive The name fields that can be taken from the verbatim record
+   * @param properties The field map that we are constructing
+   * @param atxr The ALA taxon record
+   * @param txr The GBIF taxon record
+   * @param er The verbatim record
+   */
+  public static void constructNames(
+      Set<Term> sensitive,
+      Map<String, String> properties,
+      ALATaxonRecord atxr,
+      TaxonRecord txr,
+      ExtendedRecord er) {
+    String scientificName = extractScientificName(atxr, txr, er);
+    if (scientificName != null) {
+      properties.put(DwcTerm.scientificName.qualifiedName(), scientificName);
+    }
+    String taxonId = extractTaxonId(atxr, txr, er);
+    if (taxonId != null) {
+      properties.put(DwcTerm.taxonConceptID.qualifiedName(), taxonId);
+    }
+    if (scientificName == null || taxonId == null) {
+      constructFields(sensitive, properties, er);
+    }
+  }
+
   /** Convert a map into a map of string key-values. */
   protected static <K, V> Map<String, String> toStringMap(Map<K, V> original) {
     Map<String, String> strings = new HashMap<>(original.size());
@@ -575,4 +651,40 @@ public class SensitiveDataInterpreter {
       return null;
     }
   }
+
+  /** Find a term, looking up every name once */
+  protected static Term findTerm(String name) {
+    return TERMS.computeIfAbsent(name, TERM_FACTORY::findTerm);
+  }
+
+  /** Get the field plan for a schema, building it on first use */
+  private static List<FieldPlan> getPlan(Schema schema) {
+    return PLANS.computeIfAbsent(
+        schema,
+        sc -> {
+          List<FieldPlan> plan = new ArrayList<>(sc.getFields().size());
+          for (Schema.Field f : sc.getFields()) {
+            Term term = findTerm(f.name());
+            Schema fs = f.schema();
+            List<Schema.Type> types = new ArrayList<>();
+            if (fs.getType() == Schema.Type.UNION) {
+              fs.getTypes().forEach(t -> types.add(t.getType()));
+            } else {
+              types.add(fs.getType());
+            }
+            plan.add(new FieldPlan(f.pos(), term, term.qualifiedName(), types, fs));
+          }
+          return plan;
+        });
+  }
+
+  /** A field of a record with its term and the types a value can be parsed to, in order */
+  @Value
+  private static class FieldPlan {
+    int pos;
+    Term term;
+    String qualifiedName;
+    List<Schema.Type> types;
+    Schema schema;
+  }
 }
@@ -1,5 +1,7 @@
 package au.org.ala.pipelines.java;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.LOCATION_KV_LOOKUP_TIME;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.TAXON_KV_LOOKUP_TIME;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.RecordType.ALL;
 
@@ -17,7 +19,6 @@ import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
@@ -35,8 +36,10 @@ import org.gbif.pipelines.common.beam.metrics.MetricsHandler;
 import org.gbif.pipelines.common.beam.options.InterpretationPipelineOptions;
 import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
 import org.gbif.pipelines.common.beam.utils.PathBuilder;
+import org.gbif.pipelines.core.factory.ExecutorFactory;
 import org.gbif.pipelines.core.factory.FileSystemFactory;
 import org.gbif.pipelines.core.factory.FileVocabularyFactory;
+import org.gbif.pipelines.core.functions.SerializableBiConsumer;
 import org.gbif.pipelines.core.functions.SerializableConsumer;
 import org.gbif.pipelines.core.io.AvroReader;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
@@ -109,7 +112,7 @@ public class ALAVerbatimToInterpretedPipeline {
   }
 
   public static void run(InterpretationPipelineOptions options) {
-    ExecutorService executor = Executors.newWorkStealingPool();
+    ExecutorService executor = ExecutorFactory.create(options.getUseVirtualThreads(), null);
     try {
       run(options, executor);
     } finally {
@@ -174,6 +177,12 @@ public class ALAVerbatimToInterpretedPipeline {
     log.info("Init metrics");
     IngestMetrics metrics = IngestMetricsBuilder.createVerbatimToInterpretedMetrics();
     SerializableConsumer<String> incMetricFn = metrics::incMetric;
+    SerializableBiConsumer<String, Long> timerFn = metrics::recordTime;
+    SerializableBiConsumer<String, Long> gaugeFn = metrics::setGauge;
+
+    // Each web service has one limit shared by all datasets interpreted in the JVM, the spatial
+    // layers are local and not limited
+    int maxCalls = options.getMaxConcurrentServiceCalls();
 
     log.info("Creating pipelines transforms");
 
@@ -230,14 +239,24 @@ public class ALAVerbatimToInterpretedPipeline {
     // ALA specific - Attribution
     ALAAttributionTransform alaAttributionTransform =
         ALAAttributionTransform.builder()
-            .collectionKvStoreSupplier(ALACollectionKVStoreFactory.getInstanceSupplier(config))
+            .collectionKvStoreSupplier(
+                ExecutorFactory.limitConcurrency(
+                    "collectory",
+                    ALACollectionKVStoreFactory.getInstanceSupplier(config),
+                    maxCalls))
             .create();
 
     // ALA specific - Taxonomy
     ALATaxonomyTransform alaTaxonomyTransform =
         ALATaxonomyTransform.builder()
             .datasetId(datasetId)
-            .nameMatchStoreSupplier(ALANameMatchKVStoreFactory.getInstanceSupplier(config))
+            .nameMatchStoreSupplier(
+                ExecutorFactory.limitConcurrency(
+                    "ala-namematching",
+                    metrics.timedKvStore(
+                        TAXON_KV_LOOKUP_TIME,
+                        ALANameMatchKVStoreFactory.getInstanceSupplier(config)),
+                    maxCalls))
             .kingdomCheckStoreSupplier(
                 ALANameCheckKVStoreFactory.getInstanceSupplier("kingdom", config))
             .dataResourceStoreSupplier(ALAAttributionKVStoreFactory.getInstanceSupplier(config))
@@ -247,9 +266,16 @@ public class ALAVerbatimToInterpretedPipeline {
     LocationTransform locationTransform =
         LocationTransform.builder()
             .alaConfig(config)
-            .countryKvStoreSupplier(GeocodeKvStoreFactory.createCountrySupplier(config))
-            .stateProvinceKvStoreSupplier(GeocodeKvStoreFactory.createStateProvinceSupplier(config))
-            .biomeKvStoreSupplier(GeocodeKvStoreFactory.createBiomeSupplier(config))
+            .countryKvStoreSupplier(
+                metrics.timedKvStore(
+                    LOCATION_KV_LOOKUP_TIME, GeocodeKvStoreFactory.createCountrySupplier(config)))
+            .stateProvinceKvStoreSupplier(
+                metrics.timedKvStore(
+                    LOCATION_KV_LOOKUP_TIME,
+                    GeocodeKvStoreFactory.createStateProvinceSupplier(config)))
+            .biomeKvStoreSupplier(
+                metrics.timedKvStore(
+                    LOCATION_KV_LOOKUP_TIME, GeocodeKvStoreFactory.createBiomeSupplier(config)))
             .create();
 
     // ALA specific - Default values
@@ -259,6 +285,21 @@ public class ALAVerbatimToInterpretedPipeline {
             .dataResourceKvStoreSupplier(ALAAttributionKVStoreFactory.getInstanceSupplier(config))
             .create();
 
+    // Processing and writing times
+    Stream.<Transform<?, ?>>of(
+            basicTransform,
+            verbatimTransform,
+            temporalTransform,
+            multimediaTransform,
+            locationTransform,
+            alaTaxonomyTransform,
+            alaAttributionTransform)
+        .forEach(
+            t -> {
+              t.setTimerFn(timerFn);
+              t.setGaugeFn(gaugeFn);
+            });
+
     basicTransform.setup();
     temporalTransform.setup();
     locationTransform.setup();
@@ -365,6 +406,9 @@ public class ALAVerbatimToInterpretedPipeline {
         .codec(options.getAvroCompressionType())
         .outputStream(fs.create(path))
         .syncInterval(options.getAvroSyncInterval())
+        .appendTimeFn(transform::recordWriteTime)
+        .sampleSize(options.getAvroAutoSampleSize())
+        .tuningFn(transform::recordAvroTuning)
         .build()
         .createSyncDataFileWriter();
   }
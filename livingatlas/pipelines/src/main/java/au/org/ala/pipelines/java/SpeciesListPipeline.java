@@ -114,24 +114,19 @@ public class SpeciesListPipeline {
       Map<String, List<SpeciesListRecord>> speciesListMap =
           speciesListRecords.stream().collect(groupingBy(SpeciesListRecord::getTaxonID));
 
-      List<ALATaxonRecord> alaTaxonRecords =
+      // join by taxonID, taxon records are only streamed, so their instances are reused
+      List<TaxonProfile> profiles =
           AvroReader.readObjects(
               options.getHdfsSiteConfig(),
               options.getCoreSiteConfig(),
               ALATaxonRecord.class,
-              pathFn.apply(ALATaxonomyTransform.builder().create().getBaseName()));
-
-      // join by taxonID
-      List<TaxonProfile> profiles =
-          alaTaxonRecords.stream()
-              .map(
-                  alaTaxonRecord ->
-                      convertToTaxonProfile(
-                          alaTaxonRecord,
-                          speciesListMap,
-                          options.getIncludeConservationStatus(),
-                          options.getIncludeInvasiveStatus()))
-              .collect(Collectors.toList());
+              pathFn.apply(ALATaxonomyTransform.builder().create().getBaseName()),
+              alaTaxonRecord ->
+                  convertToTaxonProfile(
+                      alaTaxonRecord,
+                      speciesListMap,
+                      options.getIncludeConservationStatus(),
+                      options.getIncludeInvasiveStatus()));
 
       return profiles.stream()
           .filter(taxonProfile -> taxonProfile != null && taxonProfile.getId() != null)
@@ -47,4 +47,16 @@ public interface SamplingPipelineOptions extends AllDatasetsPipelinesOptions {
   Boolean getDeleteSamplingForNewLayers();
 
   void setDeleteSamplingForNewLayers(Boolean deleteSamplingForNewLayers);
+
+  @Description(
+      "Local directory with layers stored as grids (.grd/.gri), when set coordinates are sampled in process instead of the sampling service")
+  String getLocalLayersPath();
+
+  void setLocalLayersPath(String localLayersPath);
+
+  @Description(
+      "Comma separated layer (field) ids sampled with the local layers, by default the enabled fields of the sampling service")
+  String getLocalLayerIds();
+
+  void setLocalLayerIds(String localLayerIds);
 }
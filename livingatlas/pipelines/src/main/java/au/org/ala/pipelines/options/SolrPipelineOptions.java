@@ -23,6 +23,32 @@ public interface SolrPipelineOptions extends IndexingPipelineOptions {
 
   void setSolrBatchSize(Integer solrBatchSize);
 
+  @Description("SOLR max number of batches sent at the same time by one writer")
+  @Default.Integer(2)
+  Integer getSolrMaxInFlightBatches();
+
+  void setSolrMaxInFlightBatches(Integer solrMaxInFlightBatches);
+
+  @Description("SOLR max batch size in bytes of the document fields")
+  @Default.Long(10 * 1024 * 1024)
+  Long getSolrMaxBatchBytes();
+
+  void setSolrMaxBatchBytes(Long solrMaxBatchBytes);
+
+  @Description(
+      "SOLR target batch request latency in seconds, slower requests reduce the batch size. "
+          + "0 for the fixed batch size")
+  @Default.Integer(10)
+  Integer getSolrTargetBatchLatencyInSecs();
+
+  void setSolrTargetBatchLatencyInSecs(Integer solrTargetBatchLatencyInSecs);
+
+  @Description("Skip documents rejected by SOLR instead of failing the pipeline")
+  @Default.Boolean(false)
+  Boolean getSolrSkipFailedDocuments();
+
+  void setSolrSkipFailedDocuments(Boolean solrSkipFailedDocuments);
+
   @Description("SOLR max retry attempts")
   @Default.Integer(10)
   Integer getSolrRetryMaxAttempts();
@@ -24,6 +24,12 @@ public interface SpeciesLevelPipelineOptions extends InterpretationPipelineOptio
 
   void setMaxDownloadAgeInMinutes(long getMaxDownloadAgeInMinutes);
 
+  @Description("Number of species lists downloaded concurrently")
+  @Default.Integer(4)
+  Integer getSpeciesListDownloadThreads();
+
+  void setSpeciesListDownloadThreads(Integer speciesListDownloadThreads);
+
   @Default.Boolean(true)
   Boolean getIncludeConservationStatus();
 
@@ -62,8 +62,13 @@ public class ALASensitiveDataRecordTransform
   private final SerializableSupplier<ConservationApi> conservationServiceSupplier;
   private Vocab sensitivityVocab;
 
+  /** Fields used to look up a sensitive species */
+  private static final Set<Term> NAME_FIELDS =
+      new HashSet<>(Arrays.asList(DwcTerm.scientificName, DwcTerm.taxonConceptID));
+
   private List<Generalisation> generalisations;
   private Set<Term> sensitiveFields;
+  private Set<Term> sensitiveNameFields;
 
   @NonNull private final TupleTag<ExtendedRecord> erTag;
   @NonNull private final TupleTag<TemporalRecord> trTag;
@@ -155,6 +160,10 @@ public class ALASensitiveDataRecordTransform
             g.getFields().stream().map(FieldAccessor::getField).collect(Collectors.toSet()));
       }
     }
+    if (sensitiveFields != null) {
+      sensitiveNameFields = new HashSet<>(sensitiveFields);
+      sensitiveNameFields.retainAll(NAME_FIELDS);
+    }
     try {
       sensitivityVocab =
           Sensitivity.getInstance(config != null ? config.getSensitivityVocabFile() : null);
@@ -198,12 +207,13 @@ public class ALASensitiveDataRecordTransform
     ALASensitivityRecord sr = ALASensitivityRecord.newBuilder().setId(id).build();
 
     Map<String, String> properties = new HashMap<>(sensitiveFields.size());
-    properties.put(
-        DwcTerm.scientificName.qualifiedName(),
-        SensitiveDataInterpreter.extractScientificName(iatxr, itxr, ier));
-    properties.put(
-        DwcTerm.taxonConceptID.qualifiedName(),
-        SensitiveDataInterpreter.extractTaxonId(iatxr, itxr, ier));
+    SensitiveDataInterpreter.constructNames(sensitiveNameFields, properties, iatxr, itxr, ier);
+
+    // Most records are not sensitive, they only need the species check
+    if (!SensitiveDataInterpreter.sourceQualityChecks(properties, sr)
+        || !SensitiveDataInterpreter.isSensitiveSpecies(speciesStore, properties, sr)) {
+      return Optional.of(sr);
+    }
 
     Map<String, String> dataGeneralisations = new HashMap<>();
     SensitiveDataInterpreter.constructFields(GENERALISATION_FIELDS, dataGeneralisations, ier);
@@ -214,17 +224,14 @@ public class ALASensitiveDataRecordTransform
     SensitiveDataInterpreter.constructFields(sensitiveFields, properties, ilr);
     SensitiveDataInterpreter.constructFields(sensitiveFields, properties, ier);
 
-    if (SensitiveDataInterpreter.sourceQualityChecks(properties, sr)) {
-      SensitiveDataInterpreter.sensitiveDataInterpreter(
-          speciesStore,
-          reportStore,
-          generalisations,
-          datasetId,
-          properties,
-          dataGeneralisations,
-          sensitivityVocab,
-          sr);
-    }
+    SensitiveDataInterpreter.generalise(
+        reportStore,
+        generalisations,
+        datasetId,
+        properties,
+        dataGeneralisations,
+        sensitivityVocab,
+        sr);
     return Optional.of(sr);
   }
 }
@@ -13,8 +13,10 @@ import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import lombok.NonNull;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
@@ -52,6 +54,48 @@ public class IndexRecordTransform implements Serializable, IndexFields {
   public static final int YYYY_DD_MM_FORMAT_LENGTH = 10;
   public static final int YYYY_MM_DDTHH_mm_ss_Z_LENGTH = 22;
   public static final String RAW_PREFIX = "raw_";
+  // current limitation on SOLR string field size
+  private static final int SOLR_MAX_STRING_BYTES = 32765;
+  // the longest encoding of a char in the supported charsets
+  private static final int MAX_BYTES_PER_CHAR = 4;
+
+  // ObjectMapper is thread-safe once configured, one instance serves all records
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  // SimpleDateFormat and DecimalFormat are not thread-safe, one instance per thread
+  private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT =
+      ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
+  private static final ThreadLocal<SimpleDateFormat> DATE_TIME_FORMAT =
+      ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mmXXX"));
+  private static final ThreadLocal<Map<String, DecimalFormat>> DECIMAL_FORMATS =
+      ThreadLocal.withInitial(HashMap::new);
+
+  // Avro fields to index, resolved once per record class
+  private static final Map<Class<?>, List<IndexedField>> INDEXED_FIELDS =
+      new ConcurrentHashMap<>();
+
+  private static final Set<String> SKIP_KEYS =
+      ImmutableSet.of(
+          "id",
+          "created",
+          "text",
+          "name",
+          "coreRowType",
+          "coreTerms",
+          "extensions",
+          "usage",
+          "classification",
+          "eventDate",
+          "hasCoordinate",
+          "hasGeospatialIssue",
+          "gbifId",
+          "crawlId",
+          "networkKeys",
+          "protocol",
+          "issues",
+          "identifiedByIds", // multi value field
+          "recordedByIds", // multi value field
+          "machineTags"); // TODO review content
 
   // Core
   @NonNull private TupleTag<ExtendedRecord> erTag;
@@ -143,28 +187,6 @@ public class IndexRecordTransform implements Serializable, IndexFields {
       Long lastLoadDate,
       Long lastProcessedDate) {
 
-    Set<String> skipKeys = new HashSet<>();
-    skipKeys.add("id");
-    skipKeys.add("created");
-    skipKeys.add("text");
-    skipKeys.add("name");
-    skipKeys.add("coreRowType");
-    skipKeys.add("coreTerms");
-    skipKeys.add("extensions");
-    skipKeys.add("usage");
-    skipKeys.add("classification");
-    skipKeys.add("eventDate");
-    skipKeys.add("hasCoordinate");
-    skipKeys.add("hasGeospatialIssue");
-    skipKeys.add("gbifId");
-    skipKeys.add("crawlId");
-    skipKeys.add("networkKeys");
-    skipKeys.add("protocol");
-    skipKeys.add("issues");
-    skipKeys.add("identifiedByIds"); // multi value field
-    skipKeys.add("recordedByIds"); // multi value field
-    skipKeys.add("machineTags"); // TODO review content
-
     IndexRecord.Builder indexRecord = IndexRecord.newBuilder().setId(ur.getUuid());
     indexRecord.setBooleans(new HashMap<>());
     indexRecord.setStrings(new HashMap<>());
@@ -214,9 +236,9 @@ public class IndexRecordTransform implements Serializable, IndexFields {
       }
     }
 
-    addToIndexRecord(lr, indexRecord, skipKeys);
-    addToIndexRecord(tr, indexRecord, skipKeys);
-    addToIndexRecord(br, indexRecord, skipKeys);
+    addToIndexRecord(lr, indexRecord);
+    addToIndexRecord(tr, indexRecord);
+    addToIndexRecord(br, indexRecord);
 
     if (br != null) {
       if (br.getRecordedByIds() != null && br.getRecordedByIds().isEmpty()) {
@@ -246,11 +268,9 @@ public class IndexRecordTransform implements Serializable, IndexFields {
         // 2) yyyy-MM-ddTHH:mm:ssXXX e.g. 2019-09-13T13:35+10:00
         Date date = null;
         if (tr.getEventDate().getGte().length() == YYYY_MM_DDTHH_mm_ss_Z_LENGTH) {
-          SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mmXXX");
-          date = sdf.parse(tr.getEventDate().getGte());
+          date = DATE_TIME_FORMAT.get().parse(tr.getEventDate().getGte());
         } else {
-          SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-          date = sdf.parse(tr.getEventDate().getGte());
+          date = DATE_FORMAT.get().parse(tr.getEventDate().getGte());
         }
 
         indexRecord.getDates().put(DwcTerm.eventDate.simpleName(), date.getTime());
@@ -261,7 +281,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
               .getDates()
               .put(
                   EVENT_DATE_END,
-                  new SimpleDateFormat("yyyy-MM-dd").parse(tr.getEventDate().getLte()).getTime());
+                  DATE_FORMAT.get().parse(tr.getEventDate().getLte()).getTime());
         }
       }
     } catch (ParseException e) {
@@ -281,8 +301,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
       // https://github.com/AtlasOfLivingAustralia/biocache-store/blob/develop/src/main/scala/au/org/ala/biocache/index/IndexDAO.scala#L1077
       String occurrenceYear = tr.getYear() + "-01-01";
       try {
-        long occurrenceYearTime =
-            new SimpleDateFormat("yyyy-MM-dd").parse(occurrenceYear).getTime();
+        long occurrenceYearTime = DATE_FORMAT.get().parse(occurrenceYear).getTime();
         indexRecord.getDates().put(OCCURRENCE_YEAR, occurrenceYearTime);
       } catch (ParseException ex) {
         // NOP
@@ -338,7 +357,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
             && !field.name().equals(SPECIES_GROUP)
             && !field.name().equals(SPECIES_SUBGROUP)
             && !field.name().equals(TAXON_RANK)
-            && !skipKeys.contains(field.name())) {
+            && !SKIP_KEYS.contains(field.name())) {
 
           if (field.name().equalsIgnoreCase(CLASSS)) {
             indexRecord.getStrings().put(DwcTerm.class_.simpleName(), value.toString());
@@ -583,8 +602,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
 
             // attempt JSON parse - best effort service only, if this fails
             // we carry on indexing
-            ObjectMapper om = new ObjectMapper();
-            Map dynamicProperties = om.readValue(entry.getValue(), Map.class);
+            Map dynamicProperties = OBJECT_MAPPER.readValue(entry.getValue(), Map.class);
             indexRecord.setDynamicProperties(dynamicProperties);
           } catch (Exception e) {
             // NOP
@@ -887,9 +905,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
   }
 
   static String getLatLongStringStep(Double lat, Double lon, String format, Double step) {
-    DecimalFormat df = new DecimalFormat(format);
-    // By some "strange" decision the default rounding model is HALF_EVEN
-    df.setRoundingMode(java.math.RoundingMode.HALF_UP);
+    DecimalFormat df = getDecimalFormat(format);
     return df.format(Math.round(lat / step) * step)
         + ","
         + df.format(Math.round(lon / step) * step);
@@ -897,58 +913,76 @@ public class IndexRecordTransform implements Serializable, IndexFields {
 
   /** Returns a lat,long string expression formatted to the supplied Double format */
   static String getLatLongString(Double lat, Double lon, String format) {
-    DecimalFormat df = new DecimalFormat(format);
-    // By some "strange" decision the default rounding model is HALF_EVEN
-    df.setRoundingMode(java.math.RoundingMode.HALF_UP);
+    DecimalFormat df = getDecimalFormat(format);
     return df.format(lat) + "," + df.format(lon);
   }
 
-  static void addToIndexRecord(
-      SpecificRecordBase record, IndexRecord.Builder builder, Set<String> skipKeys) {
-
-    record.getSchema().getFields().stream()
-        .filter(n -> !skipKeys.contains(n.name()))
-        .forEach(
-            f ->
-                Optional.ofNullable(record.get(f.pos()))
-                    .ifPresent(
-                        r -> {
-                          Schema schema = f.schema();
-                          Optional<Schema.Type> type =
-                              schema.getType() == UNION
-                                  ? schema.getTypes().stream()
-                                      .filter(t -> t.getType() != Schema.Type.NULL)
-                                      .findFirst()
-                                      .map(Schema::getType)
-                                  : Optional.of(schema.getType());
-                          type.ifPresent(
-                              t -> {
-                                switch (t) {
-                                  case BOOLEAN:
-                                    //
-                                    builder.getBooleans().put(f.name(), (Boolean) r);
-                                    break;
-                                  case FLOAT:
-                                    builder.getDoubles().put(f.name(), (Double) r);
-                                    break;
-                                  case DOUBLE:
-                                    builder.getDoubles().put(f.name(), (Double) r);
-                                    break;
-                                  case INT:
-                                    builder.getInts().put(f.name(), (Integer) r);
-                                    break;
-                                  case LONG:
-                                    builder.getLongs().put(f.name(), (Long) r);
-                                    break;
-                                  case ARRAY:
-                                    builder.getMultiValues().put(f.name(), (List) r);
-                                    break;
-                                  default:
-                                    builder.getStrings().put(f.name(), r.toString());
-                                    break;
-                                }
-                              });
-                        }));
+  private static DecimalFormat getDecimalFormat(String format) {
+    return DECIMAL_FORMATS
+        .get()
+        .computeIfAbsent(
+            format,
+            f -> {
+              DecimalFormat df = new DecimalFormat(f);
+              // By some "strange" decision the default rounding model is HALF_EVEN
+              df.setRoundingMode(java.math.RoundingMode.HALF_UP);
+              return df;
+            });
+  }
+
+  static void addToIndexRecord(SpecificRecordBase record, IndexRecord.Builder builder) {
+    List<IndexedField> fields =
+        INDEXED_FIELDS.computeIfAbsent(record.getClass(), c -> indexedFields(record));
+    for (IndexedField f : fields) {
+      Object r = record.get(f.getPos());
+      if (r == null) {
+        continue;
+      }
+      switch (f.getType()) {
+        case BOOLEAN:
+          //
+          builder.getBooleans().put(f.getName(), (Boolean) r);
+          break;
+        case FLOAT:
+          builder.getDoubles().put(f.getName(), (Double) r);
+          break;
+        case DOUBLE:
+          builder.getDoubles().put(f.getName(), (Double) r);
+          break;
+        case INT:
+          builder.getInts().put(f.getName(), (Integer) r);
+          break;
+        case LONG:
+          builder.getLongs().put(f.getName(), (Long) r);
+          break;
+        case ARRAY:
+          builder.getMultiValues().put(f.getName(), (List) r);
+          break;
+        default:
+          builder.getStrings().put(f.getName(), r.toString());
+          break;
+      }
+    }
+  }
+
+  /** Fields of the record which are not skipped, with the first non-null type of a union */
+  private static List<IndexedField> indexedFields(SpecificRecordBase record) {
+    List<IndexedField> result = new ArrayList<>();
+    for (Schema.Field f : record.getSchema().getFields()) {
+      if (SKIP_KEYS.contains(f.name())) {
+        continue;
+      }
+      Schema schema = f.schema();
+      Optional<Schema.Type> type =
+          schema.getType() == UNION
+              ? schema.getTypes().stream()
+                  .filter(t -> t.getType() != Schema.Type.NULL)
+                  .findFirst()
+                  .map(Schema::getType)
+              : Optional.of(schema.getType());
+      type.ifPresent(t -> result.add(new IndexedField(f.pos(), f.name(), t)));
+    }
+    return result;
   }
 
   private static boolean startsWithPrefix(List<String> dynamicFieldPrefixes, String value) {
@@ -961,14 +995,49 @@ public class IndexRecordTransform implements Serializable, IndexFields {
   }
 
   public static void addStringSafely(SolrInputDocument doc, String key, String value) {
-    // current limitation on SOLR string field size
-    if (value.getBytes().length < 32765) {
+    // short values can't exceed the limit, only long ones are encoded to count the bytes
+    if (value.length() < SOLR_MAX_STRING_BYTES / MAX_BYTES_PER_CHAR
+        || value.getBytes().length < SOLR_MAX_STRING_BYTES) {
       doc.addField(key, value);
     }
   }
 
+  /** Replaces every character except A-Z, a-z and 0-9 with "_", as a regex on code points does */
+  static String cleanFieldName(String key) {
+    StringBuilder sb = null;
+    int i = 0;
+    while (i < key.length()) {
+      int cp = key.codePointAt(i);
+      int next = i + Character.charCount(cp);
+      boolean valid =
+          (cp >= 'A' && cp <= 'Z') || (cp >= 'a' && cp <= 'z') || (cp >= '0' && cp <= '9');
+      if (!valid && sb == null) {
+        sb = new StringBuilder(key.length()).append(key, 0, i);
+      }
+      if (sb != null) {
+        if (valid) {
+          sb.append(key, i, next);
+        } else {
+          sb.append('_');
+        }
+      }
+      i = next;
+    }
+    return sb == null ? key : sb.toString();
+  }
+
   public static SolrInputDocument convertIndexRecordToSolrDoc(
       IndexRecord indexRecord, List<String> schemaFields, List<String> dynamicFieldPrefixes) {
+    return convertIndexRecordToSolrDoc(
+        indexRecord, new HashSet<>(schemaFields), dynamicFieldPrefixes);
+  }
+
+  /**
+   * Converts the record to a SOLR document, the schema fields set is meant to be created once and
+   * shared by all records.
+   */
+  public static SolrInputDocument convertIndexRecordToSolrDoc(
+      IndexRecord indexRecord, Set<String> schemaFields, List<String> dynamicFieldPrefixes) {
 
     SolrInputDocument doc = new SolrInputDocument();
     doc.setField(ID, indexRecord.getId());
@@ -979,7 +1048,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
         addStringSafely(doc, s.getKey(), s.getValue());
       } else {
         // clean up field name before adding
-        String key = s.getKey().replaceAll("[^A-Za-z0-9]", "_");
+        String key = cleanFieldName(s.getKey());
         if (StringUtils.isNotEmpty(key)
             && doc.getFieldValue(DYNAMIC_PROPERTIES_PREFIX + key) == null) {
           addStringSafely(doc, DYNAMIC_PROPERTIES_PREFIX + key, s.getValue());
@@ -1024,7 +1093,7 @@ public class IndexRecordTransform implements Serializable, IndexFields {
         && !indexRecord.getDynamicProperties().isEmpty()) {
       for (Map.Entry<String, String> entry : indexRecord.getDynamicProperties().entrySet()) {
         if (StringUtils.isNotEmpty(entry.getValue())) {
-          String key = entry.getKey().replaceAll("[^A-Za-z0-9]", "_");
+          String key = cleanFieldName(entry.getKey());
           if (StringUtils.isNotEmpty(key)
               && doc.getFieldValue(DYNAMIC_PROPERTIES_PREFIX + key) == null) {
             addStringSafely(doc, DYNAMIC_PROPERTIES_PREFIX + key, entry.getValue());
@@ -1035,4 +1104,11 @@ public class IndexRecordTransform implements Serializable, IndexFields {
 
     return doc;
   }
+
+  @Value
+  private static class IndexedField {
+    int pos;
+    String name;
+    Schema.Type type;
+  }
 }
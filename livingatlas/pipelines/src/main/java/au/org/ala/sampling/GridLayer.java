@@ -0,0 +1,227 @@
+package au.org.ala.sampling;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import lombok.Getter;
+
+/**
+ * A layer stored locally as a DIVA-GIS grid, a {@code .grd} text header and a {@code .gri} binary
+ * file with the values, the format used by the ALA spatial service for gridded layers.
+ *
+ * <p>The values file is memory mapped, so the grid is paged in by the OS and can be shared between
+ * threads, {@link #sample(double, double)} is thread safe.
+ *
+ * <p>Contextual grids store class codes, the names of the classes are read from the {@code .txt}
+ * class table next to the grid, one {@code code=name} line per class.
+ */
+public class GridLayer {
+
+  public static final String HEADER_EXTENSION = ".grd";
+  public static final String VALUES_EXTENSION = ".gri";
+  public static final String CLASSES_EXTENSION = ".txt";
+
+  // A single mapping can't exceed Integer.MAX_VALUE bytes
+  private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+  @Getter private final String id;
+  private final int columns;
+  private final int rows;
+  private final double minX;
+  private final double maxY;
+  private final double resolutionX;
+  private final double resolutionY;
+  private final double noDataValue;
+  private final DataType dataType;
+  private final int rowsPerSegment;
+  private final ByteBuffer[] segments;
+  private final Map<Integer, String> classes;
+
+  private GridLayer(String id, Properties header, File values, Map<Integer, String> classes)
+      throws IOException {
+    this.id = id;
+    this.classes = classes;
+    this.columns = Integer.parseInt(header.getProperty("Columns").trim());
+    this.rows = Integer.parseInt(header.getProperty("Rows").trim());
+    this.minX = Double.parseDouble(header.getProperty("MinX").trim());
+    this.maxY = Double.parseDouble(header.getProperty("MaxY").trim());
+    this.resolutionX = Double.parseDouble(header.getProperty("ResolutionX").trim());
+    this.resolutionY = Double.parseDouble(header.getProperty("ResolutionY").trim());
+    this.noDataValue = Double.parseDouble(header.getProperty("NoDataValue", "NaN").trim());
+    this.dataType = DataType.parse(header.getProperty("DataType", "FLT4BYTES").trim());
+
+    ByteOrder byteOrder =
+        "MSB".equalsIgnoreCase(header.getProperty("ByteOrder", "LSB").trim())
+            ? ByteOrder.BIG_ENDIAN
+            : ByteOrder.LITTLE_ENDIAN;
+
+    long rowSize = (long) columns * dataType.size;
+    this.rowsPerSegment = (int) Math.max(1L, MAX_SEGMENT_SIZE / rowSize);
+    int segmentCount = (rows + rowsPerSegment - 1) / rowsPerSegment;
+    this.segments = new ByteBuffer[segmentCount];
+
+    try (RandomAccessFile file = new RandomAccessFile(values, "r");
+        FileChannel channel = file.getChannel()) {
+      if (channel.size() < rowSize * rows) {
+        throw new IOException("Grid values file " + values + " is smaller than its header states");
+      }
+      for (int i = 0; i < segmentCount; i++) {
+        int segmentRows = Math.min(rowsPerSegment, rows - i * rowsPerSegment);
+        MappedByteBuffer buffer =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY, i * rowsPerSegment * rowSize, segmentRows * rowSize);
+        segments[i] = buffer.order(byteOrder);
+      }
+    }
+  }
+
+  /**
+   * Opens the grid stored as {@code <id>.grd} and {@code <id>.gri} in the directory.
+   *
+   * @param directory local directory with the grid files
+   * @param id layer (field) id, for example el10011
+   */
+  public static GridLayer open(File directory, String id) throws IOException {
+    Properties header = new Properties();
+    try (InputStream in = new FileInputStream(new File(directory, id + HEADER_EXTENSION))) {
+      header.load(in);
+    }
+    File classTable = new File(directory, id + CLASSES_EXTENSION);
+    Map<Integer, String> classes =
+        classTable.exists() ? readClasses(classTable) : Collections.emptyMap();
+    return new GridLayer(id, header, new File(directory, id + VALUES_EXTENSION), classes);
+  }
+
+  /** A contextual grid has a class table and its values are class codes */
+  public boolean isContextual() {
+    return !classes.isEmpty();
+  }
+
+  /** Returns the name of the class for a value of a contextual grid or null for unknown codes */
+  public String getClassName(double value) {
+    return classes.get((int) value);
+  }
+
+  /** Returns the value of the cell containing the point or null for no data or out of bounds */
+  public Double sample(double latitude, double longitude) {
+    int column = (int) Math.floor((longitude - minX) / resolutionX);
+    // Rows are stored from the top (north) of the grid
+    int row = (int) Math.floor((maxY - latitude) / resolutionY);
+    // Points on the east and south edges belong to the last cell
+    if (column == columns && longitude == minX + columns * resolutionX) {
+      column--;
+    }
+    if (row == rows && latitude == maxY - rows * resolutionY) {
+      row--;
+    }
+    if (column < 0 || column >= columns || row < 0 || row >= rows) {
+      return null;
+    }
+
+    ByteBuffer segment = segments[row / rowsPerSegment];
+    int index = ((row % rowsPerSegment) * columns + column) * dataType.size;
+    double value = dataType.read(segment, index);
+
+    // Float grids store the no data value with float precision
+    if (Double.isNaN(value)
+        || value == noDataValue
+        || (dataType == DataType.FLOAT && (float) value == (float) noDataValue)) {
+      return null;
+    }
+    return value;
+  }
+
+  /** Reads the class table, {@code code=name} lines, other lines are ignored */
+  private static Map<Integer, String> readClasses(File classTable) throws IOException {
+    Map<Integer, String> classes = new HashMap<>();
+    for (String line : Files.readAllLines(classTable.toPath(), StandardCharsets.UTF_8)) {
+      int separator = line.indexOf('=');
+      if (separator > 0) {
+        try {
+          int code = (int) Double.parseDouble(line.substring(0, separator).trim());
+          classes.put(code, line.substring(separator + 1).trim());
+        } catch (NumberFormatException ex) {
+          // Not a class line, for example a comment
+        }
+      }
+    }
+    return Collections.unmodifiableMap(classes);
+  }
+
+  /** Types of the cell values, names are the ones used by DIVA-GIS and the ALA spatial service */
+  private enum DataType {
+    BYTE(1),
+    UBYTE(1),
+    SHORT(2),
+    INT(4),
+    LONG(8),
+    FLOAT(4),
+    DOUBLE(8);
+
+    private final int size;
+
+    DataType(int size) {
+      this.size = size;
+    }
+
+    private static DataType parse(String value) {
+      switch (value.toUpperCase()) {
+        case "BYT":
+        case "BYTE":
+          return BYTE;
+        case "UBYT":
+        case "UBYTE":
+          return UBYTE;
+        case "SHORT":
+        case "INT2BYTES":
+          return SHORT;
+        case "INT":
+        case "INT4BYTES":
+          return INT;
+        case "LONG":
+        case "INT8BYTES":
+          return LONG;
+        case "FLOAT":
+        case "FLT4BYTES":
+          return FLOAT;
+        case "DOUBLE":
+        case "FLT8BYTES":
+          return DOUBLE;
+        default:
+          throw new IllegalArgumentException("Unsupported grid data type " + value);
+      }
+    }
+
+    /** Absolute reads only, the buffer position is shared between threads */
+    private double read(ByteBuffer buffer, int index) {
+      switch (this) {
+        case BYTE:
+          return buffer.get(index);
+        case UBYTE:
+          return buffer.get(index) & 0xFF;
+        case SHORT:
+          return buffer.getShort(index);
+        case INT:
+          return buffer.getInt(index);
+        case LONG:
+          return buffer.getLong(index);
+        case FLOAT:
+          return buffer.getFloat(index);
+        default:
+          return buffer.getDouble(index);
+      }
+    }
+  }
+}
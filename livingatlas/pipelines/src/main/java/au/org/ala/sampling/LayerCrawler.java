@@ -12,6 +12,7 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -34,6 +35,9 @@ import retrofit2.converter.jackson.JacksonConverterFactory;
 /**
  * A utility to crawl the ALA layers. Requires an input csv containing lat, lng (no header) and an
  * output directory.
+ *
+ * <p>If a local layers directory is configured, the coordinates are sampled in process using {@link
+ * LocalLayerSampler} and the sampling service isn't used.
  */
 @Slf4j
 public class LayerCrawler {
@@ -87,9 +91,6 @@ public class LayerCrawler {
 
     Instant batchStart = Instant.now();
 
-    // list file in directory
-    LayerCrawler lc = new LayerCrawler();
-
     // (re)create sampling output directories
     String sampleDownloadPath = getSampleDownloadPath(options);
 
@@ -105,11 +106,30 @@ public class LayerCrawler {
     }
 
     Collection<String> latLngFiles = ALAFsUtils.listPaths(fs, latLngExportPath);
-    String layerList = lc.getRequiredLayers();
 
     log.info("Running sampling using lat lng files: {} ", latLngFiles.size());
-    for (String inputFile : latLngFiles) {
-      lc.crawl(fs, layerList, inputFile, sampleDownloadPath);
+    if (options.getLocalLayersPath() != null) {
+      String layerList =
+          options.getLocalLayerIds() != null
+              ? options.getLocalLayerIds()
+              : new LayerCrawler().getRequiredLayers();
+      List<String> layerIds =
+          Arrays.stream(layerList.split(","))
+              .map(String::trim)
+              .filter(id -> !id.isEmpty())
+              .collect(Collectors.toList());
+      LocalLayerSampler sampler = LocalLayerSampler.open(options.getLocalLayersPath(), layerIds);
+      int fileCounter = 0;
+      for (String inputFile : latLngFiles) {
+        String outputFile = sampleDownloadPath + "/local-" + fileCounter++ + ".csv";
+        sampler.sample(fs, inputFile, outputFile, batchSize);
+      }
+    } else {
+      LayerCrawler lc = new LayerCrawler();
+      String layerList = lc.getRequiredLayers();
+      for (String inputFile : latLngFiles) {
+        lc.crawl(fs, layerList, inputFile, sampleDownloadPath);
+      }
     }
 
     log.info("Finished layer sampling. Downloads in CSV directory: {}", sampleDownloadPath);
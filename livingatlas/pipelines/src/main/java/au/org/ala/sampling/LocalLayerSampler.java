@@ -0,0 +1,182 @@
+package au.org.ala.sampling;
+
+import au.org.ala.utils.ALAFsUtils;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.FileSystem;
+
+/**
+ * Samples coordinates in process against layers stored locally as grids, see {@link GridLayer}.
+ *
+ * <p>Produces the same CSV as the sampling service: a header with latitude, longitude and the
+ * field ids followed by one line per coordinate, so the output is converted by {@link
+ * SamplesToAvro} as any downloaded batch. Contextual grids are sampled as the names of their
+ * classes.
+ */
+@Slf4j
+public class LocalLayerSampler {
+
+  private final List<GridLayer> layers;
+
+  private LocalLayerSampler(List<GridLayer> layers) {
+    this.layers = layers;
+  }
+
+  /**
+   * Opens the grids ({@code .grd} and {@code .gri} pairs) of the requested layers, layers without
+   * a grid in the directory are skipped.
+   *
+   * @param layersPath local directory with the grid files
+   * @param layerIds requested layer (field) ids, the order of the output columns
+   */
+  public static LocalLayerSampler open(String layersPath, Collection<String> layerIds)
+      throws IOException {
+    File directory = new File(layersPath);
+    if (!directory.isDirectory()) {
+      throw new IOException("Local layers directory " + layersPath + " is not available");
+    }
+
+    List<GridLayer> layers = new ArrayList<>(layerIds.size());
+    for (String id : layerIds) {
+      if (new File(directory, id + GridLayer.HEADER_EXTENSION).exists()
+          && new File(directory, id + GridLayer.VALUES_EXTENSION).exists()) {
+        layers.add(GridLayer.open(directory, id));
+      } else {
+        log.warn("Skipping layer {}, there is no grid for it in {}", id, layersPath);
+      }
+    }
+    log.info(
+        "Loaded {} of {} requested local layers from {}",
+        layers.size(),
+        layerIds.size(),
+        layersPath);
+    return new LocalLayerSampler(Collections.unmodifiableList(layers));
+  }
+
+  /** Last modification time of the local layers, used to detect new layers */
+  public static long lastModified(String layersPath) {
+    File[] files = new File(layersPath).listFiles();
+    if (files == null) {
+      return -1L;
+    }
+    return Arrays.stream(files).mapToLong(File::lastModified).max().orElse(-1L);
+  }
+
+  public List<String> getLayerIds() {
+    return layers.stream().map(GridLayer::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Samples all coordinates of the input file, lines in lat,lng format, and writes the result as
+   * CSV. Coordinates are read in batches and each batch is sampled in parallel.
+   */
+  public void sample(FileSystem fs, String inputFilePath, String outputFilePath, int batchSize)
+      throws IOException {
+
+    log.info("Sampling coordinates from file {} using local layers", inputFilePath);
+    int counter = 0;
+    try (BufferedReader reader =
+            new BufferedReader(
+                new InputStreamReader(
+                    ALAFsUtils.openInputStream(fs, inputFilePath), StandardCharsets.UTF_8));
+        Writer writer =
+            new BufferedWriter(
+                new OutputStreamWriter(
+                    ALAFsUtils.openOutputStream(fs, outputFilePath), StandardCharsets.UTF_8))) {
+
+      writer.write("latitude,longitude");
+      for (GridLayer layer : layers) {
+        writer.write(',');
+        writer.write(layer.getId());
+      }
+      writer.write('\n');
+
+      List<String> batch = new ArrayList<>(batchSize);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          batch.add(line);
+        }
+        if (batch.size() == batchSize) {
+          counter += writeBatch(writer, batch);
+          batch.clear();
+        }
+      }
+      counter += writeBatch(writer, batch);
+    }
+    log.info("Sampled {} coordinates into {}", counter, outputFilePath);
+  }
+
+  private int writeBatch(Writer writer, List<String> batch) throws IOException {
+    List<String> lines =
+        batch.parallelStream().map(this::sampleLine).collect(Collectors.toList());
+    for (String l : lines) {
+      if (l != null) {
+        writer.write(l);
+        writer.write('\n');
+      }
+    }
+    return batch.size();
+  }
+
+  /** Returns CSV line for the coordinate or null if the coordinate can't be parsed */
+  String sampleLine(String latLng) {
+    int separator = latLng.indexOf(',');
+    if (separator < 0) {
+      return null;
+    }
+    String latitude = latLng.substring(0, separator).trim();
+    String longitude = latLng.substring(separator + 1).trim();
+    double lat;
+    double lng;
+    try {
+      lat = Double.parseDouble(latitude);
+      lng = Double.parseDouble(longitude);
+    } catch (NumberFormatException ex) {
+      log.warn("Skipping invalid coordinate {}", latLng);
+      return null;
+    }
+
+    // Keep the original text, it is the key used to join the sampling with the records
+    StringBuilder sb = new StringBuilder(latitude).append(',').append(longitude);
+    for (GridLayer layer : layers) {
+      sb.append(',');
+      Double value = layer.sample(lat, lng);
+      if (value != null && layer.isContextual()) {
+        appendClassName(sb, layer.getClassName(value));
+      } else if (value != null) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+          sb.append(value.longValue());
+        } else {
+          sb.append(value);
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  /** Class names can contain separators, such names are quoted as in the service CSV */
+  private static void appendClassName(StringBuilder sb, String name) {
+    if (name == null) {
+      return;
+    }
+    if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0) {
+      sb.append('"').append(name.replace("\"", "\"\"")).append('"');
+    } else {
+      sb.append(name);
+    }
+  }
+}
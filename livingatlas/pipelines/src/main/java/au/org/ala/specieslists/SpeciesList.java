@@ -18,6 +18,7 @@ public class SpeciesList {
   String listName;
   String listType;
   Long itemCount;
+  String lastUpdated;
   String region;
   String category;
   String generalisation;
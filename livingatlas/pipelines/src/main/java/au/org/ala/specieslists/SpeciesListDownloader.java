@@ -1,5 +1,7 @@
 package au.org.ala.specieslists;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
+
 import au.org.ala.kvs.ALAPipelinesConfig;
 import au.org.ala.kvs.ALAPipelinesConfigFactory;
 import au.org.ala.pipelines.options.SpeciesLevelPipelineOptions;
@@ -8,13 +10,25 @@ import au.org.ala.pipelines.vocabulary.StateProvinceParser;
 import au.org.ala.utils.CombinedYamlConfiguration;
 import au.org.ala.utils.WsUtils;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.ResponseBody;
+import org.apache.avro.file.DataFileStream;
 import org.apache.avro.file.DataFileWriter;
-import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -28,6 +42,7 @@ import org.gbif.rest.client.retrofit.SyncCall;
 import org.gbif.utils.file.csv.CSVReader;
 import org.slf4j.MDC;
 import retrofit2.Call;
+import retrofit2.Response;
 
 /**
  * This class downloads details of species lists marked as "Authoritative" from a species list tool
@@ -37,11 +52,19 @@ import retrofit2.Call;
  * <p>Includes support for a flag to avoid downloading and regenerating the AVRO export if the last
  * modified date is within a time frame (default 1 day).
  *
+ * <p>Lists are downloaded concurrently and every list is cached in a separate AVRO file next to the
+ * export, so only the lists which have changed since the last run are downloaded and parsed again.
+ *
  * @see {@link SpeciesListRecord}
  */
 @Slf4j
 public class SpeciesListDownloader {
 
+  private static final String LISTS_CACHE_DIR = "lists";
+  private static final String META_LIST = "ala.list";
+  private static final String META_ETAG = "ala.etag";
+  private static final String META_LAST_MODIFIED = "ala.lastModified";
+
   public static void main(String[] args) throws Exception {
     MDC.put("step", "SPECIES_LIST_DOWNLOAD");
     VersionInfo.print();
@@ -98,94 +121,218 @@ public class SpeciesListDownloader {
     // get authoritative list of lists
     Call<ListSearchResponse> call = service.getAuthoritativeLists();
     ListSearchResponse listsResponse = SyncCall.syncCall(call);
+    List<SpeciesList> lists = listsResponse.getLists();
 
     // download individual lists
-    log.info("Number of species lists {}", listsResponse.getLists().size());
+    log.info("Number of species lists {}", lists.size());
 
-    log.info("Writing output to {}", outputPath);
+    Path listsCachePath = new Path(outputPathFs.getParent(), LISTS_CACHE_DIR);
+    fs.mkdirs(listsCachePath);
+
+    int threads = Math.max(1, options.getSpeciesListDownloadThreads());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicInteger counter = new AtomicInteger();
+    AtomicInteger changed = new AtomicInteger();
+    List<Path> listPaths;
+    try {
+      List<CompletableFuture<Path>> futures =
+          lists.stream()
+              .map(
+                  list ->
+                      CompletableFuture.supplyAsync(
+                          () -> {
+                            log.info(
+                                "Checking list {} of {} - {} -  {}",
+                                counter.incrementAndGet(),
+                                lists.size(),
+                                list.getDataResourceUid(),
+                                list.getListName());
+                            return cacheList(
+                                fs,
+                                service,
+                                stateProvinceParser,
+                                listsCachePath,
+                                list,
+                                changed);
+                          },
+                          executor))
+              .collect(Collectors.toList());
+
+      listPaths = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    } finally {
+      executor.shutdown();
+    }
 
-    // create the output file
+    // remove lists which are not authoritative anymore
+    Set<String> current = listPaths.stream().map(Path::getName).collect(Collectors.toSet());
+    int removed = 0;
+    for (FileStatus status : fs.listStatus(listsCachePath)) {
+      if (!current.contains(status.getPath().getName()) && fs.delete(status.getPath(), false)) {
+        removed++;
+      }
+    }
+
+    log.info("Species lists changed - {}, removed - {}", changed.get(), removed);
+    if (changed.get() == 0 && removed == 0 && fs.exists(outputPathFs)) {
+      log.info("No species list has changed, keeping {}", outputPath);
+      fs.setTimes(outputPathFs, System.currentTimeMillis(), -1);
+      return;
+    }
+
+    log.info("Writing output to {}", outputPath);
 
-    try (OutputStream output = fs.create(new Path(outputPath));
+    // concatenate the cached lists, blocks are copied without decoding the records
+    try (OutputStream output = fs.create(outputPathFs, true);
         DataFileWriter<SpeciesListRecord> dataFileWriter =
-            new DataFileWriter<>(new GenericDatumWriter<>(SpeciesListRecord.getClassSchema()))) {
+            new DataFileWriter<>(new SpecificDatumWriter<>(SpeciesListRecord.class))) {
       dataFileWriter.create(SpeciesListRecord.getClassSchema(), output);
+      for (Path listPath : listPaths) {
+        try (InputStream input = fs.open(listPath);
+            DataFileStream<SpeciesListRecord> stream =
+                new DataFileStream<>(input, new SpecificDatumReader<>(SpeciesListRecord.class))) {
+          dataFileWriter.appendAllFrom(stream, false);
+        }
+      }
+    }
+    log.info("Finished. Output written to {}", outputPath);
+  }
 
-      int counter = 0;
-      for (SpeciesList list : listsResponse.getLists()) {
+  /**
+   * Returns the cached Avro file of the list, the list is downloaded and cached only if it has
+   * changed. The list is not requested if its metadata, including lastUpdated, matches the cached
+   * file, otherwise a conditional request using the cached ETag and Last-Modified is sent.
+   */
+  @SneakyThrows
+  private static Path cacheList(
+      FileSystem fs,
+      SpeciesListService service,
+      StateProvinceParser stateProvinceParser,
+      Path listsCachePath,
+      SpeciesList list,
+      AtomicInteger changed) {
 
-        counter++;
-        log.info(
-            "Downloading list {} of {} - {} -  {}",
-            counter,
-            listsResponse.getLists().size(),
-            list.getDataResourceUid(),
-            list.getListName());
-        ResponseBody responseBody =
-            SyncCall.syncCall(service.downloadList(list.getDataResourceUid()));
-
-        // File source, String encoding, String delimiter, Character quotes, Integer headerRows
-        try (CSVReader csvReader = new CSVReader(responseBody.byteStream(), "UTF-8", ",", '"', 1)) {
-
-          List<String> columnHeaders = Arrays.asList(csvReader.getHeader());
-          int guidIdx = columnHeaders.indexOf("guid");
-          int statusIdx = columnHeaders.indexOf("status");
-          int sourceStatusIdx = columnHeaders.indexOf("sourceStatus");
-
-          String region = null;
-
-          if (list.getRegion() != null) {
-            // match states
-            ParseResult<String> match = stateProvinceParser.parse(list.getRegion());
-
-            if (match.isSuccessful()) {
-              region = match.getPayload();
-            } else {
-              // match country
-              ParseResult<Country> pr = CountryParser.getInstance().parse(list.getRegion());
-              if (pr.isSuccessful()) {
-                region = pr.getPayload().name();
-              } else {
-                region = list.getRegion();
-              }
-            }
+    Path listPath = new Path(listsCachePath, list.getDataResourceUid() + AVRO_EXTENSION);
+    String listMeta = list.toString();
+
+    String etag = null;
+    String lastModified = null;
+    if (fs.exists(listPath)) {
+      try (InputStream input = fs.open(listPath);
+          DataFileStream<SpeciesListRecord> stream =
+              new DataFileStream<>(input, new SpecificDatumReader<>(SpeciesListRecord.class))) {
+        if (listMeta.equals(stream.getMetaString(META_LIST))) {
+          if (list.getLastUpdated() != null) {
+            log.info("List {} has not been updated, using cache", list.getDataResourceUid());
+            return listPath;
           }
+          etag = stream.getMetaString(META_ETAG);
+          lastModified = stream.getMetaString(META_LAST_MODIFIED);
+        }
+      }
+    }
 
-          if (guidIdx > 0) {
-            String[] currentLine = csvReader.next();
-
-            // build up the map
-            while (currentLine != null && currentLine.length == columnHeaders.size()) {
-              String taxonID = currentLine[guidIdx];
-
-              if (taxonID.length() > 0) {
-
-                String status = statusIdx > 0 ? currentLine[statusIdx] : null;
-                String sourceStatus = sourceStatusIdx > 0 ? currentLine[sourceStatusIdx] : null;
-
-                SpeciesListRecord speciesListRecord =
-                    SpeciesListRecord.newBuilder()
-                        .setTaxonID(taxonID)
-                        .setSpeciesListID(list.getDataResourceUid())
-                        .setStatus(status)
-                        .setRegion(region)
-                        .setIsInvasive(list.isInvasive())
-                        .setIsThreatened(list.isThreatened())
-                        .setSourceStatus(sourceStatus)
-                        .build();
-                dataFileWriter.append(speciesListRecord);
-              }
-              currentLine = csvReader.next();
-            }
+    Response<ResponseBody> response =
+        service.downloadList(list.getDataResourceUid(), etag, lastModified).execute();
+    if (!response.isSuccessful() || response.body() == null) {
+      // Not modified and error responses carry an error body, it must be released
+      Optional.ofNullable(response.errorBody()).ifPresent(ResponseBody::close);
+      if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+        log.info("List {} has not been modified, using cache", list.getDataResourceUid());
+        return listPath;
+      }
+      throw new IOException(
+          "Could not download list " + list.getDataResourceUid() + ", code " + response.code());
+    }
+
+    // write to a temporary file first, a failure must not leave a partial list in the cache
+    Path tmpPath = listPath.suffix(".tmp");
+    try (ResponseBody responseBody = response.body();
+        OutputStream output = fs.create(tmpPath, true);
+        DataFileWriter<SpeciesListRecord> dataFileWriter =
+            new DataFileWriter<>(new SpecificDatumWriter<>(SpeciesListRecord.class))) {
+      dataFileWriter.setMeta(META_LIST, listMeta);
+      Optional.ofNullable(response.headers().get("ETag"))
+          .ifPresent(v -> dataFileWriter.setMeta(META_ETAG, v));
+      Optional.ofNullable(response.headers().get("Last-Modified"))
+          .ifPresent(v -> dataFileWriter.setMeta(META_LAST_MODIFIED, v));
+      dataFileWriter.create(SpeciesListRecord.getClassSchema(), output);
+      writeList(responseBody.byteStream(), stateProvinceParser, list, dataFileWriter);
+    }
+
+    fs.delete(listPath, false);
+    if (!fs.rename(tmpPath, listPath)) {
+      throw new IOException("Could not move " + tmpPath + " to " + listPath);
+    }
+    changed.incrementAndGet();
+    return listPath;
+  }
+
+  private static void writeList(
+      InputStream input,
+      StateProvinceParser stateProvinceParser,
+      SpeciesList list,
+      DataFileWriter<SpeciesListRecord> dataFileWriter)
+      throws IOException {
+
+    // File source, String encoding, String delimiter, Character quotes, Integer headerRows
+    try (CSVReader csvReader = new CSVReader(input, "UTF-8", ",", '"', 1)) {
+
+      List<String> columnHeaders = Arrays.asList(csvReader.getHeader());
+      int guidIdx = columnHeaders.indexOf("guid");
+      int statusIdx = columnHeaders.indexOf("status");
+      int sourceStatusIdx = columnHeaders.indexOf("sourceStatus");
+
+      String region = null;
+
+      if (list.getRegion() != null) {
+        // match states
+        ParseResult<String> match = stateProvinceParser.parse(list.getRegion());
+
+        if (match.isSuccessful()) {
+          region = match.getPayload();
+        } else {
+          // match country
+          ParseResult<Country> pr = CountryParser.getInstance().parse(list.getRegion());
+          if (pr.isSuccessful()) {
+            region = pr.getPayload().name();
           } else {
-            log.warn(
-                "List {} - {} does not supply a GUID column - hence this list will not be used",
-                list.getDataResourceUid(),
-                list.getListName());
+            region = list.getRegion();
+          }
+        }
+      }
+
+      if (guidIdx > 0) {
+        String[] currentLine = csvReader.next();
+
+        // build up the map
+        while (currentLine != null && currentLine.length == columnHeaders.size()) {
+          String taxonID = currentLine[guidIdx];
+
+          if (taxonID.length() > 0) {
+
+            String status = statusIdx > 0 ? currentLine[statusIdx] : null;
+            String sourceStatus = sourceStatusIdx > 0 ? currentLine[sourceStatusIdx] : null;
+
+            SpeciesListRecord speciesListRecord =
+                SpeciesListRecord.newBuilder()
+                    .setTaxonID(taxonID)
+                    .setSpeciesListID(list.getDataResourceUid())
+                    .setStatus(status)
+                    .setRegion(region)
+                    .setIsInvasive(list.isInvasive())
+                    .setIsThreatened(list.isThreatened())
+                    .setSourceStatus(sourceStatus)
+                    .build();
+            dataFileWriter.append(speciesListRecord);
           }
+          currentLine = csvReader.next();
         }
+      } else {
+        log.warn(
+            "List {} - {} does not supply a GUID column - hence this list will not be used",
+            list.getDataResourceUid(),
+            list.getListName());
       }
     }
-    log.info("Finished. Output written to {}", outputPath);
   }
 }
@@ -3,6 +3,7 @@ package au.org.ala.specieslists;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Path;
 
 public interface SpeciesListService {
@@ -12,4 +13,11 @@ public interface SpeciesListService {
 
   @GET("/speciesListItem/downloadList/{dataResourceUid}?fetch=%7BkvpValues%3Dselect%7")
   Call<ResponseBody> downloadList(@Path("dataResourceUid") String dataResourceUid);
+
+  /** Conditional download, null headers are omitted and a 304 response means not modified */
+  @GET("/speciesListItem/downloadList/{dataResourceUid}?fetch=%7BkvpValues%3Dselect%7")
+  Call<ResponseBody> downloadList(
+      @Path("dataResourceUid") String dataResourceUid,
+      @Header("If-None-Match") String ifNoneMatch,
+      @Header("If-Modified-Since") String ifModifiedSince);
 }
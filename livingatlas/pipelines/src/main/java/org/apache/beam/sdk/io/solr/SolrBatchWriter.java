@@ -0,0 +1,286 @@
+package org.apache.beam.sdk.io.solr;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.beam.sdk.util.BackOff;
+import org.apache.beam.sdk.util.BackOffUtils;
+import org.apache.beam.sdk.util.FluentBackoff;
+import org.apache.beam.sdk.util.Sleeper;
+import org.apache.beam.vendor.guava.v26_0_jre.com.google.common.annotations.VisibleForTesting;
+import org.apache.beam.vendor.guava.v26_0_jre.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects documents into batches and sends them to Solr for {@link SolrIO.Write}.
+ *
+ * <p>With more than one in-flight batch the batches are sent from a pool of threads, the pipeline
+ * thread keeps building the next batch and blocks only when all batches are in flight. A batch is
+ * sent when it reaches the current batch size or the maximum number of bytes.
+ *
+ * <p>With a target latency the batch size adapts to Solr, it is halved when a request takes longer
+ * than the target and grows by a tenth of the maximum batch size after a faster one. Back-pressure
+ * responses (429 and 503) halve the batch size as well, the failed request is retried with the
+ * retry configuration backoff while its thread keeps the in-flight slot.
+ *
+ * <p>A batch failing with an error which can't be retried fails the bundle, unless skipping failed
+ * documents is enabled and Solr has rejected the batch as a bad request. Then the batch is split in
+ * halves until the failing documents are found, only those are logged and skipped.
+ */
+class SolrBatchWriter implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SolrBatchWriter.class);
+
+  private static final Duration RETRY_INITIAL_BACKOFF = Duration.standardSeconds(5);
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  /** Sends one batch to Solr, implementations must be thread-safe */
+  @FunctionalInterface
+  interface Sender {
+    void send(List<SolrInputDocument> documents) throws Exception;
+  }
+
+  private final SolrIO.Write spec;
+  private final Sender sender;
+  private final Sleeper sleeper;
+  private final FluentBackoff retryBackoff;
+  private final long targetLatencyMs;
+
+  private final ExecutorService executor;
+  private final Semaphore inFlight;
+  private final List<Future<?>> pending = new ArrayList<>();
+  private final AtomicReference<Exception> failure = new AtomicReference<>();
+  private final AtomicLong skipped = new AtomicLong();
+
+  private volatile int batchSize;
+  private List<SolrInputDocument> batch = new ArrayList<>();
+  private long batchBytes;
+
+  SolrBatchWriter(SolrIO.Write spec, Sender sender, Sleeper sleeper) {
+    this.spec = spec;
+    this.sender = sender;
+    this.sleeper = sleeper;
+    this.batchSize = spec.getMaxBatchSize();
+    this.targetLatencyMs =
+        spec.getTargetBatchLatency() != null ? spec.getTargetBatchLatency().getMillis() : 0L;
+
+    FluentBackoff backoff =
+        FluentBackoff.DEFAULT
+            .withMaxRetries(0) // default to no retrying
+            .withInitialBackoff(RETRY_INITIAL_BACKOFF);
+    if (spec.getRetryConfiguration() != null) {
+      // FluentBackoff counts retries excluding the original while we count attempts
+      // to remove ambiguity (hence the -1)
+      backoff =
+          backoff
+              .withMaxRetries(spec.getRetryConfiguration().getMaxAttempts() - 1)
+              .withMaxCumulativeBackoff(spec.getRetryConfiguration().getMaxDuration());
+    }
+    this.retryBackoff = backoff;
+
+    int maxInFlight = spec.getMaxInFlightBatches();
+    this.inFlight = new Semaphore(maxInFlight);
+    this.executor =
+        maxInFlight > 1
+            ? Executors.newFixedThreadPool(
+                maxInFlight,
+                new ThreadFactoryBuilder().setNameFormat("solr-writer-%d").setDaemon(true).build())
+            : null;
+  }
+
+  void add(SolrInputDocument document) throws IOException, InterruptedException {
+    checkFailure();
+    batch.add(document);
+    batchBytes += estimateBytes(document);
+    if (batch.size() >= batchSize || batchBytes >= spec.getMaxBatchBytes()) {
+      submit();
+    }
+  }
+
+  /** Sends the current batch and waits until all in-flight batches have finished */
+  void flush() throws IOException, InterruptedException {
+    try {
+      submit();
+      for (Future<?> future : pending) {
+        try {
+          future.get();
+        } catch (ExecutionException ex) {
+          failure.compareAndSet(null, new IOException("Error writing to Solr", ex.getCause()));
+        }
+      }
+    } finally {
+      pending.clear();
+    }
+    checkFailure();
+  }
+
+  /** Returns the number of skipped documents since the previous call */
+  long drainSkipped() {
+    return skipped.getAndSet(0L);
+  }
+
+  @VisibleForTesting
+  int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  private void submit() throws IOException, InterruptedException {
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<SolrInputDocument> documents = batch;
+    batch = new ArrayList<>();
+    batchBytes = 0L;
+
+    if (executor == null) {
+      write(documents);
+      return;
+    }
+
+    // Blocks the pipeline thread while all batches are in flight
+    inFlight.acquire();
+    pending.removeIf(Future::isDone);
+    pending.add(
+        executor.submit(
+            () -> {
+              try {
+                write(documents);
+              } catch (Exception ex) {
+                failure.compareAndSet(null, ex);
+              } finally {
+                inFlight.release();
+              }
+            }));
+  }
+
+  private void write(List<SolrInputDocument> documents) throws IOException, InterruptedException {
+    BackOff backoff = retryBackoff.backoff();
+    int attempt = 0;
+    while (true) {
+      attempt++;
+      long start = System.nanoTime();
+      try {
+        sender.send(documents);
+        adapt(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return;
+      } catch (Exception exception) {
+
+        if (isBackPressure(exception)) {
+          shrink();
+        }
+
+        SolrIO.RetryConfiguration retry = spec.getRetryConfiguration();
+        if (retry == null || !retry.getRetryPredicate().test(exception)) {
+          if (spec.getSkipFailedDocuments() && isDocumentError(exception)) {
+            skip(documents, exception);
+            return;
+          }
+          throw new IOException("Error writing to Solr (no attempt made to retry)", exception);
+        }
+
+        // see if we can pause and try again
+        if (!BackOffUtils.next(sleeper, backoff)) {
+          throw new IOException(
+              String.format(
+                  "Error writing to Solr after %d attempt(s). No more attempts allowed", attempt),
+              exception);
+        }
+        // Note: this used in test cases to verify behavior
+        LOG.warn(String.format(SolrIO.Write.WriteFn.RETRY_ATTEMPT_LOG, attempt), exception);
+      }
+    }
+  }
+
+  /** Splits the batch in halves until the documents Solr rejects are found */
+  private void skip(List<SolrInputDocument> documents, Exception exception)
+      throws IOException, InterruptedException {
+    if (documents.size() == 1) {
+      skipped.incrementAndGet();
+      LOG.warn(
+          "Skipping the document {} rejected by Solr - {}",
+          documents.get(0).getFieldValue("id"),
+          exception.getMessage());
+      return;
+    }
+    int middle = documents.size() / 2;
+    write(new ArrayList<>(documents.subList(0, middle)));
+    write(new ArrayList<>(documents.subList(middle, documents.size())));
+  }
+
+  private synchronized void adapt(long latencyMs) {
+    if (targetLatencyMs <= 0L) {
+      return;
+    }
+    if (latencyMs > targetLatencyMs) {
+      shrink();
+    } else {
+      int step = Math.max(1, spec.getMaxBatchSize() / 10);
+      batchSize = Math.min(spec.getMaxBatchSize(), batchSize + step);
+    }
+  }
+
+  private synchronized void shrink() {
+    batchSize = Math.max(1, batchSize / 2);
+  }
+
+  private static boolean isBackPressure(Exception exception) {
+    if (!(exception instanceof SolrException)) {
+      return false;
+    }
+    int code = ((SolrException) exception).code();
+    return code == TOO_MANY_REQUESTS || code == SolrException.ErrorCode.SERVICE_UNAVAILABLE.code;
+  }
+
+  /** Solr rejects a batch with a bad request if one of the documents doesn't fit the schema */
+  private static boolean isDocumentError(Exception exception) {
+    return exception instanceof SolrException
+        && ((SolrException) exception).code() == SolrException.ErrorCode.BAD_REQUEST.code;
+  }
+
+  private void checkFailure() throws IOException {
+    Exception ex = failure.getAndSet(null);
+    if (ex instanceof IOException) {
+      throw (IOException) ex;
+    }
+    if (ex != null) {
+      throw new IOException("Error writing to Solr", ex);
+    }
+  }
+
+  /** Rough size of the document in the request, string values count one byte per char */
+  @VisibleForTesting
+  static long estimateBytes(SolrInputDocument document) {
+    long bytes = 0L;
+    for (SolrInputField field : document) {
+      bytes += field.getName().length();
+      Iterator<Object> values = field.iterator();
+      while (values.hasNext()) {
+        Object value = values.next();
+        bytes += value instanceof CharSequence ? ((CharSequence) value).length() : Long.BYTES;
+      }
+    }
+    return bytes;
+  }
+}
@@ -25,20 +25,19 @@ import com.google.auto.value.AutoValue;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Predicate;
 import org.apache.beam.sdk.annotations.Experimental;
 import org.apache.beam.sdk.annotations.Experimental.Kind;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.Create;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.Reshuffle;
 import org.apache.beam.sdk.transforms.display.DisplayData;
-import org.apache.beam.sdk.util.BackOff;
-import org.apache.beam.sdk.util.BackOffUtils;
-import org.apache.beam.sdk.util.FluentBackoff;
 import org.apache.beam.sdk.util.Sleeper;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
@@ -67,8 +66,6 @@ import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.Duration;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Transforms for reading and writing data from/to Solr.
@@ -118,8 +115,6 @@ import org.slf4j.LoggerFactory;
 })
 public class SolrIO {
 
-  private static final Logger LOG = LoggerFactory.getLogger(SolrIO.class);
-
   public static Read read() {
     // 1000 for batch size is good enough in many cases,
     // ex: if document size is large, around 10KB, the response's size will be around 10MB
@@ -135,7 +130,12 @@ public class SolrIO {
     // 1000 for batch size is good enough in many cases,
     // ex: if document size is large, around 10KB, the request's size will be around 10MB
     // if document size is small, around 1KB, the request's size will be around 1MB
-    return new AutoValue_SolrIO_Write.Builder().setMaxBatchSize(1000).build();
+    return new AutoValue_SolrIO_Write.Builder()
+        .setMaxBatchSize(1000)
+        .setMaxBatchBytes(Long.MAX_VALUE)
+        .setMaxInFlightBatches(1)
+        .setSkipFailedDocuments(false)
+        .build();
   }
 
   private SolrIO() {}
@@ -522,6 +522,14 @@ public class SolrIO {
 
     abstract int getMaxBatchSize();
 
+    abstract long getMaxBatchBytes();
+
+    abstract int getMaxInFlightBatches();
+
+    abstract @Nullable Duration getTargetBatchLatency();
+
+    abstract boolean getSkipFailedDocuments();
+
     abstract Builder builder();
 
     abstract @Nullable RetryConfiguration getRetryConfiguration();
@@ -534,6 +542,14 @@ public class SolrIO {
 
       abstract Builder setMaxBatchSize(int maxBatchSize);
 
+      abstract Builder setMaxBatchBytes(long maxBatchBytes);
+
+      abstract Builder setMaxInFlightBatches(int maxInFlightBatches);
+
+      abstract Builder setTargetBatchLatency(Duration targetBatchLatency);
+
+      abstract Builder setSkipFailedDocuments(boolean skipFailedDocuments);
+
       abstract Builder setRetryConfiguration(RetryConfiguration retryConfiguration);
 
       abstract Write build();
@@ -567,6 +583,58 @@ public class SolrIO {
       return builder().setMaxBatchSize(batchSize).build();
     }
 
+    /**
+     * Provide a maximum size of the batch in bytes of the document fields, a batch is sent when it
+     * reaches either the maximum number of documents or bytes. Unlimited by default.
+     *
+     * @param maxBatchBytes maximum batch size in bytes
+     */
+    public Write withMaxBatchBytes(long maxBatchBytes) {
+      checkArgument(
+          maxBatchBytes > 0, "maxBatchBytes must be larger than 0, but was: %s", maxBatchBytes);
+      return builder().setMaxBatchBytes(maxBatchBytes).build();
+    }
+
+    /**
+     * Provide a maximum number of batches sent to Solr at the same time by one writer, the writer
+     * keeps building the next batch while the previous ones are in flight. Default is 1, every
+     * batch is sent by the pipeline thread.
+     *
+     * @param maxInFlightBatches maximum number of concurrent batch requests
+     */
+    public Write withMaxInFlightBatches(int maxInFlightBatches) {
+      checkArgument(
+          maxInFlightBatches > 0,
+          "maxInFlightBatches must be larger than 0, but was: %s",
+          maxInFlightBatches);
+      return builder().setMaxInFlightBatches(maxInFlightBatches).build();
+    }
+
+    /**
+     * Provide a target latency of a batch request. The batch size is halved after a slower request
+     * and grows back up to the maximum batch size after faster ones, so an overloaded collection
+     * gets smaller requests. The batch size is fixed by default.
+     *
+     * @param targetBatchLatency target duration of a batch request
+     */
+    public Write withTargetBatchLatency(Duration targetBatchLatency) {
+      checkArgument(
+          targetBatchLatency != null && targetBatchLatency.isLongerThan(Duration.ZERO),
+          "targetBatchLatency must be greater than 0");
+      return builder().setTargetBatchLatency(targetBatchLatency).build();
+    }
+
+    /**
+     * Skip the documents rejected by Solr instead of failing the bundle. A batch rejected as a bad
+     * request is split in halves until the rejected documents are found, the rest of the batch is
+     * written. Disabled by default.
+     *
+     * @param skipFailedDocuments true to skip the rejected documents
+     */
+    public Write withSkipFailedDocuments(boolean skipFailedDocuments) {
+      return builder().setSkipFailedDocuments(skipFailedDocuments).build();
+    }
+
     /**
      * Provides configuration to retry a failed batch call to Solr. A batch is considered as failed
      * if the underlying {@link CloudSolrClient} surfaces {@link
@@ -609,12 +677,10 @@ public class SolrIO {
       @VisibleForTesting
       static final String RETRY_ATTEMPT_LOG = "Error writing to Solr. Retry attempt[%d]";
 
-      private static final Duration RETRY_INITIAL_BACKOFF = Duration.standardSeconds(5);
-
-      private transient FluentBackoff retryBackoff; // defaults to no retrying
       private final Write spec;
+      private final Counter skippedDocuments = Metrics.counter(Write.class, "skippedDocuments");
       private transient AuthorizedSolrClient solrClient;
-      private Collection<SolrInputDocument> batch;
+      private transient SolrBatchWriter writer;
 
       WriteFn(Write spec) {
         this.spec = spec;
@@ -623,88 +689,36 @@ public class SolrIO {
       @Setup
       public void setup() {
         solrClient = spec.getConnectionConfiguration().createClient();
-
-        retryBackoff =
-            FluentBackoff.DEFAULT
-                .withMaxRetries(0) // default to no retrying
-                .withInitialBackoff(RETRY_INITIAL_BACKOFF);
-
-        if (spec.getRetryConfiguration() != null) {
-          // FluentBackoff counts retries excluding the original while we count attempts
-          // to remove ambiguity (hence the -1)
-          retryBackoff =
-              retryBackoff
-                  .withMaxRetries(spec.getRetryConfiguration().getMaxAttempts() - 1)
-                  .withMaxCumulativeBackoff(spec.getRetryConfiguration().getMaxDuration());
-        }
-      }
-
-      @StartBundle
-      public void startBundle(StartBundleContext context) {
-        batch = new ArrayList<>();
+        writer = new SolrBatchWriter(spec, this::send, Sleeper.DEFAULT);
       }
 
       @ProcessElement
       public void processElement(ProcessContext context) throws Exception {
-        SolrInputDocument document = context.element();
-        batch.add(document);
-        if (batch.size() >= spec.getMaxBatchSize()) {
-          flushBatch();
-        }
+        writer.add(context.element());
       }
 
       @FinishBundle
       public void finishBundle(FinishBundleContext context) throws Exception {
-        flushBatch();
-      }
-
-      // Flushes the batch, implementing the retry mechanism as configured in the spec.
-      private void flushBatch() throws IOException, InterruptedException {
-        if (batch.isEmpty()) {
-          return;
-        }
         try {
-          UpdateRequest updateRequest = new UpdateRequest();
-          updateRequest.add(batch);
-
-          Sleeper sleeper = Sleeper.DEFAULT;
-          BackOff backoff = retryBackoff.backoff();
-          int attempt = 0;
-          while (true) {
-            attempt++;
-            try {
-              solrClient.process(spec.getCollection(), updateRequest);
-              break;
-            } catch (Exception exception) {
-
-              // fail immediately if no retry configuration doesn't handle this
-              if (spec.getRetryConfiguration() == null
-                  || !spec.getRetryConfiguration().getRetryPredicate().test(exception)) {
-                throw new IOException(
-                    "Error writing to Solr (no attempt made to retry)", exception);
-              }
-
-              // see if we can pause and try again
-              if (!BackOffUtils.next(sleeper, backoff)) {
-                throw new IOException(
-                    String.format(
-                        "Error writing to Solr after %d attempt(s). No more attempts allowed",
-                        attempt),
-                    exception);
-
-              } else {
-                // Note: this used in test cases to verify behavior
-                LOG.warn(String.format(RETRY_ATTEMPT_LOG, attempt), exception);
-              }
-            }
-          }
+          writer.flush();
         } finally {
-          batch.clear();
+          skippedDocuments.inc(writer.drainSkipped());
         }
       }
 
+      // Called by the writer, from several threads if more than one batch is in flight
+      private void send(List<SolrInputDocument> documents)
+          throws IOException, SolrServerException {
+        UpdateRequest updateRequest = new UpdateRequest();
+        updateRequest.add(documents);
+        solrClient.process(spec.getCollection(), updateRequest);
+      }
+
       @Teardown
-      public void closeClient() throws IOException {
+      public void closeClient() throws Exception {
+        if (writer != null) {
+          writer.close();
+        }
         if (solrClient != null) {
           solrClient.close();
         }
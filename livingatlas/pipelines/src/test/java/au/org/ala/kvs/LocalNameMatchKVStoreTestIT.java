@@ -0,0 +1,84 @@
+package au.org.ala.kvs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import au.org.ala.kvs.cache.ALANameMatchKVStoreFactory;
+import au.org.ala.names.ws.api.NameSearch;
+import au.org.ala.names.ws.api.NameUsageMatch;
+import au.org.ala.util.TestUtils;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.gbif.kvs.KeyValueStore;
+import org.junit.Test;
+
+/**
+ * Compares the answers of the local name matching index with the answers of the name matching
+ * service for a fixture of names, species groups are only computed by the service. The local index
+ * path is taken from the alaNameMatchIndex system property, the test is skipped if the index is
+ * missing.
+ */
+public class LocalNameMatchKVStoreTestIT {
+
+  private static final String INDEX =
+      System.getProperty("alaNameMatchIndex", "/data/lucene/namematching-20200214");
+
+  @Test
+  public void localMatchesRemoteTest() throws Exception {
+    assumeTrue("Local name matching index is missing", new File(INDEX).exists());
+
+    // State
+    ALAPipelinesConfig config = TestUtils.getConfig();
+    List<NameSearch> searches =
+        Files.readAllLines(
+                new File("src/test/resources/name-matching/names.csv").toPath(),
+                StandardCharsets.UTF_8)
+            .stream()
+            .skip(1)
+            .map(LocalNameMatchKVStoreTestIT::toSearch)
+            .collect(Collectors.toList());
+
+    // The config is shared by all tests
+    KeyValueStore<NameSearch, NameUsageMatch> remote = ALANameMatchKVStoreFactory.create(config);
+    KeyValueStore<NameSearch, NameUsageMatch> local;
+    try {
+      config.setAlaNameMatchIndex(INDEX);
+      local = ALANameMatchKVStoreFactory.create(config);
+    } finally {
+      config.setAlaNameMatchIndex(null);
+    }
+
+    // When
+    for (NameSearch search : searches) {
+      NameUsageMatch expected = remote.get(search);
+      NameUsageMatch actual = local.get(search);
+
+      // Should
+      String name = search.getScientificName();
+      assertEquals(name, expected.isSuccess(), actual.isSuccess());
+      assertEquals(name, expected.getTaxonConceptID(), actual.getTaxonConceptID());
+      assertEquals(name, expected.getScientificName(), actual.getScientificName());
+      assertEquals(name, expected.getRank(), actual.getRank());
+      assertEquals(name, expected.getMatchType(), actual.getMatchType());
+      assertEquals(name, expected.getIssues(), actual.getIssues());
+      assertEquals(name, expected.getKingdomID(), actual.getKingdomID());
+      assertEquals(name, expected.getLft(), actual.getLft());
+    }
+
+    remote.close();
+    local.close();
+  }
+
+  private static NameSearch toSearch(String line) {
+    String[] values = line.split(",", -1);
+    return NameSearch.builder()
+        .scientificName(values[0])
+        .kingdom(values[1].isEmpty() ? null : values[1])
+        .family(values[2].isEmpty() ? null : values[2])
+        .rank(values[3].isEmpty() ? null : values[3])
+        .build();
+  }
+}
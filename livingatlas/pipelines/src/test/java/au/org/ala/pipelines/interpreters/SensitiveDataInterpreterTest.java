@@ -337,6 +337,59 @@ public class SensitiveDataInterpreterTest {
     }
   }
 
+  @Test
+  public void testConstructNamesVerbatimFallback() {
+    Map<String, String> identification = new HashMap<>();
+    identification.put(DwcTerm.scientificName.qualifiedName(), "Acacia dealbata");
+    identification.put(
+        DwcTerm.taxonConceptID.qualifiedName(),
+        "https://id.biodiversity.org.au/taxon/apni/51286863");
+    ExtendedRecord er =
+        ExtendedRecord.newBuilder()
+            .setId("1")
+            .setCoreTerms(Collections.singletonMap(DwcTerm.locality.qualifiedName(), "Here"))
+            .setExtensions(
+                Collections.singletonMap(
+                    DwcTerm.Identification.qualifiedName(),
+                    Collections.singletonList(identification)))
+            .build();
+    Set<Term> names = new HashSet<>(Arrays.asList(DwcTerm.scientificName, DwcTerm.taxonConceptID));
+    Map<String, String> properties = new HashMap<>();
+    SensitiveDataInterpreter.constructNames(names, properties, null, null, er);
+    assertEquals("Acacia dealbata", properties.get(DwcTerm.scientificName.qualifiedName()));
+    assertEquals(
+        "https://id.biodiversity.org.au/taxon/apni/51286863",
+        properties.get(DwcTerm.taxonConceptID.qualifiedName()));
+    assertNull(properties.get(DwcTerm.locality.qualifiedName()));
+  }
+
+  @Test
+  public void testConstructNamesInterpreted() {
+    Map<String, String> identification = new HashMap<>();
+    identification.put(DwcTerm.scientificName.qualifiedName(), "Acacia");
+    ExtendedRecord er =
+        ExtendedRecord.newBuilder()
+            .setId("1")
+            .setExtensions(
+                Collections.singletonMap(
+                    DwcTerm.Identification.qualifiedName(),
+                    Collections.singletonList(identification)))
+            .build();
+    ALATaxonRecord tr =
+        ALATaxonRecord.newBuilder()
+            .setId("1")
+            .setScientificName("Acacia dealbata")
+            .setTaxonConceptID("https://id.biodiversity.org.au/taxon/apni/51286863")
+            .build();
+    Set<Term> names = new HashSet<>(Arrays.asList(DwcTerm.scientificName, DwcTerm.taxonConceptID));
+    Map<String, String> properties = new HashMap<>();
+    SensitiveDataInterpreter.constructNames(names, properties, tr, null, er);
+    assertEquals("Acacia dealbata", properties.get(DwcTerm.scientificName.qualifiedName()));
+    assertEquals(
+        "https://id.biodiversity.org.au/taxon/apni/51286863",
+        properties.get(DwcTerm.taxonConceptID.qualifiedName()));
+  }
+
   @Test
   public void testApplySensitivity1() {
     Map<String, String> map = new HashMap<>();
@@ -505,6 +558,22 @@ public class SensitiveDataInterpreterTest {
         sr.getIssues().getIssueList().contains(ALAOccurrenceIssue.NAME_NOT_SUPPLIED.getId()));
   }
 
+  @Test
+  public void testIsSensitiveSpecies() {
+    Map<String, String> sensitiveName = new HashMap<>();
+    sensitiveName.put(DwcTerm.scientificName.qualifiedName(), "Acacia dealbata");
+    Map<String, String> otherName = new HashMap<>();
+    otherName.put(DwcTerm.scientificName.qualifiedName(), "Acacia acuminata");
+    ALASensitivityRecord sr1 = ALASensitivityRecord.newBuilder().setId("1").build();
+    ALASensitivityRecord sr2 = ALASensitivityRecord.newBuilder().setId("2").build();
+    assertTrue(
+        SensitiveDataInterpreter.isSensitiveSpecies(this.sensitivityLookup, sensitiveName, sr1));
+    assertTrue(sr1.getIsSensitive());
+    assertFalse(
+        SensitiveDataInterpreter.isSensitiveSpecies(this.sensitivityLookup, otherName, sr2));
+    assertTrue(sr2.getAltered().isEmpty());
+  }
+
   @Test
   public void testSensitiveDataInterpreter1() {
     ALASensitivityRecord sr = ALASensitivityRecord.newBuilder().setId("1").build();
@@ -0,0 +1,70 @@
+package au.org.ala.pipelines.transforms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.common.SolrInputDocument;
+import org.gbif.pipelines.io.avro.IndexRecord;
+import org.junit.Test;
+
+public class IndexRecordTransformTest {
+
+  @Test
+  public void cleanFieldNameTest() {
+
+    // State
+    List<String> keys =
+        Arrays.asList("", "plain09", "with space", "a-b.c", "ünïcode", "emoji😀x", "__");
+
+    for (String key : keys) {
+      // When
+      String result = IndexRecordTransform.cleanFieldName(key);
+
+      // Should
+      assertEquals(key.replaceAll("[^A-Za-z0-9]", "_"), result);
+    }
+  }
+
+  @Test
+  public void convertIndexRecordToSolrDocTest() {
+
+    // State
+    Map<String, String> strings = new HashMap<>();
+    strings.put("scientificName", "Acacia");
+    strings.put("cl_22", "Tasmania");
+    strings.put("odd key", "value");
+    strings.put("longValue", StringUtils.repeat("a", 40_000));
+
+    Map<String, String> dynamicProperties = new HashMap<>();
+    dynamicProperties.put("odd key", "other");
+    dynamicProperties.put("sex", "male");
+
+    IndexRecord indexRecord =
+        IndexRecord.newBuilder()
+            .setId("1")
+            .setStrings(strings)
+            .setDynamicProperties(dynamicProperties)
+            .build();
+
+    // When
+    SolrInputDocument doc =
+        IndexRecordTransform.convertIndexRecordToSolrDoc(
+            indexRecord,
+            Arrays.asList("scientificName", "longValue"),
+            Collections.singletonList("cl_"));
+
+    // Should
+    assertEquals("Acacia", doc.getFieldValue("scientificName"));
+    assertEquals("Tasmania", doc.getFieldValue("cl_22"));
+    assertEquals("value", doc.getFieldValue(IndexFields.DYNAMIC_PROPERTIES_PREFIX + "odd_key"));
+    assertEquals("male", doc.getFieldValue(IndexFields.DYNAMIC_PROPERTIES_PREFIX + "sex"));
+    // Over the SOLR string field limit
+    assertNull(doc.getFieldValue("longValue"));
+  }
+}
@@ -0,0 +1,109 @@
+package au.org.ala.sampling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalLayerSamplerTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void sampleGridTest() throws IOException {
+
+    // State, 2x2 grid covering lat -10..-30, lng 110..130
+    File dir = folder.getRoot();
+    writeGrid(dir, "el1", "FLT4BYTES", new float[] {1.5f, 2f, 3f, -9999f});
+
+    // When
+    GridLayer layer = GridLayer.open(dir, "el1");
+
+    // Should
+    assertEquals(1.5d, layer.sample(-15d, 115d), 0d);
+    assertEquals(2d, layer.sample(-15d, 125d), 0d);
+    assertEquals(3d, layer.sample(-25d, 115d), 0d);
+    assertNull(layer.sample(-25d, 125d));
+    assertEquals(2d, layer.sample(-10d, 130d), 0d);
+    assertNull(layer.sample(0d, 115d));
+  }
+
+  @Test
+  public void sampleLineTest() throws IOException {
+
+    // State
+    File dir = folder.getRoot();
+    writeGrid(dir, "el1", "FLT4BYTES", new float[] {1.5f, 2f, 3f, -9999f});
+    writeGrid(dir, "el2", "FLT4BYTES", new float[] {7f, 8f, 9f, 10f});
+    writeGrid(dir, "el3", "FLT4BYTES", new float[] {4f, 5f, 6f, 7f});
+
+    // When
+    LocalLayerSampler sampler =
+        LocalLayerSampler.open(dir.getAbsolutePath(), Arrays.asList("el1", "el2", "el4"));
+
+    // Should
+    assertEquals(Arrays.asList("el1", "el2"), sampler.getLayerIds());
+    assertEquals("-15.0,115.0,1.5,7", sampler.sampleLine("-15.0,115.0"));
+    assertEquals("-25,125,,10", sampler.sampleLine("-25,125"));
+    assertEquals("0,0,,", sampler.sampleLine("0,0"));
+    assertNull(sampler.sampleLine("abc"));
+  }
+
+  @Test
+  public void sampleContextualGridTest() throws IOException {
+
+    // State
+    File dir = folder.getRoot();
+    writeGrid(dir, "cl1", "FLT4BYTES", new float[] {1f, 2f, 3f, -9999f});
+    String classes = String.join("\n", "1=Desert", "2=Grassland, tropical", "# no class 3");
+    Files.write(new File(dir, "cl1.txt").toPath(), classes.getBytes(StandardCharsets.UTF_8));
+
+    // When
+    LocalLayerSampler sampler =
+        LocalLayerSampler.open(dir.getAbsolutePath(), Collections.singletonList("cl1"));
+
+    // Should
+    assertEquals("-15,115,Desert", sampler.sampleLine("-15,115"));
+    assertEquals("-15,125,\"Grassland, tropical\"", sampler.sampleLine("-15,125"));
+    assertEquals("-25,115,", sampler.sampleLine("-25,115"));
+    assertEquals("-25,125,", sampler.sampleLine("-25,125"));
+  }
+
+  private static void writeGrid(File dir, String id, String dataType, float[] values)
+      throws IOException {
+    String header =
+        String.join(
+            "\n",
+            "[GeneralInfo]",
+            "ByteOrder=LSB",
+            "[GeoReference]",
+            "Columns=2",
+            "Rows=2",
+            "MinX=110",
+            "MaxX=130",
+            "MinY=-30",
+            "MaxY=-10",
+            "ResolutionX=10",
+            "ResolutionY=10",
+            "[Data]",
+            "DataType=" + dataType,
+            "NoDataValue=-9999");
+    Files.write(new File(dir, id + ".grd").toPath(), header.getBytes(StandardCharsets.UTF_8));
+
+    ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+    for (float value : values) {
+      buffer.putFloat(value);
+    }
+    Files.write(new File(dir, id + ".gri").toPath(), buffer.array());
+  }
+}
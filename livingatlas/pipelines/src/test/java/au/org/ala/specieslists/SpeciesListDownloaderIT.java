@@ -0,0 +1,73 @@
+package au.org.ala.specieslists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import au.org.ala.pipelines.options.SpeciesLevelPipelineOptions;
+import au.org.ala.util.TestUtils;
+import java.io.File;
+import java.util.List;
+import okhttp3.mockwebserver.MockWebServer;
+import org.gbif.pipelines.common.beam.options.PipelinesOptionsFactory;
+import org.gbif.pipelines.core.io.AvroReader;
+import org.gbif.pipelines.io.avro.SpeciesListRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpeciesListDownloaderIT {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  MockWebServer speciesListServer;
+
+  @Before
+  public void setup() throws Exception {
+    speciesListServer = TestUtils.createMockSpeciesLists();
+    speciesListServer.start(TestUtils.getSpeciesListPort());
+  }
+
+  @Test
+  public void unchangedListsTest() throws Exception {
+
+    // State
+    String path = folder.getRoot().getAbsolutePath();
+    SpeciesLevelPipelineOptions options =
+        PipelinesOptionsFactory.create(
+            SpeciesLevelPipelineOptions.class,
+            new String[] {
+              "--inputPath=" + path,
+              "--speciesAggregatesPath=" + path,
+              "--maxDownloadAgeInMinutes=0",
+              "--properties=" + TestUtils.getPipelinesConfigFile()
+            });
+    String outputPath = path + options.getSpeciesListCachePath();
+
+    // When
+    SpeciesListDownloader.run(options);
+
+    // Should
+    assertEquals(2, speciesListServer.getRequestCount());
+    assertTrue(new File(path + "/species-lists/lists/dr1.avro").exists());
+    List<SpeciesListRecord> records =
+        AvroReader.readObjects(null, null, SpeciesListRecord.class, outputPath);
+    assertTrue(records.size() > 0);
+    assertTrue(records.stream().allMatch(r -> "dr1".equals(r.getSpeciesListID())));
+
+    // When
+    SpeciesListDownloader.run(options);
+
+    // Should, only the list of lists is requested
+    assertEquals(3, speciesListServer.getRequestCount());
+    assertEquals(
+        records.size(),
+        AvroReader.readObjects(null, null, SpeciesListRecord.class, outputPath).size());
+  }
+
+  @After
+  public void teardown() throws Exception {
+    speciesListServer.shutdown();
+  }
+}
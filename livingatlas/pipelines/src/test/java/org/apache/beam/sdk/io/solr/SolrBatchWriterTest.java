@@ -0,0 +1,182 @@
+package org.apache.beam.sdk.io.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.beam.sdk.util.Sleeper;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.SolrInputDocument;
+import org.joda.time.Duration;
+import org.junit.Test;
+
+public class SolrBatchWriterTest {
+
+  private static final Sleeper NO_SLEEP = millis -> {};
+
+  @Test
+  public void skipFailedDocumentsTest() throws Exception {
+
+    // State
+    Set<String> written = ConcurrentHashMap.newKeySet();
+    SolrBatchWriter.Sender sender =
+        documents -> {
+          if (documents.stream().anyMatch(d -> "bad".equals(d.getFieldValue("id")))) {
+            throw new SolrException(ErrorCode.BAD_REQUEST, "Invalid field");
+          }
+          documents.forEach(d -> written.add((String) d.getFieldValue("id")));
+        };
+    SolrIO.Write spec = SolrIO.write().withMaxBatchSize(10).withSkipFailedDocuments(true);
+
+    // When
+    try (SolrBatchWriter writer = new SolrBatchWriter(spec, sender, NO_SLEEP)) {
+      for (int i = 0; i < 9; i++) {
+        writer.add(document(String.valueOf(i)));
+      }
+      writer.add(document("bad"));
+      writer.flush();
+
+      // Should
+      assertEquals(9, written.size());
+      assertEquals(1L, writer.drainSkipped());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void failWithoutSkipTest() throws Exception {
+
+    // State
+    SolrBatchWriter.Sender sender =
+        documents -> {
+          throw new SolrException(ErrorCode.BAD_REQUEST, "Invalid field");
+        };
+
+    // When
+    try (SolrBatchWriter writer = new SolrBatchWriter(SolrIO.write(), sender, NO_SLEEP)) {
+      writer.add(document("bad"));
+      writer.flush();
+    }
+  }
+
+  @Test
+  public void backPressureTest() throws Exception {
+
+    // State
+    AtomicInteger calls = new AtomicInteger();
+    SolrBatchWriter.Sender sender =
+        documents -> {
+          if (calls.incrementAndGet() == 1) {
+            throw new SolrException(ErrorCode.SERVICE_UNAVAILABLE, "Overloaded");
+          }
+        };
+    SolrIO.Write spec =
+        SolrIO.write()
+            .withMaxBatchSize(100)
+            .withRetryConfiguration(
+                SolrIO.RetryConfiguration.create(3, Duration.standardMinutes(1)));
+
+    // When
+    try (SolrBatchWriter writer = new SolrBatchWriter(spec, sender, NO_SLEEP)) {
+      for (int i = 0; i < 100; i++) {
+        writer.add(document(String.valueOf(i)));
+      }
+      writer.flush();
+
+      // Should, the batch is retried and the next batches are smaller
+      assertEquals(2, calls.get());
+      assertEquals(50, writer.getBatchSize());
+    }
+  }
+
+  @Test
+  public void latencyTest() throws Exception {
+
+    // State
+    AtomicInteger delayMs = new AtomicInteger(20);
+    SolrBatchWriter.Sender sender = documents -> Thread.sleep(delayMs.get());
+    SolrIO.Write spec =
+        SolrIO.write().withMaxBatchSize(100).withTargetBatchLatency(Duration.millis(10));
+
+    try (SolrBatchWriter writer = new SolrBatchWriter(spec, sender, NO_SLEEP)) {
+
+      // When
+      write(writer, 100);
+      int slow = writer.getBatchSize();
+      delayMs.set(0);
+      write(writer, 500);
+      int fast = writer.getBatchSize();
+
+      // Should
+      assertEquals(50, slow);
+      assertEquals(100, fast);
+    }
+  }
+
+  @Test
+  public void maxInFlightBatchesTest() throws Exception {
+
+    // State
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    AtomicInteger written = new AtomicInteger();
+    SolrBatchWriter.Sender sender =
+        documents -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          Thread.sleep(5);
+          written.addAndGet(documents.size());
+          inFlight.decrementAndGet();
+        };
+    SolrIO.Write spec = SolrIO.write().withMaxBatchSize(10).withMaxInFlightBatches(3);
+
+    // When
+    try (SolrBatchWriter writer = new SolrBatchWriter(spec, sender, NO_SLEEP)) {
+      write(writer, 1_000);
+      writer.flush();
+    }
+
+    // Should
+    assertEquals(1_000, written.get());
+    assertTrue(maxInFlight.get() > 1);
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void maxBatchBytesTest() throws Exception {
+
+    // State
+    List<Integer> sizes = new CopyOnWriteArrayList<>();
+    SolrBatchWriter.Sender sender = documents -> sizes.add(documents.size());
+    long documentBytes = SolrBatchWriter.estimateBytes(document("0"));
+    SolrIO.Write spec =
+        SolrIO.write().withMaxBatchSize(100).withMaxBatchBytes(documentBytes * 10);
+
+    // When
+    try (SolrBatchWriter writer = new SolrBatchWriter(spec, sender, NO_SLEEP)) {
+      write(writer, 30);
+      writer.flush();
+    }
+
+    // Should
+    assertEquals(3, sizes.size());
+    assertTrue(sizes.stream().allMatch(x -> x == 10));
+  }
+
+  private static void write(SolrBatchWriter writer, int number) throws Exception {
+    for (int i = 0; i < number; i++) {
+      writer.add(document(String.valueOf(i % 10)));
+    }
+  }
+
+  private static SolrInputDocument document(String id) {
+    SolrInputDocument document = new SolrInputDocument();
+    document.setField("id", id);
+    document.setField("scientificName", "Acacia");
+    return document;
+  }
+}
@@ -2,10 +2,13 @@ package org.apache.beam.runners.spark.coders;
 
 import com.esotericsoftware.kryo.Kryo;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.function.Function;
+import java.util.List;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaNormalization;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.beam.runners.spark.io.MicrobatchSource;
 import org.apache.beam.runners.spark.stateful.SparkGroupAlsoByWindowViaWindowSet.StateAndTimers;
 import org.apache.beam.runners.spark.translation.ValueAndCoderKryoSerializer;
@@ -25,48 +28,56 @@ import org.gbif.pipelines.io.avro.ImageRecord;
 import org.gbif.pipelines.io.avro.IssueRecord;
 import org.gbif.pipelines.io.avro.LocationFeatureRecord;
 import org.gbif.pipelines.io.avro.LocationRecord;
-import org.gbif.pipelines.io.avro.MeasurementOrFact;
+import org.gbif.pipelines.io.avro.MeasurementOrFactRecord;
 import org.gbif.pipelines.io.avro.MetadataRecord;
 import org.gbif.pipelines.io.avro.MultimediaRecord;
 import org.gbif.pipelines.io.avro.OccurrenceHdfsRecord;
 import org.gbif.pipelines.io.avro.TaxonRecord;
 import org.gbif.pipelines.io.avro.TemporalRecord;
+import org.gbif.pipelines.io.avro.grscicoll.GrscicollRecord;
 import scala.Tuple2;
 import scala.collection.mutable.WrappedArray;
 
 /**
  * Overrides the Beam SparkRunnerKryoRegistrator to register generic Avro classes with the {@link
- * GenericAvroSerializer} when using the {@link org.apache.spark.serializer.KryoSerializer}.
+ * GenericAvroSerializer} and generated Avro classes with the {@link SpecificAvroKryoSerializer}
+ * when using the {@link org.apache.spark.serializer.KryoSerializer}.
  */
 public class SparkRunnerKryoRegistrator implements KryoRegistrator {
 
-  // same function as in {@link org.apache.spark.SparkConf#registerAvroSchemas}
-  private static final Function<Schema, Tuple2<Object, String>> TUPLE_SCHEMA =
-      schema ->
-          Tuple2.apply(
-              "avro.schema." + SchemaNormalization.parsingFingerprint64(schema), schema.toString());
+  /** Registered in this order, so the class ids are the same in every executor */
+  static final List<Class<? extends SpecificRecordBase>> AVRO_CLASSES =
+      Arrays.asList(
+          // core
+          BasicRecord.class,
+          GrscicollRecord.class,
+          LocationRecord.class,
+          MetadataRecord.class,
+          TaxonRecord.class,
+          TemporalRecord.class,
+          ExtendedRecord.class,
+          IssueRecord.class,
+          OccurrenceHdfsRecord.class,
+          // extensions
+          AmplificationRecord.class,
+          AudubonRecord.class,
+          ImageRecord.class,
+          MeasurementOrFactRecord.class,
+          MultimediaRecord.class,
+          LocationFeatureRecord.class);
 
-  private static final scala.collection.immutable.Map<Object, String> AVRO_SCHEMAS =
-      scala.collection.immutable.Map$.MODULE$.empty();
+  // same as {@link org.apache.spark.SparkConf#getAvroSchema}, the key is the schema fingerprint
+  static final scala.collection.immutable.Map<Object, String> AVRO_SCHEMAS = createAvroSchemas();
 
-  static {
-    // core
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(BasicRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(LocationRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(MetadataRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(TaxonRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(TemporalRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(ExtendedRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(IssueRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(OccurrenceHdfsRecord.SCHEMA$));
-
-    // extensions
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(AmplificationRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(AudubonRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(ImageRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(MeasurementOrFact.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(MultimediaRecord.SCHEMA$));
-    AVRO_SCHEMAS.$plus(TUPLE_SCHEMA.apply(LocationFeatureRecord.SCHEMA$));
+  private static scala.collection.immutable.Map<Object, String> createAvroSchemas() {
+    scala.collection.immutable.Map<Object, String> schemas =
+        scala.collection.immutable.Map$.MODULE$.empty();
+    for (Class<? extends SpecificRecordBase> clazz : AVRO_CLASSES) {
+      Schema schema = SpecificData.get().getSchema(clazz);
+      long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+      schemas = schemas.$plus(new Tuple2<Object, String>(fingerprint, schema.toString()));
+    }
+    return schemas;
   }
 
   /** Copied from BEAM, except last line */
@@ -102,6 +113,10 @@ public class SparkRunnerKryoRegistrator implements KryoRegistrator {
 
   /** GBIF custom classes for registration */
   private void customRegister(Kryo kryo) {
+    // generated classes, the default serializer covers the ones which aren't in the list
+    AVRO_CLASSES.forEach(clazz -> kryo.register(clazz, new SpecificAvroKryoSerializer<>(clazz)));
+    kryo.addDefaultSerializer(SpecificRecordBase.class, SpecificAvroKryoSerializer.class);
+
     try {
       // custom types added
       kryo.register(
@@ -0,0 +1,104 @@
+package org.apache.beam.runners.spark.coders;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+
+/**
+ * Kryo serializer for generated Avro classes, writes the 64-bit parsing fingerprint of the schema
+ * and the record in the Avro binary encoding, instead of the fields of the object graph.
+ *
+ * <p>Kryo instances are not shared between threads, so the encoder, the decoder and the buffers
+ * are reused for all records.
+ */
+public class SpecificAvroKryoSerializer<T extends SpecificRecord> extends Serializer<T> {
+
+  private final Schema schema;
+  private final long fingerprint;
+  private final SpecificDatumWriter<T> datumWriter;
+  private final SpecificDatumReader<T> datumReader;
+
+  private final Buffer buffer = new Buffer();
+  private BinaryEncoder encoder;
+  private BinaryDecoder decoder;
+  private byte[] bytes = new byte[1024];
+
+  public SpecificAvroKryoSerializer(Class<T> clazz) {
+    this.schema = SpecificData.get().getSchema(clazz);
+    this.fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+    this.datumWriter = new SpecificDatumWriter<>(schema);
+    this.datumReader = new SpecificDatumReader<>(schema);
+  }
+
+  @Override
+  public void write(Kryo kryo, Output output, T record) {
+    try {
+      buffer.reset();
+      encoder = EncoderFactory.get().binaryEncoder(buffer, encoder);
+      datumWriter.write(record, encoder);
+      encoder.flush();
+    } catch (IOException ex) {
+      throw new KryoException("Can't encode " + schema.getFullName(), ex);
+    }
+
+    output.writeLong(fingerprint);
+    output.writeInt(buffer.size(), true);
+    output.writeBytes(buffer.array(), 0, buffer.size());
+  }
+
+  @Override
+  public T read(Kryo kryo, Input input, Class<T> type) {
+    long writerFingerprint = input.readLong();
+    if (writerFingerprint != fingerprint) {
+      throw new KryoException(
+          "Record of "
+              + schema.getFullName()
+              + " is written with the unknown schema fingerprint "
+              + writerFingerprint);
+    }
+
+    int length = input.readInt(true);
+    if (bytes.length < length) {
+      bytes = new byte[Math.max(length, bytes.length * 2)];
+    }
+    input.readBytes(bytes, 0, length);
+
+    try {
+      decoder = DecoderFactory.get().binaryDecoder(bytes, 0, length, decoder);
+      return datumReader.read(null, decoder);
+    } catch (IOException ex) {
+      throw new KryoException("Can't decode " + schema.getFullName(), ex);
+    }
+  }
+
+  @Override
+  public T copy(Kryo kryo, T original) {
+    return SpecificData.get().deepCopy(schema, original);
+  }
+
+  /** Exposes the internal array, to copy the encoded record without an extra array */
+  private static class Buffer extends ByteArrayOutputStream {
+
+    private Buffer() {
+      super(1024);
+    }
+
+    private byte[] array() {
+      return buf;
+    }
+  }
+}
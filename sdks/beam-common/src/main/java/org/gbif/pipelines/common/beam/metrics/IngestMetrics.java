@@ -1,52 +1,159 @@
 package org.gbif.pipelines.common.beam.metrics;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.apache.beam.runners.core.metrics.DefaultMetricResults;
+import org.apache.beam.sdk.metrics.DistributionResult;
+import org.apache.beam.sdk.metrics.GaugeResult;
 import org.apache.beam.sdk.metrics.MetricKey;
 import org.apache.beam.sdk.metrics.MetricName;
 import org.apache.beam.sdk.metrics.MetricResult;
 import org.apache.beam.sdk.metrics.MetricResults;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.functions.SerializableSupplier;
+import org.joda.time.Instant;
 
 /**
- * Metrics to support org.gbif.pipelines.transforms.Transform counters, wrapper on top of {@link
- * org.apache.beam.sdk.metrics.MetricResults}
+ * Metrics to support org.gbif.pipelines.transforms.Transform counters and timers, wrapper on top
+ * of {@link org.apache.beam.sdk.metrics.MetricResults}
+ *
+ * <p>Counters use striped {@link LongAdder}s, timers use {@link LatencyHistogram}s and are reported
+ * as distributions in microseconds, plus percentile gauges named {@code <timer>P50}, {@code
+ * <timer>P95} and {@code <timer>P99}. Gauges keep the last value set, they are reported in the
+ * {@link #GAUGE_NAMESPACE} namespace.
  */
 @AllArgsConstructor(staticName = "create")
 public class IngestMetrics {
 
-  private final Map<String, String> nameSpaceMap = new HashMap<>();
-  private final Map<String, AtomicLong> valueMap = new HashMap<>();
+  public static final String GAUGE_NAMESPACE = IngestMetrics.class.getName() + ".gauge";
+
+  private static final String TIMER_NAMESPACE = IngestMetrics.class.getName();
+  private static final double[] PERCENTILES = {50d, 95d, 99d};
+
+  private final Map<String, String> nameSpaceMap = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> valueMap = new ConcurrentHashMap<>();
+  private final Map<String, LatencyHistogram> timerMap = new ConcurrentHashMap<>();
+  private final Map<String, Long> gaugeMap = new ConcurrentHashMap<>();
 
   public IngestMetrics addMetric(Class<?> namespace, String name) {
     return addMetric(namespace.getName(), name);
   }
 
   public IngestMetrics addMetric(String namespace, String name) {
-    valueMap.putIfAbsent(name, new AtomicLong(0L));
+    valueMap.putIfAbsent(name, new LongAdder());
     nameSpaceMap.putIfAbsent(name, namespace);
     return this;
   }
 
-  public long incMetric(String name) {
-    return Optional.ofNullable(valueMap.get(name)).map(AtomicLong::incrementAndGet).orElse(0L);
+  /** Increments the counter, the sum is computed only when the metrics are reported */
+  public void incMetric(String name) {
+    LongAdder adder = valueMap.get(name);
+    if (adder != null) {
+      adder.increment();
+    }
+  }
+
+  /** Sets the value of a gauge, the gauge is created on the first use */
+  public void setGauge(String name, long value) {
+    gaugeMap.put(name, value);
+  }
+
+  /** Records the time in microseconds, the timer is created on the first use */
+  public void recordTime(String name, long micros) {
+    timerMap.computeIfAbsent(name, n -> new LatencyHistogram()).record(micros);
+  }
+
+  /** Records the time elapsed since {@code startNanos}, the value of {@link System#nanoTime()} */
+  public void recordTimeSince(String name, long startNanos) {
+    recordTime(name, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+  }
+
+  /** Wraps the store supplier, so every lookup is recorded by the timer */
+  public <K, V> SerializableSupplier<KeyValueStore<K, V>> timedKvStore(
+      String name, SerializableSupplier<KeyValueStore<K, V>> supplier) {
+    if (supplier == null) {
+      return null;
+    }
+    return () -> new TimedKeyValueStore<>(supplier.get(), name);
   }
 
   public MetricResults getMetricsResult() {
     List<MetricResult<Long>> counters =
         valueMap.entrySet().stream()
-            .filter(x -> x.getValue().get() > 0)
+            .filter(x -> x.getValue().sum() > 0)
             .map(
                 s -> {
                   MetricKey metricKey =
                       MetricKey.create(
                           null, MetricName.named(nameSpaceMap.get(s.getKey()), s.getKey()));
-                  return MetricResult.create(metricKey, false, s.getValue().longValue());
+                  return MetricResult.create(metricKey, false, s.getValue().sum());
                 })
             .collect(Collectors.toList());
 
-    return new DefaultMetricResults(counters, Collections.emptyList(), Collections.emptyList());
+    List<MetricResult<DistributionResult>> distributions = new ArrayList<>();
+    List<MetricResult<GaugeResult>> gauges = new ArrayList<>();
+    Instant now = Instant.now();
+    new TreeMap<>(timerMap)
+        .forEach(
+            (name, histogram) -> {
+              if (histogram.getCount() == 0) {
+                return;
+              }
+              DistributionResult distribution =
+                  DistributionResult.create(
+                      histogram.getSum(),
+                      histogram.getCount(),
+                      histogram.getMin(),
+                      histogram.getMax());
+              distributions.add(MetricResult.create(timerKey(name), false, distribution));
+
+              for (double percentile : PERCENTILES) {
+                GaugeResult gauge =
+                    GaugeResult.create(histogram.getPercentile(percentile), now);
+                String gaugeName = name + "P" + (int) percentile;
+                gauges.add(MetricResult.create(timerKey(gaugeName), false, gauge));
+              }
+            });
+
+    new TreeMap<>(gaugeMap)
+        .forEach(
+            (name, value) -> {
+              MetricKey key = MetricKey.create(null, MetricName.named(GAUGE_NAMESPACE, name));
+              gauges.add(MetricResult.create(key, false, GaugeResult.create(value, now)));
+            });
+
+    return new DefaultMetricResults(counters, distributions, gauges);
+  }
+
+  private static MetricKey timerKey(String name) {
+    return MetricKey.create(null, MetricName.named(TIMER_NAMESPACE, name));
+  }
+
+  /** Records the time of every {@link KeyValueStore#get(Object)} call */
+  @AllArgsConstructor
+  private class TimedKeyValueStore<K, V> implements KeyValueStore<K, V> {
+
+    private final KeyValueStore<K, V> store;
+    private final String name;
+
+    @Override
+    public V get(K key) {
+      long start = System.nanoTime();
+      try {
+        return store.get(key);
+      } finally {
+        recordTimeSince(name, start);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      store.close();
+    }
   }
 }
@@ -2,10 +2,12 @@ package org.gbif.pipelines.common.beam.metrics;
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.beam.sdk.metrics.DistributionResult;
 import org.apache.beam.sdk.metrics.MetricQueryResults;
 import org.apache.beam.sdk.metrics.MetricResult;
 import org.apache.beam.sdk.metrics.MetricResults;
@@ -28,6 +30,10 @@ public class MetricsHandler {
   /**
    * Method works with Apache Beam metrics, gets metrics from {@link MetricResults} and converts to
    * a yaml string format SparkRunner doesn't support committed
+   *
+   * <p>Distributions are written as {@code <name>Count}, {@code <name>TotalMs} and {@code
+   * <name>MaxUs}, timer percentile gauges as {@code <name>Us} and other gauges as {@code <name>},
+   * see {@link IngestMetrics}
    */
   public static String getCountersInfo(MetricResults results) {
 
@@ -45,6 +51,35 @@ public class MetricsHandler {
               builder.append(line);
             });
 
+    // Timers, values in microseconds
+    queryResults
+        .getDistributions()
+        .forEach(
+            x -> {
+              String name = x.getName().getName();
+              DistributionResult dr = x.getAttempted();
+              builder.append(name).append("Count: ").append(dr.getCount()).append("\n");
+              builder
+                  .append(name)
+                  .append("TotalMs: ")
+                  .append(TimeUnit.MICROSECONDS.toMillis(dr.getSum()))
+                  .append("\n");
+              builder.append(name).append("MaxUs: ").append(dr.getMax()).append("\n");
+            });
+
+    // Timer percentiles in microseconds and gauges
+    queryResults
+        .getGauges()
+        .forEach(
+            x -> {
+              boolean gauge = IngestMetrics.GAUGE_NAMESPACE.equals(x.getName().getNamespace());
+              builder
+                  .append(x.getName().getName())
+                  .append(gauge ? ": " : "Us: ")
+                  .append(x.getAttempted().getValue())
+                  .append("\n");
+            });
+
     String result = builder.toString();
     log.info("Added pipeline metadata - {}", result.replace("\n", ", "));
     return result;
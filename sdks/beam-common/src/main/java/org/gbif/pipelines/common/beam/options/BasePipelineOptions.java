@@ -44,7 +44,10 @@ public interface BasePipelineOptions extends PipelineOptions {
 
   void setWriteOutput(boolean writeOutput);
 
-  @Description("Avro compression type")
+  @Description(
+      "Avro compression type of the java pipelines: null, snappy, bzip2, deflate, xz, "
+          + "deflate-<level>, xz-<level> or auto, which picks the codec and the sync interval per "
+          + "record type from a sample of the first records")
   @Default.String("snappy")
   String getAvroCompressionType();
 
@@ -56,12 +59,34 @@ public interface BasePipelineOptions extends PipelineOptions {
 
   void setAvroSyncInterval(int syncInterval);
 
+  @Description("Number of records sampled to pick the codec, if the compression type is auto")
+  @Default.Integer(1_000)
+  int getAvroAutoSampleSize();
+
+  void setAvroAutoSampleSize(int sampleSize);
+
   @Description("The threshold for java based pipelines, switches between sync and async execution")
   @Default.Integer(1_000)
   int getSyncThreshold();
 
   void setSyncThreshold(int syncThreshold);
 
+  @Description(
+      "Use virtual threads for java based pipelines if the JVM supports them, Java 21+. Otherwise "
+          + "a pool of platform threads is used")
+  @Default.Boolean(false)
+  boolean getUseVirtualThreads();
+
+  void setUseVirtualThreads(boolean useVirtualThreads);
+
+  @Description(
+      "Maximum number of concurrent calls to each KV store service in java based pipelines, "
+          + "0 or less for no limit")
+  @Default.Integer(64)
+  int getMaxConcurrentServiceCalls();
+
+  void setMaxConcurrentServiceCalls(int maxConcurrentServiceCalls);
+
   @Description("Turn off some services for testing")
   @Default.Boolean(false)
   boolean getTestMode();
@@ -82,6 +82,12 @@ public interface InterpretationPipelineOptions
 
   void setUseExtendedRecordId(boolean useExtendedRecordId);
 
+  @Description("Java pipelines index interpreted records on disk instead of reading them to memory")
+  @Default.Boolean(false)
+  boolean isUseIndexedAvroReader();
+
+  void setUseIndexedAvroReader(boolean useIndexedAvroReader);
+
   @Description("Number of file shards")
   Integer getNumberOfShards();
 
@@ -0,0 +1,107 @@
+package org.apache.beam.runners.spark.coders;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.gbif.pipelines.io.avro.BasicRecord;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+import org.gbif.pipelines.io.avro.IndexRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+@Slf4j
+public class SparkRunnerKryoRegistratorTest {
+
+  @Test
+  public void avroSchemasTest() {
+    // Should
+    Assert.assertEquals(
+        SparkRunnerKryoRegistrator.AVRO_CLASSES.size(),
+        SparkRunnerKryoRegistrator.AVRO_SCHEMAS.size());
+  }
+
+  @Test
+  public void specificRecordsTest() {
+
+    // State
+    Map<String, String> coreTerms = new HashMap<>();
+    coreTerms.put("http://rs.tdwg.org/dwc/terms/occurrenceID", "urn:catalog:1");
+    coreTerms.put("http://rs.tdwg.org/dwc/terms/scientificName", "Puma concolor");
+    ExtendedRecord er = ExtendedRecord.newBuilder().setId("1").setCoreTerms(coreTerms).build();
+    BasicRecord br =
+        BasicRecord.newBuilder().setId("1").setGbifId(1L).setBasisOfRecord("OBSERVATION").build();
+
+    Kryo before = new Kryo();
+    Kryo after = createKryo();
+
+    for (SpecificRecordBase record : new SpecificRecordBase[] {er, br}) {
+
+      // When
+      byte[] beforeBytes = write(before, record);
+      byte[] afterBytes = write(after, record);
+      Object result = after.readClassAndObject(new Input(afterBytes));
+
+      log.info(
+          "{} shuffle bytes: {} before, {} after",
+          record.getSchema().getName(),
+          beforeBytes.length,
+          afterBytes.length);
+
+      // Should
+      Assert.assertEquals(record, result);
+      Assert.assertTrue(afterBytes.length < beforeBytes.length);
+    }
+  }
+
+  @Test
+  public void unlistedSpecificRecordTest() {
+
+    // State
+    IndexRecord record =
+        IndexRecord.newBuilder().setId("1").setTaxonID("2").setLatLng("1,1").build();
+    Kryo kryo = createKryo();
+
+    // When
+    Object result = kryo.readClassAndObject(new Input(write(kryo, record)));
+
+    // Should
+    Assert.assertEquals(record, result);
+    Assert.assertTrue(kryo.getSerializer(IndexRecord.class) instanceof SpecificAvroKryoSerializer);
+  }
+
+  @Test
+  public void genericRecordTest() {
+
+    // State
+    GenericRecord record = new GenericData.Record(ExtendedRecord.getClassSchema());
+    record.put("id", "1");
+    record.put("coreTerms", new HashMap<>());
+    record.put("extensions", new HashMap<>());
+    Kryo kryo = createKryo();
+
+    // When
+    byte[] bytes = write(kryo, record);
+
+    // Should, the fingerprint is written instead of the schema
+    Assert.assertTrue(bytes.length < ExtendedRecord.getClassSchema().toString().length());
+    Assert.assertEquals(record, kryo.readClassAndObject(new Input(bytes)));
+  }
+
+  private static Kryo createKryo() {
+    Kryo kryo = new Kryo();
+    new SparkRunnerKryoRegistrator().registerClasses(kryo);
+    return kryo;
+  }
+
+  private static byte[] write(Kryo kryo, Object record) {
+    Output output = new Output(1024, -1);
+    kryo.writeClassAndObject(output, record);
+    return output.toBytes();
+  }
+}
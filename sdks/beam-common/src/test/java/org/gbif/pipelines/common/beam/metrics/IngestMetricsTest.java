@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.apache.beam.sdk.metrics.DistributionResult;
 import org.apache.beam.sdk.metrics.MetricResults;
 import org.junit.Assert;
 import org.junit.Test;
@@ -153,4 +154,79 @@ public class IngestMetricsTest {
     Assert.assertEquals(count, map.get(name));
     Assert.assertEquals(count, map.get(name2));
   }
+
+  @Test
+  public void timerMetricsTest() {
+
+    // State
+    String name = "someTime";
+
+    // When
+    IngestMetrics metrics = IngestMetrics.create();
+    for (long x = 1; x <= 100; x++) {
+      metrics.recordTime(name, x);
+    }
+    MetricResults result = metrics.getMetricsResult();
+
+    // Should
+    Map<String, DistributionResult> distributions = new HashMap<>();
+    result
+        .allMetrics()
+        .getDistributions()
+        .forEach(mr -> distributions.put(mr.getName().getName(), mr.getAttempted()));
+
+    Map<String, Long> gauges = new HashMap<>();
+    result
+        .allMetrics()
+        .getGauges()
+        .forEach(mr -> gauges.put(mr.getName().getName(), mr.getAttempted().getValue()));
+
+    Assert.assertEquals(1, distributions.size());
+    DistributionResult dr = distributions.get(name);
+    Assert.assertEquals(100L, dr.getCount());
+    Assert.assertEquals(5050L, dr.getSum());
+    Assert.assertEquals(1L, dr.getMin());
+    Assert.assertEquals(100L, dr.getMax());
+
+    Assert.assertEquals(3, gauges.size());
+    // Buckets are 1/16 wide
+    Assert.assertEquals(50d, gauges.get(name + "P50"), 50d / 16);
+    Assert.assertEquals(95d, gauges.get(name + "P95"), 95d / 16);
+    Assert.assertEquals(99d, gauges.get(name + "P99"), 99d / 16);
+  }
+
+  @Test
+  public void gaugeMetricsTest() {
+
+    // State
+    String name = "occurrenceAvroCodec";
+
+    // When
+    IngestMetrics metrics = IngestMetrics.create();
+    metrics.setGauge(name, 1L);
+    metrics.setGauge(name, 16L);
+    MetricResults result = metrics.getMetricsResult();
+
+    // Should
+    Map<String, Long> gauges = new HashMap<>();
+    result
+        .allMetrics()
+        .getGauges()
+        .forEach(mr -> gauges.put(mr.getName().getName(), mr.getAttempted().getValue()));
+
+    Assert.assertEquals(1, gauges.size());
+    Assert.assertEquals(Long.valueOf(16L), gauges.get(name));
+    Assert.assertTrue(MetricsHandler.getCountersInfo(result).contains(name + ": 16\n"));
+  }
+
+  @Test
+  public void histogramBucketsTest() {
+    for (long v : new long[] {0L, 1L, 15L, 16L, 17L, 100L, 1_000L, 123_456L, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.bucketIndex(v);
+      Assert.assertTrue(LatencyHistogram.bucketUpperBound(index) >= v);
+      if (index > 0) {
+        Assert.assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < v);
+      }
+    }
+  }
 }
@@ -1,7 +1,13 @@
 package org.gbif.pipelines.transforms;
 
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.AVRO_CODEC_SUFFIX;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.AVRO_SYNC_INTERVAL_SUFFIX;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.PROCESSING_TIME_SUFFIX;
+import static org.gbif.pipelines.common.PipelinesVariables.Metrics.WRITE_TIME_SUFFIX;
+
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.UnaryOperator;
 import lombok.SneakyThrows;
 import org.apache.avro.Schema;
@@ -9,6 +15,7 @@ import org.apache.avro.file.CodecFactory;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.beam.sdk.io.AvroIO;
 import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.ParDo;
@@ -17,7 +24,10 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.TupleTag;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline;
 import org.gbif.pipelines.common.PipelinesVariables.Pipeline.Interpretation.InterpretationType;
+import org.gbif.pipelines.core.functions.SerializableBiConsumer;
 import org.gbif.pipelines.core.functions.SerializableConsumer;
+import org.gbif.pipelines.core.io.AvroCodecTuner;
+import org.gbif.pipelines.core.io.AvroCodecs;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 import org.gbif.pipelines.io.avro.Record;
 import org.gbif.pipelines.transforms.common.CheckTransforms;
@@ -38,9 +48,15 @@ public abstract class Transform<R, T extends SpecificRecordBase & Record> extend
   private final String baseInvalidName;
   private final Class<T> clazz;
   private final String counterName;
+  private final String timerName;
+  private final String writeTimerName;
+  private final String timerBaseName;
 
   private Counter counter;
   private SerializableConsumer<String> counterFn = v -> counter.inc();
+  private Distribution timer;
+  private SerializableBiConsumer<String, Long> timerFn;
+  private SerializableBiConsumer<String, Long> gaugeFn;
 
   public Transform(
       Class<T> clazz, InterpretationType recordType, String counterNamespace, String counterName) {
@@ -50,12 +66,29 @@ public abstract class Transform<R, T extends SpecificRecordBase & Record> extend
     this.baseInvalidName = baseName + "_invalid";
     this.counterName = counterName;
     this.counter = Metrics.counter(counterNamespace, counterName);
+    this.timerBaseName = toCamelCase(recordType.name());
+    this.timerName = timerBaseName + PROCESSING_TIME_SUFFIX;
+    this.writeTimerName = timerBaseName + WRITE_TIME_SUFFIX;
+    this.timer = Metrics.distribution(counterNamespace, timerName);
   }
 
   public void setCounterFn(SerializableConsumer<String> counterFn) {
     this.counterFn = counterFn;
   }
 
+  /**
+   * Replaces the Beam distribution, used by the java pipelines to record processing and writing
+   * times, values are in microseconds
+   */
+  public void setTimerFn(SerializableBiConsumer<String, Long> timerFn) {
+    this.timerFn = timerFn;
+  }
+
+  /** Sets gauges, used by the java pipelines to record the codec picked by the auto avro codec */
+  public void setGaugeFn(SerializableBiConsumer<String, Long> gaugeFn) {
+    this.gaugeFn = gaugeFn;
+  }
+
   protected InterpretationType getRecordType() {
     return recordType;
   }
@@ -153,7 +186,9 @@ public abstract class Transform<R, T extends SpecificRecordBase & Record> extend
   }
 
   public Optional<T> processElement(R source) {
+    long start = System.nanoTime();
     Optional<T> convert = convert(source);
+    recordTime(start);
     convert.ifPresent(t -> incCounter());
     return convert;
   }
@@ -164,6 +199,35 @@ public abstract class Transform<R, T extends SpecificRecordBase & Record> extend
     counterFn.accept(counterName);
   }
 
+  /** Records the processing time elapsed since {@code startNanos}, see {@link System#nanoTime()} */
+  public void recordTime(long startNanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    if (timerFn != null) {
+      timerFn.accept(timerName, micros);
+    } else {
+      timer.update(micros);
+    }
+  }
+
+  /** Records the time of an output record append, only the java pipelines write records directly */
+  public void recordWriteTime(long micros) {
+    if (timerFn != null) {
+      timerFn.accept(writeTimerName, micros);
+    }
+  }
+
+  /** Records the codec id, see {@link AvroCodecs#id}, and the sync interval of the auto codec */
+  public void recordAvroTuning(AvroCodecTuner.Result result) {
+    if (gaugeFn != null) {
+      gaugeFn.accept(timerBaseName + AVRO_CODEC_SUFFIX, AvroCodecs.id(result.getCodec()));
+      gaugeFn.accept(timerBaseName + AVRO_SYNC_INTERVAL_SUFFIX, (long) result.getSyncInterval());
+    }
+  }
+
+  public String getTimerName() {
+    return timerName;
+  }
+
   /** @return TupleTag required for grouping */
   public TupleTag<T> getTag() {
     return tag;
@@ -181,4 +245,19 @@ public abstract class Transform<R, T extends SpecificRecordBase & Record> extend
   public static CodecFactory getBaseCodec() {
     return BASE_CODEC;
   }
+
+  /** MEASUREMENT_OR_FACT to measurementOrFact */
+  private static String toCamelCase(String name) {
+    StringBuilder sb = new StringBuilder(name.length());
+    boolean upper = false;
+    for (char c : name.toLowerCase().toCharArray()) {
+      if (c == '_') {
+        upper = true;
+      } else {
+        sb.append(upper ? Character.toUpperCase(c) : c);
+        upper = false;
+      }
+    }
+    return sb.toString();
+  }
 }
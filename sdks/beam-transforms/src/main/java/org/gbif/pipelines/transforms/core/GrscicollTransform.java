@@ -119,11 +119,17 @@ public class GrscicollTransform extends Transform<ErBrContainer, GrscicollRecord
       return Optional.empty();
     }
 
-    return Interpretation.from(source)
-        .to(GrscicollRecord.newBuilder().setCreated(Instant.now().toEpochMilli()).build())
-        .when(er -> !er.getCoreTerms().isEmpty())
-        .via(GrscicollInterpreter.grscicollInterpreter(kvStore, mdr, br))
-        .skipWhen(gr -> gr.getId() == null)
-        .getOfNullable();
+    long start = System.nanoTime();
+
+    Optional<GrscicollRecord> result =
+        Interpretation.from(source)
+            .to(GrscicollRecord.newBuilder().setCreated(Instant.now().toEpochMilli()).build())
+            .when(er -> !er.getCoreTerms().isEmpty())
+            .via(GrscicollInterpreter.grscicollInterpreter(kvStore, mdr, br))
+            .skipWhen(gr -> gr.getId() == null)
+            .getOfNullable();
+
+    recordTime(start);
+    return result;
   }
 }
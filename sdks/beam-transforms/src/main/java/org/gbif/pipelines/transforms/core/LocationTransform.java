@@ -110,33 +110,38 @@ public class LocationTransform extends Transform<ExtendedRecord, LocationRecord>
   }
 
   public Optional<LocationRecord> processElement(ExtendedRecord source, MetadataRecord mdr) {
-
-    return Interpretation.from(source)
-        .to(
-            er ->
-                LocationRecord.newBuilder()
-                    .setId(er.getId())
-                    .setCreated(Instant.now().toEpochMilli())
-                    .build())
-        .when(er -> !er.getCoreTerms().isEmpty())
-        .via(LocationInterpreter.interpretCountryAndCoordinates(geocodeKvStore, mdr))
-        .via(LocationInterpreter.interpretGadm(geocodeKvStore))
-        .via(LocationInterpreter::interpretContinent)
-        .via(LocationInterpreter::interpretWaterBody)
-        .via(LocationInterpreter::interpretStateProvince)
-        .via(LocationInterpreter::interpretMinimumElevationInMeters)
-        .via(LocationInterpreter::interpretMaximumElevationInMeters)
-        .via(LocationInterpreter::interpretElevation)
-        .via(LocationInterpreter::interpretMinimumDepthInMeters)
-        .via(LocationInterpreter::interpretMaximumDepthInMeters)
-        .via(LocationInterpreter::interpretDepth)
-        .via(LocationInterpreter::interpretMinimumDistanceAboveSurfaceInMeters)
-        .via(LocationInterpreter::interpretMaximumDistanceAboveSurfaceInMeters)
-        .via(LocationInterpreter::interpretCoordinatePrecision)
-        .via(LocationInterpreter::interpretCoordinateUncertaintyInMeters)
-        .via(LocationInterpreter::interpretLocality)
-        .via(LocationInterpreter::interpretFootprintWKT)
-        .via(r -> this.incCounter())
-        .getOfNullable();
+    long start = System.nanoTime();
+
+    Optional<LocationRecord> result =
+        Interpretation.from(source)
+            .to(
+                er ->
+                    LocationRecord.newBuilder()
+                        .setId(er.getId())
+                        .setCreated(Instant.now().toEpochMilli())
+                        .build())
+            .when(er -> !er.getCoreTerms().isEmpty())
+            .via(LocationInterpreter.interpretCountryAndCoordinates(geocodeKvStore, mdr))
+            .via(LocationInterpreter.interpretGadm(geocodeKvStore))
+            .via(LocationInterpreter::interpretContinent)
+            .via(LocationInterpreter::interpretWaterBody)
+            .via(LocationInterpreter::interpretStateProvince)
+            .via(LocationInterpreter::interpretMinimumElevationInMeters)
+            .via(LocationInterpreter::interpretMaximumElevationInMeters)
+            .via(LocationInterpreter::interpretElevation)
+            .via(LocationInterpreter::interpretMinimumDepthInMeters)
+            .via(LocationInterpreter::interpretMaximumDepthInMeters)
+            .via(LocationInterpreter::interpretDepth)
+            .via(LocationInterpreter::interpretMinimumDistanceAboveSurfaceInMeters)
+            .via(LocationInterpreter::interpretMaximumDistanceAboveSurfaceInMeters)
+            .via(LocationInterpreter::interpretCoordinatePrecision)
+            .via(LocationInterpreter::interpretCoordinateUncertaintyInMeters)
+            .via(LocationInterpreter::interpretLocality)
+            .via(LocationInterpreter::interpretFootprintWKT)
+            .via(r -> this.incCounter())
+            .getOfNullable();
+
+    recordTime(start);
+    return result;
   }
 }
@@ -3,7 +3,9 @@ package org.gbif.pipelines.core.converters;
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.common.base.Strings;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
@@ -12,9 +14,7 @@ import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
 import org.apache.avro.specific.SpecificRecordBase;
-import org.apache.commons.beanutils.PropertyUtils;
 import org.gbif.api.vocabulary.License;
-import org.gbif.dwc.terms.DcTerm;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.terms.TermFactory;
@@ -44,6 +44,17 @@ public class OccurrenceHdfsRecordConverter {
 
   private static final TermFactory TERM_FACTORY = TermFactory.instance();
 
+  // Columns of all known verbatim terms, other names are resolved on each use and never kept, so
+  // arbitrary verbatim terms can't grow the map
+  private static final Map<String, TermColumns> TERM_COLUMNS =
+      Collections.unmodifiableMap(
+          TermUtils.verbatimTerms().stream()
+              .collect(
+                  Collectors.toMap(
+                      Term::qualifiedName,
+                      t -> TermColumns.create(t.qualifiedName()),
+                      (a, b) -> a)));
+
   private final ExtendedRecord extendedRecord;
   private final BasicRecord basicRecord;
   private final LocationRecord locationRecord;
@@ -432,42 +443,35 @@ public class OccurrenceHdfsRecordConverter {
    * the recognized data type.
    *
    * @param occurrenceHdfsRecord target record
-   * @param avroField field to be copied
-   * @param fieldName {@link OccurrenceHdfsRecord} field/property name
+   * @param column precomputed field position and data type
    * @param value field data/value
    */
   private static void setHdfsRecordField(
-      OccurrenceHdfsRecord occurrenceHdfsRecord,
-      Schema.Field avroField,
-      String fieldName,
-      String value) {
+      OccurrenceHdfsRecord occurrenceHdfsRecord, Column column, String value) {
     try {
-      Schema.Type fieldType = avroField.schema().getType();
-      if (Schema.Type.UNION == avroField.schema().getType()) {
-        fieldType = avroField.schema().getTypes().get(0).getType();
-      }
-      switch (fieldType) {
+      int pos = column.field.pos();
+      switch (column.type) {
         case INT:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Integer.valueOf(value));
+          occurrenceHdfsRecord.put(pos, Integer.valueOf(value));
           break;
         case LONG:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Long.valueOf(value));
+          occurrenceHdfsRecord.put(pos, Long.valueOf(value));
           break;
         case BOOLEAN:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Boolean.valueOf(value));
+          occurrenceHdfsRecord.put(pos, Boolean.valueOf(value));
           break;
         case DOUBLE:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Double.valueOf(value));
+          occurrenceHdfsRecord.put(pos, Double.valueOf(value));
           break;
         case FLOAT:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, Float.valueOf(value));
+          occurrenceHdfsRecord.put(pos, Float.valueOf(value));
           break;
         default:
-          PropertyUtils.setProperty(occurrenceHdfsRecord, fieldName, value);
+          occurrenceHdfsRecord.put(pos, value);
           break;
       }
     } catch (Exception ex) {
-      log.error("Ignoring error setting field {}", avroField, ex);
+      log.error("Ignoring error setting field {}", column.field, ex);
     }
   }
 
@@ -488,45 +492,19 @@ public class OccurrenceHdfsRecordConverter {
   }
 
   private void mapTerm(String k, String v, OccurrenceHdfsRecord occurrenceHdfsRecord) {
-    Term term = TERM_FACTORY.findTerm(k);
-
-    if (term == null) {
-      return;
+    TermColumns columns = TERM_COLUMNS.get(k);
+    if (columns == null) {
+      columns = TermColumns.create(k);
     }
 
-    if (TermUtils.verbatimTerms().contains(term)) {
-      Optional.ofNullable(verbatimSchemaField(term))
-          .ifPresent(
-              field -> {
-                String verbatimField =
-                    "V" + field.name().substring(2, 3).toUpperCase() + field.name().substring(3);
-                setHdfsRecordField(occurrenceHdfsRecord, field, verbatimField, v);
-              });
+    if (columns.verbatim != null) {
+      setHdfsRecordField(occurrenceHdfsRecord, columns.verbatim, v);
     }
 
-    if (!TermUtils.isInterpretedSourceTerm(term)) {
-      Optional.ofNullable(interpretedSchemaField(term))
-          .ifPresent(
-              field -> {
-                // Fields that were set by other mappers are ignored
-                if (Objects.isNull(occurrenceHdfsRecord.get(field.name()))) {
-                  String interpretedFieldname = field.name();
-                  if (DcTerm.abstract_ == term) {
-                    interpretedFieldname = "abstract$";
-                  } else if (DwcTerm.class_ == term) {
-                    interpretedFieldname = "class$";
-                  } else if (DwcTerm.group == term) {
-                    interpretedFieldname = "group";
-                  } else if (DwcTerm.order == term) {
-                    interpretedFieldname = "order";
-                  } else if (DcTerm.date == term) {
-                    interpretedFieldname = "date";
-                  } else if (DcTerm.format == term) {
-                    interpretedFieldname = "format";
-                  }
-                  setHdfsRecordField(occurrenceHdfsRecord, field, interpretedFieldname, v);
-                }
-              });
+    // Fields that were set by other mappers are ignored
+    if (columns.interpreted != null
+        && Objects.isNull(occurrenceHdfsRecord.get(columns.interpreted.field.pos()))) {
+      setHdfsRecordField(occurrenceHdfsRecord, columns.interpreted, v);
     }
   }
 
@@ -564,4 +542,61 @@ public class OccurrenceHdfsRecordConverter {
   private static Schema.Field interpretedSchemaField(Term term) {
     return OccurrenceHdfsRecord.SCHEMA$.getField(HiveColumns.columnFor(term));
   }
+
+  /** {@link OccurrenceHdfsRecord} field and the data type used to convert a string value */
+  private static class Column {
+
+    private final Schema.Field field;
+    private final Schema.Type type;
+
+    private Column(Schema.Field field) {
+      this.field = field;
+      Schema.Type fieldType = field.schema().getType();
+      if (Schema.Type.UNION == fieldType) {
+        fieldType = field.schema().getTypes().get(0).getType();
+      }
+      this.type = fieldType;
+    }
+
+    private static Column of(Schema.Field field) {
+      return field == null ? null : new Column(field);
+    }
+  }
+
+  /**
+   * Verbatim and interpreted columns of a term, resolved once per known term and JVM, so the term
+   * parsing and schema lookups are not repeated for every record
+   */
+  private static class TermColumns {
+
+    private static final TermColumns EMPTY = new TermColumns(null, null);
+
+    private final Column verbatim;
+    private final Column interpreted;
+
+    private TermColumns(Column verbatim, Column interpreted) {
+      this.verbatim = verbatim;
+      this.interpreted = interpreted;
+    }
+
+    private static TermColumns create(String name) {
+      Term term = TERM_FACTORY.findTerm(name);
+
+      if (term == null) {
+        return EMPTY;
+      }
+
+      Column verbatim = null;
+      if (TermUtils.verbatimTerms().contains(term)) {
+        verbatim = Column.of(verbatimSchemaField(term));
+      }
+
+      Column interpreted = null;
+      if (!TermUtils.isInterpretedSourceTerm(term)) {
+        interpreted = Column.of(interpretedSchemaField(term));
+      }
+
+      return new TermColumns(verbatim, interpreted);
+    }
+  }
 }
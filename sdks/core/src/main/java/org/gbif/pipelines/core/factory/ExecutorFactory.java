@@ -0,0 +1,174 @@
+package org.gbif.pipelines.core.factory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.functions.SerializableSupplier;
+
+/**
+ * Creates executors for java based pipelines and the crawler.
+ *
+ * <p>Most of the time pipelines wait for KV stores, HBase, HDFS and web services. With virtual
+ * threads, available from Java 21, every task gets its own cheap thread and the blocked tasks don't
+ * hold platform threads, so the pool doesn't have to be sized by dataset size. On older JVMs the
+ * executor falls back to a pool of platform threads.
+ *
+ * <p>CPU bound work, like converting records, runs on {@link #cpuExecutor()}, a pool of platform
+ * threads bounded by the number of available processors and shared by all pipelines in the JVM.
+ *
+ * <p>Virtual threads don't limit the number of concurrent calls to a service, use {@link
+ * #limitConcurrency(String, SerializableSupplier, int)} to protect a KV store.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ExecutorFactory {
+
+  private static final Method VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+  // One limit per service for all datasets processed by the JVM
+  private static final Map<String, Semaphore> SERVICE_PERMITS = new ConcurrentHashMap<>();
+
+  private static final Object MUTEX = new Object();
+  private static volatile ExecutorService cpuExecutor;
+
+  /**
+   * Creates an executor for tasks which block on I/O
+   *
+   * @param useVirtualThreads use virtual threads if the JVM supports them
+   * @param numberThreads size of the platform thread pool, if virtual threads are not used, null
+   *     for a work-stealing pool with the number of available processors
+   */
+  public static ExecutorService create(boolean useVirtualThreads, @Nullable Integer numberThreads) {
+    if (useVirtualThreads) {
+      if (isVirtualThreadSupported()) {
+        log.info("Using virtual threads executor");
+        return createVirtualThreadExecutor();
+      }
+      log.warn("Virtual threads are not supported by the JVM, using platform threads");
+    }
+    return numberThreads == null
+        ? Executors.newWorkStealingPool()
+        : Executors.newFixedThreadPool(numberThreads);
+  }
+
+  /**
+   * Creates an executor for the crawler services, null means the tasks run in the caller thread
+   *
+   * @param useVirtualThreads use virtual threads if the JVM supports them
+   * @param numberThreads size of the platform thread pool, if virtual threads are not used, null
+   *     to run the tasks in the caller thread
+   */
+  @Nullable
+  public static ExecutorService createOrNull(
+      boolean useVirtualThreads, @Nullable Integer numberThreads) {
+    if (numberThreads == null && !(useVirtualThreads && isVirtualThreadSupported())) {
+      if (useVirtualThreads) {
+        log.warn("Virtual threads are not supported by the JVM, using the caller thread");
+      }
+      return null;
+    }
+    return create(useVirtualThreads, numberThreads);
+  }
+
+  /**
+   * Returns the executor for CPU bound tasks, created on the first use, a fixed pool of daemon
+   * platform threads, one per available processor. The pool is shared and must not be shut down
+   */
+  public static ExecutorService cpuExecutor() {
+    if (cpuExecutor == null) {
+      synchronized (MUTEX) {
+        if (cpuExecutor == null) {
+          int threads = Runtime.getRuntime().availableProcessors();
+          log.info("Creating CPU bound executor with {} threads", threads);
+          cpuExecutor = Executors.newFixedThreadPool(threads, cpuThreadFactory());
+        }
+      }
+    }
+    return cpuExecutor;
+  }
+
+  public static boolean isVirtualThreadSupported() {
+    return VIRTUAL_THREAD_EXECUTOR != null;
+  }
+
+  /**
+   * Wraps the store supplier, all stores created for the service in the JVM share at most {@code
+   * maxConcurrentCalls} concurrent {@link KeyValueStore#get(Object)} calls, other callers wait
+   *
+   * @param service name of the service, the limit of the first store created for it is used
+   * @param maxConcurrentCalls maximum number of concurrent calls, 0 or less means no limit
+   */
+  public static <K, V> SerializableSupplier<KeyValueStore<K, V>> limitConcurrency(
+      String service, SerializableSupplier<KeyValueStore<K, V>> supplier, int maxConcurrentCalls) {
+    if (supplier == null || maxConcurrentCalls <= 0) {
+      return supplier;
+    }
+    // The permits are looked up by name, a deserialized supplier uses the permits of its JVM
+    return () ->
+        new LimitedKeyValueStore<>(
+            supplier.get(),
+            SERVICE_PERMITS.computeIfAbsent(
+                service, s -> new Semaphore(maxConcurrentCalls, true)));
+  }
+
+  private static ThreadFactory cpuThreadFactory() {
+    AtomicInteger counter = new AtomicInteger();
+    return r -> {
+      Thread thread = new Thread(r, "pipelines-cpu-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @SneakyThrows
+  private static ExecutorService createVirtualThreadExecutor() {
+    return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke(null);
+  }
+
+  /** Returns Executors#newVirtualThreadPerTaskExecutor if the JVM can create virtual threads */
+  private static Method findVirtualThreadExecutor() {
+    try {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      // Preview versions of virtual threads throw an exception if preview features are disabled
+      ((ExecutorService) method.invoke(null)).shutdown();
+      return method;
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      return null;
+    }
+  }
+
+  @AllArgsConstructor
+  private static class LimitedKeyValueStore<K, V> implements KeyValueStore<K, V> {
+
+    private final KeyValueStore<K, V> store;
+    private final Semaphore permits;
+
+    @Override
+    public V get(K key) {
+      permits.acquireUninterruptibly();
+      try {
+        return store.get(key);
+      } finally {
+        permits.release();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      store.close();
+    }
+  }
+}
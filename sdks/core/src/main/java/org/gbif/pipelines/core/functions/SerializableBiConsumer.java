@@ -0,0 +1,11 @@
+package org.gbif.pipelines.core.functions;
+
+import java.io.Serializable;
+import java.util.function.BiConsumer;
+
+@FunctionalInterface
+public interface SerializableBiConsumer<T, U> extends BiConsumer<T, U>, Serializable {
+
+  @Override
+  void accept(T t, U u);
+}
@@ -0,0 +1,180 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+
+/**
+ * Picks the codec and the sync interval of an Avro output from a sample of encoded records.
+ *
+ * <p>The sample is written in memory with every candidate codec. Candidates are ordered from the
+ * cheapest to the most expensive one to read and write, a more expensive codec is chosen only if
+ * its output is at least {@code minSizeGain} smaller than the output of the codec chosen so far.
+ * The choice depends on the sizes only, so the same sample always gives the same codec, the
+ * measured speeds are only logged. The sync interval keeps about {@code recordsPerBlock} records in
+ * a block, blocks with more records compress better, smaller blocks give more splits to the
+ * parallel readers.
+ */
+@Slf4j
+@Builder
+public class AvroCodecTuner {
+
+  private static final int MIN_SYNC_INTERVAL = 64 * 1024;
+  private static final int MAX_SYNC_INTERVAL = 8 * 1024 * 1024;
+
+  @NonNull private final Schema schema;
+
+  /** Interpreted outputs are read by many jobs, xz is left out as it reads too slowly */
+  @Builder.Default
+  private final List<String> codecs = Arrays.asList("snappy", "deflate-1", "deflate-6");
+
+  @Builder.Default private final double minSizeGain = 0.1d;
+  @Builder.Default private final int recordsPerBlock = 4_096;
+
+  /** Default codec when there is no sample */
+  @Builder.Default private final String defaultCodec = "snappy";
+
+  /**
+   * Measures every candidate codec and picks one by the output size, the measurements are logged
+   *
+   * @param sample records in the Avro binary encoding of the schema
+   */
+  public Result tune(List<ByteBuffer> sample) {
+    if (sample.isEmpty()) {
+      return new Result(defaultCodec, MIN_SYNC_INTERVAL, new ArrayList<>());
+    }
+
+    long rawBytes = sample.stream().mapToLong(ByteBuffer::remaining).sum();
+    int syncInterval = syncInterval(rawBytes / sample.size());
+
+    // The first pass warms up the codecs, so the first one isn't measured as the slowest
+    codecs.forEach(codec -> measure(codec, syncInterval, sample, rawBytes));
+
+    List<Measurement> measurements = new ArrayList<>(codecs.size());
+    for (String codec : codecs) {
+      Measurement m = measure(codec, syncInterval, sample, rawBytes);
+      measurements.add(m);
+      log.info("Avro codec {} for {}: {}", codec, schema.getName(), m);
+    }
+
+    // Ties and small gains keep the cheaper codec
+    Measurement chosen = measurements.get(0);
+    for (Measurement m : measurements) {
+      if (m.getBytes() <= chosen.getBytes() * (1d - minSizeGain)) {
+        chosen = m;
+      }
+    }
+
+    log.info(
+        "Avro codec {} and sync interval {} are chosen for {}",
+        chosen.getCodec(),
+        syncInterval,
+        schema.getName());
+    return new Result(chosen.getCodec(), syncInterval, measurements);
+  }
+
+  /** Power of two, which holds about {@link #recordsPerBlock} records */
+  private int syncInterval(long avgRecordBytes) {
+    long target = Math.max(1L, avgRecordBytes) * recordsPerBlock;
+    long interval = Long.highestOneBit(target);
+    return (int) Math.min(MAX_SYNC_INTERVAL, Math.max(MIN_SYNC_INTERVAL, interval));
+  }
+
+  @SneakyThrows
+  private Measurement measure(
+      String codec, int syncInterval, List<ByteBuffer> sample, long rawBytes) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream((int) Math.min(rawBytes, 1 << 26));
+
+    long writeStart = System.nanoTime();
+    try (DataFileWriter<Object> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      writer.setCodec(AvroCodecs.fromString(codec));
+      writer.setSyncInterval(syncInterval);
+      writer.create(schema, output);
+      for (ByteBuffer datum : sample) {
+        writer.appendEncoded(datum.duplicate());
+      }
+    }
+    long writeNanos = System.nanoTime() - writeStart;
+
+    long readStart = System.nanoTime();
+    Object reuse = null;
+    try (DataFileStream<Object> reader =
+        new DataFileStream<>(
+            new ByteArrayInputStream(output.toByteArray()), new GenericDatumReader<>(schema))) {
+      while (reader.hasNext()) {
+        reuse = reader.next(reuse);
+      }
+    }
+    long readNanos = System.nanoTime() - readStart;
+
+    return new Measurement(codec, rawBytes, output.size(), writeNanos, readNanos);
+  }
+
+  /** Chosen codec and sync interval, with the measurements of all candidates */
+  @Getter
+  @ToString
+  public static class Result {
+    private final String codec;
+    private final int syncInterval;
+    private final List<Measurement> measurements;
+
+    private Result(String codec, int syncInterval, List<Measurement> measurements) {
+      this.codec = codec;
+      this.syncInterval = syncInterval;
+      this.measurements = measurements;
+    }
+  }
+
+  /** Size and speed of a codec for the sample */
+  @Getter
+  public static class Measurement {
+    private final String codec;
+    private final long rawBytes;
+    private final long bytes;
+    private final long writeNanos;
+    private final long readNanos;
+
+    private Measurement(String codec, long rawBytes, long bytes, long writeNanos, long readNanos) {
+      this.codec = codec;
+      this.rawBytes = rawBytes;
+      this.bytes = bytes;
+      this.writeNanos = writeNanos;
+      this.readNanos = readNanos;
+    }
+
+    /** Megabytes of raw records per second */
+    public double getWriteMbPerSecond() {
+      return mbPerSecond(writeNanos);
+    }
+
+    /** Megabytes of raw records per second */
+    public double getReadMbPerSecond() {
+      return mbPerSecond(readNanos);
+    }
+
+    private double mbPerSecond(long nanos) {
+      return nanos == 0 ? 0d : rawBytes * 1_000d / nanos / 1.048_576d;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d bytes (%.1f%% of raw), write %.1f MB/s, read %.1f MB/s",
+          bytes, bytes * 100d / rawBytes, getWriteMbPerSecond(), getReadMbPerSecond());
+    }
+  }
+}
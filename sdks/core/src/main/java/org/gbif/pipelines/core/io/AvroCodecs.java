@@ -0,0 +1,66 @@
+package org.gbif.pipelines.core.io;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.avro.file.CodecFactory;
+
+/**
+ * Parses Avro codec names with an optional compression level, like {@code snappy}, {@code
+ * deflate-6} or {@code xz-3}. Zstandard isn't supported by Avro 1.8, files written with it couldn't
+ * be read by the other jobs.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AvroCodecs {
+
+  /** Writers with this codec pick the codec and the sync interval from a sample of the records */
+  public static final String AUTO = "auto";
+
+  private static final int DEFAULT_LEVEL = 6;
+
+  public static CodecFactory fromString(String codec) {
+    int separator = codec.lastIndexOf('-');
+    if (separator < 0) {
+      return CodecFactory.fromString(codec);
+    }
+
+    String name = codec.substring(0, separator);
+    int level;
+    try {
+      level = Integer.parseInt(codec.substring(separator + 1));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Can't parse the codec level - " + codec, ex);
+    }
+
+    if ("deflate".equals(name)) {
+      return CodecFactory.deflateCodec(level);
+    }
+    if ("xz".equals(name)) {
+      return CodecFactory.xzCodec(level);
+    }
+    throw new IllegalArgumentException("Codec doesn't support levels - " + codec);
+  }
+
+  /**
+   * Numeric id of the codec for metrics: null 0, snappy 1, bzip2 2, deflate 10 plus the level, xz
+   * 20 plus the level. Codecs without a level use the default level 6.
+   */
+  public static long id(String codec) {
+    int separator = codec.lastIndexOf('-');
+    String name = separator < 0 ? codec : codec.substring(0, separator);
+    int level = separator < 0 ? DEFAULT_LEVEL : Integer.parseInt(codec.substring(separator + 1));
+    switch (name) {
+      case "null":
+        return 0L;
+      case "snappy":
+        return 1L;
+      case "bzip2":
+        return 2L;
+      case "deflate":
+        return 10L + level;
+      case "xz":
+        return 20L + level;
+      default:
+        throw new IllegalArgumentException("Unknown codec - " + codec);
+    }
+  }
+}
@@ -3,16 +3,17 @@ package org.gbif.pipelines.core.io;
 import static org.gbif.pipelines.common.PipelinesVariables.Pipeline.AVRO_EXTENSION;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.avro.file.DataFileReader;
-import org.apache.avro.file.SeekableInput;
 import org.apache.avro.io.DatumReader;
-import org.apache.avro.specific.SpecificDatumReader;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.hadoop.fs.*;
+import org.gbif.pipelines.core.io.ParallelAvroReader.CloseableIterator;
 import org.gbif.pipelines.core.utils.FsUtils;
 import org.gbif.pipelines.io.avro.Record;
 
@@ -31,8 +32,8 @@ public class AvroReader {
   public static <T extends Record> Map<String, T> readUniqueRecords(
       String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
     FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
-    List<Path> paths = parseWildcardPath(fs, path);
-    return readUniqueRecords(fs, clazz, paths);
+    List<FileStatus> files = listFiles(fs, path);
+    return readUniqueRecords(fs, clazz, files);
   }
 
   /**
@@ -44,9 +45,77 @@ public class AvroReader {
    */
   public static <T extends Record> Map<String, T> readRecords(
       String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
+    return readRecords(hdfsSiteConfig, coreSiteConfig, clazz, path, null);
+  }
+
+  /**
+   * Read {@link Record#getId()} distinct records with a custom reader, like a projection which
+   * decodes only the fields used by the job, see {@link ExtendedRecordProjection}
+   *
+   * @param clazz instance of {@link Record}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   * @param datumReaderSupplier reader per file split, {@link
+   *     org.apache.avro.specific.SpecificDatumReader} if null
+   */
+  public static <T extends Record> Map<String, T> readRecords(
+      String hdfsSiteConfig,
+      String coreSiteConfig,
+      Class<T> clazz,
+      String path,
+      Supplier<DatumReader<T>> datumReaderSupplier) {
+    FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
+    List<FileStatus> files = listFiles(fs, path);
+    return readRecords(fs, clazz, files, datumReaderSupplier);
+  }
+
+  /**
+   * Index {@link Record#getId()} unique records, records are kept on disk and decoded on demand,
+   * see {@link IndexedAvroMap}
+   *
+   * @param clazz instance of {@link Record}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   */
+  public static <T extends Record> IndexedAvroMap<T> readIndexedUniqueRecords(
+      String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
+    FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
+    List<FileStatus> files = listFiles(fs, path);
+    return IndexedAvroMap.create(fs, clazz, files, true, null);
+  }
+
+  /**
+   * Index {@link Record#getId()} distinct records, records are kept on disk and decoded on demand,
+   * see {@link IndexedAvroMap}
+   *
+   * @param clazz instance of {@link Record}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   */
+  public static <T extends Record> IndexedAvroMap<T> readIndexedRecords(
+      String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
+    return readIndexedRecords(hdfsSiteConfig, coreSiteConfig, clazz, path, null);
+  }
+
+  /**
+   * Index {@link Record#getId()} distinct records with a custom reader, like a projection which
+   * decodes only the fields used by the job, see {@link ExtendedRecordProjection}
+   *
+   * @param clazz instance of {@link Record}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   * @param datumReaderSupplier reader per file, {@link
+   *     org.apache.avro.specific.SpecificDatumReader} if null
+   */
+  public static <T extends Record> IndexedAvroMap<T> readIndexedRecords(
+      String hdfsSiteConfig,
+      String coreSiteConfig,
+      Class<T> clazz,
+      String path,
+      Supplier<DatumReader<T>> datumReaderSupplier) {
     FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
-    List<Path> paths = parseWildcardPath(fs, path);
-    return readRecords(fs, clazz, paths);
+    List<FileStatus> files = listFiles(fs, path);
+    return IndexedAvroMap.create(fs, clazz, files, false, datumReaderSupplier);
   }
 
   /**
@@ -59,40 +128,83 @@ public class AvroReader {
   public static <T extends SpecificRecordBase> List<T> readObjects(
       String hdfsSiteConfig, String coreSiteConfig, Class<T> clazz, String path) {
     FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
-    List<Path> paths = parseWildcardPath(fs, path);
-    return readObjects(fs, clazz, paths);
+    List<FileStatus> files = listFiles(fs, path);
+    return readObjects(fs, clazz, files);
+  }
+
+  /**
+   * Stream records to the consumer, record instances are reused, the consumer must not keep
+   * references to the records or to their nested maps and lists
+   *
+   * @param clazz instance of {@link SpecificRecordBase}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   */
+  public static <T extends SpecificRecordBase> void streamObjects(
+      String hdfsSiteConfig,
+      String coreSiteConfig,
+      Class<T> clazz,
+      String path,
+      Consumer<T> consumer) {
+    FileSystem fs = FsUtils.getFileSystem(hdfsSiteConfig, coreSiteConfig, path);
+    List<FileStatus> files = listFiles(fs, path);
+    try (CloseableIterator<T> iterator = iterator(fs, clazz, files, true)) {
+      iterator.forEachRemaining(consumer);
+    }
+  }
+
+  /**
+   * Read records converted by the mapper, record instances are reused, the mapper must not keep
+   * references to the records or to their nested maps and lists. Null results are skipped
+   *
+   * @param clazz instance of {@link SpecificRecordBase}
+   * @param path sting path, a wildcard can be used in the file name, like /a/b/c*.avro to read
+   *     multiple files
+   */
+  public static <T extends SpecificRecordBase, R> List<R> readObjects(
+      String hdfsSiteConfig,
+      String coreSiteConfig,
+      Class<T> clazz,
+      String path,
+      Function<T, R> mapper) {
+    List<R> list = new ArrayList<>();
+    streamObjects(
+        hdfsSiteConfig,
+        coreSiteConfig,
+        clazz,
+        path,
+        next -> {
+          R result = mapper.apply(next);
+          if (result != null) {
+            list.add(result);
+          }
+        });
+    return list;
   }
 
   /**
    * Read {@link Record#getId()} unique records
    *
    * @param clazz instance of {@link Record}
-   * @param paths list of paths to the files
+   * @param files list of the files
    */
-  @SneakyThrows
   private static <T extends Record> Map<String, T> readUniqueRecords(
-      FileSystem fs, Class<T> clazz, List<Path> paths) {
+      FileSystem fs, Class<T> clazz, List<FileStatus> files) {
 
     Map<String, T> map = new HashMap<>();
     Set<String> duplicateSet = new HashSet<>();
 
-    for (Path path : paths) {
-      // Read avro record from disk/hdfs
-      DatumReader<T> reader = new SpecificDatumReader<>(clazz);
-      try (SeekableInput input =
-              new AvroFSInput(fs.open(path), fs.getContentSummary(path).getLength());
-          DataFileReader<T> dataFileReader = new DataFileReader<>(input, reader)) {
-        while (dataFileReader.hasNext()) {
-          T next = dataFileReader.next();
-
-          T saved = map.get(next.getId());
-          if (saved == null && !duplicateSet.contains(next.getId())) {
-            map.put(next.getId(), next);
-          } else if (saved != null && !saved.equals(next)) {
-            map.remove(next.getId());
-            duplicateSet.add(next.getId());
-            log.warn("occurrenceId = {}, duplicates were found", saved.getId());
-          }
+    try (CloseableIterator<T> iterator = iterator(fs, clazz, files, false)) {
+      while (iterator.hasNext()) {
+        T next = iterator.next();
+
+        T saved = map.get(next.getId());
+        if (saved == null && !duplicateSet.contains(next.getId())) {
+          map.put(next.getId(), next);
+        } else if (saved != null && !saved.equals(next)) {
+          map.remove(next.getId());
+          duplicateSet.add(next.getId());
+          log.warn("occurrenceId = {}, duplicates were found", saved.getId());
         }
       }
     }
@@ -104,74 +216,74 @@ public class AvroReader {
    * Read {@link Record#getId()} distinct records
    *
    * @param clazz instance of {@link Record}
-   * @param paths list of paths to the files
+   * @param files list of the files
    */
-  @SneakyThrows
   private static <T extends SpecificRecordBase> List<T> readObjects(
-      FileSystem fs, Class<T> clazz, List<Path> paths) {
-
-    List<T> map = new ArrayList<>();
-
-    for (Path path : paths) {
-      // Deserialize ExtendedRecord from disk
-      DatumReader<T> reader = new SpecificDatumReader<>(clazz);
-      try (SeekableInput input =
-              new AvroFSInput(fs.open(path), fs.getContentSummary(path).getLength());
-          DataFileReader<T> dataFileReader = new DataFileReader<>(input, reader)) {
-        while (dataFileReader.hasNext()) {
-          T next = dataFileReader.next();
-          map.add(next);
-        }
-      }
-    }
+      FileSystem fs, Class<T> clazz, List<FileStatus> files) {
 
-    return map;
+    List<T> list = new ArrayList<>();
+    try (CloseableIterator<T> iterator = iterator(fs, clazz, files, false)) {
+      iterator.forEachRemaining(list::add);
+    }
+    return list;
   }
 
   /**
    * Read {@link Record#getId()} distinct records
    *
    * @param clazz instance of {@link Record}
-   * @param paths list of paths to the files
+   * @param files list of the files
    */
-  @SneakyThrows
   private static <T extends Record> Map<String, T> readRecords(
-      FileSystem fs, Class<T> clazz, List<Path> paths) {
+      FileSystem fs,
+      Class<T> clazz,
+      List<FileStatus> files,
+      Supplier<DatumReader<T>> datumReaderSupplier) {
 
     Map<String, T> map = new HashMap<>();
-
-    for (Path path : paths) {
-      // Deserialize ExtendedRecord from disk
-      DatumReader<T> reader = new SpecificDatumReader<>(clazz);
-      try (SeekableInput input =
-              new AvroFSInput(fs.open(path), fs.getContentSummary(path).getLength());
-          DataFileReader<T> dataFileReader = new DataFileReader<>(input, reader)) {
-        while (dataFileReader.hasNext()) {
-          T next = dataFileReader.next();
-          map.put(next.getId(), next);
-        }
-      }
+    try (CloseableIterator<T> iterator =
+        ParallelAvroReader.<T>builder()
+            .fs(fs)
+            .clazz(clazz)
+            .files(files)
+            .datumReaderSupplier(datumReaderSupplier)
+            .build()
+            .iterator()) {
+      iterator.forEachRemaining(next -> map.put(next.getId(), next));
     }
-
     return map;
   }
 
-  /** Read multiple files, with the wildcard in the path */
+  /** Files are read in parallel, records are returned in the order of a sequential read */
+  private static <T> CloseableIterator<T> iterator(
+      FileSystem fs, Class<T> clazz, List<FileStatus> files, boolean reuseRecords) {
+    return ParallelAvroReader.<T>builder()
+        .fs(fs)
+        .clazz(clazz)
+        .files(files)
+        .reuseRecords(reuseRecords)
+        .build()
+        .iterator();
+  }
+
+  /**
+   * Read multiple files, with the wildcard in the path. Statuses of the listing are used, instead
+   * of requesting the length of every file
+   */
   @SneakyThrows
-  private static List<Path> parseWildcardPath(FileSystem fs, String path) {
+  private static List<FileStatus> listFiles(FileSystem fs, String path) {
     if (path.contains("*")) {
       Path pp = new Path(path).getParent();
       RemoteIterator<LocatedFileStatus> files = fs.listFiles(pp, false);
-      List<Path> paths = new ArrayList<>();
+      List<FileStatus> statuses = new ArrayList<>();
       while (files.hasNext()) {
         LocatedFileStatus next = files.next();
-        Path np = next.getPath();
-        if (next.isFile() && np.getName().endsWith(AVRO_EXTENSION)) {
-          paths.add(np);
+        if (next.isFile() && next.getPath().getName().endsWith(AVRO_EXTENSION)) {
+          statuses.add(next);
         }
       }
-      return paths;
+      return statuses;
     }
-    return Collections.singletonList(new Path(path));
+    return Collections.singletonList(fs.getFileStatus(new Path(path)));
   }
 }
@@ -0,0 +1,133 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.gbif.pipelines.io.avro.ExtendedRecord;
+
+/**
+ * Projected {@link DatumReader} for {@link ExtendedRecord}, decodes the binary encoding directly
+ * and skips the rows of the extensions which are not in the set of row types, without decoding
+ * their terms.
+ *
+ * <p>A skipped extension which has rows is kept as a list with a single empty row, so checks like
+ * {@link org.gbif.pipelines.core.utils.ModelUtils#hasExtension(ExtendedRecord, String)} don't
+ * change. Files written with a different schema are read by {@link SpecificDatumReader}.
+ */
+public class ExtendedRecordProjection implements DatumReader<ExtendedRecord> {
+
+  private static final List<Map<String, String>> SKIPPED_ROWS =
+      Collections.singletonList(Collections.emptyMap());
+
+  /** Row types of the extensions which are decoded */
+  private final Set<String> rowTypes;
+
+  private SpecificDatumReader<ExtendedRecord> fallback;
+
+  private ExtendedRecordProjection(Set<String> rowTypes) {
+    this.rowTypes = rowTypes;
+  }
+
+  public static ExtendedRecordProjection create(Set<String> rowTypes) {
+    return new ExtendedRecordProjection(rowTypes);
+  }
+
+  @Override
+  public void setSchema(Schema schema) {
+    if (schema.equals(ExtendedRecord.getClassSchema())) {
+      fallback = null;
+    } else {
+      fallback = new SpecificDatumReader<>(schema, ExtendedRecord.getClassSchema());
+    }
+  }
+
+  @Override
+  public ExtendedRecord read(ExtendedRecord reuse, Decoder in) throws IOException {
+    if (fallback != null) {
+      return fallback.read(reuse, in);
+    }
+
+    String id = in.readString();
+    String coreRowType = in.readString();
+
+    Map<String, String> coreTerms = new HashMap<>();
+    for (long i = in.readMapStart(); i != 0; i = in.mapNext()) {
+      for (long j = 0; j < i; j++) {
+        coreTerms.put(in.readString(), in.readString());
+      }
+    }
+
+    Map<String, List<Map<String, String>>> extensions = new HashMap<>();
+    for (long i = in.readMapStart(); i != 0; i = in.mapNext()) {
+      for (long j = 0; j < i; j++) {
+        String rowType = in.readString();
+        extensions.put(rowType, rowTypes.contains(rowType) ? readRows(in) : skipRows(in));
+      }
+    }
+
+    return ExtendedRecord.newBuilder()
+        .setId(id)
+        .setCoreRowType(coreRowType)
+        .setCoreTerms(coreTerms)
+        .setExtensions(extensions)
+        .build();
+  }
+
+  private static List<Map<String, String>> readRows(Decoder in) throws IOException {
+    List<Map<String, String>> rows = new ArrayList<>();
+    for (long i = in.readArrayStart(); i != 0; i = in.arrayNext()) {
+      for (long j = 0; j < i; j++) {
+        Map<String, String> row = new HashMap<>();
+        for (long k = in.readMapStart(); k != 0; k = in.mapNext()) {
+          for (long l = 0; l < k; l++) {
+            String term = in.readString();
+            row.put(term, readNullableString(in));
+          }
+        }
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  /** Array blocks are read one by one, skipArray can't tell if an array has rows */
+  private static List<Map<String, String>> skipRows(Decoder in) throws IOException {
+    boolean empty = true;
+    for (long i = in.readArrayStart(); i != 0; i = in.arrayNext()) {
+      empty = false;
+      for (long j = 0; j < i; j++) {
+        for (long k = in.skipMap(); k != 0; k = in.skipMap()) {
+          for (long l = 0; l < k; l++) {
+            in.skipString();
+            skipNullableString(in);
+          }
+        }
+      }
+    }
+    return empty ? Collections.emptyList() : SKIPPED_ROWS;
+  }
+
+  private static String readNullableString(Decoder in) throws IOException {
+    if (in.readIndex() == 0) {
+      in.readNull();
+      return null;
+    }
+    return in.readString();
+  }
+
+  private static void skipNullableString(Decoder in) throws IOException {
+    if (in.readIndex() == 0) {
+      in.readNull();
+    } else {
+      in.skipString();
+    }
+  }
+}
@@ -0,0 +1,373 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.hadoop.fs.AvroFSInput;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.gbif.pipelines.io.avro.Record;
+
+/**
+ * Read-only map of Avro records by {@link Record#getId()}, which doesn't keep the records in
+ * memory.
+ *
+ * <p>Only an off-heap index from the id hash to the record position (file, block and ordinal in
+ * the block) is built, records are decoded on demand. A lookup seeks to the block and decodes it
+ * only up to the requested record, readers keep their position, so lookups in file order continue
+ * where the previous one stopped. Recently read records are cached, iterating over the map streams
+ * the files in order. Records returned by the map are shared and must not be modified.
+ *
+ * <p>The map must be closed to release the file readers and the index memory.
+ */
+@Slf4j
+public class IndexedAvroMap<T extends Record> extends AbstractMap<String, T> implements Closeable {
+
+  private static final int RECORD_CACHE_SIZE = 1_024;
+
+  private final FileSystem fs;
+  private final Class<T> clazz;
+  private final List<FileStatus> files;
+  private final Supplier<DatumReader<T>> datumReaderSupplier;
+  private final List<Queue<BlockReader>> readers;
+  private final OffHeapIdIndex index = new OffHeapIdIndex();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, T> recordCache =
+      new LinkedHashMap<Long, T>(RECORD_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+          return size() > RECORD_CACHE_SIZE;
+        }
+      };
+
+  private int size;
+  private boolean closed;
+
+  private IndexedAvroMap(
+      FileSystem fs,
+      Class<T> clazz,
+      List<FileStatus> files,
+      Supplier<DatumReader<T>> datumReaderSupplier) {
+    this.fs = fs;
+    this.clazz = clazz;
+    this.files = files;
+    this.datumReaderSupplier = datumReaderSupplier;
+    this.readers = new ArrayList<>(files.size());
+    for (int i = 0; i < files.size(); i++) {
+      readers.add(new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  /**
+   * Builds the index of the files
+   *
+   * @param unique if true, ids with different records are excluded as duplicates, otherwise the
+   *     last record with the id is used
+   * @param datumReaderSupplier reader of the records, like a projection, {@link
+   *     SpecificDatumReader} if null
+   */
+  static <T extends Record> IndexedAvroMap<T> create(
+      FileSystem fs,
+      Class<T> clazz,
+      List<FileStatus> files,
+      boolean unique,
+      Supplier<DatumReader<T>> datumReaderSupplier) {
+    if (files.size() >= 1 << 15) {
+      throw new IllegalArgumentException("Too many files to index - " + files.size());
+    }
+    IndexedAvroMap<T> map = new IndexedAvroMap<>(fs, clazz, files, datumReaderSupplier);
+    for (int i = 0; i < files.size(); i++) {
+      int file = i;
+      map.read(
+          file, (record, blockPos, ordinal) -> map.add(record, file, blockPos, ordinal, unique));
+    }
+    return map;
+  }
+
+  private void add(T record, int file, long blockPos, int ordinal, boolean unique) {
+    long[] hash = OffHeapIdIndex.hash(record.getId());
+    long slot = index.slot(hash[0], hash[1]);
+    int state = index.getState(slot);
+
+    if (state == OffHeapIdIndex.EMPTY) {
+      slot = index.insert(slot, hash[0], hash[1]);
+      index.setPosition(slot, file, blockPos, ordinal);
+      size++;
+    } else if (!unique) {
+      index.setPosition(slot, file, blockPos, ordinal);
+    } else if (state == OffHeapIdIndex.LIVE && !record.equals(decodeRecord(slot))) {
+      index.setState(slot, OffHeapIdIndex.DUPLICATE);
+      size--;
+      log.warn("occurrenceId = {}, duplicates were found", record.getId());
+    }
+  }
+
+  @Override
+  public T get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      long[] hash = OffHeapIdIndex.hash((String) key);
+      long slot = index.slot(hash[0], hash[1]);
+      if (index.getState(slot) != OffHeapIdIndex.LIVE) {
+        return null;
+      }
+      T record = indexedRecord(slot);
+      return key.equals(record.getId()) ? record : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** Streams the files in order, records which are not in the index are skipped */
+  @Override
+  public Set<Entry<String, T>> entrySet() {
+    return new AbstractSet<Entry<String, T>>() {
+      @Override
+      public Iterator<Entry<String, T>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /** Waits for running lookups, then closes the readers and frees the index */
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (Queue<BlockReader> pool : readers) {
+        BlockReader reader;
+        while ((reader = pool.poll()) != null) {
+          closeQuietly(reader.reader);
+        }
+      }
+      synchronized (recordCache) {
+        recordCache.clear();
+      }
+      index.free();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("The map is closed");
+    }
+  }
+
+  private boolean isIndexed(T record, int file, long blockPos, int ordinal) {
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      long[] hash = OffHeapIdIndex.hash(record.getId());
+      long slot = index.slot(hash[0], hash[1]);
+      return index.getState(slot) == OffHeapIdIndex.LIVE
+          && index.getFile(slot) == file
+          && index.getBlockPos(slot) == blockPos
+          && index.getOrdinal(slot) == ordinal;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Reads the indexed record through the cache, slots don't move once the index is built */
+  private T indexedRecord(long slot) {
+    synchronized (recordCache) {
+      T record = recordCache.get(slot);
+      if (record != null) {
+        return record;
+      }
+    }
+    T record = decodeRecord(slot);
+    synchronized (recordCache) {
+      recordCache.put(slot, record);
+    }
+    return record;
+  }
+
+  @SneakyThrows
+  private T decodeRecord(long slot) {
+    Queue<BlockReader> pool = readers.get(index.getFile(slot));
+    BlockReader reader = pool.poll();
+    if (reader == null) {
+      reader = new BlockReader(open(index.getFile(slot)));
+    }
+    try {
+      return reader.read(index.getBlockPos(slot), index.getOrdinal(slot));
+    } finally {
+      pool.add(reader);
+    }
+  }
+
+  /** Reads the file sequentially, passing every record with its block position and ordinal */
+  @SneakyThrows
+  private void read(int file, PositionedConsumer<T> consumer) {
+    try (DataFileReader<T> reader = open(file)) {
+      long blockPos = -1L;
+      int ordinal = 0;
+      T record = null;
+      while (reader.hasNext()) {
+        long pos = reader.previousSync();
+        if (pos != blockPos) {
+          blockPos = pos;
+          ordinal = 0;
+        }
+        record = reader.next(record);
+        consumer.accept(record, blockPos, ordinal++);
+      }
+    }
+  }
+
+  @SneakyThrows
+  private DataFileReader<T> open(int file) {
+    FileStatus status = files.get(file);
+    SeekableInput input = new AvroFSInput(fs.open(status.getPath()), status.getLen());
+    DatumReader<T> datumReader =
+        datumReaderSupplier != null ? datumReaderSupplier.get() : new SpecificDatumReader<>(clazz);
+    return new DataFileReader<>(input, datumReader);
+  }
+
+  private static void closeQuietly(DataFileReader<?> reader) {
+    try {
+      reader.close();
+    } catch (Exception ex) {
+      log.warn("Can't close the avro reader", ex);
+    }
+  }
+
+  private interface PositionedConsumer<T> {
+    void accept(T record, long blockPos, int ordinal);
+  }
+
+  /** File reader which remembers the block and the ordinal of the next record */
+  private class BlockReader {
+
+    private final DataFileReader<T> reader;
+    private long blockPos = -1L;
+    private int next;
+    private T skipped;
+
+    private BlockReader(DataFileReader<T> reader) {
+      this.reader = reader;
+    }
+
+    /**
+     * Decodes the block up to the record, earlier records are decoded into a reused instance. The
+     * reader never moves past the record, so the following block is not read.
+     */
+    private T read(long pos, int ordinal) throws IOException {
+      boolean seek = pos != blockPos || ordinal < next;
+      // Forget the position until the read succeeds
+      blockPos = -1L;
+      if (seek) {
+        reader.seek(pos);
+        next = 0;
+      }
+      while (next < ordinal) {
+        skipped = reader.next(skipped);
+        next++;
+      }
+      T record = reader.next();
+      next++;
+      blockPos = pos;
+      return record;
+    }
+  }
+
+  /** Iterates over the files in order, one file is open at a time */
+  private class EntryIterator implements Iterator<Entry<String, T>> {
+
+    private int file = -1;
+    private DataFileReader<T> reader;
+    private long blockPos = -1L;
+    private int ordinal;
+    private T next;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        next = advance();
+      }
+      return next != null;
+    }
+
+    @Override
+    public Entry<String, T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T record = next;
+      next = null;
+      return new SimpleImmutableEntry<>(record.getId(), record);
+    }
+
+    @SneakyThrows
+    private T advance() {
+      while (true) {
+        if (reader == null || !reader.hasNext()) {
+          if (reader != null) {
+            reader.close();
+            reader = null;
+          }
+          if (++file >= files.size()) {
+            return null;
+          }
+          reader = open(file);
+          blockPos = -1L;
+          continue;
+        }
+        long pos = reader.previousSync();
+        if (pos != blockPos) {
+          blockPos = pos;
+          ordinal = 0;
+        }
+        T record = reader.next();
+        if (isIndexed(record, file, blockPos, ordinal++)) {
+          return record;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package org.gbif.pipelines.core.io;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open addressing hash table stored in direct byte buffers, maps a 128 bit id hash to the position
+ * of the record in an Avro file. Every slot uses 36 bytes, nothing but the buffers is kept on the
+ * heap. Not thread safe for writes, concurrent reads are safe once the index is built.
+ *
+ * <p>The buffers are released by {@link #free()}, they are not left for the garbage collector.
+ */
+@Slf4j
+class OffHeapIdIndex {
+
+  static final int EMPTY = 0;
+  static final int LIVE = 1;
+  static final int DUPLICATE = 2;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private static final int SLOT_BYTES = 36;
+  private static final int H1 = 0;
+  private static final int H2 = 8;
+  private static final int BLOCK = 16;
+  private static final int FILE = 24;
+  private static final int ORDINAL = 28;
+  private static final int STATE = 32;
+
+  private static final int CHUNK_BITS = 18;
+  private static final int INITIAL_CAPACITY = 1 << 12;
+
+  private ByteBuffer[] chunks;
+  private long capacity;
+  private long used;
+
+  OffHeapIdIndex() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /** @return slot which contains the hash or an empty slot where the hash can be inserted */
+  long slot(long h1, long h2) {
+    long mask = capacity - 1;
+    long slot = mix(h1) & mask;
+    while (true) {
+      if (getState(slot) == EMPTY || (getLong(slot, H1) == h1 && getLong(slot, H2) == h2)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /** Inserts a new hash into the empty slot, the slot can change if the table grows */
+  long insert(long slot, long h1, long h2) {
+    if ((used + 1) * 2 > capacity) {
+      grow();
+      slot = slot(h1, h2);
+    }
+    putLong(slot, H1, h1);
+    putLong(slot, H2, h2);
+    putInt(slot, STATE, LIVE);
+    used++;
+    return slot;
+  }
+
+  void setPosition(long slot, int file, long blockPos, int ordinal) {
+    putInt(slot, FILE, file);
+    putLong(slot, BLOCK, blockPos);
+    putInt(slot, ORDINAL, ordinal);
+  }
+
+  int getState(long slot) {
+    return getInt(slot, STATE);
+  }
+
+  void setState(long slot, int state) {
+    putInt(slot, STATE, state);
+  }
+
+  int getFile(long slot) {
+    return getInt(slot, FILE);
+  }
+
+  long getBlockPos(long slot) {
+    return getLong(slot, BLOCK);
+  }
+
+  int getOrdinal(long slot) {
+    return getInt(slot, ORDINAL);
+  }
+
+  private void grow() {
+    ByteBuffer[] oldChunks = chunks;
+    long oldCapacity = capacity;
+    allocate(oldCapacity * 2);
+    ByteBuffer[] newChunks = chunks;
+    for (long oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+      chunks = oldChunks;
+      if (getState(oldSlot) == EMPTY) {
+        continue;
+      }
+      long h1 = getLong(oldSlot, H1);
+      long h2 = getLong(oldSlot, H2);
+      ByteBuffer src = chunk(oldSlot).duplicate();
+      int offset = offset(oldSlot);
+      src.limit(offset + SLOT_BYTES).position(offset);
+
+      chunks = newChunks;
+      long newSlot = slot(h1, h2);
+      ByteBuffer dst = chunk(newSlot).duplicate();
+      dst.position(offset(newSlot));
+      dst.put(src);
+    }
+    chunks = newChunks;
+    for (ByteBuffer chunk : oldChunks) {
+      free(chunk);
+    }
+  }
+
+  /** Releases the buffers, the index can't be used afterwards */
+  void free() {
+    for (ByteBuffer chunk : chunks) {
+      free(chunk);
+    }
+    chunks = new ByteBuffer[0];
+    capacity = 0;
+    used = 0;
+  }
+
+  private void allocate(long newCapacity) {
+    long chunkSlots = Math.min(newCapacity, 1L << CHUNK_BITS);
+    int count = (int) (newCapacity / chunkSlots);
+    chunks = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      chunks[i] = ByteBuffer.allocateDirect((int) (chunkSlots * SLOT_BYTES));
+    }
+    capacity = newCapacity;
+  }
+
+  private ByteBuffer chunk(long slot) {
+    return chunks[(int) (slot >>> CHUNK_BITS)];
+  }
+
+  private static int offset(long slot) {
+    return (int) (slot & ((1L << CHUNK_BITS) - 1)) * SLOT_BYTES;
+  }
+
+  private long getLong(long slot, int field) {
+    return chunk(slot).getLong(offset(slot) + field);
+  }
+
+  private void putLong(long slot, int field, long value) {
+    chunk(slot).putLong(offset(slot) + field, value);
+  }
+
+  private int getInt(long slot, int field) {
+    return chunk(slot).getInt(offset(slot) + field);
+  }
+
+  private void putInt(long slot, int field, int value) {
+    chunk(slot).putInt(offset(slot) + field, value);
+  }
+
+  /** 128 bit MurmurHash3 of the UTF-8 bytes of the id, as two longs */
+  static long[] hash(String id) {
+    ByteBuffer hash =
+        ByteBuffer.wrap(HASH_FUNCTION.hashString(id, StandardCharsets.UTF_8).asBytes())
+            .order(ByteOrder.LITTLE_ENDIAN);
+    return new long[] {hash.getLong(0), hash.getLong(8)};
+  }
+
+  /**
+   * Runs the cleaner of the direct buffer, if the JVM doesn't allow it, the memory is released when
+   * the buffer is collected
+   */
+  private static void free(ByteBuffer buffer) {
+    try {
+      Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      Object cleaner = cleanerMethod.invoke(buffer);
+      if (cleaner != null) {
+        Method cleanMethod = cleaner.getClass().getMethod("clean");
+        cleanMethod.setAccessible(true);
+        cleanMethod.invoke(cleaner);
+      }
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      log.debug("Can't free the direct buffer, it is left to the garbage collector", ex);
+    }
+  }
+
+  private static long mix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
@@ -0,0 +1,262 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.hadoop.fs.AvroFSInput;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Reads Avro files in parallel, files are split into ranges which are aligned to the sync markers
+ * of the Avro blocks, the same way MapReduce splits Avro files.
+ *
+ * <p>Splits are decoded by a pool of threads, a few splits ahead of the consumer, records are
+ * passed in batches through bounded queues. The iterator returns records in the order of the files
+ * and of the records in the files, like a sequential read.
+ *
+ * <p>With {@code reuseRecords}, batches are returned to the threads when the consumer moves to the
+ * next batch and their records are decoded again into the same instances, with their nested maps
+ * and lists. The consumer must not keep references to the records, it's meant for streaming, like
+ * converting the records to other objects.
+ *
+ * <pre>{@code
+ * try (CloseableIterator<T> iterator = ParallelAvroReader.<T>builder()
+ *     .fs(fs)
+ *     .clazz(clazz)
+ *     .files(files)
+ *     .build()
+ *     .iterator()) {
+ *   iterator.forEachRemaining(...);
+ * }
+ * }</pre>
+ */
+@Slf4j
+@Builder
+public class ParallelAvroReader<T> {
+
+  private static final int BUFFER_SIZE = 1_048_576;
+  private static final long READ_AHEAD = 16L * 1_048_576L;
+
+  @NonNull private final FileSystem fs;
+  @NonNull private final Class<T> clazz;
+  @NonNull private final List<FileStatus> files;
+  /** Approximate size of a split in bytes, a split contains at least one Avro block */
+  @Builder.Default private final long splitSize = 64L * 1_024L * 1_024L;
+  /** Number of splits which are decoded at the same time */
+  @Builder.Default private final int parallelism = Runtime.getRuntime().availableProcessors();
+  /** Number of records passed to the consumer at once */
+  @Builder.Default private final int batchSize = 1_000;
+  /** Number of decoded batches a split can keep ahead of the consumer */
+  @Builder.Default private final int prefetchBatches = 4;
+  /** Decodes into the instances of the already consumed batches */
+  @Builder.Default private final boolean reuseRecords = false;
+  /** Reader per split, like a projection of the records, {@link SpecificDatumReader} by default */
+  private final Supplier<DatumReader<T>> datumReaderSupplier;
+
+  /** Starts reading, the iterator must be closed if it isn't read to the end */
+  public CloseableIterator<T> iterator() {
+    List<Split> splits = new ArrayList<>();
+    for (FileStatus file : files) {
+      long length = file.getLen();
+      for (long start = 0; start < length; start += splitSize) {
+        splits.add(new Split(file.getPath(), length, start, Math.min(start + splitSize, length)));
+      }
+    }
+    return new OrderedIterator(splits);
+  }
+
+  /** {@link Iterator} over the records, which releases the reading threads on close */
+  public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+    @Override
+    void close();
+  }
+
+  @AllArgsConstructor
+  private static class Split {
+    private final Path path;
+    private final long length;
+    private final long start;
+    private final long end;
+  }
+
+  /**
+   * Records of a split, only the first {@code size} records of a recycled list are valid, the last
+   * batch has no records or an error
+   */
+  @AllArgsConstructor
+  private static class Batch<T> {
+    private final List<T> records;
+    private final int size;
+    private final Throwable error;
+    private final boolean last;
+
+    private Iterator<T> iterator() {
+      return records.subList(0, size).iterator();
+    }
+  }
+
+  private class SplitTask {
+    private final BlockingQueue<Batch<T>> queue = new ArrayBlockingQueue<>(prefetchBatches);
+    private final Queue<List<T>> recycled;
+    private final Future<?> future;
+
+    private SplitTask(ExecutorService executor, Queue<List<T>> recycled, Split split) {
+      this.recycled = recycled;
+      this.future = executor.submit(() -> read(split));
+    }
+
+    private void read(Split split) {
+      Batch<T> last;
+      try {
+        List<T> records = nextList();
+        int size = 0;
+        try (DataFileReader<T> reader = open(split)) {
+          reader.sync(split.start);
+          while (reader.hasNext() && !reader.pastSync(split.end)) {
+            if (size < records.size()) {
+              records.set(size, reader.next(records.get(size)));
+            } else {
+              records.add(reader.next());
+            }
+            if (++size == batchSize) {
+              queue.put(new Batch<>(records, size, null, false));
+              records = nextList();
+              size = 0;
+            }
+          }
+        }
+        last = new Batch<>(records, size, null, true);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception ex) {
+        last = new Batch<>(Collections.emptyList(), 0, ex, true);
+      }
+      try {
+        queue.put(last);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private List<T> nextList() {
+      List<T> records = recycled.poll();
+      return records != null ? records : new ArrayList<>(batchSize);
+    }
+
+    @SneakyThrows
+    private DataFileReader<T> open(Split split) {
+      FSDataInputStream stream = fs.open(split.path, BUFFER_SIZE);
+      try {
+        // Lets HDFS fetch the next bytes of the split while the current block is decoded
+        stream.setReadahead(Math.min(split.end - split.start, READ_AHEAD));
+      } catch (UnsupportedOperationException ex) {
+        log.debug("Read-ahead is not supported by {}", fs.getScheme());
+      }
+      AvroFSInput input = new AvroFSInput(stream, split.length);
+      DatumReader<T> datumReader =
+          datumReaderSupplier != null
+              ? datumReaderSupplier.get()
+              : new SpecificDatumReader<>(clazz);
+      return new DataFileReader<>(input, datumReader);
+    }
+  }
+
+  private class OrderedIterator implements CloseableIterator<T> {
+
+    private final List<Split> splits;
+    private final Deque<SplitTask> tasks = new ArrayDeque<>();
+    private final Queue<List<T>> recycled = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor;
+    private Iterator<T> current = Collections.emptyIterator();
+    private Batch<T> currentBatch;
+    private int nextSplit;
+    private boolean closed;
+
+    private OrderedIterator(List<Split> splits) {
+      this.splits = splits;
+      int threads = Math.max(1, Math.min(parallelism, splits.size()));
+      this.executor = Executors.newFixedThreadPool(threads);
+      for (int i = 0; i < threads; i++) {
+        submitNext();
+      }
+    }
+
+    @Override
+    @SneakyThrows
+    public boolean hasNext() {
+      while (!current.hasNext()) {
+        if (closed || tasks.isEmpty()) {
+          close();
+          return false;
+        }
+        Batch<T> batch = tasks.peek().queue.take();
+        if (batch.error != null) {
+          close();
+          throw batch.error;
+        }
+        if (batch.last) {
+          tasks.poll();
+          submitNext();
+        }
+        if (reuseRecords && currentBatch != null && currentBatch.size > 0) {
+          recycled.offer(currentBatch.records);
+        }
+        currentBatch = batch;
+        current = batch.iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        tasks.forEach(t -> t.future.cancel(true));
+        tasks.clear();
+        recycled.clear();
+        currentBatch = null;
+        executor.shutdownNow();
+      }
+    }
+
+    private void submitNext() {
+      if (nextSplit < splits.size()) {
+        tasks.add(new SplitTask(executor, recycled, splits.get(nextSplit++)));
+      }
+    }
+  }
+}
@@ -2,6 +2,9 @@ package org.gbif.pipelines.core.io;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.apache.avro.file.DataFileWriter;
@@ -12,9 +15,44 @@ public class SyncDataFileWriter<T> implements Closeable {
 
   private final DataFileWriter<T> dataFileWriter;
 
+  /** Optional, receives the append time in microseconds including the time waiting for the lock */
+  private final LongConsumer appendTimeFn;
+
+  /** A lock instead of synchronized, a virtual thread waiting for it doesn't pin its carrier */
+  final ReentrantLock lock = new ReentrantLock();
+
+  public SyncDataFileWriter(DataFileWriter<T> dataFileWriter) {
+    this(dataFileWriter, null);
+  }
+
+  /** For writers which create the {@link DataFileWriter} later, see {@link TunedDataFileWriter} */
+  SyncDataFileWriter(LongConsumer appendTimeFn) {
+    this(null, appendTimeFn);
+  }
+
   /** Synchronized append method, helps avoid the ArrayIndexOutOfBoundsException */
+  public void append(T record) {
+    if (appendTimeFn == null) {
+      syncAppend(record);
+    } else {
+      long start = System.nanoTime();
+      syncAppend(record);
+      appendTimeFn.accept(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+  }
+
   @SneakyThrows
-  public synchronized void append(T record) {
+  private void syncAppend(T record) {
+    lock.lock();
+    try {
+      write(record);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Called under the writer lock */
+  void write(T record) throws IOException {
     dataFileWriter.append(record);
   }
 
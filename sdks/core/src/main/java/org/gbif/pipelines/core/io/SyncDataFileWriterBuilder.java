@@ -4,30 +4,53 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import lombok.Builder;
 import lombok.NonNull;
 import org.apache.avro.Schema;
-import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.specific.SpecificDatumWriter;
 
+/**
+ * Creates a {@link SyncDataFileWriter}, the codec is a name with an optional level, see {@link
+ * AvroCodecs}. With the {@link AvroCodecs#AUTO} codec, the codec and the sync interval are picked
+ * from a sample of the first records, see {@link AvroCodecTuner}.
+ */
 @Builder
 public class SyncDataFileWriterBuilder {
 
+  private static final int DEFAULT_SAMPLE_SIZE = 1_000;
+
   @NonNull private final Schema schema;
   @NonNull private final String codec;
   @NonNull private final OutputStream outputStream;
   private final Integer syncInterval;
   private final Boolean flushOnEveryBlock;
+  private final LongConsumer appendTimeFn;
+  /** Number of records used to pick the codec, if the codec is {@link AvroCodecs#AUTO} */
+  private final Integer sampleSize;
+  /** Receives the codec and the sync interval picked for the {@link AvroCodecs#AUTO} codec */
+  private final Consumer<AvroCodecTuner.Result> tuningFn;
 
   public <T> SyncDataFileWriter<T> createSyncDataFileWriter() throws IOException {
+    if (AvroCodecs.AUTO.equals(codec)) {
+      return new TunedDataFileWriter<>(
+          schema,
+          new BufferedOutputStream(outputStream),
+          flushOnEveryBlock,
+          Optional.ofNullable(sampleSize).orElse(DEFAULT_SAMPLE_SIZE),
+          appendTimeFn,
+          tuningFn);
+    }
+
     DataFileWriter<T> dataFileWriter = new DataFileWriter<>(new SpecificDatumWriter<>(schema));
 
-    dataFileWriter.setCodec(CodecFactory.fromString(codec));
+    dataFileWriter.setCodec(AvroCodecs.fromString(codec));
     Optional.ofNullable(flushOnEveryBlock).ifPresent(dataFileWriter::setFlushOnEveryBlock);
     Optional.ofNullable(syncInterval).ifPresent(dataFileWriter::setSyncInterval);
     dataFileWriter.create(schema, new BufferedOutputStream(outputStream));
 
-    return new SyncDataFileWriter<>(dataFileWriter);
+    return new SyncDataFileWriter<>(dataFileWriter, appendTimeFn);
   }
 }
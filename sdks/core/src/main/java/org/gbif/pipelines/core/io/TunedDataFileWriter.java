@@ -0,0 +1,105 @@
+package org.gbif.pipelines.core.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+/**
+ * {@link SyncDataFileWriter} which picks the codec and the sync interval using {@link
+ * AvroCodecTuner}. The first records are kept encoded in memory, the file is created when the
+ * sample is complete or when the writer is closed.
+ */
+class TunedDataFileWriter<T> extends SyncDataFileWriter<T> {
+
+  private final Schema schema;
+  private final OutputStream outputStream;
+  private final Boolean flushOnEveryBlock;
+  private final AvroCodecTuner tuner;
+  private final int sampleSize;
+  private final Consumer<AvroCodecTuner.Result> tuningFn;
+
+  private final SpecificDatumWriter<T> datumWriter;
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private BinaryEncoder encoder;
+  private List<ByteBuffer> sample;
+  private DataFileWriter<T> dataFileWriter;
+
+  TunedDataFileWriter(
+      Schema schema,
+      OutputStream outputStream,
+      Boolean flushOnEveryBlock,
+      int sampleSize,
+      LongConsumer appendTimeFn,
+      Consumer<AvroCodecTuner.Result> tuningFn) {
+    super(appendTimeFn);
+    this.schema = schema;
+    this.outputStream = outputStream;
+    this.flushOnEveryBlock = flushOnEveryBlock;
+    this.tuner = AvroCodecTuner.builder().schema(schema).build();
+    this.sampleSize = sampleSize;
+    this.tuningFn = tuningFn;
+    this.datumWriter = new SpecificDatumWriter<>(schema);
+    this.sample = new ArrayList<>(sampleSize);
+  }
+
+  @Override
+  void write(T record) throws IOException {
+    if (dataFileWriter != null) {
+      dataFileWriter.append(record);
+      return;
+    }
+
+    buffer.reset();
+    encoder = EncoderFactory.get().binaryEncoder(buffer, encoder);
+    datumWriter.write(record, encoder);
+    encoder.flush();
+    sample.add(ByteBuffer.wrap(buffer.toByteArray()));
+
+    if (sample.size() >= sampleSize) {
+      create();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (dataFileWriter == null) {
+        create();
+      }
+      dataFileWriter.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void create() throws IOException {
+    AvroCodecTuner.Result result = tuner.tune(sample);
+    if (tuningFn != null) {
+      tuningFn.accept(result);
+    }
+
+    dataFileWriter = new DataFileWriter<>(new SpecificDatumWriter<>(schema));
+    dataFileWriter.setCodec(AvroCodecs.fromString(result.getCodec()));
+    dataFileWriter.setSyncInterval(result.getSyncInterval());
+    if (flushOnEveryBlock != null) {
+      dataFileWriter.setFlushOnEveryBlock(flushOnEveryBlock);
+    }
+    dataFileWriter.create(schema, outputStream);
+
+    for (ByteBuffer datum : sample) {
+      dataFileWriter.appendEncoded(datum);
+    }
+    sample = null;
+  }
+}
@@ -231,6 +231,41 @@ public class OccurrenceHdfsRecordConverterTest {
             .contains("http://data.ggbn.org/schemas/ggbn/terms/Amplification"));
   }
 
+  @Test
+  public void extendedRecordTermNamesTest() {
+    // State
+    Map<String, String> simpleTerms = new HashMap<>();
+    simpleTerms.put(DwcTerm.catalogNumber.simpleName(), "CN1");
+    simpleTerms.put(DwcTerm.class_.simpleName(), "classs");
+    simpleTerms.put("http://unknown.org/terms/unknown", "unknown");
+
+    Map<String, String> qualifiedTerms = new HashMap<>();
+    qualifiedTerms.put(DwcTerm.catalogNumber.qualifiedName(), "CN2");
+    qualifiedTerms.put(DwcTerm.class_.qualifiedName(), "classs2");
+
+    // When
+    OccurrenceHdfsRecord simpleRecord =
+        OccurrenceHdfsRecordConverter.builder()
+            .extendedRecord(
+                ExtendedRecord.newBuilder().setId("1").setCoreTerms(simpleTerms).build())
+            .build()
+            .convert();
+    OccurrenceHdfsRecord qualifiedRecord =
+        OccurrenceHdfsRecordConverter.builder()
+            .extendedRecord(
+                ExtendedRecord.newBuilder().setId("2").setCoreTerms(qualifiedTerms).build())
+            .build()
+            .convert();
+
+    // Should
+    Assert.assertEquals("CN1", simpleRecord.getCatalognumber());
+    Assert.assertEquals("CN1", simpleRecord.getVCatalognumber());
+    Assert.assertEquals("classs", simpleRecord.getVClass());
+    Assert.assertEquals("CN2", qualifiedRecord.getCatalognumber());
+    Assert.assertEquals("CN2", qualifiedRecord.getVCatalognumber());
+    Assert.assertEquals("classs2", qualifiedRecord.getVClass());
+  }
+
   @Test
   public void multimediaMapperTest() {
     // State
@@ -0,0 +1,156 @@
+package org.gbif.pipelines.core.factory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.pipelines.core.functions.SerializableSupplier;
+import org.junit.Test;
+
+public class ExecutorFactoryTest {
+
+  @Test
+  public void limitConcurrencyTest() throws Exception {
+
+    // State
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    KeyValueStore<String, String> limited =
+        ExecutorFactory.limitConcurrency("limitTest", () -> store(running, maxRunning), 2).get();
+    ExecutorService executor = ExecutorFactory.create(true, 8);
+
+    // When
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      String key = String.valueOf(i);
+      futures.add(CompletableFuture.supplyAsync(() -> limited.get(key), executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    executor.shutdown();
+
+    // Should
+    assertEquals("49", futures.get(49).get());
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void sharedLimitTest() throws Exception {
+
+    // State
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    SerializableSupplier<KeyValueStore<String, String>> supplier =
+        ExecutorFactory.limitConcurrency("sharedTest", () -> store(running, maxRunning), 2);
+    SerializableSupplier<KeyValueStore<String, String>> otherDatasetSupplier =
+        ExecutorFactory.limitConcurrency("sharedTest", () -> store(running, maxRunning), 2);
+    List<KeyValueStore<String, String>> stores =
+        Arrays.asList(supplier.get(), supplier.get(), otherDatasetSupplier.get());
+    ExecutorService executor = ExecutorFactory.create(true, 8);
+
+    // When
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      String key = String.valueOf(i);
+      KeyValueStore<String, String> store = stores.get(i % stores.size());
+      futures.add(CompletableFuture.supplyAsync(() -> store.get(key), executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    executor.shutdown();
+
+    // Should
+    assertEquals("59", futures.get(59).get());
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void noLimitTest() {
+
+    // State
+    SerializableSupplier<KeyValueStore<String, String>> supplier = () -> null;
+
+    // When
+    SerializableSupplier<KeyValueStore<String, String>> result =
+        ExecutorFactory.limitConcurrency("noLimitTest", supplier, 0);
+
+    // Should
+    assertSame(supplier, result);
+  }
+
+  @Test
+  public void callerThreadTest() {
+
+    // When
+    ExecutorService executor = ExecutorFactory.createOrNull(false, null);
+
+    // Should
+    assertNull(executor);
+  }
+
+  @Test
+  public void virtualThreadsFallbackTest() {
+
+    // When
+    ExecutorService executor = ExecutorFactory.createOrNull(true, null);
+
+    // Should
+    // Without virtual threads the tasks run in the caller thread, the same as before the option
+    assertEquals(ExecutorFactory.isVirtualThreadSupported(), executor != null);
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void cpuExecutorTest() throws Exception {
+
+    // State
+    int processors = Runtime.getRuntime().availableProcessors();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    KeyValueStore<String, String> store = store(running, maxRunning);
+    ExecutorService executor = ExecutorFactory.cpuExecutor();
+
+    // When
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 0; i < processors * 4; i++) {
+      String key = String.valueOf(i);
+      futures.add(CompletableFuture.supplyAsync(() -> store.get(key), executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+    // Should
+    assertSame(executor, ExecutorFactory.cpuExecutor());
+    assertTrue(maxRunning.get() <= processors);
+  }
+
+  private static KeyValueStore<String, String> store(
+      AtomicInteger running, AtomicInteger maxRunning) {
+    return new KeyValueStore<String, String>() {
+      @Override
+      public String get(String key) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(5L);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+        return key;
+      }
+
+      @Override
+      public void close() throws IOException {
+        // NOP
+      }
+    };
+  }
+}
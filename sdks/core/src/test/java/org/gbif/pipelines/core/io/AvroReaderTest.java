@@ -1,14 +1,29 @@
 package org.gbif.pipelines.core.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.SneakyThrows;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.gbif.pipelines.core.io.ParallelAvroReader.CloseableIterator;
 import org.gbif.pipelines.core.utils.FsUtils;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 import org.junit.Assert;
@@ -198,6 +213,336 @@ public class AvroReaderTest {
     Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
   }
 
+  @Test
+  public void indexedExtendedRecordsWildcardTest() throws IOException {
+
+    // State
+    ExtendedRecord expectedOne = ExtendedRecord.newBuilder().setId("1").build();
+    ExtendedRecord expectedTwo = ExtendedRecord.newBuilder().setId("2").build();
+    ExtendedRecord expectedThree =
+        ExtendedRecord.newBuilder()
+            .setId("1")
+            .setCoreTerms(Collections.singletonMap("key", "value"))
+            .build();
+    ExtendedRecord expectedFour = ExtendedRecord.newBuilder().setId("4").build();
+    writeExtendedRecords(verbatimPath1, expectedOne, expectedTwo);
+    writeExtendedRecords(verbatimPath2, expectedThree, expectedFour);
+
+    // When
+    try (IndexedAvroMap<ExtendedRecord> result =
+        AvroReader.readIndexedRecords(
+            "", "", ExtendedRecord.class, new Path("target/verbatim*.avro").toString())) {
+
+      // Should
+      assertMap(result, expectedTwo, expectedThree, expectedFour);
+      Assert.assertNull(result.get("5"));
+      Assert.assertEquals(
+          new HashSet<>(Arrays.asList(expectedTwo, expectedThree, expectedFour)),
+          new HashSet<>(result.values()));
+    }
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+    Files.deleteIfExists(Paths.get(verbatimPath2.toString()));
+  }
+
+  @Test
+  public void indexedUniqueOneNotEqualDuplicateWildcardTest() throws IOException {
+
+    // State
+    ExtendedRecord expectedOne =
+        ExtendedRecord.newBuilder()
+            .setId("1")
+            .setCoreTerms(Collections.singletonMap("key", "value"))
+            .build();
+    ExtendedRecord expectedTwo = ExtendedRecord.newBuilder().setId("1").build();
+    ExtendedRecord expectedThree = ExtendedRecord.newBuilder().setId("3").build();
+    ExtendedRecord expectedFour = ExtendedRecord.newBuilder().setId("3").build();
+    writeExtendedRecords(verbatimPath1, expectedOne, expectedTwo, expectedThree);
+    writeExtendedRecords(verbatimPath2, expectedFour);
+
+    // When
+    try (IndexedAvroMap<ExtendedRecord> result =
+        AvroReader.readIndexedUniqueRecords(
+            "", "", ExtendedRecord.class, new Path("target/verbatim*.avro").toString())) {
+
+      // Should
+      assertMap(result, expectedThree);
+      Assert.assertNull(result.get("1"));
+    }
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+    Files.deleteIfExists(Paths.get(verbatimPath2.toString()));
+  }
+
+  @Test
+  public void indexedManyBlocksTest() throws IOException {
+
+    // State
+    ExtendedRecord[] expected =
+        IntStream.range(0, 10_000)
+            .mapToObj(
+                i ->
+                    ExtendedRecord.newBuilder()
+                        .setId("id-" + i)
+                        .setCoreTerms(Collections.singletonMap("key", "value" + i))
+                        .build())
+            .toArray(ExtendedRecord[]::new);
+    writeExtendedRecords(verbatimPath1, 1_024, expected);
+
+    // When
+    try (IndexedAvroMap<ExtendedRecord> result =
+        AvroReader.readIndexedRecords("", "", ExtendedRecord.class, verbatimPath1.toString())) {
+
+      // Should
+      assertMap(result, expected);
+      List<String> ids = result.keySet().stream().collect(Collectors.toList());
+      Assert.assertEquals(expected.length, ids.size());
+      Assert.assertEquals("id-0", ids.get(0));
+      Assert.assertEquals("id-9999", ids.get(ids.size() - 1));
+    }
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+  }
+
+  @Test
+  public void indexedRandomLookupTest() throws IOException {
+
+    // State
+    ExtendedRecord[] expected =
+        IntStream.range(0, 5_000)
+            .mapToObj(
+                i ->
+                    ExtendedRecord.newBuilder()
+                        .setId("id-" + i)
+                        .setCoreTerms(Collections.singletonMap("key", "value" + i))
+                        .build())
+            .toArray(ExtendedRecord[]::new);
+    writeExtendedRecords(verbatimPath1, 1_024, expected);
+    List<ExtendedRecord> shuffled = new ArrayList<>(Arrays.asList(expected));
+    Collections.shuffle(shuffled, new Random(42));
+
+    // When
+    IndexedAvroMap<ExtendedRecord> result =
+        AvroReader.readIndexedRecords("", "", ExtendedRecord.class, verbatimPath1.toString());
+
+    // Should
+    for (ExtendedRecord exp : shuffled) {
+      Assert.assertEquals(exp, result.get(exp.getId()));
+    }
+    for (int i = expected.length - 1; i >= 0; i--) {
+      Assert.assertEquals(expected[i], result.get(expected[i].getId()));
+    }
+    result.close();
+    Assert.assertThrows(IllegalStateException.class, () -> result.get("id-0"));
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+  }
+
+  @Test
+  public void parallelSplitsKeepOrderTest() throws IOException {
+
+    // State
+    ExtendedRecord[] expected =
+        IntStream.range(0, 10_000)
+            .mapToObj(
+                i ->
+                    ExtendedRecord.newBuilder()
+                        .setId("id-" + i)
+                        .setCoreTerms(Collections.singletonMap("key", "value" + i))
+                        .build())
+            .toArray(ExtendedRecord[]::new);
+    writeExtendedRecords(verbatimPath1, 1_024, Arrays.copyOfRange(expected, 0, 6_000));
+    writeExtendedRecords(verbatimPath2, 1_024, Arrays.copyOfRange(expected, 6_000, 10_000));
+
+    // When
+    List<ExtendedRecord> result = new ArrayList<>();
+    try (CloseableIterator<ExtendedRecord> iterator =
+        ParallelAvroReader.<ExtendedRecord>builder()
+            .fs(verbatimFs)
+            .clazz(ExtendedRecord.class)
+            .files(
+                Arrays.asList(
+                    verbatimFs.getFileStatus(verbatimPath1),
+                    verbatimFs.getFileStatus(verbatimPath2)))
+            .splitSize(4_096L)
+            .parallelism(4)
+            .batchSize(100)
+            .build()
+            .iterator()) {
+      iterator.forEachRemaining(result::add);
+    }
+
+    // Should
+    Assert.assertEquals(Arrays.asList(expected), result);
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+    Files.deleteIfExists(Paths.get(verbatimPath2.toString()));
+  }
+
+  @Test
+  public void streamReusedRecordsTest() throws IOException {
+
+    // State
+    ExtendedRecord[] expected =
+        IntStream.range(0, 10_000)
+            .mapToObj(
+                i ->
+                    ExtendedRecord.newBuilder()
+                        .setId("id-" + i)
+                        .setCoreTerms(Collections.singletonMap("key", "value" + i))
+                        .build())
+            .toArray(ExtendedRecord[]::new);
+    writeExtendedRecords(verbatimPath1, 1_024, expected);
+
+    // When
+    Set<ExtendedRecord> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<String> result =
+        AvroReader.readObjects(
+            "",
+            "",
+            ExtendedRecord.class,
+            verbatimPath1.toString(),
+            er -> {
+              instances.add(er);
+              return er.getId() + ":" + er.getCoreTerms().get("key");
+            });
+
+    // Should
+    Assert.assertEquals(
+        Arrays.stream(expected)
+            .map(er -> er.getId() + ":" + er.getCoreTerms().get("key"))
+            .collect(Collectors.toList()),
+        result);
+    Assert.assertTrue(instances.size() < expected.length);
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+  }
+
+  @Test
+  public void projectedExtensionsTest() throws IOException {
+
+    // State
+    Map<String, String> row = new HashMap<>();
+    row.put("key", "value");
+    row.put("nullKey", null);
+    Map<String, List<Map<String, String>>> extensions = new HashMap<>();
+    extensions.put("kept", Arrays.asList(row, Collections.singletonMap("key", "value2")));
+    extensions.put("skipped", Collections.singletonList(row));
+    extensions.put("empty", Collections.emptyList());
+    ExtendedRecord expected =
+        ExtendedRecord.newBuilder()
+            .setId("1")
+            .setCoreTerms(Collections.singletonMap("key", "value"))
+            .setExtensions(extensions)
+            .build();
+    writeExtendedRecords(verbatimPath1, expected);
+
+    // When
+    Map<String, ExtendedRecord> result =
+        AvroReader.readRecords(
+            "",
+            "",
+            ExtendedRecord.class,
+            verbatimPath1.toString(),
+            () -> ExtendedRecordProjection.create(Collections.singleton("kept")));
+
+    // Should
+    ExtendedRecord er = result.get("1");
+    Assert.assertEquals(expected.getCoreRowType(), er.getCoreRowType());
+    Assert.assertEquals(expected.getCoreTerms(), er.getCoreTerms());
+    Assert.assertEquals(extensions.get("kept"), er.getExtensions().get("kept"));
+    Assert.assertEquals(1, er.getExtensions().get("skipped").size());
+    Assert.assertTrue(er.getExtensions().get("skipped").get(0).isEmpty());
+    Assert.assertTrue(er.getExtensions().get("empty").isEmpty());
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+  }
+
+  @Test
+  public void autoCodecTest() throws IOException {
+
+    // State
+    ExtendedRecord[] expected =
+        IntStream.range(0, 50)
+            .mapToObj(
+                i ->
+                    ExtendedRecord.newBuilder()
+                        .setId(String.valueOf(i))
+                        .setCoreTerms(Collections.singletonMap("term", "value" + i % 3))
+                        .build())
+            .toArray(ExtendedRecord[]::new);
+    List<AvroCodecTuner.Result> results = new ArrayList<>();
+
+    // When
+    try (SyncDataFileWriter<ExtendedRecord> writer =
+        SyncDataFileWriterBuilder.builder()
+            .schema(ExtendedRecord.getClassSchema())
+            .codec(AvroCodecs.AUTO)
+            .outputStream(verbatimFs.create(verbatimPath1))
+            .sampleSize(20)
+            .tuningFn(results::add)
+            .build()
+            .createSyncDataFileWriter()) {
+      Arrays.stream(expected).forEach(writer::append);
+    }
+    Map<String, ExtendedRecord> result =
+        AvroReader.readRecords("", "", ExtendedRecord.class, verbatimPath1.toString());
+
+    // Should
+    Assert.assertEquals(1, results.size());
+    Assert.assertEquals(3, results.get(0).getMeasurements().size());
+    Assert.assertEquals(64 * 1024, results.get(0).getSyncInterval());
+    assertMap(result, expected);
+
+    // Post
+    Files.deleteIfExists(Paths.get(verbatimPath1.toString()));
+  }
+
+  @Test
+  public void autoCodecIsDeterministicTest() throws IOException {
+
+    // State
+    SpecificDatumWriter<ExtendedRecord> datumWriter =
+        new SpecificDatumWriter<>(ExtendedRecord.getClassSchema());
+    List<ByteBuffer> sample = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      ExtendedRecord record =
+          ExtendedRecord.newBuilder()
+              .setId(String.valueOf(i))
+              .setCoreTerms(Collections.singletonMap("term", "value" + i % 7))
+              .build();
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(output, null);
+      datumWriter.write(record, encoder);
+      encoder.flush();
+      sample.add(ByteBuffer.wrap(output.toByteArray()));
+    }
+    AvroCodecTuner tuner = AvroCodecTuner.builder().schema(ExtendedRecord.getClassSchema()).build();
+
+    // When
+    AvroCodecTuner.Result first = tuner.tune(sample);
+    AvroCodecTuner.Result second = tuner.tune(sample);
+
+    // Should
+    Assert.assertEquals(first.getCodec(), second.getCodec());
+    Assert.assertEquals(first.getSyncInterval(), second.getSyncInterval());
+  }
+
+  @Test
+  public void codecLevelTest() {
+    // Should
+    Assert.assertEquals("deflate-6", AvroCodecs.fromString("deflate-6").toString());
+    Assert.assertEquals("xz-3", AvroCodecs.fromString("xz-3").toString());
+    Assert.assertEquals("snappy", AvroCodecs.fromString("snappy").toString());
+  }
+
   private void assertMap(Map<String, ExtendedRecord> result, ExtendedRecord... expected) {
     Assert.assertEquals(expected.length, result.size());
     Arrays.stream(expected)
@@ -209,14 +554,18 @@ public class AvroReaderTest {
             });
   }
 
-  @SneakyThrows
   private void writeExtendedRecords(Path path, ExtendedRecord... records) {
+    writeExtendedRecords(path, 2_097_152, records);
+  }
+
+  @SneakyThrows
+  private void writeExtendedRecords(Path path, int syncInterval, ExtendedRecord... records) {
     try (SyncDataFileWriter<ExtendedRecord> verbatimWriter =
         SyncDataFileWriterBuilder.builder()
             .schema(ExtendedRecord.getClassSchema())
             .codec("snappy")
             .outputStream(verbatimFs.create(path))
-            .syncInterval(2_097_152)
+            .syncInterval(syncInterval)
             .build()
             .createSyncDataFileWriter()) {
       Arrays.stream(records).forEach(verbatimWriter::append);
@@ -225,6 +225,15 @@ public class PipelinesVariables {
     public static final String FRAGMENTER_COUNT = "fragmenterRecordsCount";
     // Specific
     public static final String LOCATION_FEATURE_RECORDS_COUNT = "locationFeatureRecordsCount";
+    // Timers, values in microseconds
+    public static final String PROCESSING_TIME_SUFFIX = "ProcessingTime";
+    public static final String WRITE_TIME_SUFFIX = "WriteTime";
+    public static final String TAXON_KV_LOOKUP_TIME = "taxonKvLookupTime";
+    public static final String LOCATION_KV_LOOKUP_TIME = "locationKvLookupTime";
+    public static final String GRSCICOLL_KV_LOOKUP_TIME = "grscicollKvLookupTime";
+    // Gauges of the auto avro codec, see AvroCodecs.id
+    public static final String AVRO_CODEC_SUFFIX = "AvroCodec";
+    public static final String AVRO_SYNC_INTERVAL_SUFFIX = "AvroSyncInterval";
   }
 
   @NoArgsConstructor(access = AccessLevel.PRIVATE)
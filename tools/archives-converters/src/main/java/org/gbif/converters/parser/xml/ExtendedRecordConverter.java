@@ -2,18 +2,13 @@ package org.gbif.converters.parser.xml;
 
 import com.google.common.base.Strings;
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.converters.parser.xml.parsing.extendedrecord.ConverterTask;
 import org.gbif.converters.parser.xml.parsing.extendedrecord.ExecutorPoolFactory;
@@ -22,22 +17,31 @@ import org.gbif.converters.parser.xml.parsing.validators.UniquenessValidator;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 
-/** Parsing xml response files or tar.xz archive and convert to ExtendedRecord avro file */
+/**
+ * Parsing xml response files or tar.xz archive and convert to ExtendedRecord avro file.
+ *
+ * <p>A tar.xz archive is not extracted to disk, entries are decompressed as a stream and every xml
+ * entry is converted by the executor as soon as it is read. The number of read entries waiting for
+ * conversion is bounded to limit the memory used.
+ */
 @Slf4j
-@AllArgsConstructor(staticName = "create")
 public class ExtendedRecordConverter {
 
-  private static final String FILE_PREFIX_RESPONSE = ".response";
-  private static final String FILE_PREFIX_XML = ".xml";
-
   private final Executor executor;
+  private final int maxPendingEntries;
 
-  private ExtendedRecordConverter(int parallelism) {
-    this.executor = ExecutorPoolFactory.getInstance(parallelism);
+  private ExtendedRecordConverter(Executor executor, int maxPendingEntries) {
+    this.executor = executor;
+    this.maxPendingEntries = maxPendingEntries;
   }
 
   public static ExtendedRecordConverter create(int parallelism) {
-    return new ExtendedRecordConverter(parallelism);
+    return new ExtendedRecordConverter(
+        ExecutorPoolFactory.getInstance(parallelism), parallelism * 2);
+  }
+
+  public static ExtendedRecordConverter create(Executor executor) {
+    return new ExtendedRecordConverter(executor, Runtime.getRuntime().availableProcessors() * 2);
   }
 
   /** @param inputPath path to directory with response files or a tar.xz archive */
@@ -46,23 +50,17 @@ public class ExtendedRecordConverter {
       throw new ParsingException("Input or output stream must not be empty or null!");
     }
 
-    File inputFile = ParserFileUtils.uncompressAndGetInputFile(inputPath);
+    File inputFile = ParserFileUtils.getInputFile(inputPath);
 
     try (UniquenessValidator validator = UniquenessValidator.getNewInstance()) {
-      List<File> files = getInputFiles(inputFile);
 
       AtomicLong counter = new AtomicLong(0);
 
-      Function<File, ConverterTask> taskFn = f -> new ConverterTask(f, writer, validator, counter);
-
-      // Run async process - read a file, convert to ExtendedRecord and write to Avro
-      CompletableFuture<?>[] futures =
-          files.stream()
-              .map(file -> CompletableFuture.runAsync(taskFn.apply(file), executor))
-              .toArray(CompletableFuture[]::new);
-
-      // Wait all threads
-      CompletableFuture.allOf(futures).get();
+      if (ParserFileUtils.isArchive(inputFile)) {
+        convertArchive(inputFile, writer, validator, counter);
+      } else {
+        convertDirectory(inputFile, writer, validator, counter);
+      }
 
       return counter.get();
 
@@ -72,14 +70,47 @@ public class ExtendedRecordConverter {
     }
   }
 
-  /** Traverse the input directory and gets all the files. */
-  private List<File> getInputFiles(File inputhFile) throws IOException {
-    Predicate<Path> prefixPr =
-        x -> x.toString().endsWith(FILE_PREFIX_RESPONSE) || x.toString().endsWith(FILE_PREFIX_XML);
-    try (Stream<Path> walk =
-        Files.walk(inputhFile.toPath())
-            .filter(file -> file.toFile().isFile() && prefixPr.test(file))) {
-      return walk.map(Path::toFile).collect(Collectors.toList());
-    }
+  /** Runs a task per file - read a file, convert to ExtendedRecord and write to Avro */
+  private void convertDirectory(
+      File inputFile,
+      SyncDataFileWriter<ExtendedRecord> writer,
+      UniquenessValidator validator,
+      AtomicLong counter)
+      throws Exception {
+
+    Function<File, ConverterTask> taskFn = f -> new ConverterTask(f, writer, validator, counter);
+
+    CompletableFuture<?>[] futures =
+        ParserFileUtils.getXmlFiles(inputFile).stream()
+            .map(file -> CompletableFuture.runAsync(taskFn.apply(file), executor))
+            .toArray(CompletableFuture[]::new);
+
+    // Wait all threads
+    CompletableFuture.allOf(futures).get();
+  }
+
+  /** Runs a task per archive entry, while the next entries are being decompressed */
+  private void convertArchive(
+      File inputFile,
+      SyncDataFileWriter<ExtendedRecord> writer,
+      UniquenessValidator validator,
+      AtomicLong counter)
+      throws Exception {
+
+    Semaphore pending = new Semaphore(maxPendingEntries);
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+
+    ParserFileUtils.readXmlEntries(
+        inputFile,
+        (name, content) -> {
+          log.debug("Converting archive entry {}", name);
+          pending.acquireUninterruptibly();
+          ConverterTask task = new ConverterTask(content, writer, validator, counter);
+          futures.add(
+              CompletableFuture.runAsync(task, executor).whenComplete((r, e) -> pending.release()));
+        });
+
+    // Wait all threads
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
   }
 }
@@ -63,6 +63,9 @@ public class OccurrenceParser {
   public static final String ADD_RECORD_AS_XML = "addRecordAsXml";
   public static final String SET_ABCD_1_HEADER = "setAbcd1Header";
 
+  /** Configured record extraction Digester, reused by a thread for all files it parses */
+  private static final ThreadLocal<Digester> DIGESTER = new ThreadLocal<>();
+
   public static List<RawXmlOccurrence> parse(File file) {
     return new OccurrenceParser().parseFile(file);
   }
@@ -231,10 +234,34 @@ public class OccurrenceParser {
   private void parse(InputSource inputSource, ParsedSearchResponse responseBody)
       throws ParserConfigurationException, SAXException, IOException {
 
+    Digester digester = DIGESTER.get();
+    if (digester == null) {
+      digester = createDigester();
+      DIGESTER.set(digester);
+    }
+    digester.clear();
+    digester.push(responseBody);
+
+    boolean isParsed = false;
+    try {
+      digester.parse(inputSource);
+      isParsed = true;
+    } finally {
+      // The pooled instance must not keep the parsed response reachable between files
+      digester.clear();
+      digester.resetRoot();
+      // Failed parses are expected while trying charsets, such instance is not reused
+      if (!isParsed) {
+        DIGESTER.remove();
+      }
+    }
+  }
+
+  /** Creates a Digester with the record extraction rules, the instance is reused by a thread */
+  private static Digester createDigester() throws ParserConfigurationException {
     Digester digester = new Digester();
     digester.setNamespaceAware(true);
     digester.setValidating(false);
-    digester.push(responseBody);
 
     NodeCreateRule rawAbcd = new NodeCreateRule();
     digester.addRule(ExtractionSimpleXPaths.ABCD_RECORD_XPATH, rawAbcd);
@@ -258,7 +285,7 @@ public class OccurrenceParser {
     digester.addRule(ExtractionSimpleXPaths.DWC_2009_RECORD_XPATH, rawDwc2009);
     digester.addSetNext(ExtractionSimpleXPaths.DWC_2009_RECORD_XPATH, ADD_RECORD_AS_XML);
 
-    digester.parse(inputSource);
+    return digester;
   }
 
   private List<RawOccurrenceRecord> parseRawXmlToRor(List<RawXmlOccurrence> rawRecords) {
@@ -1,40 +1,63 @@
 package org.gbif.converters.parser.xml.parsing.extendedrecord;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.gbif.converters.parser.xml.OccurrenceParser;
 import org.gbif.converters.parser.xml.model.RawOccurrenceRecord;
+import org.gbif.converters.parser.xml.parsing.RawXmlOccurrence;
 import org.gbif.converters.parser.xml.parsing.validators.UniquenessValidator;
 import org.gbif.converters.parser.xml.parsing.xml.XmlFragmentParser;
 import org.gbif.pipelines.core.io.SyncDataFileWriter;
 import org.gbif.pipelines.io.avro.ExtendedRecord;
 
 /**
- * The task for CompletableFuture which reads a xml response file, parses and converts to
- * ExtendedRecord avro file
+ * The task for CompletableFuture which reads a xml response file or an archive entry, parses and
+ * converts to ExtendedRecord avro file
  */
 @Slf4j
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ConverterTask implements Runnable {
 
-  private final File inputFile;
+  private final Supplier<List<RawXmlOccurrence>> xmlSupplier;
   private final SyncDataFileWriter<ExtendedRecord> dataFileWriter;
   private final UniquenessValidator validator;
   private final AtomicLong counter;
 
+  public ConverterTask(
+      File inputFile,
+      SyncDataFileWriter<ExtendedRecord> dataFileWriter,
+      UniquenessValidator validator,
+      AtomicLong counter) {
+    this(() -> new OccurrenceParser().parseFile(inputFile), dataFileWriter, validator, counter);
+  }
+
+  public ConverterTask(
+      byte[] xmlContent,
+      SyncDataFileWriter<ExtendedRecord> dataFileWriter,
+      UniquenessValidator validator,
+      AtomicLong counter) {
+    this(
+        () -> new OccurrenceParser().parseStream(new ByteArrayInputStream(xmlContent)),
+        dataFileWriter,
+        validator,
+        counter);
+  }
+
   /**
    * Converts list of {@link org.gbif.converters.parser.xml.parsing.RawXmlOccurrence} into list of
    * {@link RawOccurrenceRecord} and appends AVRO file
    */
   @Override
   public void run() {
-    new OccurrenceParser()
-        .parseFile(inputFile).stream()
-            .map(XmlFragmentParser::parseRecord)
-            .forEach(this::appendRawOccurrenceRecords);
+    xmlSupplier.get().stream()
+        .map(XmlFragmentParser::parseRecord)
+        .forEach(this::appendRawOccurrenceRecords);
   }
 
   /**
@@ -1,28 +1,39 @@
 package org.gbif.converters.parser.xml.parsing.extendedrecord;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
-import java.util.function.BinaryOperator;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.utils.IOUtils;
 import org.gbif.converters.parser.xml.ParsingException;
 
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ParserFileUtils {
 
-  private static final BinaryOperator<String> UNCOMPRESS =
-      (inPath, outPath) -> String.format("tar -xf %s -C %s", inPath, outPath);
   private static final String ARCHIVE_PREFIX = ".tar.xz";
-  private static final String TMP_PATH = "/tmp/";
+  private static final String FILE_PREFIX_RESPONSE = ".response";
+  private static final String FILE_PREFIX_XML = ".xml";
 
   /**
    * @param inputPath path to a folder with xmls or a tar.xz archive
-   * @return the new File object, path to xml files folder
+   * @return the new File object, path to xml files folder or the archive
    */
-  public static File uncompressAndGetInputFile(String inputPath) {
+  public static File getInputFile(String inputPath) {
     // Check directory
     File inputFile = new File(inputPath);
     if (!inputFile.exists()) {
@@ -30,33 +41,58 @@ public class ParserFileUtils {
           "Directory or file " + inputFile.getAbsolutePath() + " does not exist");
     }
 
-    // Uncompress if it is a tar.xz
-    if (inputFile.isFile()) {
-      if (!inputFile.getPath().endsWith(ARCHIVE_PREFIX)) {
-        throw new ParsingException("Wrong archive extension -" + inputFile.getAbsolutePath());
-      }
-      return uncompress(inputFile);
+    // Check the archive extension
+    if (inputFile.isFile() && !isArchive(inputFile)) {
+      throw new ParsingException("Wrong archive extension -" + inputFile.getAbsolutePath());
     }
 
     return inputFile;
   }
 
+  /** @return true if the file is a tar.xz archive */
+  public static boolean isArchive(File inputFile) {
+    return inputFile.isFile() && inputFile.getPath().endsWith(ARCHIVE_PREFIX);
+  }
+
+  /** @return true if the file or the archive entry name is a xml response */
+  public static boolean isXmlResponse(String name) {
+    return name.endsWith(FILE_PREFIX_RESPONSE) || name.endsWith(FILE_PREFIX_XML);
+  }
+
+  /** Traverse the input directory and gets all the xml response files. */
+  public static List<File> getXmlFiles(File inputFile) throws IOException {
+    Predicate<Path> prefixPr = x -> isXmlResponse(x.toString());
+    try (Stream<Path> walk =
+        Files.walk(inputFile.toPath())
+            .filter(file -> file.toFile().isFile() && prefixPr.test(file))) {
+      return walk.map(Path::toFile).collect(Collectors.toList());
+    }
+  }
+
   /**
-   * Uncompress a tar.xz archive
+   * Decompresses a tar.xz archive as a stream, nothing is written to disk. Every xml response entry
+   * is read into memory and passed to the consumer as soon as it is read, in the archive order.
    *
    * @param inputFile - *.tar.xz file
-   * @return the new File object, path to uncompressed files folder
+   * @param entryConsumer receives the entry name and the entry content
    */
-  @SneakyThrows
-  public static File uncompress(File inputFile) {
-    File parentFile = new File(inputFile.getParentFile(), TMP_PATH);
-    Files.createDirectories(parentFile.toPath());
-    String cmd = UNCOMPRESS.apply(inputFile.getAbsolutePath(), parentFile.getAbsolutePath());
-
-    log.info("Uncompressing a tar.xz archive {}", cmd);
-    Runtime.getRuntime().exec(cmd).waitFor();
-    log.info("The archive has been uncompressed");
-
-    return parentFile;
+  public static void readXmlEntries(File inputFile, BiConsumer<String, byte[]> entryConsumer)
+      throws IOException {
+    log.info("Reading the tar.xz archive {}", inputFile.getAbsolutePath());
+    int counter = 0;
+    try (InputStream fis = new BufferedInputStream(new FileInputStream(inputFile));
+        XZCompressorInputStream xzis = new XZCompressorInputStream(fis);
+        TarArchiveInputStream tis = new TarArchiveInputStream(xzis)) {
+      TarArchiveEntry entry;
+      while ((entry = tis.getNextTarEntry()) != null) {
+        // Skip AppleDouble metadata files, e.g. ._name.response
+        String fileName = new File(entry.getName()).getName();
+        if (entry.isFile() && !fileName.startsWith("._") && isXmlResponse(fileName)) {
+          entryConsumer.accept(entry.getName(), IOUtils.toByteArray(tis));
+          counter++;
+        }
+      }
+    }
+    log.info("The archive has been read, {} xml entries", counter);
   }
 }
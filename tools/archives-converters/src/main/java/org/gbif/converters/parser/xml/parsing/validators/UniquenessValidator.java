@@ -1,49 +1,72 @@
 package org.gbif.converters.parser.xml.parsing.validators;
 
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.mapdb.HTreeMap;
 import org.mapdb.Serializer;
 
 /**
- * Validates the uniqueness of the String IDs passed using a map backed by a temp file. It uses the
- * mapdb library to implement the map (http://www.mapdb.org/).
+ * Validates the uniqueness of the String IDs passed.
+ *
+ * <p>IDs are kept in memory as 128-bit murmur3 hashes in a concurrent set, so the common case
+ * doesn't create any files. Once the number of IDs exceeds the configured limit, new IDs are
+ * spilled to a map backed by a temp file. It uses the mapdb library to implement the map
+ * (http://www.mapdb.org/). Spilled IDs are guarded by Guava Bloom filters, the disk map is read
+ * only when a filter reports that an ID might have been seen, new IDs are written in batches.
+ *
+ * <p>The class is thread safe. Calls are serialized per stripe of the hash space only, so the same
+ * ID is always checked by one thread at a time, while different IDs are checked in parallel. Each
+ * stripe keeps its own Bloom filter and batch of new IDs, as Guava Bloom filters can't be updated
+ * concurrently.
  *
  * <p>This class is intended to be used per process that needs this validation, so a new instance
- * has to be created each time. At the moment of creating the instance, a {@link DB} backed by a
- * temp file is created.
+ * has to be created each time.
  *
  * <p>Keep in mind that {@link UniquenessValidator#close()} has to be called when finishing the
  * validation in order to release the resources used. Also notice that the class implements the
  * {@link AutoCloseable} interface.
  */
+@Slf4j
 public class UniquenessValidator implements AutoCloseable {
 
-  private final DB dbDisk;
-  private final HTreeMap.KeySet<String> setOnDisk;
+  /** Default number of IDs kept in memory, ~100MB of hashes */
+  public static final int DEFAULT_MAX_IN_MEMORY_IDS = 1_000_000;
 
-  private UniquenessValidator() {
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+  private static final Funnel<HashCode> HASH_FUNNEL =
+      (hash, into) -> into.putBytes(hash.asBytes());
+  private static final int STRIPES = 16;
+  private static final int EXPECTED_SPILLED_IDS = 10_000_000;
+  private static final double BLOOM_FALSE_POSITIVES = 0.01d;
+  private static final int SPILL_BATCH_SIZE = 1_000;
 
-    // create database in disk.
-    // The fileChannelEnable is set to be used only when mmap is not supported (mapdb does it
-    // internally).
-    // cleanerHackEnable is a workaround for a JVM bug
-    // (https://jankotek.gitbooks.io/mapdb/content/performance/).
-    dbDisk =
-        DBMaker.tempFileDB()
-            .fileMmapEnableIfSupported()
-            .cleanerHackEnable()
-            .fileChannelEnable()
-            .make();
+  private final int maxInMemoryIds;
+  private final Set<HashCode> memorySet = ConcurrentHashMap.newKeySet();
+  private final Stripe[] stripes = new Stripe[STRIPES];
 
-    // prefix name to create the map
-    long time = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+  // Spill structures, created when the in memory limit is exceeded
+  private volatile boolean spilled;
+  private DB dbDisk;
+  private HTreeMap.KeySet<String> setOnDisk;
 
-    // map to store the values
-    setOnDisk = dbDisk.hashSet(time + "-disk").serializer(Serializer.STRING).createOrOpen();
+  private UniquenessValidator(int maxInMemoryIds) {
+    this.maxInMemoryIds = maxInMemoryIds;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
   }
 
   /**
@@ -52,7 +75,17 @@ public class UniquenessValidator implements AutoCloseable {
    * @return {@link UniquenessValidator}
    */
   public static UniquenessValidator getNewInstance() {
-    return new UniquenessValidator();
+    return new UniquenessValidator(DEFAULT_MAX_IN_MEMORY_IDS);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxInMemoryIds number of IDs kept in memory before spilling to disk
+   * @return {@link UniquenessValidator}
+   */
+  public static UniquenessValidator getNewInstance(int maxInMemoryIds) {
+    return new UniquenessValidator(maxInMemoryIds);
   }
 
   /**
@@ -63,14 +96,93 @@ public class UniquenessValidator implements AutoCloseable {
    */
   public boolean isUnique(String id) {
     Objects.requireNonNull(id, "ID is required");
-    // this set returns false when a value is inserted
-    return setOnDisk.add(id);
+
+    HashCode hash = HASH_FUNCTION.hashString(id, StandardCharsets.UTF_8);
+    Stripe stripe = stripes[hash.asInt() & (STRIPES - 1)];
+
+    synchronized (stripe) {
+      if (!spilled) {
+        boolean isAdded = memorySet.add(hash);
+        if (isAdded && memorySet.size() >= maxInMemoryIds) {
+          spill();
+        }
+        return isAdded;
+      }
+
+      // IDs seen before the spill
+      if (memorySet.contains(hash)) {
+        return false;
+      }
+
+      // Definitely a new ID, no disk access
+      if (!stripe.bloomFilter.mightContain(hash)) {
+        stripe.bloomFilter.put(hash);
+        stripe.addPending(id);
+        return true;
+      }
+
+      // Exact verification for Bloom positives
+      if (stripe.pending.contains(id) || setOnDisk.contains(id)) {
+        return false;
+      }
+      stripe.addPending(id);
+      return true;
+    }
+  }
+
+  private synchronized void spill() {
+    if (spilled) {
+      return;
+    }
+    log.info("Number of IDs exceeded {}, spilling new IDs to disk", maxInMemoryIds);
+
+    // create database in disk.
+    // The fileChannelEnable is set to be used only when mmap is not supported (mapdb does it
+    // internally).
+    // cleanerHackEnable is a workaround for a JVM bug
+    // (https://jankotek.gitbooks.io/mapdb/content/performance/).
+    dbDisk =
+        DBMaker.tempFileDB()
+            .fileMmapEnableIfSupported()
+            .cleanerHackEnable()
+            .fileChannelEnable()
+            .make();
+
+    // prefix name to create the map
+    long time = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+
+    // map to store the values, mapdb maps are thread safe
+    setOnDisk = dbDisk.hashSet(time + "-disk").serializer(Serializer.STRING).createOrOpen();
+
+    for (Stripe stripe : stripes) {
+      stripe.bloomFilter =
+          BloomFilter.create(HASH_FUNNEL, EXPECTED_SPILLED_IDS / STRIPES, BLOOM_FALSE_POSITIVES);
+      stripe.pending = new HashSet<>();
+    }
+
+    // Stripes read the spill structures after the volatile write
+    spilled = true;
   }
 
   @Override
-  public void close() {
-    if (!dbDisk.isClosed()) {
+  public synchronized void close() {
+    if (dbDisk != null && !dbDisk.isClosed()) {
       dbDisk.close();
     }
   }
+
+  /** Bloom filter and batch of new IDs of a part of the hash space, guarded by the stripe lock */
+  private class Stripe {
+
+    private BloomFilter<HashCode> bloomFilter;
+    private Set<String> pending;
+
+    private void addPending(String id) {
+      pending.add(id);
+      if (pending.size() >= SPILL_BATCH_SIZE) {
+        setOnDisk.addAll(pending);
+        pending.clear();
+      }
+    }
+  }
 }
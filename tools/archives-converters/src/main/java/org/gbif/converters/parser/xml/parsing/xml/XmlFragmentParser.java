@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -55,6 +56,13 @@ public class XmlFragmentParser {
 
   private static final Map<OccurrenceSchemaType, RuleSet> RULE_SETS = Maps.newHashMap();
 
+  /**
+   * A Digester is not thread safe, but can be reused after a parse, every thread keeps one
+   * configured instance per schema type to avoid registering all the rules for every fragment
+   */
+  private static final ThreadLocal<Map<OccurrenceSchemaType, Digester>> DIGESTERS =
+      ThreadLocal.withInitial(() -> new EnumMap<>(OccurrenceSchemaType.class));
+
   // static class, should never be instantiated
   private XmlFragmentParser() {}
 
@@ -105,17 +113,37 @@ public class XmlFragmentParser {
   private static List<RawOccurrenceRecord> parseRecord(
       InputSource inputSource, OccurrenceSchemaType schemaType) throws IOException, SAXException {
     RawOccurrenceRecordBuilder builder = new RawOccurrenceRecordBuilder();
-    Digester digester = new Digester();
-    digester.setNamespaceAware(true);
-    digester.setValidating(false);
+    Map<OccurrenceSchemaType, Digester> digesters = DIGESTERS.get();
+    Digester digester = digesters.computeIfAbsent(schemaType, XmlFragmentParser::createDigester);
+    digester.clear();
     digester.push(builder);
-    digester.addRuleSet(RULE_SETS.get(schemaType));
-    digester.parse(inputSource);
+
+    boolean isParsed = false;
+    try {
+      digester.parse(inputSource);
+      isParsed = true;
+    } finally {
+      // The pooled instance must not keep the parsed record reachable between fragments
+      digester.clear();
+      digester.resetRoot();
+      // Rules can keep a state after a failed parse, such instance is not reused
+      if (!isParsed) {
+        digesters.remove(schemaType);
+      }
+    }
 
     builder.resolvePriorities();
     return builder.generateRawOccurrenceRecords();
   }
 
+  private static Digester createDigester(OccurrenceSchemaType schemaType) {
+    Digester digester = new Digester();
+    digester.setNamespaceAware(true);
+    digester.setValidating(false);
+    digester.addRuleSet(RULE_SETS.get(schemaType));
+    return digester;
+  }
+
   /**
    * This method is a hack to return a single result where ScientificName matches the given
    * unitQualifier. This behaviour is only relevant for ABCD 2.06 - the others all produce a single
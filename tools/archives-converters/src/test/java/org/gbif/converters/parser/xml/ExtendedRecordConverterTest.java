@@ -118,14 +118,16 @@ public class ExtendedRecordConverterTest {
     String inputPath = getTestInputPath() + "61.tar.xz";
 
     // When
+    long count;
     try (OutputStream output = new FileOutputStream(getTestOutPath());
         SyncDataFileWriter<ExtendedRecord> dataFileWrite = createWriter(output)) {
-      ExtendedRecordConverter.create(number).toAvro(inputPath, dataFileWrite);
+      count = ExtendedRecordConverter.create(number).toAvro(inputPath, dataFileWrite);
     }
 
     // Should
     File verbatim = new File(getTestOutPath());
     Assert.assertTrue(verbatim.exists());
+    Assert.assertTrue(count > 0);
     Files.deleteIfExists(verbatim.toPath());
   }
 
@@ -0,0 +1,80 @@
+package org.gbif.converters.parser.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests the {@link OccurrenceParser} with Digesters reused by a thread. */
+public class OccurrenceParserTest {
+
+  /**
+   * Every response is parsed by a new thread, with a new Digester, the same as before Digesters
+   * were reused. The output must be the same when all responses are parsed twice by one thread,
+   * including the problematic ones which fail with some charsets.
+   */
+  @Test
+  public void reusedDigesterOutputTest() throws Exception {
+
+    // State
+    List<File> files;
+    try (Stream<Path> paths =
+        Files.walk(Paths.get(getClass().getResource("/responses").getFile()))) {
+      files =
+          paths
+              .filter(p -> p.toString().endsWith(".gz"))
+              .sorted()
+              .map(Path::toFile)
+              .collect(Collectors.toList());
+    }
+    Assert.assertFalse(files.isEmpty());
+
+    List<byte[]> expected = new ArrayList<>();
+    for (File file : files) {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        expected.add(executor.submit(() -> parse(file)).get());
+      } finally {
+        executor.shutdown();
+      }
+    }
+
+    // When
+    List<byte[]> first = new ArrayList<>();
+    List<byte[]> second = new ArrayList<>();
+    for (File file : files) {
+      first.add(parse(file));
+    }
+    for (File file : files) {
+      second.add(parse(file));
+    }
+
+    // Should
+    for (int i = 0; i < files.size(); i++) {
+      Assert.assertArrayEquals(files.get(i).getName(), expected.get(i), first.get(i));
+      Assert.assertArrayEquals(files.get(i).getName(), expected.get(i), second.get(i));
+    }
+  }
+
+  /** Serialized records, the parsed classes don't implement equals */
+  private static byte[] parse(File file) throws IOException {
+    OccurrenceParser parser = new OccurrenceParser();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(output)) {
+      oos.writeObject(new ArrayList<>(parser.parseResponseFileToRawXml(file)));
+      oos.writeObject(new ArrayList<>(parser.parseResponseFileToRor(file)));
+    }
+    return output.toByteArray();
+  }
+}
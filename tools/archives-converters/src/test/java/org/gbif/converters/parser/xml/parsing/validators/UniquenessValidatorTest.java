@@ -4,7 +4,11 @@ import com.google.common.base.Stopwatch;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -65,6 +69,60 @@ public class UniquenessValidatorTest {
     }
   }
 
+  @Test
+  public void givenSpilledIdsWhenMappedThenDuplicatesFound() {
+    // spill to disk after 100 ids
+    int limit = 100;
+    int n = 25_000;
+
+    try (UniquenessValidator validator = UniquenessValidator.getNewInstance(limit)) {
+      for (int i = 0; i < n; i++) {
+        Assert.assertTrue(validator.isUnique("id-" + i));
+      }
+
+      // in memory, pending and on disk ids
+      for (int i = 0; i < n; i += 7) {
+        Assert.assertFalse(validator.isUnique("id-" + i));
+      }
+
+      Assert.assertTrue(validator.isUnique("id-" + n));
+      Assert.assertFalse(validator.isUnique("id-" + n));
+    }
+  }
+
+  @Test
+  public void givenConcurrentDuplicatesWhenMappedThenEachIdIsUniqueOnce() throws Exception {
+    // spill to disk after 1000 ids, while the threads are running
+    int limit = 1_000;
+    int n = 20_000;
+    int threads = 4;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (UniquenessValidator validator = UniquenessValidator.getNewInstance(limit)) {
+      AtomicInteger unique = new AtomicInteger();
+      Future<?>[] futures = new Future[threads];
+      // every thread checks all ids
+      for (int t = 0; t < threads; t++) {
+        futures[t] =
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < n; i++) {
+                    if (validator.isUnique("id-" + i)) {
+                      unique.incrementAndGet();
+                    }
+                  }
+                });
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      Assert.assertEquals(n, unique.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void givenNullIdWhenMappedThenExceptionThrown() {
     thrown.expect(NullPointerException.class);
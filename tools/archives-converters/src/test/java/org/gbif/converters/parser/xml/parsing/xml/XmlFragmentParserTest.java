@@ -34,6 +34,25 @@ public class XmlFragmentParserTest {
     assertEquals("Oschütz", results.get(0).getCollectorName());
   }
 
+  @Test
+  public void testReuseAfterBrokenFragment() throws IOException {
+    String xml =
+        Resources.toString(
+            Resources.getResource("id_extraction/abcd1_umlaut.xml"), StandardCharsets.UTF_8);
+
+    // A broken fragment must not affect the next parses in the same thread
+    List<RawOccurrenceRecord> broken =
+        XmlFragmentParser.parseRecord(
+            xml.substring(0, xml.length() / 2), OccurrenceSchemaType.ABCD_1_2);
+    assertTrue(broken.isEmpty());
+
+    for (int i = 0; i < 2; i++) {
+      List<RawOccurrenceRecord> results = XmlFragmentParser.parseRecord(createFakeOcc(xml));
+      assertEquals(1, results.size());
+      assertEquals("Oschütz", results.get(0).getCollectorName());
+    }
+  }
+
   @Test
   public void testIdExtractionSimple() throws IOException {
     String xml =